@@ -197,4 +197,6 @@ dependencies {
     implementation(libs.expansion)
     implementation(projects.library.core)
     implementation(projects.library.common)
+
+    testImplementation(libs.junit)
 }
@@ -140,6 +140,17 @@ public class AboutPage extends DashboardFragment
     public void onResume() {
         super.onResume();
         initCardView();
+        if (mBgEffectController != null) {
+            mBgEffectController.resume();
+        }
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (mBgEffectController != null) {
+            mBgEffectController.pause();
+        }
     }
 
     @Override
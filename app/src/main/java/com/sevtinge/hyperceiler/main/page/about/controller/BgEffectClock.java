@@ -0,0 +1,73 @@
+/*
+ * This file is part of HyperCeiler.
+ *
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.main.page.about.controller;
+
+/**
+ * Ping-pong animation clock for {@link BgEffectController}, advanced by Choreographer frame
+ * times. Plain Java so frame pacing can be tested with fake timestamps.
+ */
+final class BgEffectClock {
+    // 动画时间到达该值后反向回放
+    static final float MAX_TIME = 7200.0f;
+
+    // 0 表示下一帧重新计时，避免暂停后时间跳变
+    private long mLastFrameNanos;
+    private float mTime;
+    private float mDirection = 1.0f;
+
+    /**
+     * Advances the clock to the frame time.
+     *
+     * @return seconds since the previous frame, 0 for the first frame after a restart.
+     */
+    float tick(long frameTimeNanos) {
+        float delta = this.mLastFrameNanos == 0 ? 0.0f : (float) ((frameTimeNanos - this.mLastFrameNanos) * 1.0E-9d);
+        this.mTime += delta * this.mDirection;
+        if (this.mDirection > 0.0f) {
+            if (this.mTime >= MAX_TIME) {
+                this.mDirection = -1.0f;
+            }
+        } else if (this.mTime <= 0.0f) {
+            this.mDirection = 1.0f;
+        }
+        this.mLastFrameNanos = frameTimeNanos;
+        return delta;
+    }
+
+    /**
+     * Keeps the animation time but makes the next frame start a new delta.
+     */
+    void restart() {
+        this.mLastFrameNanos = 0;
+    }
+
+    void reset() {
+        this.mLastFrameNanos = 0;
+        this.mTime = 0.0f;
+        this.mDirection = 1.0f;
+    }
+
+    float getTime() {
+        return this.mTime;
+    }
+
+    float getDirection() {
+        return this.mDirection;
+    }
+}
@@ -20,8 +20,11 @@
 package com.sevtinge.hyperceiler.main.page.about.controller;
 
 import android.content.Context;
+import android.graphics.Rect;
+import android.view.Choreographer;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 
 import com.sevtinge.hyperceiler.R;
 import com.sevtinge.hyperceiler.main.page.about.view.BgEffectPainter;
@@ -30,14 +33,16 @@ import fan.appcompat.app.ActionBar;
 import fan.internal.utils.ViewUtils;
 import fan.os.Build;
 
-public class BgEffectController implements Runnable {
+public class BgEffectController implements Choreographer.FrameCallback,
+        View.OnAttachStateChangeListener, ViewTreeObserver.OnPreDrawListener {
     private float[] bound;
     BgEffectPainter mBgEffectPainter;
-    private float mDeltaTime;
-    private long mLastGlobalTime;
+    private final BgEffectClock mClock = new BgEffectClock();
     private final View mTarget;
-    private float mTime;
-    private float mTimeDirection = 1.0f;
+    private final Rect mVisibleRect = new Rect();
+    private boolean mPaused;
+    private boolean mFrameScheduled;
+    private Choreographer mChoreographer;
 
     public BgEffectController(View view) {
         this.mTarget = view;
@@ -46,50 +51,94 @@ public class BgEffectController implements Runnable {
     public void start() {
         if (this.mBgEffectPainter == null) {
             this.mBgEffectPainter = new BgEffectPainter(this.mTarget.getContext());
-            this.mLastGlobalTime = System.nanoTime();
             resetTime();
-            this.mTarget.post(this);
+            this.mChoreographer = Choreographer.getInstance();
+            this.mTarget.addOnAttachStateChangeListener(this);
+            if (this.mTarget.isAttachedToWindow()) {
+                this.mTarget.getViewTreeObserver().addOnPreDrawListener(this);
+            }
+            scheduleFrame();
         }
     }
 
+    /**
+     * 页面 onPause 时调用，停止逐帧回调
+     */
+    public void pause() {
+        this.mPaused = true;
+        cancelFrame();
+    }
+
+    public void resume() {
+        this.mPaused = false;
+        scheduleFrame();
+    }
+
     @Override
-    public void run() {
-        if (this.mBgEffectPainter != null) {
-            tickPingPong();
-            this.mBgEffectPainter.setResolution(this.mTarget.getWidth(), this.mTarget.getHeight());
-            this.mBgEffectPainter.updateMaterials(this.mDeltaTime);
-            this.mTarget.setRenderEffect(this.mBgEffectPainter.getRenderEffect());
-            this.mTarget.postDelayed(this, 16L);
+    public void doFrame(long frameTimeNanos) {
+        this.mFrameScheduled = false;
+        if (this.mBgEffectPainter == null || this.mPaused) return;
+        if (!isTargetVisible()) {
+            // 不可见时不再请求下一帧，由 onPreDraw 在重新可见时唤醒
+            this.mClock.restart();
+            return;
         }
+        float deltaTime = this.mClock.tick(frameTimeNanos);
+        this.mBgEffectPainter.setResolution(this.mTarget.getWidth(), this.mTarget.getHeight());
+        this.mBgEffectPainter.updateMaterials(deltaTime);
+        this.mTarget.setRenderEffect(this.mBgEffectPainter.getRenderEffect());
+        scheduleFrame();
     }
 
-    private void tickPingPong() {
-        long nanoTime = System.nanoTime();
-        float f = (float) ((nanoTime - this.mLastGlobalTime) * 1.0E-9d);
-        this.mDeltaTime = f;
-        float f2 = this.mTime;
-        float f3 = this.mTimeDirection;
-        float f4 = f2 + (f * f3);
-        this.mTime = f4;
-        if (f3 > 0.0f) {
-            if (f4 >= 7200.0f) {
-                this.mTimeDirection = -1.0f;
-            }
-        } else if (f4 <= 0.0f) {
-            this.mTimeDirection = 1.0f;
+    @Override
+    public boolean onPreDraw() {
+        if (!this.mFrameScheduled && !this.mPaused && isTargetVisible()) {
+            scheduleFrame();
+        }
+        return true;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+        v.getViewTreeObserver().addOnPreDrawListener(this);
+        scheduleFrame();
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        v.getViewTreeObserver().removeOnPreDrawListener(this);
+        cancelFrame();
+    }
+
+    private boolean isTargetVisible() {
+        return this.mTarget.isAttachedToWindow() && this.mTarget.isShown()
+                && this.mTarget.getAlpha() > 0.0f && this.mTarget.getGlobalVisibleRect(this.mVisibleRect);
+    }
+
+    private void scheduleFrame() {
+        if (this.mFrameScheduled || this.mPaused || this.mBgEffectPainter == null
+                || !this.mTarget.isAttachedToWindow()) return;
+        this.mFrameScheduled = true;
+        this.mChoreographer.postFrameCallback(this);
+    }
+
+    private void cancelFrame() {
+        if (this.mFrameScheduled) {
+            this.mChoreographer.removeFrameCallback(this);
+            this.mFrameScheduled = false;
         }
-        this.mLastGlobalTime = nanoTime;
+        this.mClock.restart();
     }
 
     public void resetTime() {
-        this.mLastGlobalTime = System.nanoTime();
-        this.mTime = 0.0f;
-        this.mTimeDirection = 1.0f;
+        this.mClock.reset();
     }
 
     public void stop() {
         if (this.mBgEffectPainter != null) {
-            this.mTarget.removeCallbacks(this);
+            cancelFrame();
+            this.mTarget.removeOnAttachStateChangeListener(this);
+            this.mTarget.getViewTreeObserver().removeOnPreDrawListener(this);
             this.mBgEffectPainter.stop();
             this.mBgEffectPainter = null;
             this.mTarget.setRenderEffect(null);
@@ -55,6 +55,13 @@ public class BgEffectPainter {
     private float prevT = 0.0f;
     private final float colorInterpT = 0.0f;
     private final float gradientSpeed = 1.0f;
+    private final Runnable mGradientSpeedResetRunnable = new GradientSpeedResetRunnable();
+    // 上次上传的取值，未变化时跳过 setFloatUniform
+    private float[] uploadedStartColor;
+    private float[] uploadedEndColor;
+    private float uploadedColorInterpT = Float.NaN;
+    private float uploadedWidth = -1.0f;
+    private float uploadedHeight = -1.0f;
 
     public BgEffectPainter(Context context) {
         this.cycleCount = 0.0f;
@@ -109,12 +116,16 @@ public class BgEffectPainter {
 
     public void updateMaterials(float f) {
         this.uAnimTime += f * this.gradientSpeed;
-        computeGradientColor();
         this.mBgRuntimeShader.setFloatUniform("uAnimTime", this.uAnimTime);
-        this.mBgRuntimeShader.setFloatUniform("uColors", this.uColors);
+        if (computeGradientColor()) {
+            this.mBgRuntimeShader.setFloatUniform("uColors", this.uColors);
+        }
     }
 
     public void setResolution(float f, float f2) {
+        if (f == this.uploadedWidth && f2 == this.uploadedHeight) return;
+        this.uploadedWidth = f;
+        this.uploadedHeight = f2;
         this.mBgRuntimeShader.setFloatUniform("uResolution", f, f2);
     }
 
@@ -142,7 +153,10 @@ public class BgEffectPainter {
         }
     }
 
-    private void computeGradientColor() {
+    /**
+     * @return whether uColors changed since the last upload
+     */
+    private boolean computeGradientColor() {
         double d = this.uAnimTime / this.mBgEffectData.colorInterpPeriod;
         float floor = (float) Math.floor((d - Math.floor(d)) * 2.0d);
         if (Math.abs(this.prevT - floor) > 0.5d) {
@@ -171,7 +185,16 @@ public class BgEffectPainter {
             this.cycleCount += 1.0f;
         }
         this.prevT = floor;
-        linearInterpolate(this.uColors, this.startColorValue, this.endColorValue, this.colorInterpT);
+        float interpT = this.colorInterpT;
+        if (this.startColorValue == this.uploadedStartColor && this.endColorValue == this.uploadedEndColor
+                && interpT == this.uploadedColorInterpT) {
+            return false;
+        }
+        this.uploadedStartColor = this.startColorValue;
+        this.uploadedEndColor = this.endColorValue;
+        this.uploadedColorInterpT = interpT;
+        linearInterpolate(this.uColors, this.startColorValue, this.endColorValue, interpT);
+        return true;
     }
 
     private void executeAnim() {
@@ -180,7 +203,8 @@ public class BgEffectPainter {
             iStateStyle.setTo("colorInterpT", 0.0f);
             this.stateStyle.to("colorInterpT", 1.0f, this.animConfig1);
             this.stateStyle.to("gradientSpeed", this.mBgEffectData.gradientSpeedChange, this.animConfig1);
-            this.mHandler.postDelayed(new GradientSpeedResetRunnable(), 300L);
+            this.mHandler.removeCallbacks(this.mGradientSpeedResetRunnable);
+            this.mHandler.postDelayed(this.mGradientSpeedResetRunnable, 300L);
         }
     }
 
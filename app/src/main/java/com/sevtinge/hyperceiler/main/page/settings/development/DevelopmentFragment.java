@@ -84,6 +84,7 @@ public class DevelopmentFragment extends SettingsPreferenceFragment implements P
                     rootExecCmd("resetprop -p --delete persist.hyperceiler.log.level");
                     rootExecCmd("resetprop -p --delete persist.service.hyperceiler.crash.report");
                     rootExecCmd("resetprop -p --delete persist.hyperceiler.crash.report");
+                    rootExecCmd("resetprop -p --delete persist.service.hyperceiler.crash.hooks");
                     Toast.makeText(getActivity(), R.string.clear_app_properties_success, Toast.LENGTH_LONG).show();
                 });
             }
@@ -19,6 +19,7 @@
 package com.sevtinge.hyperceiler.main.page.settings.development;
 
 import android.os.Handler;
+import android.system.OsConstants;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.EditText;
@@ -29,12 +30,10 @@ import androidx.preference.Preference;
 import com.sevtinge.hyperceiler.common.model.data.AppData;
 import com.sevtinge.hyperceiler.common.utils.PackagesUtils;
 import com.sevtinge.hyperceiler.dashboard.SettingsPreferenceFragment;
-import com.sevtinge.hyperceiler.hook.module.base.tool.AppsTool;
 import com.sevtinge.hyperceiler.hook.utils.ContextUtils;
 import com.sevtinge.hyperceiler.hook.utils.ThreadPoolManager;
 import com.sevtinge.hyperceiler.hook.utils.ToastHelper;
-import com.sevtinge.hyperceiler.hook.utils.shell.ShellExec;
-import com.sevtinge.hyperceiler.hook.utils.shell.ShellInit;
+import com.sevtinge.hyperceiler.hook.utils.shell.ProcScanner;
 import com.sevtinge.hyperceiler.core.R;
 
 import java.util.ArrayList;
@@ -47,7 +46,6 @@ public class DevelopmentKillFragment extends SettingsPreferenceFragment implemen
     private List<AppData> appData = new ArrayList<>();
     private boolean init = false;
     Handler handler;
-    ShellExec mShell;
     Preference mKillPackage;
 
     Preference mName;
@@ -74,7 +72,6 @@ public class DevelopmentKillFragment extends SettingsPreferenceFragment implemen
         mCheck.setOnPreferenceClickListener(this);
         mName.setOnPreferenceClickListener(this);
         mKillPackage.setOnPreferenceClickListener(this);
-        mShell = ShellInit.getShell();
     }
 
     @Override
@@ -95,7 +92,7 @@ public class DevelopmentKillFragment extends SettingsPreferenceFragment implemen
                     }
                     if (!(pkg == null || pkg.isEmpty())) {
                         showOutDialog(listToString("PID：       Process：\n",
-                            pidAndPkg(pkg)));
+                            describe(ProcScanner.dumpAsRoot().find(pkg))));
                         return;
                     }
                     showOutDialog("包名错误或不存在，无法查找！\n" + "\"" + userInput + "\"");
@@ -115,16 +112,7 @@ public class DevelopmentKillFragment extends SettingsPreferenceFragment implemen
                             showOutDialog("包名错误或不存在，请查证后输入！\n" + "\"" + userInput + "\"");
                             return;
                         }
-                        if (!pidAndPkg(pkg).isEmpty()) {
-                            String result = listToString("成功 Kill：\n", pidAndPkg(pkg));
-                            if (killPackage(pkg)) {
-                                showOutDialog(result);
-                            } else {
-                                showOutDialog("Kill: " + pkg + " 失败！");
-                            }
-                        } else {
-                            showOutDialog("未找到当前包名有任何正在运行的进程！\n" + "\"" + userInput + "\"");
-                        }
+                        killAndShow(pkg, userInput);
                     }
                 }
             });
@@ -139,16 +127,7 @@ public class DevelopmentKillFragment extends SettingsPreferenceFragment implemen
                             }
                         }
                         if (!(pkg == null || pkg.isEmpty())) {
-                            if (!pidAndPkg(pkg).isEmpty()) {
-                                String result = listToString("成功 Kill：\n", pidAndPkg(pkg));
-                                if (killPackage(pkg)) {
-                                    showOutDialog(result);
-                                } else {
-                                    showOutDialog("Kill: " + pkg + " 失败！");
-                                }
-                            } else {
-                                showOutDialog("未找到当前包名有任何正在运行的进程！\n" + "\"" + userInput + "\"");
-                            }
+                            killAndShow(pkg, userInput);
                         } else
                             showOutDialog("包名错误或不存在，请查证后输入！\n" + "\"" + userInput + "\"");
                     }
@@ -158,21 +137,26 @@ public class DevelopmentKillFragment extends SettingsPreferenceFragment implemen
         return true;
     }
 
-    private ArrayList<String> pidAndPkg(String pkg) {
-        mShell.add("pid=$(ps -A -o PID,ARGS=CMD | grep \"" + pkg + "\" | grep -v \"grep\")")
-            .add("if [[ $pid == \"\" ]]; then")
-            .add(" echo \"No Find Pid!\"")
-            .add("else")
-            .add(" ps -A -o PID,ARGS=CMD | grep \"" + pkg + "\" | grep -v \"grep\"")
-            .add("fi").over().sync();
-        ArrayList<String> pid = mShell.getOutPut();
-        if (pid.isEmpty()) {
-            return new ArrayList<>();
+    /*只获取一次进程表，展示与发送信号使用同一批进程*/
+    private void killAndShow(String pkg, String userInput) {
+        List<ProcScanner.Proc> procs = ProcScanner.dumpAsRoot().find(pkg);
+        if (procs.isEmpty()) {
+            showOutDialog("未找到当前包名有任何正在运行的进程！\n" + "\"" + userInput + "\"");
+            return;
+        }
+        if (ProcScanner.signal(procs, OsConstants.SIGTERM)) {
+            showOutDialog(listToString("成功 Kill：\n", describe(procs)));
+        } else {
+            showOutDialog("Kill: " + pkg + " 失败！");
         }
-        if (pid.get(0).equals("No Find Pid!")) {
-            return new ArrayList<>();
+    }
+
+    private ArrayList<String> describe(List<ProcScanner.Proc> procs) {
+        ArrayList<String> result = new ArrayList<>(procs.size());
+        for (ProcScanner.Proc proc : procs) {
+            result.add(proc.pid() + " " + proc.cmdline());
         }
-        return pid;
+        return result;
     }
 
     private String listToString(String title, ArrayList<String> arrayList) {
@@ -183,10 +167,6 @@ public class DevelopmentKillFragment extends SettingsPreferenceFragment implemen
         return s.toString();
     }
 
-    private boolean killPackage(String kill) {
-        return AppsTool.killApps(kill);
-    }
-
     private void initApp(ExecutorService executorService) {
         executorService.submit(new Runnable() {
             @Override
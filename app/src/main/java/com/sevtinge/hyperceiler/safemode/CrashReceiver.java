@@ -26,6 +26,7 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 
 import com.sevtinge.hyperceiler.hook.utils.shell.ShellInit;
+import com.sevtinge.hyperceiler.utils.NotificationUtils;
 
 public class CrashReceiver extends BroadcastReceiver {
 
@@ -36,8 +37,15 @@ public class CrashReceiver extends BroadcastReceiver {
     private int throwLineNumber;
     private String throwMethodName;
 
+    private static final String ACTION_HOOK_DISABLED = "hyperceiler.intent.action.HOOK_DISABLED";
+
     @Override
     public void onReceive(Context context, Intent intent) {
+        if (intent != null && ACTION_HOOK_DISABLED.equals(intent.getAction())) {
+            NotificationUtils.showHookDisabledNotification(context,
+                    intent.getStringExtra("key_hook"), intent.getStringExtra("key_pkg"));
+            return;
+        }
         if (intent != null) {
             String report = intent.getStringExtra("key_all");
             String abbr = intent.getStringExtra("key_pkg");
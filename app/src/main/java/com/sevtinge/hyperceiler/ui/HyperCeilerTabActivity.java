@@ -25,7 +25,11 @@ import static com.sevtinge.hyperceiler.common.utils.PersistConfig.isLunarNewYear
 import static com.sevtinge.hyperceiler.hook.utils.devicesdk.DeviceSDKKt.isTablet;
 
 import android.annotation.SuppressLint;
+import android.content.BroadcastReceiver;
+import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -99,6 +103,7 @@ public class HyperCeilerTabActivity extends NaviBaseActivity
     private volatile List<String> appCrash = Collections.emptyList();
 
     private ExecutorService mInitExecutor;
+    private BroadcastReceiver mPackageReplacedReceiver;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -124,9 +129,13 @@ public class HyperCeilerTabActivity extends NaviBaseActivity
         final boolean restored = (savedInstanceState != null);
         final android.content.Context appCtx = getApplicationContext();
 
-        mInitExecutor.execute(() -> {
-            CHECK_LIST.parallelStream().forEach(this::checkAppMod);
+        // 签名检查结果有缓存，放在独立线程池里，避免占用公共 ForkJoinPool
+        for (String pkg : CHECK_LIST) {
+            ThreadPoolManager.getInstance().execute(() -> checkAppMod(appCtx, pkg));
+        }
+        registerPackageReplacedReceiver();
 
+        mInitExecutor.execute(() -> {
             try {
                 LogServiceUtils.init(appCtx);
             } catch (Throwable t) {
@@ -176,9 +185,28 @@ public class HyperCeilerTabActivity extends NaviBaseActivity
         }
     }
 
-    private void checkAppMod(String pkg) {
-        boolean check = CheckModifyUtils.INSTANCE.isApkModified(this, pkg, CheckModifyUtils.XIAOMI_SIGNATURE);
-        CheckModifyUtils.INSTANCE.setCheckResult(pkg, check);
+    private void checkAppMod(Context context, String pkg) {
+        boolean check = CheckModifyUtils.INSTANCE.isApkModifiedCached(context, pkg, CheckModifyUtils.XIAOMI_SIGNATURE);
+        if (CheckModifyUtils.INSTANCE.getCheckResult(context, pkg) != check) {
+            CheckModifyUtils.INSTANCE.setCheckResult(pkg, check);
+        }
+    }
+
+    private void registerPackageReplacedReceiver() {
+        mPackageReplacedReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                Uri data = intent.getData();
+                String pkg = data != null ? data.getSchemeSpecificPart() : null;
+                if (pkg == null || !CHECK_LIST.contains(pkg)) return;
+                Context appCtx = context.getApplicationContext();
+                CheckModifyUtils.INSTANCE.invalidateCachedCheck(appCtx, pkg);
+                ThreadPoolManager.getInstance().execute(() -> checkAppMod(appCtx, pkg));
+            }
+        };
+        IntentFilter filter = new IntentFilter(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addDataScheme("package");
+        registerReceiver(mPackageReplacedReceiver, filter, Context.RECEIVER_EXPORTED);
     }
 
     @SuppressLint("StringFormatInvalid")
@@ -359,6 +387,10 @@ public class HyperCeilerTabActivity extends NaviBaseActivity
     @Override
     public void onDestroy() {
         super.onDestroy();
+        if (mPackageReplacedReceiver != null) {
+            unregisterReceiver(mPackageReplacedReceiver);
+            mPackageReplacedReceiver = null;
+        }
         ShellInit.destroy();
         ThreadPoolManager.shutdown();
         mUninstallApp.clear();
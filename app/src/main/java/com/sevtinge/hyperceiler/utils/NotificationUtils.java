@@ -66,6 +66,19 @@ public class NotificationUtils {
         return notification;
     }
 
+    /**
+     * 单个 hook 因连续崩溃被自动停用时提示用户
+     */
+    public static void showHookDisabledNotification(Context context, String hookName, String scope) {
+        createAppCrashChannel(context);
+        String title = context.getString(R.string.notification_title_hook_disabled, hookName);
+        String content = context.getString(R.string.notification_content_hook_disabled, scope);
+        Intent intent = context.getPackageManager().getLaunchIntentForPackage(context.getPackageName());
+        PendingIntent pendingIntent = intent == null ? null : getActivity(context, hookName.hashCode(), intent);
+        Notification notification = buildNotification(context, CHANNEL_ID_APP_CRASH, title, content, pendingIntent, false);
+        notifyNotification(context, ("hook:" + hookName).hashCode(), notification);
+    }
+
     private static PendingIntent getActivity(Context context, int requestCode, Intent intent) {
         return PendingIntent.getActivity(context, requestCode, intent, PendingIntent.FLAG_IMMUTABLE);
     }
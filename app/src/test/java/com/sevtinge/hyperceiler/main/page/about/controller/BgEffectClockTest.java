@@ -0,0 +1,123 @@
+/*
+ * This file is part of HyperCeiler.
+ *
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.main.page.about.controller;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class BgEffectClockTest {
+    private static final long FRAME_60HZ = 16_666_667L;
+    private static final long FRAME_120HZ = 8_333_333L;
+
+    /**
+     * 模拟 Choreographer 的帧时间戳。
+     */
+    private static final class FakeFrameClock {
+        long nanos = 5_000_000_000L;
+
+        long next(long interval) {
+            nanos += interval;
+            return nanos;
+        }
+    }
+
+    @Test
+    public void firstFrameHasNoDelta() {
+        BgEffectClock clock = new BgEffectClock();
+        assertEquals(0f, clock.tick(123_456_789L), 0f);
+        assertEquals(0f, clock.getTime(), 0f);
+    }
+
+    @Test
+    public void timeFollowsFrameTimestampsAtAnyRefreshRate() {
+        FakeFrameClock frames = new FakeFrameClock();
+        BgEffectClock at60 = new BgEffectClock();
+        at60.tick(frames.nanos);
+        for (int i = 0; i < 60; i++) {
+            assertEquals(FRAME_60HZ * 1e-9f, at60.tick(frames.next(FRAME_60HZ)), 1e-6f);
+        }
+
+        frames = new FakeFrameClock();
+        BgEffectClock at120 = new BgEffectClock();
+        at120.tick(frames.nanos);
+        for (int i = 0; i < 120; i++) {
+            at120.tick(frames.next(FRAME_120HZ));
+        }
+        // 一秒后两种刷新率的动画进度一致
+        assertEquals(1.0f, at60.getTime(), 1e-4f);
+        assertEquals(1.0f, at120.getTime(), 1e-4f);
+    }
+
+    @Test
+    public void droppedFramesAdvanceByRealTime() {
+        FakeFrameClock frames = new FakeFrameClock();
+        BgEffectClock clock = new BgEffectClock();
+        clock.tick(frames.nanos);
+        clock.tick(frames.next(FRAME_60HZ));
+        // 丢了三帧
+        assertEquals(4 * FRAME_60HZ * 1e-9f, clock.tick(frames.next(4 * FRAME_60HZ)), 1e-6f);
+        assertEquals(5 * FRAME_60HZ * 1e-9f, clock.getTime(), 1e-5f);
+    }
+
+    @Test
+    public void restartDoesNotJumpAfterPause() {
+        FakeFrameClock frames = new FakeFrameClock();
+        BgEffectClock clock = new BgEffectClock();
+        clock.tick(frames.nanos);
+        for (int i = 0; i < 30; i++) clock.tick(frames.next(FRAME_60HZ));
+        float before = clock.getTime();
+
+        clock.restart();
+        // 暂停 10 秒后的第一帧
+        assertEquals(0f, clock.tick(frames.next(10_000_000_000L)), 0f);
+        assertEquals(before, clock.getTime(), 0f);
+        assertEquals(FRAME_60HZ * 1e-9f, clock.tick(frames.next(FRAME_60HZ)), 1e-6f);
+    }
+
+    @Test
+    public void reversesAtBothEnds() {
+        FakeFrameClock frames = new FakeFrameClock();
+        BgEffectClock clock = new BgEffectClock();
+        clock.tick(frames.nanos);
+        long step = 100_000_000_000L;
+        while (clock.getDirection() > 0) {
+            clock.tick(frames.next(step));
+        }
+        assertEquals(BgEffectClock.MAX_TIME, clock.getTime(), 0f);
+        while (clock.getDirection() < 0) {
+            clock.tick(frames.next(step));
+        }
+        assertEquals(0f, clock.getTime(), 0f);
+        clock.tick(frames.next(FRAME_60HZ));
+        assertEquals(FRAME_60HZ * 1e-9f, clock.getTime(), 1e-6f);
+    }
+
+    @Test
+    public void resetStartsOver() {
+        FakeFrameClock frames = new FakeFrameClock();
+        BgEffectClock clock = new BgEffectClock();
+        clock.tick(frames.nanos);
+        clock.tick(frames.next(FRAME_60HZ));
+        clock.reset();
+        assertEquals(0f, clock.getTime(), 0f);
+        assertEquals(1f, clock.getDirection(), 0f);
+        assertEquals(0f, clock.tick(frames.next(FRAME_60HZ)), 0f);
+    }
+}
@@ -0,0 +1,49 @@
+plugins {
+    alias(libs.plugins.android.library)
+}
+
+android {
+    namespace = "com.sevtinge.hyperceiler.benchmark"
+    compileSdk = 36
+
+    defaultConfig {
+        minSdk = 35
+
+        testInstrumentationRunner = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
+        // 结果以 JSON 写入 build/outputs/connected_android_test_additional_output，便于逐版本对比
+        testInstrumentationRunnerArguments["androidx.benchmark.output.enable"] = "true"
+    }
+
+    // 基准测试需在不可调试的构建上运行
+    testBuildType = "release"
+
+    buildTypes {
+        debug {
+            isDefault = false
+        }
+        release {
+            isDefault = true
+        }
+    }
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+kotlin {
+    jvmToolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+dependencies {
+    androidTestImplementation(projects.library.hook)
+    androidTestImplementation(libs.xposed.api)
+    androidTestImplementation(libs.benchmark.junit4)
+    androidTestImplementation(libs.junit)
+    androidTestImplementation(libs.test.ext.junit)
+    androidTestImplementation(libs.test.runner)
+}
@@ -0,0 +1,96 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.google.gson.Gson
+import com.google.gson.reflect.TypeToken
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.luckypray.dexkit.wrap.DexClass
+import org.luckypray.dexkit.wrap.DexField
+import org.luckypray.dexkit.wrap.DexMethod
+
+/**
+ * DexKit.findMember 命中缓存时只做反序列化与反射查找，这里测量这部分成本以及缓存文件的 Gson 解析。
+ */
+@RunWith(AndroidJUnit4::class)
+class DexKitCacheBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val classLoader = javaClass.classLoader!!
+
+    @Test
+    fun decodeMethod() {
+        benchmarkRule.measureRepeated {
+            DexMethod(METHOD).getMethodInstance(classLoader)
+        }
+    }
+
+    @Test
+    fun decodeField() {
+        benchmarkRule.measureRepeated {
+            DexField(FIELD).getFieldInstance(classLoader)
+        }
+    }
+
+    @Test
+    fun decodeClass() {
+        benchmarkRule.measureRepeated {
+            DexClass(CLASS).getInstance(classLoader)
+        }
+    }
+
+    @Test
+    fun parseCacheFile() {
+        val gson = Gson()
+        val json = buildCacheJson(ENTRY_COUNT)
+        val type = object : TypeToken<Map<String, Any>>() {}.type
+        benchmarkRule.measureRepeated {
+            val cache: Map<String, Any> = gson.fromJson(json, type)
+            @Suppress("UNCHECKED_CAST")
+            assertEquals(ENTRY_COUNT, (cache["cache"] as Map<String, Any>).size)
+        }
+    }
+
+    // 与 DexKit 缓存文件相同的结构：version / pkgVersion / osVersion / cache{key: {type, data[]}}
+    private fun buildCacheJson(count: Int): String {
+        val sb = StringBuilder()
+        sb.append("{\"version\":7,\"pkgVersion\":\"1.0(1)\",\"osVersion\":\"OS2.0.0\",\"cache\":{")
+        for (i in 0 until count) {
+            if (i > 0) sb.append(',')
+            sb.append("\"key_").append(i).append("\":{\"type\":\"METHOD\",\"data\":[\"")
+                .append(METHOD).append("\"]}")
+        }
+        sb.append("}}")
+        return sb.toString()
+    }
+
+    private companion object {
+        const val METHOD = "Landroid/graphics/Paint;->setColor(I)V"
+        const val FIELD = "Landroid/graphics/Rect;->left:I"
+        const val CLASS = "Landroid/graphics/Paint;"
+        const val ENTRY_COUNT = 200
+    }
+}
@@ -0,0 +1,85 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.benchmark
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.Color
+import android.graphics.drawable.BitmapDrawable
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.sevtinge.hyperceiler.hook.module.rules.systemui.base.controlcenter.mediabackground.BgProcessor
+import com.sevtinge.hyperceiler.hook.module.rules.systemui.base.controlcenter.mediabackground.LinearGradientProcessor
+import com.sevtinge.hyperceiler.hook.module.rules.systemui.base.controlcenter.mediabackground.RadialGradientProcessor
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * 每次切歌都会经过媒体背景处理器，这里用合成封面测量取色与封面处理。
+ */
+@RunWith(AndroidJUnit4::class)
+class MediaBackgroundBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val context: Context = InstrumentationRegistry.getInstrumentation().targetContext
+    private val palette = List(13) { Color.HSVToColor(floatArrayOf(it * 27f, 0.6f, 0.4f + it * 0.04f)) }
+    private val artwork by lazy { BitmapDrawable(context.resources, syntheticCover(ARTWORK_SIZE)) }
+
+    @Test
+    fun linearGradientColorConfig() = measureColorConfig(LinearGradientProcessor())
+
+    @Test
+    fun radialGradientColorConfig() = measureColorConfig(RadialGradientProcessor())
+
+    @Test
+    fun linearGradientAlbumCover() = measureAlbumCover(LinearGradientProcessor())
+
+    @Test
+    fun radialGradientAlbumCover() = measureAlbumCover(RadialGradientProcessor())
+
+    private fun measureColorConfig(processor: BgProcessor) {
+        benchmarkRule.measureRepeated {
+            processor.convertToColorConfig(artwork, palette, palette, palette, palette)
+        }
+    }
+
+    private fun measureAlbumCover(processor: BgProcessor) {
+        val config = processor.convertToColorConfig(artwork, palette, palette, palette, palette)
+        benchmarkRule.measureRepeated {
+            processor.processAlbumCover(artwork, config, context, ARTWORK_SIZE, ARTWORK_SIZE)
+        }
+    }
+
+    private fun syntheticCover(size: Int): Bitmap {
+        val pixels = IntArray(size * size) { i ->
+            val x = i % size
+            val y = i / size
+            Color.rgb(x * 255 / size, y * 255 / size, (x xor y) and 0xFF)
+        }
+        return Bitmap.createBitmap(pixels, size, size, Bitmap.Config.ARGB_8888)
+    }
+
+    private companion object {
+        const val ARTWORK_SIZE = 512
+    }
+}
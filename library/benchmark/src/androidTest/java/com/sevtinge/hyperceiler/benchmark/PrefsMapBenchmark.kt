@@ -0,0 +1,93 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.sevtinge.hyperceiler.hook.utils.prefs.PrefsMap
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * PrefsMap 的 getter 在每个 Hook 回调里都会被调用，这里用与真实配置规模相近的 Map 测量命中与未命中开销。
+ */
+@RunWith(AndroidJUnit4::class)
+class PrefsMapBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val prefs = PrefsMap<String, Any>()
+
+    @Before
+    fun setUp() {
+        for (i in 0 until KEY_COUNT) {
+            when (i % 4) {
+                0 -> prefs["prefs_key_bool_$i"] = i % 8 == 0
+                1 -> prefs["prefs_key_int_$i"] = i
+                2 -> prefs["prefs_key_str_$i"] = "value_$i"
+                else -> prefs["prefs_key_set_$i"] = setOf("a$i", "b$i")
+            }
+        }
+    }
+
+    @Test
+    fun getBooleanHit() {
+        var hits = 0
+        benchmarkRule.measureRepeated {
+            if (prefs.getBoolean("bool_0")) hits++
+        }
+        assertTrue(hits > 0)
+    }
+
+    @Test
+    fun getBooleanMiss() {
+        benchmarkRule.measureRepeated {
+            prefs.getBoolean("system_ui_missing_key")
+        }
+    }
+
+    @Test
+    fun getIntHit() {
+        benchmarkRule.measureRepeated {
+            prefs.getInt("int_1", 0)
+        }
+    }
+
+    @Test
+    fun getStringHit() {
+        benchmarkRule.measureRepeated {
+            prefs.getString("str_2", "")
+        }
+    }
+
+    @Test
+    fun getStringSetMiss() {
+        benchmarkRule.measureRepeated {
+            prefs.getStringSet("set_missing")
+        }
+    }
+
+    private companion object {
+        const val KEY_COUNT = 2000
+    }
+}
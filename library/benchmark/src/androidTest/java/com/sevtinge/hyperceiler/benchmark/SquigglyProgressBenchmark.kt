@@ -0,0 +1,83 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.benchmark
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.Color
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.sevtinge.hyperceiler.hook.module.rules.systemui.base.controlcenter.drawable.SquigglyProgress
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * 媒体控件进度条在播放时每帧都会重绘，这里在 Bitmap 画布上测量单帧 draw 的耗时。
+ */
+@RunWith(AndroidJUnit4::class)
+class SquigglyProgressBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val canvas = Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888))
+
+    // 无过渡区：缓存的满幅波形只做相位平移
+    @Test
+    fun drawSteadyWave() = measureDraw(transition = false)
+
+    // 有过渡区：每帧重建波形
+    @Test
+    fun drawTransitionWave() = measureDraw(transition = true)
+
+    private fun measureDraw(transition: Boolean) {
+        val progress = playingProgress(transition)
+        benchmarkRule.measureRepeated {
+            progress.draw(canvas)
+        }
+    }
+
+    private fun playingProgress(transition: Boolean): SquigglyProgress {
+        val progress = SquigglyProgress().apply {
+            waveLength = 60f
+            lineAmplitude = 6f
+            phaseSpeed = 24f
+            strokeWidth = 4f
+            transitionEnabled = transition
+            setTint(Color.WHITE)
+            setBounds(0, 0, WIDTH, HEIGHT)
+            level = 5_000
+        }
+        // 高度动画依赖 Looper，在主线程启动后等待其结束，测量的是振幅已满的稳定播放状态
+        InstrumentationRegistry.getInstrumentation().runOnMainSync { progress.animate = true }
+        Thread.sleep(HEIGHT_ANIMATION_MS)
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+        return progress
+    }
+
+    private companion object {
+        const val WIDTH = 960
+        const val HEIGHT = 48
+
+        // startDelay 60ms + duration 800ms，留出余量
+        const val HEIGHT_ANIMATION_MS = 1_200L
+    }
+}
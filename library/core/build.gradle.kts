@@ -38,4 +38,6 @@ java {
 dependencies {
     api(projects.library.hook)
     api(projects.library.provision)
+
+    testImplementation(libs.junit)
 }
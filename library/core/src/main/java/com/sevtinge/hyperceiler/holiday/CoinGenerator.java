@@ -19,29 +19,66 @@
 package com.sevtinge.hyperceiler.holiday;
 
 import android.content.Context;
+import android.util.DisplayMetrics;
+import android.view.Surface;
 
-import com.sevtinge.hyperceiler.holiday.weather.PrecipType;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.Confetto;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoGenerator;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoInfo;
+import com.sevtinge.hyperceiler.core.R;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleAtlas;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleGenerator;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleSystem;
 
 import java.util.Random;
 
-public class CoinGenerator implements ConfettoGenerator {
-	private final ConfettoInfo confettoInfo;
+public class CoinGenerator implements ParticleGenerator {
 	private final Context context;
+	private final ParticleAtlas atlas;
 
 	public CoinGenerator(Context ctx) {
 		super();
 		this.context = ctx;
-		this.confettoInfo = new ConfettoInfo(PrecipType.CLEAR);
+		this.atlas = ParticleAtlas.decode(ctx.getResources(),
+			R.drawable.coin1, R.drawable.coin2, R.drawable.coin3, R.drawable.coin4, R.drawable.coin5, R.drawable.coin6, R.drawable.coin7, R.drawable.coin8, R.drawable.coin9, R.drawable.coin10,
+			R.drawable.coin11, R.drawable.coin12, R.drawable.coin13, R.drawable.coin14, R.drawable.coin15, R.drawable.coin16, R.drawable.coin17, R.drawable.coin18, R.drawable.coin19, R.drawable.coin20,
+			R.drawable.coin21, R.drawable.coin22);
 	}
 
-	public Confetto generateConfetto(Random random) {
-		return new CoinParticle(this.context, this.confettoInfo);
+	@Override
+	public ParticleAtlas getAtlas() {
+		return this.atlas;
 	}
 
-	public final ConfettoInfo getConfettoInfo() {
-		return this.confettoInfo;
+	@Override
+	public void generateParticle(ParticleSystem particles, int index, Random random) {
+		particles.setSprite(index, random.nextInt(atlas.getSpriteCount()), 1.2f - random.nextFloat() * 0.2f, 0, 0);
+
+		// 在屏幕四边随机选取起点，向随机方向缓慢漂移
+		DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+		int width = metrics.widthPixels;
+		int height = metrics.heightPixels;
+		float gapX = width / 20.0f;
+		float gapY = height / 15.0f;
+
+		int rotation = context.getDisplay().getRotation();
+		boolean isLandscape = rotation == Surface.ROTATION_90 || rotation == Surface.ROTATION_270;
+		float startX, startY;
+		float selector = random.nextFloat();
+		if (selector < 0.25f) {
+			startX = random.nextFloat() * (isLandscape ? gapY : gapX);
+			startY = random.nextFloat() * (isLandscape ? width : height);
+		} else if (selector < 0.5f) {
+			startX = width - random.nextFloat() * (isLandscape ? gapY : gapX);
+			startY = random.nextFloat() * (isLandscape ? width : height);
+		} else if (selector < 0.75f) {
+			startX = random.nextFloat() * (isLandscape ? height : width);
+			startY = random.nextFloat() * (isLandscape ? gapX : gapY);
+		} else {
+			startX = random.nextFloat() * (isLandscape ? height : width);
+			startY = height - random.nextFloat() * (isLandscape ? gapX : gapY);
+		}
+		int signX = random.nextInt(3) - 1;
+		int signY = random.nextInt(3) - 1;
+		int maxAlpha = random.nextInt(40) + 30;
+		int distance = random.nextInt(76) + 75;
+		particles.setDrift(index, startX, startY, signX * distance, signY * distance, maxAlpha / 255f);
 	}
 }
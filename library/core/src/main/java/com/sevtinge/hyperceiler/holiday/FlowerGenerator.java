@@ -19,29 +19,39 @@
 package com.sevtinge.hyperceiler.holiday;
 
 import android.content.Context;
+import android.view.Surface;
 
-import com.sevtinge.hyperceiler.holiday.weather.PrecipType;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.Confetto;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoGenerator;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoInfo;
+import com.sevtinge.hyperceiler.core.R;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleAtlas;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleGenerator;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleSystem;
 
 import java.util.Random;
 
-public class FlowerGenerator implements ConfettoGenerator {
-	private final ConfettoInfo confettoInfo;
-	private final Context context;
+public class FlowerGenerator implements ParticleGenerator {
+	// 图集中的下标，重复项用于调整出现概率
+	private static final int[] PETAL_WEIGHTS = {0, 0, 1, 1, 2, 2, 3};
+
+	private final ParticleAtlas atlas;
+	private final float scaleMultiplier;
 
 	public FlowerGenerator(Context ctx) {
 		super();
-		this.context = ctx;
-		this.confettoInfo = new ConfettoInfo(PrecipType.SNOW);
+		this.atlas = ParticleAtlas.decode(ctx.getResources(),
+			R.drawable.confetti1, R.drawable.confetti2, R.drawable.confetti3, R.drawable.petal);
+		int rotation = ctx.getDisplay().getRotation();
+		this.scaleMultiplier = rotation == Surface.ROTATION_90 || rotation == Surface.ROTATION_270 ? 1.5f : 1.0f;
 	}
 
-	public Confetto generateConfetto(Random random) {
-		return new FlowerParticle(this.context, this.confettoInfo);
+	@Override
+	public ParticleAtlas getAtlas() {
+		return this.atlas;
 	}
 
-	public final ConfettoInfo getConfettoInfo() {
-		return this.confettoInfo;
+	@Override
+	public void generateParticle(ParticleSystem particles, int index, Random random) {
+		int sprite = PETAL_WEIGHTS[random.nextInt(PETAL_WEIGHTS.length)];
+		float scale = (0.6f - random.nextFloat() * 0.15f) * scaleMultiplier;
+		particles.setSprite(index, sprite, scale, atlas.getWidth(sprite), atlas.getHeight(sprite));
 	}
 }
@@ -27,11 +27,17 @@ import android.view.Surface;
 
 public final class GravitySensor implements SensorEventListener {
 	private final SensorManager sensorManager;
-	private float[] magneticValues;
-	private float[] accelerometerValues;
+	private final TiltFilter tiltFilter = new TiltFilter();
+	private final float[] magneticValues = new float[3];
+	private final float[] rotationMatrix = new float[9];
+	private final float[] remappedRotationMatrix = new float[9];
+	private final float[] orientationAngles = new float[3];
+	private boolean hasMagnetic;
 	private int orientation;
 	private int speed;
 	private boolean started;
+	private boolean visible = true;
+	private int registeredDelay = -1;
 	private final Context context;
 	private final WeatherView weatherView;
 
@@ -40,6 +46,7 @@ public final class GravitySensor implements SensorEventListener {
 		this.context = context;
 		this.weatherView = weatherView;
 		this.sensorManager = (SensorManager)this.context.getSystemService(Context.SENSOR_SERVICE);
+		this.weatherView.setGravitySensor(this);
 	}
 
 	public boolean getStarted() {
@@ -59,20 +66,26 @@ public final class GravitySensor implements SensorEventListener {
 	public void onSensorChanged(SensorEvent event) {
 		if (event == null || event.sensor == null) return;
 		switch (event.sensor.getType()) {
-			case 1: this.accelerometerValues = event.values; break;
-			case 2: this.magneticValues = event.values; break;
+			case Sensor.TYPE_ACCELEROMETER:
+				if (this.tiltFilter.update(event.values[0], event.values[1], event.values[2])) {
+					// 静止时降到 SENSOR_DELAY_NORMAL，检测到晃动再恢复
+					this.registerListener();
+				}
+				break;
+			case Sensor.TYPE_MAGNETIC_FIELD:
+				System.arraycopy(event.values, 0, this.magneticValues, 0, 3);
+				this.hasMagnetic = true;
+				return;
+			default:
+				return;
 		}
-		if (this.magneticValues == null || this.accelerometerValues == null) return;
-
-		float[] rotationMatrix = new float[9];
-		float[] remappedRotationMatrix = new float[9];
-		float[] orientationAngles = new float[3];
+		if (!this.hasMagnetic) return;
 
-		SensorManager.getRotationMatrix(rotationMatrix, null, this.accelerometerValues, this.magneticValues);
-		SensorManager.remapCoordinateSystem(rotationMatrix, SensorManager.AXIS_X, SensorManager.AXIS_Z, remappedRotationMatrix);
-		SensorManager.getOrientation(remappedRotationMatrix, orientationAngles);
+		if (!SensorManager.getRotationMatrix(this.rotationMatrix, null, this.tiltFilter.getGravity(), this.magneticValues)) return;
+		SensorManager.remapCoordinateSystem(this.rotationMatrix, SensorManager.AXIS_X, SensorManager.AXIS_Z, this.remappedRotationMatrix);
+		SensorManager.getOrientation(this.remappedRotationMatrix, this.orientationAngles);
 
-		double roll = Math.toDegrees(orientationAngles[2]) + Math.random() * 20 - 10;
+		double roll = Math.toDegrees(this.orientationAngles[2]);
 		switch (this.orientation) {
 			case Surface.ROTATION_90:
 				roll += 90;
@@ -88,22 +101,33 @@ public final class GravitySensor implements SensorEventListener {
 		if (roll > 90) roll -= 180;
 		else if (roll < -90) roll += 180;
 
+		if (!this.tiltFilter.shouldReport(roll)) return;
+		roll += Math.random() * 20 - 10;
 		this.weatherView.setAngle((int) roll);
 		this.weatherView.setSpeed(this.speed + (int) Math.round(Math.random() * 20 - 10));
 	}
 
 	private void registerListener() {
-		this.sensorManager.registerListener(this, this.sensorManager.getDefaultSensor(1), 2);
-		this.sensorManager.registerListener(this, this.sensorManager.getDefaultSensor(2), 2);
+		int delay = this.tiltFilter.isIdle() ? SensorManager.SENSOR_DELAY_NORMAL : SensorManager.SENSOR_DELAY_UI;
+		if (this.registeredDelay == delay) return;
+		if (this.registeredDelay != -1) {
+			this.sensorManager.unregisterListener(this);
+		}
+		this.registeredDelay = delay;
+		this.sensorManager.registerListener(this, this.sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), delay);
+		this.sensorManager.registerListener(this, this.sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD), delay);
 	}
 
 	private void unregisterListener() {
+		this.registeredDelay = -1;
 		this.sensorManager.unregisterListener(this);
 	}
 
 	public void start() {
 		this.started = true;
-		this.registerListener();
+		if (this.visible) {
+			this.registerListener();
+		}
 	}
 
 	public void stop() {
@@ -112,13 +136,28 @@ public final class GravitySensor implements SensorEventListener {
 	}
 
 	public void onResume() {
-		if (this.started) {
+		if (this.started && this.visible) {
 			this.registerListener();
 		}
 	}
 
 	public void onPause() {
 		this.unregisterListener();
+		this.tiltFilter.reset();
+		this.hasMagnetic = false;
+	}
+
+	/**
+	 * 由 WeatherView 在可见性变化时回调，不可见时注销传感器
+	 */
+	public void onVisibilityChanged(boolean isVisible) {
+		if (this.visible == isVisible) return;
+		this.visible = isVisible;
+		if (isVisible) {
+			this.onResume();
+		} else {
+			this.onPause();
+		}
 	}
 
 	public Context getContext() {
@@ -33,10 +33,9 @@ import android.widget.RelativeLayout;
 import com.sevtinge.hyperceiler.core.R;
 import com.sevtinge.hyperceiler.holiday.weather.ConfettiManager;
 import com.sevtinge.hyperceiler.holiday.weather.PrecipType;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoGenerator;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleGenerator;
 
 import java.lang.ref.WeakReference;
-import java.lang.reflect.Field;
 import java.util.Objects;
 
 import fan.navigator.app.NavigatorActivity;
@@ -147,14 +146,7 @@ public class HolidayHelper {
         mHeaderView.setVisibility(View.VISIBLE);
     }
 
-    private void setWeatherGenerator(ConfettoGenerator generator) {
-        try {
-            ConfettiManager manager = weatherView.get().getConfettiManager();
-            Field confettoGenerator = ConfettiManager.class.getDeclaredField("confettoGenerator");
-            confettoGenerator.setAccessible(true);
-            confettoGenerator.set(manager, generator);
-        } catch (Throwable t) {
-            t.printStackTrace();
-        }
+    private void setWeatherGenerator(ParticleGenerator generator) {
+        weatherView.get().getConfettiManager().setParticleGenerator(generator);
     }
 }
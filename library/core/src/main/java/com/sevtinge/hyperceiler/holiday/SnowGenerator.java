@@ -20,28 +20,28 @@ package com.sevtinge.hyperceiler.holiday;
 
 import android.content.Context;
 
-import com.sevtinge.hyperceiler.holiday.weather.PrecipType;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.Confetto;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoGenerator;
-import com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoInfo;
+import com.sevtinge.hyperceiler.core.R;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleAtlas;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleGenerator;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleSystem;
 
 import java.util.Random;
 
-public class SnowGenerator implements ConfettoGenerator {
-	private final ConfettoInfo confettoInfo;
-	private final Context context;
+public class SnowGenerator implements ParticleGenerator {
+	private final ParticleAtlas atlas;
 
 	public SnowGenerator(Context ctx) {
 		super();
-		this.context = ctx;
-		this.confettoInfo = new ConfettoInfo(PrecipType.SNOW);
+		this.atlas = ParticleAtlas.decode(ctx.getResources(), R.drawable.snowflake);
 	}
 
-	public Confetto generateConfetto(Random random) {
-		return new SnowParticle(this.context, this.confettoInfo);
+	@Override
+	public ParticleAtlas getAtlas() {
+		return this.atlas;
 	}
 
-	public final ConfettoInfo getConfettoInfo() {
-		return this.confettoInfo;
+	@Override
+	public void generateParticle(ParticleSystem particles, int index, Random random) {
+		particles.setSprite(index, 0, 0.6f - random.nextFloat() * 0.3f, 0, 0);
 	}
 }
@@ -0,0 +1,103 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.holiday;
+
+/**
+ * Low-pass gravity filter with still detection and a tilt change gate for {@link GravitySensor}.
+ * Plain Java so it can be fed recorded sensor traces.
+ */
+final class TiltFilter {
+	// 低通系数，越大越平滑
+	static final float SMOOTHING = 0.8f;
+	// 单次采样重力分量变化小于该值（m/s²）视为静止
+	static final float STILL_THRESHOLD = 0.12f;
+	// 连续静止多少次采样后降低采样率
+	static final int STILL_SAMPLES = 40;
+	// 角度变化超过该值（度）才通知 WeatherView
+	static final double ANGLE_THRESHOLD = 3.0;
+
+	private final float[] gravity = new float[3];
+	private boolean primed;
+	private int stillCount;
+	private boolean idle;
+	private double lastAngle = Double.NaN;
+
+	/**
+	 * Feeds one accelerometer sample.
+	 *
+	 * @return true if the still/moving state changed with this sample.
+	 */
+	boolean update(float x, float y, float z) {
+		if (!primed) {
+			gravity[0] = x;
+			gravity[1] = y;
+			gravity[2] = z;
+			primed = true;
+			return false;
+		}
+		float dx = (1f - SMOOTHING) * (x - gravity[0]);
+		float dy = (1f - SMOOTHING) * (y - gravity[1]);
+		float dz = (1f - SMOOTHING) * (z - gravity[2]);
+		gravity[0] += dx;
+		gravity[1] += dy;
+		gravity[2] += dz;
+
+		boolean still = Math.abs(dx) < STILL_THRESHOLD && Math.abs(dy) < STILL_THRESHOLD && Math.abs(dz) < STILL_THRESHOLD;
+		if (!still) {
+			stillCount = 0;
+			if (idle) {
+				idle = false;
+				return true;
+			}
+			return false;
+		}
+		if (!idle && ++stillCount >= STILL_SAMPLES) {
+			idle = true;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether the filtered angle moved past {@link #ANGLE_THRESHOLD} since the last
+	 * reported one; the angle becomes the new reference when it did.
+	 */
+	boolean shouldReport(double angle) {
+		if (Double.isNaN(lastAngle) || Math.abs(angle - lastAngle) >= ANGLE_THRESHOLD) {
+			lastAngle = angle;
+			return true;
+		}
+		return false;
+	}
+
+	boolean isIdle() {
+		return idle;
+	}
+
+	float[] getGravity() {
+		return gravity;
+	}
+
+	void reset() {
+		primed = false;
+		stillCount = 0;
+		idle = false;
+		lastAngle = Double.NaN;
+	}
+}
@@ -43,6 +43,7 @@ public class WeatherView extends FrameLayout {
     private PrecipType precipType = PrecipType.CLEAR;
     private float scaleFactor = 1.0f;
     private int speed;
+    private GravitySensor gravitySensor;
 
     public WeatherView( Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -126,6 +127,18 @@ public class WeatherView extends FrameLayout {
         confettoInfo.setCustomBitmap(bitmap);
     }
 
+    public void setGravitySensor(GravitySensor sensor) {
+        gravitySensor = sensor;
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        if (gravitySensor != null) {
+            gravitySensor.onVisibilityChanged(isVisible);
+        }
+    }
+
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
         super.onLayout(changed, left, top, right, bottom);
@@ -28,6 +28,9 @@ import android.view.animation.Interpolator;
 
 import com.sevtinge.hyperceiler.holiday.weather.confetto.Confetto;
 import com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoGenerator;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleBatch;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleGenerator;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleSystem;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -50,6 +53,8 @@ public class ConfettiManager {
 
     private final Queue<Confetto> recycledConfetti = new LinkedList<>();
     private final List<Confetto> confetti = new ArrayList<>(300);
+    private final ParticleSystem particles = new ParticleSystem();
+    private ParticleGenerator particleGenerator;
     private ValueAnimator animator;
     private long lastEmittedTimestamp;
 
@@ -105,7 +110,24 @@ public class ConfettiManager {
 
         // Set the defaults
         this.ttl = -1;
-        this.bound = new Rect(0, 0, parentView.getWidth(), parentView.getHeight());
+        setBound(new Rect(0, 0, parentView.getWidth(), parentView.getHeight()));
+    }
+
+    /**
+     * Switches this manager to a {@link ParticleGenerator}. Its particles are simulated in a
+     * {@link ParticleSystem} and drawn in one batch per frame instead of one {@link Confetto}
+     * per draw call. Touch and per-confetto listener callbacks do not apply to these particles.
+     *
+     * <p>Takes effect on the next {@link #animate()}.
+     *
+     * @param generator the particle generator, or null to go back to the confetto generator.
+     * @return the confetti manager so that the set calls can be chained.
+     */
+    public ConfettiManager setParticleGenerator(ParticleGenerator generator) {
+        this.particleGenerator = generator;
+        this.confettiView.bindParticles(particles,
+                generator == null ? null : new ParticleBatch(generator.getAtlas()));
+        return this;
     }
 
     /**
@@ -412,6 +434,7 @@ public class ConfettiManager {
      */
     public ConfettiManager setBound(Rect bound) {
         this.bound = bound;
+        particles.setBounds(bound.left, bound.top, bound.right, bound.bottom);
         return this;
     }
 
@@ -440,6 +463,7 @@ public class ConfettiManager {
      */
     public ConfettiManager enableFadeOut(Interpolator fadeOutInterpolator) {
         this.fadeOutInterpolator = fadeOutInterpolator;
+        particles.setFadeCurve(fadeOutInterpolator::getInterpolation);
         return this;
     }
 
@@ -450,6 +474,7 @@ public class ConfettiManager {
      */
     public ConfettiManager disableFadeOut() {
         this.fadeOutInterpolator = null;
+        particles.setFadeCurve(null);
         return this;
     }
 
@@ -519,6 +544,7 @@ public class ConfettiManager {
             removeConfetto(iterator.next());
             iterator.remove();
         }
+        particles.clear();
     }
 
     private void attachConfettiViewToParent() {
@@ -536,6 +562,10 @@ public class ConfettiManager {
     }
 
     private void addNewConfetti(int numConfetti, long initialDelay) {
+        if (particleGenerator != null) {
+            addNewParticles(numConfetti, initialDelay);
+            return;
+        }
         for (int i = 0; i < numConfetti; i++) {
             Confetto confetto = recycledConfetti.poll();
             if (confetto == null) {
@@ -550,6 +580,14 @@ public class ConfettiManager {
         }
     }
 
+    private void addNewParticles(int numParticles, long initialDelay) {
+        for (int i = 0; i < numParticles; i++) {
+            final int index = configureParticle(particles, confettiSource, random, initialDelay);
+            particleGenerator.generateParticle(particles, index, random);
+            particles.prepare(index, ttl);
+        }
+    }
+
     private void startNewAnimation() {
         // Never-ending animator, we will cancel once the termination condition is reached.
         animator = ValueAnimator.ofInt(0)
@@ -560,8 +598,10 @@ public class ConfettiManager {
                 final long elapsedTime = valueAnimator.getCurrentPlayTime();
                 processNewEmission(elapsedTime);
                 updateConfetti(elapsedTime);
+                particles.step(elapsedTime);
 
-                if (confetti.isEmpty() && elapsedTime >= emissionDuration) {
+                if (confetti.isEmpty() && particles.size() == 0
+                        && elapsedTime >= emissionDuration) {
                     terminate();
                 } else {
                     confettiView.invalidate();
@@ -641,6 +681,30 @@ public class ConfettiManager {
         confetto.setFadeOut(fadeOutInterpolator);
     }
 
+    // 与 configureConfetto 按相同顺序取随机数
+    protected int configureParticle(ParticleSystem particles, ConfettiSource confettiSource,
+                                    Random random, long initialDelay) {
+        final int index = particles.add(initialDelay,
+                confettiSource.getInitialX(random.nextFloat()),
+                confettiSource.getInitialY(random.nextFloat()),
+                getVarianceAmount(velocityX, velocityDeviationX, random),
+                getVarianceAmount(velocityY, velocityDeviationY, random),
+                getVarianceAmount(accelerationX, accelerationDeviationX, random),
+                getVarianceAmount(accelerationY, accelerationDeviationY, random),
+                targetVelocityX == null ? Float.NaN
+                        : getVarianceAmount(targetVelocityX, targetVelocityXDeviation, random),
+                targetVelocityY == null ? Float.NaN
+                        : getVarianceAmount(targetVelocityY, targetVelocityYDeviation, random));
+        particles.setRotation(index,
+                getVarianceAmount(initialRotation, initialRotationDeviation, random),
+                getVarianceAmount(rotationalVelocity, rotationalVelocityDeviation, random),
+                getVarianceAmount(rotationalAcceleration, rotationalAccelerationDeviation, random),
+                targetRotationalVelocity == null ? Float.NaN
+                        : getVarianceAmount(targetRotationalVelocity,
+                        targetRotationalVelocityDeviation, random));
+        return index;
+    }
+
     private float getVarianceAmount(float base, float deviation, Random random) {
         // Normalize random to be [-1, 1] rather than [0, 1]
         return base + (deviation * (random.nextFloat() * 2 - 1));
@@ -27,6 +27,8 @@ import android.view.ViewGroup;
 import android.view.ViewParent;
 
 import com.sevtinge.hyperceiler.holiday.weather.confetto.Confetto;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleBatch;
+import com.sevtinge.hyperceiler.holiday.weather.particle.ParticleSystem;
 
 import java.util.List;
 
@@ -39,6 +41,8 @@ import fan.core.utils.MiuixUIUtils;
  */
 public class ConfettiView extends View implements View.OnLayoutChangeListener {
     private List<Confetto> confetti;
+    private ParticleSystem particles;
+    private ParticleBatch particleBatch;
     private boolean terminated;
 
     private boolean touchEnabled;
@@ -68,6 +72,17 @@ public class ConfettiView extends View implements View.OnLayoutChangeListener {
         this.confetti = confetti;
     }
 
+    /**
+     * Sets the particle store and the batch used to draw it alongside the bound confetti.
+     *
+     * @param particles the particles to be drawn.
+     * @param particleBatch the batch to draw them with, or null to draw no particles.
+     */
+    public void bindParticles(ParticleSystem particles, ParticleBatch particleBatch) {
+        this.particles = particles;
+        this.particleBatch = particleBatch;
+    }
+
     /**
      * @see ConfettiManager#setTouchEnabled(boolean)
      *
@@ -130,6 +145,9 @@ public class ConfettiView extends View implements View.OnLayoutChangeListener {
             for (Confetto confetto : this.confetti) {
                 confetto.draw(canvas);
             }
+            if (particleBatch != null) {
+                particleBatch.draw(canvas, particles);
+            }
             canvas.restore();
         }
     }
@@ -0,0 +1,112 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.holiday.weather.particle;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+
+/**
+ * Packs the sprites of one particle kind into a single bitmap so that a whole frame can be
+ * drawn with one {@link Canvas#drawVertices} call.
+ */
+public final class ParticleAtlas {
+
+    private static final int MAX_ROW_WIDTH = 2048;
+    // 留出间隔，避免线性过滤时采样到相邻贴图
+    private static final int PADDING = 2;
+
+    private final Bitmap bitmap;
+    // 每个 sprite 依次存放 left, top, width, height
+    private final float[] rects;
+
+    private ParticleAtlas(Bitmap bitmap, float[] rects) {
+        this.bitmap = bitmap;
+        this.rects = rects;
+    }
+
+    /**
+     * Decodes every resource once and packs them in order, sprite {@code i} being {@code resIds[i]}.
+     */
+    public static ParticleAtlas decode(Resources res, int... resIds) {
+        final Bitmap[] sprites = new Bitmap[resIds.length];
+        for (int i = 0; i < resIds.length; i++) {
+            sprites[i] = BitmapFactory.decodeResource(res, resIds[i]);
+        }
+        final ParticleAtlas atlas = pack(sprites);
+        for (Bitmap sprite : sprites) {
+            sprite.recycle();
+        }
+        return atlas;
+    }
+
+    public static ParticleAtlas pack(Bitmap... sprites) {
+        final float[] rects = new float[sprites.length * 4];
+        int x = 0, y = 0, rowHeight = 0, atlasWidth = 0;
+        for (int i = 0; i < sprites.length; i++) {
+            final int w = sprites[i].getWidth();
+            final int h = sprites[i].getHeight();
+            if (x > 0 && x + w > MAX_ROW_WIDTH) {
+                x = 0;
+                y += rowHeight + PADDING;
+                rowHeight = 0;
+            }
+            rects[i * 4] = x;
+            rects[i * 4 + 1] = y;
+            rects[i * 4 + 2] = w;
+            rects[i * 4 + 3] = h;
+            x += w + PADDING;
+            rowHeight = Math.max(rowHeight, h);
+            atlasWidth = Math.max(atlasWidth, x);
+        }
+
+        final Bitmap bitmap = Bitmap.createBitmap(Math.max(1, atlasWidth),
+                Math.max(1, y + rowHeight), Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < sprites.length; i++) {
+            canvas.drawBitmap(sprites[i], rects[i * 4], rects[i * 4 + 1], null);
+        }
+        return new ParticleAtlas(bitmap, rects);
+    }
+
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    public int getSpriteCount() {
+        return rects.length / 4;
+    }
+
+    public float getLeft(int sprite) {
+        return rects[sprite * 4];
+    }
+
+    public float getTop(int sprite) {
+        return rects[sprite * 4 + 1];
+    }
+
+    public float getWidth(int sprite) {
+        return rects[sprite * 4 + 2];
+    }
+
+    public float getHeight(int sprite) {
+        return rects[sprite * 4 + 3];
+    }
+}
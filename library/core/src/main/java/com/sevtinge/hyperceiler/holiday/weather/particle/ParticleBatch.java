@@ -0,0 +1,141 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.holiday.weather.particle;
+
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+/**
+ * Draws every live particle of a {@link ParticleSystem} as textured quads in a single
+ * {@link Canvas#drawVertices} call. Buffers only grow with the particle capacity, so steady
+ * frames do not allocate.
+ */
+public final class ParticleBatch {
+
+    // 索引为 16 位，单次最多 16383 个四边形
+    private static final int MAX_QUADS = 0xFFFF / 4;
+
+    private final ParticleAtlas atlas;
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+
+    private float[] verts = new float[0];
+    private float[] texs = new float[0];
+    private int[] colors = new int[0];
+    private short[] indices = new short[0];
+
+    public ParticleBatch(ParticleAtlas atlas) {
+        this.atlas = atlas;
+        paint.setShader(new BitmapShader(atlas.getBitmap(), Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+    }
+
+    public ParticleAtlas getAtlas() {
+        return atlas;
+    }
+
+    public void draw(Canvas canvas, ParticleSystem particles) {
+        final int count = particles.size();
+        if (count == 0) return;
+        ensureCapacity(Math.min(particles.capacity(), MAX_QUADS));
+
+        canvas.save();
+        canvas.clipRect(particles.getBoundLeft(), particles.getBoundTop(),
+                particles.getBoundRight(), particles.getBoundBottom());
+        int quads = 0;
+        for (int i = 0; i < count; i++) {
+            final int a = (int) (particles.alpha[i] * 255f);
+            if (!particles.started[i] || a <= 0) continue;
+            putQuad(quads++, particles, i, Math.min(a, 255));
+            if (quads == MAX_QUADS) {
+                flush(canvas, quads);
+                quads = 0;
+            }
+        }
+        if (quads > 0) {
+            flush(canvas, quads);
+        }
+        canvas.restore();
+    }
+
+    // 等价于 Matrix: postScale(s) -> postRotate(r, w / 2, h / 2) -> postTranslate(x, y)
+    private void putQuad(int q, ParticleSystem p, int i, int alpha) {
+        final int sprite = p.sprite[i];
+        final float w = atlas.getWidth(sprite);
+        final float h = atlas.getHeight(sprite);
+        final float u = atlas.getLeft(sprite);
+        final float v = atlas.getTop(sprite);
+        final float s = p.scale[i];
+        final double radians = Math.toRadians(p.rotation[i]);
+        final float cos = (float) Math.cos(radians);
+        final float sin = (float) Math.sin(radians);
+        final float cx = w / 2f, cy = h / 2f;
+        final float tx = p.x[i] + cx, ty = p.y[i] + cy;
+
+        final float l = -cx, t = -cy, r = w * s - cx, b = h * s - cy;
+        final int o = q * 8;
+        verts[o] = cos * l - sin * t + tx;
+        verts[o + 1] = sin * l + cos * t + ty;
+        verts[o + 2] = cos * r - sin * t + tx;
+        verts[o + 3] = sin * r + cos * t + ty;
+        verts[o + 4] = cos * r - sin * b + tx;
+        verts[o + 5] = sin * r + cos * b + ty;
+        verts[o + 6] = cos * l - sin * b + tx;
+        verts[o + 7] = sin * l + cos * b + ty;
+
+        texs[o] = u;
+        texs[o + 1] = v;
+        texs[o + 2] = u + w;
+        texs[o + 3] = v;
+        texs[o + 4] = u + w;
+        texs[o + 5] = v + h;
+        texs[o + 6] = u;
+        texs[o + 7] = v + h;
+
+        final int color = (alpha << 24) | 0x00FFFFFF;
+        final int c = q * 4;
+        colors[c] = color;
+        colors[c + 1] = color;
+        colors[c + 2] = color;
+        colors[c + 3] = color;
+    }
+
+    private void flush(Canvas canvas, int quads) {
+        canvas.drawVertices(Canvas.VertexMode.TRIANGLES, quads * 8, verts, 0, texs, 0,
+                colors, 0, indices, 0, quads * 6, paint);
+    }
+
+    private void ensureCapacity(int quads) {
+        if (colors.length >= quads * 4) return;
+        verts = new float[quads * 8];
+        texs = new float[quads * 8];
+        colors = new int[quads * 4];
+        indices = new short[quads * 6];
+        for (int q = 0; q < quads; q++) {
+            final int base = q * 4;
+            final int o = q * 6;
+            indices[o] = (short) base;
+            indices[o + 1] = (short) (base + 1);
+            indices[o + 2] = (short) (base + 2);
+            indices[o + 3] = (short) base;
+            indices[o + 4] = (short) (base + 2);
+            indices[o + 5] = (short) (base + 3);
+        }
+    }
+}
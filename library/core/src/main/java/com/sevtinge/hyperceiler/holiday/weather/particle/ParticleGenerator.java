@@ -0,0 +1,37 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.holiday.weather.particle;
+
+import java.util.Random;
+
+/**
+ * Counterpart of {@link com.sevtinge.hyperceiler.holiday.weather.confetto.ConfettoGenerator}
+ * for particles stored in a {@link ParticleSystem}. All particles of one generator share a
+ * single {@link ParticleAtlas} and are drawn in one batch.
+ */
+public interface ParticleGenerator {
+
+    ParticleAtlas getAtlas();
+
+    /**
+     * Called after the motion of particle {@code index} has been configured and before it is
+     * prepared, to pick its sprite, scale and optionally a drift motion.
+     */
+    void generateParticle(ParticleSystem particles, int index, Random random);
+}
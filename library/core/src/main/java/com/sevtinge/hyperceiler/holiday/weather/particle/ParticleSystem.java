@@ -0,0 +1,423 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.holiday.weather.particle;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays particle store used by {@link com.sevtinge.hyperceiler.holiday.weather.ConfettiManager}.
+ *
+ * <p>Every particle attribute lives in its own primitive array and {@link #step(long)} only
+ * touches those arrays, so a frame never allocates. This class has no Android dependencies;
+ * given the same inputs it always produces the same state.
+ */
+public final class ParticleSystem {
+
+    public static final int MOTION_PHYSICS = 0;
+    /** 固定起点，按动画进度沿 drift 方向平移，透明度两端渐变 */
+    public static final int MOTION_DRIFT = 1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long NO_TARGET = -1;
+
+    private int capacity;
+    private int count;
+
+    private int boundLeft, boundTop, boundRight, boundBottom;
+    private FadeCurve fadeCurve;
+
+    // Configured states
+    long[] delay;
+    float[] initialX, initialY, velocityX, velocityY, accelerationX, accelerationY;
+    float[] targetVelocityX, targetVelocityY;
+    long[] targetTimeX, targetTimeY;
+    float[] initialRotation, rotationalVelocity, rotationalAcceleration, targetRotationalVelocity;
+    long[] targetTimeRotation;
+    float[] lifetime;
+    float[] width, height;
+    int[] motion;
+    float[] anchorX, anchorY, driftX, driftY, peakAlpha;
+
+    // Render states
+    int[] sprite;
+    float[] scale;
+    float[] x, y, rotation, alpha;
+    boolean[] started;
+
+    public ParticleSystem() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public ParticleSystem(int initialCapacity) {
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public void setBounds(int left, int top, int right, int bottom) {
+        boundLeft = left;
+        boundTop = top;
+        boundRight = right;
+        boundBottom = bottom;
+    }
+
+    public int getBoundLeft() {
+        return boundLeft;
+    }
+
+    public int getBoundTop() {
+        return boundTop;
+    }
+
+    public int getBoundRight() {
+        return boundRight;
+    }
+
+    public int getBoundBottom() {
+        return boundBottom;
+    }
+
+    /**
+     * @param fadeCurve maps animation progress to an alpha in [0, 1], or null to disable fade out.
+     */
+    public void setFadeCurve(FadeCurve fadeCurve) {
+        this.fadeCurve = fadeCurve;
+    }
+
+    /**
+     * Appends a particle and configures its linear motion. Pass {@link Float#NaN} as a target
+     * velocity to let that axis accelerate without limit.
+     *
+     * @return the index of the new particle, valid until the next {@link #step(long)}.
+     */
+    public int add(long initialDelay, float x0, float y0, float vx, float vy, float ax, float ay,
+                   float targetVx, float targetVy) {
+        if (count == capacity) {
+            grow();
+        }
+        final int i = count++;
+        delay[i] = initialDelay;
+        initialX[i] = x0;
+        initialY[i] = y0;
+        velocityX[i] = vx;
+        velocityY[i] = vy;
+        accelerationX[i] = ax;
+        accelerationY[i] = ay;
+        targetVelocityX[i] = targetVx;
+        targetVelocityY[i] = targetVy;
+        initialRotation[i] = 0f;
+        rotationalVelocity[i] = 0f;
+        rotationalAcceleration[i] = 0f;
+        targetRotationalVelocity[i] = Float.NaN;
+        width[i] = height[i] = 0f;
+        motion[i] = MOTION_PHYSICS;
+        sprite[i] = 0;
+        scale[i] = 1f;
+        this.x[i] = x0;
+        this.y[i] = y0;
+        rotation[i] = 0f;
+        alpha[i] = 0f;
+        started[i] = false;
+        return i;
+    }
+
+    public void setRotation(int i, float initial, float velocity, float acceleration,
+                            float targetVelocity) {
+        initialRotation[i] = initial;
+        rotationalVelocity[i] = velocity;
+        rotationalAcceleration[i] = acceleration;
+        targetRotationalVelocity[i] = targetVelocity;
+        rotation[i] = initial;
+    }
+
+    /**
+     * @param width the unscaled width used to decide when the particle leaves the bounds.
+     * @param height the unscaled height used to decide when the particle leaves the bounds.
+     */
+    public void setSprite(int i, int spriteIndex, float spriteScale, float width, float height) {
+        sprite[i] = spriteIndex;
+        scale[i] = spriteScale;
+        this.width[i] = width;
+        this.height[i] = height;
+    }
+
+    /**
+     * Switches the particle to {@link #MOTION_DRIFT}. Its lifetime is still derived from the
+     * physics configured in {@link #add}, only the drawn position and alpha change.
+     */
+    public void setDrift(int i, float fromX, float fromY, float dx, float dy, float maxAlpha) {
+        motion[i] = MOTION_DRIFT;
+        anchorX[i] = fromX;
+        anchorY[i] = fromY;
+        driftX[i] = dx;
+        driftY[i] = dy;
+        peakAlpha[i] = maxAlpha;
+    }
+
+    /**
+     * Computes target times and lifetime. Must be called once per particle after it is configured
+     * and before the next {@link #step(long)}.
+     *
+     * @param ttl time to live in millis, or a negative value to live until it leaves the bounds.
+     */
+    public void prepare(int i, long ttl) {
+        targetTimeX[i] = computeMillisToReachTarget(targetVelocityX[i], velocityX[i], accelerationX[i]);
+        targetTimeY[i] = computeMillisToReachTarget(targetVelocityY[i], velocityY[i], accelerationY[i]);
+        targetTimeRotation[i] = computeMillisToReachTarget(targetRotationalVelocity[i],
+                rotationalVelocity[i], rotationalAcceleration[i]);
+
+        float life = ttl >= 0 ? ttl : Long.MAX_VALUE;
+        life = Math.min(life, computeBound(initialX[i], velocityX[i], accelerationX[i],
+                targetTimeX[i], targetVelocityX[i], (int) (boundLeft - width[i]), boundRight));
+        life = Math.min(life, computeBound(initialY[i], velocityY[i], accelerationY[i],
+                targetTimeY[i], targetVelocityY[i], (int) (boundTop - height[i]), boundBottom));
+        lifetime[i] = life;
+    }
+
+    /**
+     * Advances all particles to the given animation time and drops the finished ones.
+     *
+     * @param elapsedTime time since the beginning of the animation in millis.
+     * @return the number of particles still alive.
+     */
+    public int step(long elapsedTime) {
+        final FadeCurve fade = fadeCurve;
+        for (int i = count - 1; i >= 0; i--) {
+            final long t = elapsedTime - delay[i];
+            if (t < 0) {
+                started[i] = false;
+                continue;
+            }
+            final float life = lifetime[i];
+            if (t >= life) {
+                removeAt(i);
+                continue;
+            }
+            started[i] = true;
+            final float progress = Math.min(1f, t / life);
+
+            rotation[i] = distance(t, initialRotation[i], rotationalVelocity[i],
+                    rotationalAcceleration[i], targetTimeRotation[i], targetRotationalVelocity[i]);
+
+            if (motion[i] == MOTION_DRIFT) {
+                x[i] = anchorX[i] + driftX[i] * progress;
+                y[i] = anchorY[i] + driftY[i] * progress;
+                if (progress < 0.1f) {
+                    alpha[i] = peakAlpha[i] * progress / 0.1f;
+                } else if (progress > 0.9f) {
+                    alpha[i] = peakAlpha[i] * (1f - progress) / 0.1f;
+                } else {
+                    alpha[i] = peakAlpha[i];
+                }
+            } else {
+                x[i] = distance(t, initialX[i], velocityX[i], accelerationX[i],
+                        targetTimeX[i], targetVelocityX[i]);
+                y[i] = distance(t, initialY[i], velocityY[i], accelerationY[i],
+                        targetTimeY[i], targetVelocityY[i]);
+                alpha[i] = fade != null ? fade.alphaAt(t / life) : 1f;
+            }
+        }
+        return count;
+    }
+
+    private void removeAt(int i) {
+        final int last = --count;
+        if (i == last) return;
+        delay[i] = delay[last];
+        initialX[i] = initialX[last];
+        initialY[i] = initialY[last];
+        velocityX[i] = velocityX[last];
+        velocityY[i] = velocityY[last];
+        accelerationX[i] = accelerationX[last];
+        accelerationY[i] = accelerationY[last];
+        targetVelocityX[i] = targetVelocityX[last];
+        targetVelocityY[i] = targetVelocityY[last];
+        targetTimeX[i] = targetTimeX[last];
+        targetTimeY[i] = targetTimeY[last];
+        initialRotation[i] = initialRotation[last];
+        rotationalVelocity[i] = rotationalVelocity[last];
+        rotationalAcceleration[i] = rotationalAcceleration[last];
+        targetRotationalVelocity[i] = targetRotationalVelocity[last];
+        targetTimeRotation[i] = targetTimeRotation[last];
+        lifetime[i] = lifetime[last];
+        width[i] = width[last];
+        height[i] = height[last];
+        motion[i] = motion[last];
+        anchorX[i] = anchorX[last];
+        anchorY[i] = anchorY[last];
+        driftX[i] = driftX[last];
+        driftY[i] = driftY[last];
+        peakAlpha[i] = peakAlpha[last];
+        sprite[i] = sprite[last];
+        scale[i] = scale[last];
+        x[i] = x[last];
+        y[i] = y[last];
+        rotation[i] = rotation[last];
+        alpha[i] = alpha[last];
+        started[i] = started[last];
+    }
+
+    private void allocate(int size) {
+        capacity = size;
+        delay = new long[size];
+        initialX = new float[size];
+        initialY = new float[size];
+        velocityX = new float[size];
+        velocityY = new float[size];
+        accelerationX = new float[size];
+        accelerationY = new float[size];
+        targetVelocityX = new float[size];
+        targetVelocityY = new float[size];
+        targetTimeX = new long[size];
+        targetTimeY = new long[size];
+        initialRotation = new float[size];
+        rotationalVelocity = new float[size];
+        rotationalAcceleration = new float[size];
+        targetRotationalVelocity = new float[size];
+        targetTimeRotation = new long[size];
+        lifetime = new float[size];
+        width = new float[size];
+        height = new float[size];
+        motion = new int[size];
+        anchorX = new float[size];
+        anchorY = new float[size];
+        driftX = new float[size];
+        driftY = new float[size];
+        peakAlpha = new float[size];
+        sprite = new int[size];
+        scale = new float[size];
+        x = new float[size];
+        y = new float[size];
+        rotation = new float[size];
+        alpha = new float[size];
+        started = new boolean[size];
+    }
+
+    private void grow() {
+        final int size = capacity * 2;
+        capacity = size;
+        delay = Arrays.copyOf(delay, size);
+        initialX = Arrays.copyOf(initialX, size);
+        initialY = Arrays.copyOf(initialY, size);
+        velocityX = Arrays.copyOf(velocityX, size);
+        velocityY = Arrays.copyOf(velocityY, size);
+        accelerationX = Arrays.copyOf(accelerationX, size);
+        accelerationY = Arrays.copyOf(accelerationY, size);
+        targetVelocityX = Arrays.copyOf(targetVelocityX, size);
+        targetVelocityY = Arrays.copyOf(targetVelocityY, size);
+        targetTimeX = Arrays.copyOf(targetTimeX, size);
+        targetTimeY = Arrays.copyOf(targetTimeY, size);
+        initialRotation = Arrays.copyOf(initialRotation, size);
+        rotationalVelocity = Arrays.copyOf(rotationalVelocity, size);
+        rotationalAcceleration = Arrays.copyOf(rotationalAcceleration, size);
+        targetRotationalVelocity = Arrays.copyOf(targetRotationalVelocity, size);
+        targetTimeRotation = Arrays.copyOf(targetTimeRotation, size);
+        lifetime = Arrays.copyOf(lifetime, size);
+        width = Arrays.copyOf(width, size);
+        height = Arrays.copyOf(height, size);
+        motion = Arrays.copyOf(motion, size);
+        anchorX = Arrays.copyOf(anchorX, size);
+        anchorY = Arrays.copyOf(anchorY, size);
+        driftX = Arrays.copyOf(driftX, size);
+        driftY = Arrays.copyOf(driftY, size);
+        peakAlpha = Arrays.copyOf(peakAlpha, size);
+        sprite = Arrays.copyOf(sprite, size);
+        scale = Arrays.copyOf(scale, size);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        rotation = Arrays.copyOf(rotation, size);
+        alpha = Arrays.copyOf(alpha, size);
+        started = Arrays.copyOf(started, size);
+    }
+
+    private static float distance(long t, float xi, float vi, float ai, long targetTime,
+                                  float vTarget) {
+        if (targetTime == NO_TARGET || t < targetTime) {
+            return xi + vi * t + 0.5f * ai * t * t;
+        }
+        return xi + vi * targetTime + 0.5f * ai * targetTime * targetTime
+                + (t - targetTime) * vTarget;
+    }
+
+    // 与 Confetto#computeMillisToReachTarget 一致，NaN 表示未设置目标速度，NO_TARGET 表示无法到达
+    static long computeMillisToReachTarget(float targetVelocity, float initialVelocity,
+                                           float acceleration) {
+        if (Float.isNaN(targetVelocity)) {
+            return NO_TARGET;
+        }
+        if (acceleration != 0f) {
+            final long time = (long) ((targetVelocity - initialVelocity) / acceleration);
+            return time > 0 ? time : 0;
+        }
+        return targetVelocity < initialVelocity ? 0 : NO_TARGET;
+    }
+
+    // 与 Confetto#computeBound 一致
+    static long computeBound(float initialPos, float velocity, float acceleration,
+                             long targetTime, float targetVelocity, int minBound, int maxBound) {
+        if (acceleration != 0) {
+            final int bound = acceleration > 0 ? maxBound : minBound;
+            if (targetTime == NO_TARGET) {
+                final double tmp = Math.sqrt(
+                        2 * acceleration * bound - 2 * acceleration * initialPos
+                                + velocity * velocity);
+                final double firstTime = (-tmp - velocity) / acceleration;
+                if (firstTime > 0) {
+                    return (long) firstTime;
+                }
+                final double secondTime = (tmp - velocity) / acceleration;
+                if (secondTime > 0) {
+                    return (long) secondTime;
+                }
+                return Long.MAX_VALUE;
+            }
+            final double time =
+                    (bound - initialPos - velocity * targetTime -
+                            0.5 * acceleration * targetTime * targetTime +
+                            targetVelocity * targetTime) /
+                            targetVelocity;
+            return time > 0 ? (long) time : Long.MAX_VALUE;
+        }
+        final float actualVelocity = targetTime == NO_TARGET ? velocity : targetVelocity;
+        final int bound = actualVelocity > 0 ? maxBound : minBound;
+        if (actualVelocity != 0) {
+            final double time = (bound - initialPos) / actualVelocity;
+            return time > 0 ? (long) time : Long.MAX_VALUE;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public interface FadeCurve {
+        /**
+         * @param progress elapsed lifetime fraction, not clamped.
+         * @return alpha in [0, 1].
+         */
+        float alphaAt(float progress);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.holiday;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TiltFilterTest {
+
+	@Test
+	public void deskTraceGoesIdleOnce() throws IOException {
+		TiltFilter filter = new TiltFilter();
+		int changes = 0;
+		int idleAt = -1;
+		List<float[]> trace = load("desk_still.csv");
+		for (int i = 0; i < trace.size(); i++) {
+			float[] s = trace.get(i);
+			if (filter.update(s[0], s[1], s[2])) {
+				changes++;
+				if (idleAt < 0) idleAt = i;
+			}
+		}
+		assertEquals(1, changes);
+		assertTrue(filter.isIdle());
+		// 首个采样只用于初始化
+		assertEquals(TiltFilter.STILL_SAMPLES, idleAt);
+	}
+
+	@Test
+	public void handHeldTraceStaysActive() throws IOException {
+		TiltFilter filter = new TiltFilter();
+		for (float[] s : load("hand_held.csv")) {
+			filter.update(s[0], s[1], s[2]);
+			assertFalse(filter.isIdle());
+		}
+	}
+
+	@Test
+	public void tiltWakesAndSettlesAgain() throws IOException {
+		TiltFilter filter = new TiltFilter();
+		List<float[]> trace = load("tilt_then_rest.csv");
+		List<Boolean> states = new ArrayList<>();
+		for (float[] s : trace) {
+			if (filter.update(s[0], s[1], s[2])) states.add(filter.isIdle());
+		}
+		// 静止 -> 拿起 -> 再次静止
+		assertEquals(List.of(true, false, true), states);
+
+		float[] gravity = filter.getGravity();
+		double tilt = Math.toDegrees(Math.atan2(gravity[0], gravity[2]));
+		assertEquals(40.0, tilt, 1.0);
+	}
+
+	@Test
+	public void deskNoiseReportsAngleOnce() throws IOException {
+		TiltFilter filter = new TiltFilter();
+		int reports = 0;
+		for (float[] s : load("desk_still.csv")) {
+			filter.update(s[0], s[1], s[2]);
+			if (filter.shouldReport(roll(filter))) reports++;
+		}
+		assertEquals(1, reports);
+	}
+
+	@Test
+	public void tiltReportsAreGatedByThreshold() throws IOException {
+		TiltFilter filter = new TiltFilter();
+		List<float[]> trace = load("tilt_then_rest.csv");
+		double last = Double.NaN;
+		int reports = 0;
+		for (float[] s : trace) {
+			filter.update(s[0], s[1], s[2]);
+			double roll = roll(filter);
+			if (filter.shouldReport(roll)) {
+				if (!Double.isNaN(last)) {
+					assertTrue(Math.abs(roll - last) >= TiltFilter.ANGLE_THRESHOLD);
+				}
+				last = roll;
+				reports++;
+			}
+		}
+		// 每个采样都上报时是 360 次，40° 的倾斜最多十几次
+		assertTrue("reports=" + reports, reports > 1 && reports <= 40 / (int) TiltFilter.ANGLE_THRESHOLD + 2);
+	}
+
+	@Test
+	public void shouldReportUsesLastReportedAngle() {
+		TiltFilter filter = new TiltFilter();
+		assertTrue(filter.shouldReport(0));
+		assertFalse(filter.shouldReport(2));
+		assertFalse(filter.shouldReport(-2.9));
+		assertTrue(filter.shouldReport(3));
+		assertFalse(filter.shouldReport(5));
+		assertTrue(filter.shouldReport(6));
+	}
+
+	@Test
+	public void resetForgetsState() throws IOException {
+		TiltFilter filter = new TiltFilter();
+		for (float[] s : load("desk_still.csv")) filter.update(s[0], s[1], s[2]);
+		filter.shouldReport(10);
+		assertTrue(filter.isIdle());
+
+		filter.reset();
+		assertFalse(filter.isIdle());
+		assertTrue(filter.shouldReport(10));
+		assertFalse(filter.update(1, 2, 3));
+		assertEquals(1f, filter.getGravity()[0], 0f);
+	}
+
+	private static double roll(TiltFilter filter) {
+		float[] g = filter.getGravity();
+		return Math.toDegrees(Math.atan2(g[0], g[2]));
+	}
+
+	private static List<float[]> load(String name) throws IOException {
+		InputStream in = TiltFilterTest.class.getClassLoader().getResourceAsStream("tilt/" + name);
+		assertNotNull(name, in);
+		List<float[]> samples = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#")) continue;
+				String[] parts = line.split(",");
+				samples.add(new float[]{
+						Float.parseFloat(parts[0]), Float.parseFloat(parts[1]), Float.parseFloat(parts[2])
+				});
+			}
+		}
+		return samples;
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.holiday.weather.particle;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class ParticleSystemTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final int PARTICLES = 2000;
+    private static final long FRAME_MS = 8;
+
+    @Test
+    public void sameSeedGivesSameFrames() {
+        long[] a = simulate(42L, 600);
+        long[] b = simulate(42L, 600);
+        assertArrayEquals(a, b);
+    }
+
+    @Test
+    public void differentSeedGivesDifferentFrames() {
+        long[] a = simulate(42L, 120);
+        long[] b = simulate(43L, 120);
+        assertNotEquals(a[a.length - 1], b[b.length - 1]);
+    }
+
+    @Test
+    public void steadyFramesDoNotAllocate() {
+        ParticleSystem particles = newSystem();
+        spawn(particles, new Random(7L), PARTICLES);
+        int capacity = particles.capacity();
+        float[] x = particles.x;
+        float[] alpha = particles.alpha;
+        for (int frame = 0; frame < 600; frame++) {
+            particles.step(frame * FRAME_MS);
+            assertEquals(capacity, particles.capacity());
+            assertSame(x, particles.x);
+            assertSame(alpha, particles.alpha);
+        }
+    }
+
+    @Test
+    public void particlesLeaveAfterLifetime() {
+        ParticleSystem particles = newSystem();
+        int i = particles.add(0, 100, 0, 0, 1f, 0, 0, Float.NaN, Float.NaN);
+        particles.prepare(i, -1);
+        // 以 1px/ms 匀速下落，到达底部边界的时间即寿命
+        assertEquals(HEIGHT, particles.lifetime[0], 0f);
+
+        assertEquals(1, particles.step(HEIGHT / 2));
+        assertEquals(HEIGHT / 2f, particles.y[0], 0.001f);
+        assertEquals(0, particles.step(HEIGHT));
+    }
+
+    @Test
+    public void ttlShortensLifetime() {
+        ParticleSystem particles = newSystem();
+        int i = particles.add(0, 100, 0, 0, 1f, 0, 0, Float.NaN, Float.NaN);
+        particles.prepare(i, 500);
+        assertEquals(1, particles.step(499));
+        assertEquals(0, particles.step(500));
+    }
+
+    @Test
+    public void delayedParticlesAreNotStarted() {
+        ParticleSystem particles = newSystem();
+        int i = particles.add(1000, 100, 0, 0, 1f, 0, 0, Float.NaN, Float.NaN);
+        particles.prepare(i, -1);
+        particles.step(500);
+        assertFalse(particles.started[0]);
+        particles.step(1500);
+        assertTrue(particles.started[0]);
+        assertEquals(500f, particles.y[0], 0.001f);
+    }
+
+    @Test
+    public void targetVelocityCapsAcceleration() {
+        ParticleSystem particles = newSystem();
+        // 加速度 0.01px/ms²，100ms 后达到目标速度 1px/ms，之后匀速
+        int i = particles.add(0, 100, 0, 0, 0, 0, 0.01f, Float.NaN, 1f);
+        particles.prepare(i, -1);
+        particles.step(100);
+        assertEquals(50f, particles.y[0], 0.001f);
+        particles.step(300);
+        assertEquals(250f, particles.y[0], 0.001f);
+    }
+
+    @Test
+    public void driftFadesInAndOut() {
+        ParticleSystem particles = newSystem();
+        int i = particles.add(0, 0, 0, 0, 0, 0, 0, Float.NaN, Float.NaN);
+        particles.setDrift(i, 10, 20, 100, 200, 0.8f);
+        particles.prepare(i, 1000);
+
+        particles.step(50);
+        assertEquals(0.4f, particles.alpha[0], 0.001f);
+        assertEquals(15f, particles.x[0], 0.001f);
+        assertEquals(30f, particles.y[0], 0.001f);
+
+        particles.step(500);
+        assertEquals(0.8f, particles.alpha[0], 0.001f);
+
+        particles.step(950);
+        assertEquals(0.4f, particles.alpha[0], 0.001f);
+    }
+
+    @Test
+    public void removalKeepsRemainingParticles() {
+        ParticleSystem particles = newSystem();
+        for (int i = 0; i < 5; i++) {
+            int index = particles.add(0, i, 0, 0, 1f, 0, 0, Float.NaN, Float.NaN);
+            particles.prepare(index, i % 2 == 0 ? 100 : -1);
+        }
+        assertEquals(2, particles.step(100));
+        float sum = particles.x[0] + particles.x[1];
+        assertEquals(1f + 3f, sum, 0f);
+    }
+
+    /**
+     * 与 ConfettiManager 相同的取随机数顺序生成粒子，逐帧记录状态哈希。
+     */
+    private static long[] simulate(long seed, int frames) {
+        ParticleSystem particles = newSystem();
+        Random random = new Random(seed);
+        spawn(particles, random, PARTICLES);
+        long[] hashes = new long[frames];
+        for (int frame = 0; frame < frames; frame++) {
+            particles.step(frame * FRAME_MS);
+            hashes[frame] = hash(particles);
+        }
+        return hashes;
+    }
+
+    private static ParticleSystem newSystem() {
+        ParticleSystem particles = new ParticleSystem();
+        particles.setBounds(0, 0, WIDTH, HEIGHT);
+        particles.setFadeCurve(progress -> Math.max(0f, 1f - progress));
+        return particles;
+    }
+
+    private static void spawn(ParticleSystem particles, Random random, int count) {
+        for (int n = 0; n < count; n++) {
+            long delay = (long) (random.nextFloat() * 3000);
+            int i = particles.add(delay,
+                    random.nextFloat() * WIDTH,
+                    -50f * random.nextFloat(),
+                    variance(0f, 0.05f, random),
+                    variance(0.2f, 0.05f, random),
+                    0f,
+                    variance(0.0002f, 0.0001f, random),
+                    Float.NaN,
+                    variance(0.4f, 0.1f, random));
+            particles.setRotation(i, random.nextFloat() * 360f,
+                    variance(0.05f, 0.03f, random), 0f, Float.NaN);
+            particles.setSprite(i, random.nextInt(4), 0.6f - random.nextFloat() * 0.3f, 32f, 32f);
+            if (n % 10 == 0) {
+                particles.setDrift(i, random.nextFloat() * WIDTH, random.nextFloat() * HEIGHT,
+                        variance(0f, 200f, random), variance(300f, 100f, random), 0.8f);
+            }
+            particles.prepare(i, -1);
+        }
+    }
+
+    private static float variance(float base, float deviation, Random random) {
+        return base + deviation * (random.nextFloat() * 2 - 1);
+    }
+
+    private static long hash(ParticleSystem particles) {
+        long h = particles.size();
+        for (int i = 0; i < particles.size(); i++) {
+            h = h * 31 + Float.floatToIntBits(particles.x[i]);
+            h = h * 31 + Float.floatToIntBits(particles.y[i]);
+            h = h * 31 + Float.floatToIntBits(particles.rotation[i]);
+            h = h * 31 + Float.floatToIntBits(particles.alpha[i]);
+            h = h * 31 + particles.sprite[i];
+        }
+        return h;
+    }
+}
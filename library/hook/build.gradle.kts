@@ -81,4 +81,6 @@ dependencies {
 
     api(projects.library.processor)
     annotationProcessor(projects.library.processor)
+
+    testImplementation(libs.junit)
 }
@@ -18,13 +18,9 @@
  */
 package com.sevtinge.hyperceiler.hook.module.app;
 
-import android.content.Context;
-import android.view.inputmethod.InputMethodInfo;
-import android.view.inputmethod.InputMethodManager;
-
 import com.hchen.database.HookBase;
 import com.sevtinge.hyperceiler.hook.module.base.BaseModule;
-import com.sevtinge.hyperceiler.hook.module.base.tool.OtherTool;
+import com.sevtinge.hyperceiler.hook.module.rules.various.InputMethodRegistry;
 import com.sevtinge.hyperceiler.hook.module.rules.various.MusicHooks;
 import com.sevtinge.hyperceiler.hook.module.rules.various.clipboard.BaiduClipboard;
 import com.sevtinge.hyperceiler.hook.module.rules.various.clipboard.ClearClipboard;
@@ -32,21 +28,17 @@ import com.sevtinge.hyperceiler.hook.module.rules.various.clipboard.ClipboardLim
 import com.sevtinge.hyperceiler.hook.module.rules.various.clipboard.LoadInputMethodDex;
 import com.sevtinge.hyperceiler.hook.module.rules.various.clipboard.SoGouClipboard;
 import com.sevtinge.hyperceiler.hook.module.rules.various.clipboard.UnlockIme;
-import com.sevtinge.hyperceiler.hook.utils.log.XposedLogUtils;
-
-import java.util.ArrayList;
-import java.util.List;
 
 @HookBase(targetPackage = "VariousThirdApps")
 public class VariousThirdApps extends BaseModule {
     String mPackageName;
 
-    public static List<String> mAppsUsingInputMethod = new ArrayList<>();
-
     @Override
     public void handleLoadPackage() {
-        if (mAppsUsingInputMethod.isEmpty()) {
-            mAppsUsingInputMethod = getAppsUsingInputMethod(OtherTool.findContext(OtherTool.FlAG_ONLY_ANDROID));
+        // 仅在启用了输入法相关功能时才查询输入法列表，每个进程只查询一次
+        if (mPrefsMap.getBoolean("various_phrase_clipboardlist") || mPrefsMap.getBoolean("various_unlock_ime")
+                || mPrefsMap.getBoolean("add_clipboard_clear")) {
+            InputMethodRegistry.init();
         }
         mPackageName = mLoadPackageParam.packageName;
         if (mPrefsMap.getBoolean("various_phrase_clipboardlist")) {
@@ -67,34 +59,7 @@ public class VariousThirdApps extends BaseModule {
         initHook(MusicHooks.INSTANCE, mPrefsMap.getBoolean("system_ui_statusbar_music_switch") && mPrefsMap.getBoolean("system_ui_statusbar_music_show_app"));
     }
 
-    private List<String> getAppsUsingInputMethod(Context context) {
-        try {
-            if (context == null) {
-                XposedLogUtils.logE("getAppsUsingInputMethod", "context is null");
-                return new ArrayList<>();
-            }
-            List<String> pkgName = new ArrayList<>();
-            InputMethodManager inputMethodManager = (InputMethodManager) context.getSystemService(Context.INPUT_METHOD_SERVICE);
-            List<InputMethodInfo> enabledInputMethods = inputMethodManager.getEnabledInputMethodList();
-            for (InputMethodInfo inputMethodInfo : enabledInputMethods) {
-                pkgName.add(inputMethodInfo.getServiceInfo().packageName);
-            }
-            return pkgName;
-        } catch (Throwable e) {
-            XposedLogUtils.logE("getAppsUsingInputMethod", "have e: " + e + ", message: " + e.getMessage());
-            return new ArrayList<>();
-        }
-    }
-
     private boolean isInputMethod(String pkgName) {
-        if (mAppsUsingInputMethod.isEmpty()) {
-            return false;
-        }
-        for (String inputMethod : mAppsUsingInputMethod) {
-            if (inputMethod.equals(pkgName)) {
-                return true;
-            }
-        }
-        return false;
+        return InputMethodRegistry.isInputMethod(pkgName);
     }
 }
@@ -22,6 +22,8 @@ import static com.sevtinge.hyperceiler.hook.utils.log.LogManager.logLevel;
 
 import com.sevtinge.hyperceiler.hook.XposedInit;
 import com.sevtinge.hyperceiler.hook.module.base.tool.HookTool;
+import com.sevtinge.hyperceiler.hook.module.base.tool.PackageVersionProvider;
+import com.sevtinge.hyperceiler.hook.module.base.tool.PackageVersionProvider.PackageVersion;
 import com.sevtinge.hyperceiler.hook.module.base.tool.ResourcesTool;
 
 import java.io.PrintWriter;
@@ -62,6 +64,11 @@ public abstract class BaseHook extends HookTool {
         }
     }
 
+    /*当前被 Hook 应用的版本，进程内只解析一次*/
+    public PackageVersion getPackageVersion() {
+        return PackageVersionProvider.get(lpparam);
+    }
+
     @Override
     public void setLoadPackageParam(LoadPackageParam param) {
         lpparam = param;
@@ -26,6 +26,7 @@ import com.sevtinge.hyperceiler.hook.XposedInit;
 import com.sevtinge.hyperceiler.hook.module.base.dexkit.DexKit;
 import com.sevtinge.hyperceiler.hook.module.base.tool.AppsTool;
 import com.sevtinge.hyperceiler.hook.safe.CrashData;
+import com.sevtinge.hyperceiler.hook.safe.SafeMode;
 import com.sevtinge.hyperceiler.hook.utils.ContextUtils;
 import com.sevtinge.hyperceiler.hook.utils.api.ProjectApi;
 import com.sevtinge.hyperceiler.hook.utils.log.XposedLogUtils;
@@ -136,6 +137,10 @@ public abstract class BaseModule {
     }
 
     private void onCreate(Object hook) {
+        if (SafeMode.isHookDisabled(hook.getClass().getName())) {
+            XposedLogUtils.logW(TAG, mLoadPackageParam.packageName, hook.getClass().getSimpleName() + " is disabled after repeated crashes.");
+            return;
+        }
         if (hook instanceof BaseHook baseHook) baseHook.onCreate(mLoadPackageParam);
         else if (hook instanceof HCBase HCBase) HCBase.onLoadPackage();
         else throw new RuntimeException("Unknown hook!");
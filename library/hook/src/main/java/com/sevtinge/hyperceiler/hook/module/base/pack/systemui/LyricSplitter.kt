@@ -0,0 +1,127 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.hook.module.base.pack.systemui
+
+/**
+ * 将一行歌词拆成左右两段，供焦点通知左右两侧显示。
+ * 非线程安全，内部复用 token 缓冲区
+ */
+class LyricSplitter {
+    // 每个 token 的结束位置，复用以避免每次拆分都分配 token 对象
+    private var tokenEnds = IntArray(64)
+
+    fun splitSmart(input: String, config: SplitConfig): Pair<String, String?> {
+        if (input.isEmpty()) return "" to null
+
+        val count = tokenize(input, config.pairedSymbols)
+        val ends = tokenEnds
+
+        if (count <= config.maxLength) {
+            return splitBySpaceOrNone(input, ends, count, input.length / 2, config)
+        }
+
+        val approxCharIndex = if (config.maxLength > 0) ends[config.maxLength - 1] else 0
+        return splitBySpaceOrNone(input, ends, count, approxCharIndex, config)
+    }
+
+    private fun splitBySpaceOrNone(raw: String, ends: IntArray, count: Int, approxCharIndex: Int, config: SplitConfig): Pair<String, String?> {
+        val left = raw.lastIndexOf(' ', approxCharIndex)
+        val right = raw.indexOf(' ', approxCharIndex)
+
+        val leftValid = left != -1 && (approxCharIndex - left) <= config.lookahead
+        val rightValid = right != -1 && (right - approxCharIndex) <= config.lookahead
+
+        val chosenCharIndex = when {
+            leftValid -> {
+                if (left > config.maxLength) approxCharIndex else left
+            }
+            rightValid -> right
+            else -> approxCharIndex
+        }
+
+        val splitAt = tokenBoundaryAt(ends, count, chosenCharIndex)
+        var first = raw.substring(0, splitAt)
+        var second = raw.substring(splitAt).ifEmpty { null }
+
+        if (!config.keepSpaceInSecond && second != null && second.startsWith(" ")) {
+            second = second.trimStart()
+        }
+
+        val minLen = (raw.length * config.minFraction).toInt()
+        if (first.length < minLen || (second?.length ?: 0) < minLen) {
+            val mid = count / 2
+            val midAt = if (mid > 0) ends[mid - 1] else 0
+            first = raw.substring(0, midAt)
+            second = raw.substring(midAt)
+        }
+
+        return first to second
+    }
+
+    /**
+     * 返回拆分位置：charIndex 恰在 token 起点时在其前拆分，落在 token 内部时在其后拆分
+     */
+    private fun tokenBoundaryAt(ends: IntArray, count: Int, charIndex: Int): Int {
+        var start = 0
+        for (i in 0 until count) {
+            val end = ends[i]
+            if (charIndex < end) {
+                return if (charIndex == start) start else end
+            }
+            start = end
+        }
+        return start
+    }
+
+    /**
+     * 将成对符号视为一个 token，结果写入 tokenEnds，返回 token 数量
+     */
+    private fun tokenize(input: String, pairs: Map<Char, Char>): Int {
+        if (tokenEnds.size < input.length) tokenEnds = IntArray(input.length)
+        val ends = tokenEnds
+        var count = 0
+        var i = 0
+        while (i < input.length) {
+            val c = input[i]
+            i += if (i + 1 < input.length && pairs[c] == input[i + 1]) 2 else 1
+            ends[count++] = i
+        }
+        return count
+    }
+}
+
+/**
+ * 拆字配置
+ */
+data class SplitConfig(
+    val maxLength: Int,
+    val lookahead: Int = 2,
+    val minFraction: Double = 0.45,
+    val keepSpaceInSecond: Boolean = false,
+    val pairedSymbols: Map<Char, Char> = mapOf(
+        '(' to ')',
+        '[' to ']',
+        '{' to '}',
+        '《' to '》',
+        '“' to '”',
+        '‘' to '’',
+        '「' to '」',
+        '『' to '』'
+    )
+)
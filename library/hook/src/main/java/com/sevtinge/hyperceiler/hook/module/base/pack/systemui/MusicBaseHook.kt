@@ -24,8 +24,10 @@ import android.app.Application
 import android.app.NotificationChannel
 import android.app.NotificationManager
 import android.app.PendingIntent
+import android.content.BroadcastReceiver
 import android.content.Context
 import android.content.Intent
+import android.content.IntentFilter
 import android.content.res.Resources
 import android.graphics.Bitmap
 import android.graphics.BitmapFactory
@@ -37,8 +39,13 @@ import android.graphics.Shader
 import android.graphics.drawable.Icon
 import android.media.session.PlaybackState
 import android.os.Bundle
+import android.os.Handler
+import android.os.Looper
+import android.os.SystemClock
 import android.util.Base64
+import android.util.LruCache
 import android.util.TypedValue
+import android.view.Choreographer
 import android.view.View
 import android.widget.RemoteViews
 import androidx.core.app.NotificationCompat
@@ -80,6 +87,62 @@ abstract class MusicBaseHook : BaseHook() {
         )
     }
 
+    // 解码后的歌词图标，按 base64 字符串的哈希缓存
+    private val iconCache = object : LruCache<Long, Bitmap>(ICON_CACHE_BYTES) {
+        override fun sizeOf(key: Long, value: Bitmap): Int = value.allocationByteCount
+    }
+
+    // 应用名称、启动 Intent 与图标，按包名缓存，应用变更时失效
+    private val appInfoCache = HashMap<String, AppInfo>()
+    private val packageChangeReceiver by lazy {
+        object : BroadcastReceiver() {
+            override fun onReceive(context: Context?, intent: Intent?) {
+                intent?.data?.schemeSpecificPart?.let { appInfoCache.remove(it) }
+            }
+        }.also {
+            val filter = IntentFilter().apply {
+                addAction(Intent.ACTION_PACKAGE_CHANGED)
+                addAction(Intent.ACTION_PACKAGE_REPLACED)
+                addAction(Intent.ACTION_PACKAGE_REMOVED)
+                addDataScheme("package")
+            }
+            context.registerReceiver(it, filter, Context.RECEIVER_EXPORTED)
+        }
+    }
+
+    // 最近一次圆形裁剪的源图与结果
+    private var lastCircleSource: Bitmap? = null
+    private var lastCircleBitmap: Bitmap? = null
+
+    private var channelCreated = false
+
+    private val lyricSplitter = LyricSplitter()
+
+    // 合并同一刷新窗口内的歌词，只发送最新一行
+    private var pendingText: String? = null
+    private var pendingData: SuperLyricData? = null
+    private var lastPostedText: String? = null
+    private var lastPostedTranslation: String? = null
+    private var lastPostTime = 0L
+    private var isPostScheduled = false
+    private val mainHandler = Handler(Looper.getMainLooper())
+    private val cancelRunnable = Runnable {
+        runCatching { cancelNotificationOnMain() }
+            .onFailure { logE(TAG, lpparam.packageName, it) }
+    }
+    private val postFrameCallback = Choreographer.FrameCallback {
+        isPostScheduled = false
+        val text = pendingText ?: return@FrameCallback
+        val data = pendingData ?: return@FrameCallback
+        pendingText = null
+        pendingData = null
+        lastPostTime = SystemClock.uptimeMillis()
+        lastPostedText = text
+        lastPostedTranslation = data.translation
+        runCatching { postLyricNotification(text, data) }
+            .onFailure { logE(TAG, lpparam.packageName, it) }
+    }
+
     private val receiver = object : ISuperLyric.Stub() {
         override fun onSuperLyric(data: SuperLyricData) {
             runCatching { this@MusicBaseHook.onSuperLyric(data) }
@@ -109,19 +172,34 @@ abstract class MusicBaseHook : BaseHook() {
     abstract fun onSuperLyric(data: SuperLyricData)
     abstract fun onStop()
 
-    @SuppressLint("NotificationPermission", "LaunchActivityFromNotification")
+    /**
+     * 需在主线程调用；同一窗口内的多次更新只会发送最后一行
+     */
     fun sendNotification(text: String, extraData: SuperLyricData) {
+        if (!isPostScheduled && text == lastPostedText && extraData.translation == lastPostedTranslation) return
+        pendingText = text
+        pendingData = extraData
+        if (isPostScheduled) return
+        isPostScheduled = true
+        val delay = (lastPostTime + MIN_POST_INTERVAL_MS - SystemClock.uptimeMillis()).coerceAtLeast(0L)
+        Choreographer.getInstance().postFrameCallbackDelayed(postFrameCallback, delay)
+    }
+
+    @SuppressLint("NotificationPermission", "LaunchActivityFromNotification")
+    private fun postLyricNotification(text: String, extraData: SuperLyricData) {
         createNotificationChannel()
 
         val modRes = OtherTool.getModuleRes(context)
         val isClickClock = mPrefsMap.getBoolean("system_ui_statusbar_music_click_clock")
-        val (musicAppName, launchIntent) = resolveAppNameAndLaunchIntent(extraData.packageName)
+        val appInfo = resolveAppInfo(extraData.packageName)
+        val musicAppName = appInfo.label
+        val launchIntent = appInfo.launchIntent
 
         // 准备图标
-        val iconBundle = prepareIcons(extraData, launchIntent)
+        val iconBundle = prepareIcons(extraData, appInfo)
 
         // 拆分文字
-        val (leftText, rightText) = splitSmart(text, SplitConfig(maxLength = 6))
+        val (leftText, rightText) = lyricSplitter.splitSmart(text, SplitConfig(maxLength = 6))
 
         // Notification builder
         val builder = NotificationCompat.Builder(context, CHANNEL_ID)
@@ -150,24 +228,27 @@ abstract class MusicBaseHook : BaseHook() {
         }
     }
 
-    private fun resolveAppNameAndLaunchIntent(packageName: String?): Pair<String, Intent?> {
-        if (packageName == null) return ("unknown" to null)
-        return try {
-            val appInfo = context.packageManager.getApplicationInfo(packageName, 0)
-            val label = context.packageManager.getApplicationLabel(appInfo).toString()
-            val launchIntent = context.packageManager.getLaunchIntentForPackage(packageName)
-            label to launchIntent
+    private fun resolveAppInfo(packageName: String?): AppInfo {
+        if (packageName == null) return UNKNOWN_APP
+        appInfoCache[packageName]?.let { return it }
+        packageChangeReceiver
+        val pm = context.packageManager
+        val (label, launchIntent) = try {
+            val appInfo = pm.getApplicationInfo(packageName, 0)
+            pm.getApplicationLabel(appInfo).toString() to pm.getLaunchIntentForPackage(packageName)
         } catch (e: Exception) {
             logE(TAG, e)
-            packageName to context.packageManager.getLaunchIntentForPackage(packageName)
+            packageName to pm.getLaunchIntentForPackage(packageName)
         }
+        val activityIcon = runCatching {
+            launchIntent?.let { pm.getActivityIcon(it).toBitmap() }
+        }.getOrNull()
+        return AppInfo(label, launchIntent, activityIcon).also { appInfoCache[packageName] = it }
     }
 
-    private fun prepareIcons(extraData: SuperLyricData, launchIntent: Intent?): IconBundle {
-        val baseBitmap = base64ToBitmap(extraData.base64Icon)
-        val activityIconBitmap = runCatching {
-            launchIntent?.let { context.packageManager.getActivityIcon(it).toBitmap() }
-        }.getOrNull()
+    private fun prepareIcons(extraData: SuperLyricData, appInfo: AppInfo): IconBundle {
+        val baseBitmap = decodeIcon(extraData.base64Icon)
+        val activityIconBitmap = appInfo.activityIcon
 
         val primaryBitmap = if (extraData.packageName == "com.salt.music") {
             activityIconBitmap ?: createEmptyBitmapFallback()
@@ -181,7 +262,7 @@ abstract class MusicBaseHook : BaseHook() {
             icon = Icon.createWithBitmap(primaryBitmap).apply { if (hasTint) setTint(Color.WHITE) },
             darkIcon = Icon.createWithBitmap(primaryBitmap).apply { if (hasTint) setTint(Color.BLACK) },
             circularIcon = Icon.createWithBitmap(
-                if (hasTint) primaryBitmap else circleCropBitmap(primaryBitmap)
+                if (hasTint) primaryBitmap else cachedCircleCrop(primaryBitmap)
             ).apply { if (hasTint) setTint(Color.WHITE) },
             activityIcon = activityIconBitmap,
             hasTint = hasTint
@@ -387,6 +468,8 @@ abstract class MusicBaseHook : BaseHook() {
     }
 
     private fun createNotificationChannel() {
+        if (channelCreated) return
+        channelCreated = true
         val modRes = OtherTool.getModuleRes(context)
         val notificationManager = context.getSystemService(Context.NOTIFICATION_SERVICE) as NotificationManager
         val name = runCatching { modRes.getString(R.string.system_ui_statusbar_music_notification) }.getOrDefault("Focus Notification")
@@ -394,8 +477,24 @@ abstract class MusicBaseHook : BaseHook() {
         notificationManager.createNotificationChannel(channel)
     }
 
-    @SuppressLint("NotificationPermission")
+    /**
+     * 可在任意线程调用（onStop 来自 binder 线程），实际取消在主线程执行，
+     * 保证与已排队的 sendNotification 顺序一致
+     */
     fun cancelNotification() {
+        mainHandler.post(cancelRunnable)
+    }
+
+    @SuppressLint("NotificationPermission")
+    private fun cancelNotificationOnMain() {
+        if (isPostScheduled) {
+            Choreographer.getInstance().removeFrameCallback(postFrameCallback)
+            isPostScheduled = false
+        }
+        pendingText = null
+        pendingData = null
+        lastPostedText = null
+        lastPostedTranslation = null
         (context.getSystemService(Context.NOTIFICATION_SERVICE) as NotificationManager).cancel(CHANNEL_ID.hashCode())
     }
 
@@ -407,6 +506,21 @@ abstract class MusicBaseHook : BaseHook() {
         BitmapFactory.decodeByteArray(bytes, 0, bytes.size)
     }.getOrNull()
 
+    private fun decodeIcon(base64: String?): Bitmap? {
+        if (base64.isNullOrEmpty()) return null
+        val key = (base64.hashCode().toLong() shl 32) or base64.length.toLong()
+        iconCache.get(key)?.let { return it }
+        return base64ToBitmap(base64)?.also { iconCache.put(key, it) }
+    }
+
+    private fun cachedCircleCrop(src: Bitmap): Bitmap {
+        if (src === lastCircleSource) lastCircleBitmap?.let { return it }
+        return circleCropBitmap(src).also {
+            lastCircleSource = src
+            lastCircleBitmap = it
+        }
+    }
+
     private fun createEmptyBitmapFallback(): Bitmap = createBitmap(1, 1)
 
     private fun circleCropBitmap(src: Bitmap): Bitmap {
@@ -427,87 +541,11 @@ abstract class MusicBaseHook : BaseHook() {
 
     companion object {
         const val CHANNEL_ID: String = "channel_id_focusNotifLyrics"
-    }
-
-    fun splitSmart(input: String, config: SplitConfig): Pair<String, String?> {
-        if (input.isEmpty()) return "" to null
-
-        val tokens = tokenize(input, config.pairedSymbols)
-        val raw = tokens.joinToString("") { it.text }
-        val logicalLen = tokens.size
 
-        if (logicalLen <= config.maxLength) {
-            return splitBySpaceOrNone(tokens, raw, raw.length / 2, config)
-        }
-
-        val approxCharIndex = tokens.take(config.maxLength).sumOf { it.text.length }
-        return splitBySpaceOrNone(tokens, raw, approxCharIndex, config)
-    }
-
-    private fun splitBySpaceOrNone(tokens: List<Token>, raw: String, approxCharIndex: Int, config: SplitConfig): Pair<String, String?> {
-        val left = raw.lastIndexOf(' ', approxCharIndex)
-        val right = raw.indexOf(' ', approxCharIndex)
-
-        val leftValid = left != -1 && (approxCharIndex - left) <= config.lookahead
-        val rightValid = right != -1 && (right - approxCharIndex) <= config.lookahead
-
-        val chosenCharIndex = when {
-            leftValid -> {
-                if (left > config.maxLength) approxCharIndex else left
-            }
-            rightValid -> right
-            else -> approxCharIndex
-        }
-
-        val (firstTokens, secondTokens) = splitTokensByCharIndex(tokens, chosenCharIndex)
-        var first = firstTokens.joinToString("") { it.text }
-        var second = secondTokens.joinToString("") { it.text }.ifEmpty { null }
-
-        if (!config.keepSpaceInSecond && second != null && second.startsWith(" ")) {
-            second = second.trimStart()
-        }
-
-        val minLen = (raw.length * config.minFraction).toInt()
-        if (first.length < minLen || (second?.length ?: 0) < minLen) {
-            val mid = tokens.size / 2
-            first = tokens.take(mid).joinToString("") { it.text }
-            second = tokens.drop(mid).joinToString("") { it.text }
-        }
-
-        return first to second
-    }
-
-    private fun splitTokensByCharIndex(tokens: List<Token>, charIndex: Int): Pair<List<Token>, List<Token>> {
-        var acc = 0
-        for ((i, token) in tokens.withIndex()) {
-            val nextAcc = acc + token.text.length
-            if (charIndex < nextAcc) {
-                return if (charIndex == acc) {
-                    tokens.subList(0, i) to tokens.subList(i, tokens.size)
-                } else {
-                    tokens.subList(0, i + 1) to tokens.subList(i + 1, tokens.size)
-                }
-            }
-            acc = nextAcc
-        }
-        return tokens to emptyList()
-    }
-
-    private fun tokenize(input: String, pairs: Map<Char, Char>): List<Token> {
-        val tokens = ArrayList<Token>(input.length)
-        var i = 0
-        while (i < input.length) {
-            val c = input[i]
-            val next = if (i + 1 < input.length) input[i + 1] else null
-            if (next != null && pairs[c] == next) {
-                tokens.add(Token("$c$next"))
-                i += 2
-            } else {
-                tokens.add(Token(c.toString()))
-                i++
-            }
-        }
-        return tokens
+        // 系统对单个应用的通知更新有频率限制，超出会被丢弃
+        private const val MIN_POST_INTERVAL_MS = 200L
+        private const val ICON_CACHE_BYTES = 4 * 1024 * 1024
+        private val UNKNOWN_APP = AppInfo("unknown", null, null)
     }
 }
 
@@ -523,6 +561,15 @@ private data class ResourceIds(
     val focustflyricId: Int
 )
 
+/**
+ * 应用信息缓存
+ */
+private class AppInfo(
+    val label: String,
+    val launchIntent: Intent?,
+    val activityIcon: Bitmap?
+)
+
 /**
  * 图标包
  */
@@ -541,25 +588,3 @@ private data class IconBundle(
 private enum class RemoteViewType {
     DAY, ISLAND, AOD
 }
-
-/**
- * 拆字配置
- */
-data class SplitConfig(
-    val maxLength: Int,
-    val lookahead: Int = 2,
-    val minFraction: Double = 0.45,
-    val keepSpaceInSecond: Boolean = false,
-    val pairedSymbols: Map<Char, Char> = mapOf(
-        '(' to ')',
-        '[' to ']',
-        '{' to '}',
-        '《' to '》',
-        '“' to '”',
-        '‘' to '’',
-        '「' to '」',
-        '『' to '』'
-    )
-)
-
-data class Token(val text: String)
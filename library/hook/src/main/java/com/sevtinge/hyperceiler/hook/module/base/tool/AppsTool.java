@@ -19,7 +19,6 @@
 package com.sevtinge.hyperceiler.hook.module.base.tool;
 
 import static com.sevtinge.hyperceiler.hook.utils.log.XposedLogUtils.logE;
-import static de.robv.android.xposed.XposedHelpers.findAndHookMethod;
 
 import android.annotation.SuppressLint;
 import android.app.backup.BackupManager;
@@ -41,14 +40,13 @@ import android.widget.TextView;
 import com.sevtinge.hyperceiler.hook.utils.api.ProjectApi;
 import com.sevtinge.hyperceiler.hook.utils.log.AndroidLogUtils;
 import com.sevtinge.hyperceiler.hook.utils.prefs.PrefsUtils;
-import com.sevtinge.hyperceiler.hook.utils.shell.ShellInit;
+import com.sevtinge.hyperceiler.hook.utils.shell.ProcScanner;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.Arrays;
+import java.util.List;
 
-import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XposedHelpers;
 import de.robv.android.xposed.callbacks.XC_LoadPackage;
 
@@ -109,40 +107,26 @@ public class AppsTool {
     }
 
     // Permissions 权限
-    @SuppressLint({"SetWorldReadable", "SetWorldWritable"})
     public static void fixPermissionsAsync(Context context) {
-        Executor executor = Executors.newSingleThreadExecutor();
-        executor.execute(() -> {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-
-            setFilePermissions(context.getDataDir());
-            setFilePermissions(new File(PrefsUtils.getSharedPrefsPath()));
-            setFilePermissions(new File(PrefsUtils.getSharedPrefsFile()));
-        });
+        PermissionMaintainer.get(context).request();
     }
 
-    private static void setFilePermissions(File file) {
-        if (file != null && file.exists()) {
-            file.setExecutable(true, false);
-            file.setReadable(true, false);
-            file.setWritable(true, false);
-        }
-    }
+    // 保持强引用，避免 FileObserver 被回收后停止监听
+    private static FileObserver sFileObserver;
 
-    public static void registerFileObserver(Context context) {
+    public static synchronized void registerFileObserver(Context context) {
+        if (sFileObserver != null) return;
         try {
-            FileObserver mFileObserver = new FileObserver(new File(PrefsUtils.getSharedPrefsPath()), FileObserver.CLOSE_WRITE) {
+            PermissionMaintainer maintainer = PermissionMaintainer.get(context);
+            sFileObserver = new FileObserver(new File(PrefsUtils.getSharedPrefsPath()), FileObserver.CLOSE_WRITE) {
                 @Override
                 public void onEvent(int event, String path) {
-                    AppsTool.fixPermissionsAsync(context);
+                    maintainer.request();
                 }
             };
-            mFileObserver.startWatching();
+            sFileObserver.startWatching();
         } catch (Throwable t) {
+            sFileObserver = null;
             Log.e("prefs", "Failed to start FileObserver!");
         }
     }
@@ -182,47 +166,11 @@ public class AppsTool {
     }
 
     public static String getPackageVersionName(XC_LoadPackage.LoadPackageParam lpparam) {
-        try {
-            Class<?> parserCls = XposedHelpers.findClass("android.content.pm.PackageParser", lpparam.classLoader);
-            Object parser = parserCls.getDeclaredConstructor().newInstance();
-            File apkPath = new File(lpparam.appInfo.sourceDir);
-            if (apkPath.toString().contains("com.miui.securecenter")) {
-                findAndHookMethod(parserCls, "setMaxAspectRatio", float.class, new XC_MethodHook() {
-                    @Override
-                    protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
-                        Object arg0 = param.args[0];
-                        if (arg0 instanceof Integer) param.args[0] = (float) (int) arg0;
-                    }
-                });
-            }
-            Object pkg = XposedHelpers.callMethod(parser, "parsePackage", apkPath, 0);
-            return (String) XposedHelpers.getObjectField(pkg, "mVersionName");
-        } catch (Throwable e) {
-            logE("getPackageVersionName", e);
-            return "null";
-        }
+        return PackageVersionProvider.get(lpparam).versionName();
     }
 
     public static int getPackageVersionCode(XC_LoadPackage.LoadPackageParam lpparam) {
-        try {
-            Class<?> parserCls = XposedHelpers.findClass("android.content.pm.PackageParser", lpparam.classLoader);
-            Object parser = parserCls.getDeclaredConstructor().newInstance();
-            File apkPath = new File(lpparam.appInfo.sourceDir);
-            if (apkPath.toString().contains("com.miui.securecenter")) {
-                findAndHookMethod(parserCls, "setMaxAspectRatio", float.class, new XC_MethodHook() {
-                    @Override
-                    protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
-                        Object arg0 = param.args[0];
-                        if (arg0 instanceof Integer) param.args[0] = (float) (int) arg0;
-                    }
-                });
-            }
-            Object pkg = XposedHelpers.callMethod(parser, "parsePackage", apkPath, 0);
-            return XposedHelpers.getIntField(pkg, "mVersionCode");
-        } catch (Throwable e) {
-            logE("getPackageVersionCode", e);
-            return -1;
-        }
+        return PackageVersionProvider.get(lpparam).versionCode();
     }
 
     public static boolean killApps(String[] packageNames, int signal) {
@@ -230,69 +178,27 @@ public class AppsTool {
             AndroidLogUtils.logE(TAG, "packageNames is null or empty");
             return false;
         }
-        boolean hasSuccess = false;
+        // 一次获取进程表，按包名精确匹配后合并为一次发送
+        ProcScanner scanner = ProcScanner.dumpAsRoot();
+        ArrayList<ProcScanner.Proc> targets = new ArrayList<>();
         for (String pkg : packageNames) {
             if (pkg == null || pkg.trim().isEmpty()) {
                 AndroidLogUtils.logE(TAG, "packageName item is null or empty");
                 continue;
             }
-            boolean shellResult;
-            try {
-                shellResult =
-                    ShellInit.getShell().add("pid=$(pgrep -f \"" + pkg + "\" | grep -v $$)")
-                        .add("if [[ $pid == \"\" ]]; then")
-                        .add(" pids=\"\"")
-                        .add(" pid=$(ps -A -o PID,ARGS=CMD | grep \"" + pkg + "\" | grep -v \"grep\")")
-                        .add("  for i in $pid; do")
-                        .add("   if [[ $(echo $i | grep '[0-9]' 2>/dev/null) != \"\" ]]; then")
-                        .add("    if [[ $pids == \"\" ]]; then")
-                        .add("      pids=$i")
-                        .add("    else")
-                        .add("      pids=\"$pids $i\"")
-                        .add("    fi")
-                        .add("   fi")
-                        .add("  done")
-                        .add("fi")
-                        .add("if [[ $pids != \"\" ]]; then")
-                        .add(" pid=$pids")
-                        .add("fi")
-                        .add("killed=0")
-                        .add("if [[ $pid != \"\" ]]; then")
-                        .add(" for i in $pid; do")
-                        .add("  kill -s " + signal + " $i &>/dev/null")
-                        .add("  if [[ $? -eq 0 ]]; then killed=1; fi")
-                        .add(" done")
-                        .add(" if [[ $killed -eq 0 ]]; then echo \"No Permission!\"; fi")
-                        .add("else")
-                        .add(" echo \"No Find Pid!\"")
-                        .add("fi").over().sync().isResult();
-            } catch (Exception e) {
-                AndroidLogUtils.logE(TAG, "Exception: " + e.getMessage() + " package: " + pkg);
-                continue;
-            }
-            ArrayList<String> outPut = ShellInit.getShell().getOutPut();
-            ArrayList<String> error = ShellInit.getShell().getError();
-            if (shellResult) {
-                if (outPut != null && !outPut.isEmpty()) {
-                    String firstLine = outPut.get(0);
-                    if ("No Find Pid!".equals(firstLine)) {
-                        AndroidLogUtils.logW(TAG, "Didn't find a pid that can kill: " + pkg);
-                    } else if ("No Permission!".equals(firstLine)) {
-                        AndroidLogUtils.logW(TAG, "No permission to kill process: " + pkg);
-                    } else {
-                        hasSuccess = true;
-                    }
-                } else {
-                    hasSuccess = true;
-                }
+            List<ProcScanner.Proc> procs = scanner.find(pkg.trim());
+            if (procs.isEmpty()) {
+                AndroidLogUtils.logW(TAG, "Didn't find a pid that can kill: " + pkg);
             } else {
-                AndroidLogUtils.logE(TAG, "Shell failed, errorMsg: " + error + " package: " + pkg);
-            }
-            if (error != null && !error.isEmpty()) {
-                AndroidLogUtils.logE(TAG, "Shell error output: " + error + " package: " + pkg);
+                targets.addAll(procs);
             }
         }
-        return hasSuccess;
+        if (targets.isEmpty()) return false;
+        boolean success = ProcScanner.signal(targets, signal);
+        if (!success) {
+            AndroidLogUtils.logW(TAG, "No permission to kill process: " + Arrays.toString(packageNames));
+        }
+        return success;
     }
 
     public static boolean killApps(String packageName) {
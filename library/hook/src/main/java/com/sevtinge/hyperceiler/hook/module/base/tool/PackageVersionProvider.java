@@ -0,0 +1,120 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.base.tool;
+
+import static com.sevtinge.hyperceiler.hook.utils.log.XposedLogUtils.logE;
+
+import android.app.AndroidAppHelper;
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.robv.android.xposed.XC_MethodHook;
+import de.robv.android.xposed.XposedHelpers;
+import de.robv.android.xposed.callbacks.XC_LoadPackage;
+
+/**
+ * 被 Hook 应用的版本信息，每个进程内每个 APK 只解析一次
+ * <p>
+ * 优先通过 PackageManager.getPackageInfo 获取，失败时回退为 PackageParser 解析 APK；
+ * 结果按 APK 路径与修改时间缓存。
+ */
+public final class PackageVersionProvider {
+    private static final String TAG = "PackageVersionProvider";
+
+    public record PackageVersion(String versionName, int versionCode) {
+        public static final PackageVersion UNKNOWN = new PackageVersion("null", -1);
+    }
+
+    public interface Resolver {
+        PackageVersion resolve(String packageName, String apkPath, ClassLoader classLoader) throws Throwable;
+    }
+
+    private static final PackageVersionProvider sInstance =
+        new PackageVersionProvider(PackageVersionProvider::resolveFromPackageManager, PackageVersionProvider::resolveFromParser);
+
+    private static volatile boolean sAspectRatioHooked = false;
+
+    private final ConcurrentHashMap<String, PackageVersion> mVersions = new ConcurrentHashMap<>();
+    private final Resolver mResolver;
+    private final Resolver mFallback;
+
+    PackageVersionProvider(Resolver resolver, Resolver fallback) {
+        mResolver = resolver;
+        mFallback = fallback;
+    }
+
+    public static PackageVersion get(XC_LoadPackage.LoadPackageParam lpparam) {
+        return sInstance.resolve(lpparam.appInfo.packageName, lpparam.appInfo.sourceDir, lpparam.classLoader);
+    }
+
+    PackageVersion resolve(String packageName, String apkPath, ClassLoader classLoader) {
+        String key = apkPath + "@" + new File(apkPath).lastModified();
+        return mVersions.computeIfAbsent(key, k -> {
+            try {
+                PackageVersion version = mResolver.resolve(packageName, apkPath, classLoader);
+                if (version != null) return version;
+            } catch (Throwable t) {
+                logE(TAG, "getPackageInfo failed for " + packageName + ": " + t);
+            }
+            try {
+                PackageVersion version = mFallback.resolve(packageName, apkPath, classLoader);
+                if (version != null) return version;
+            } catch (Throwable t) {
+                logE(TAG, "parsePackage failed for " + apkPath + ": " + t);
+            }
+            return PackageVersion.UNKNOWN;
+        });
+    }
+
+    private static PackageVersion resolveFromPackageManager(String packageName, String apkPath, ClassLoader classLoader) throws Throwable {
+        Context context = AndroidAppHelper.currentApplication();
+        if (context == null) {
+            // Application 尚未创建时使用系统 Context
+            Object activityThread = XposedHelpers.callStaticMethod(
+                XposedHelpers.findClass("android.app.ActivityThread", null), "currentActivityThread");
+            if (activityThread == null) return null;
+            context = (Context) XposedHelpers.callMethod(activityThread, "getSystemContext");
+        }
+        PackageInfo info = context.getPackageManager().getPackageInfo(packageName, PackageManager.MATCH_DISABLED_COMPONENTS);
+        if (!apkPath.equals(info.applicationInfo.sourceDir)) return null;
+        return new PackageVersion(info.versionName, (int) info.getLongVersionCode());
+    }
+
+    private static PackageVersion resolveFromParser(String packageName, String apkPath, ClassLoader classLoader) throws Throwable {
+        Class<?> parserCls = XposedHelpers.findClass("android.content.pm.PackageParser", classLoader);
+        if (apkPath.contains("com.miui.securecenter") && !sAspectRatioHooked) {
+            sAspectRatioHooked = true;
+            XposedHelpers.findAndHookMethod(parserCls, "setMaxAspectRatio", float.class, new XC_MethodHook() {
+                @Override
+                protected void beforeHookedMethod(MethodHookParam param) throws Throwable {
+                    Object arg0 = param.args[0];
+                    if (arg0 instanceof Integer) param.args[0] = (float) (int) arg0;
+                }
+            });
+        }
+        Object parser = parserCls.getDeclaredConstructor().newInstance();
+        Object pkg = XposedHelpers.callMethod(parser, "parsePackage", new File(apkPath), 0);
+        return new PackageVersion((String) XposedHelpers.getObjectField(pkg, "mVersionName"),
+            XposedHelpers.getIntField(pkg, "mVersionCode"));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.base.tool;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.util.Log;
+
+import com.sevtinge.hyperceiler.hook.utils.prefs.PrefsUtils;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 维护模块数据目录与配置文件的权限
+ * <p>
+ * 连续的写入事件在 DEBOUNCE_MS 内合并为一次处理，由同一个后台线程执行；
+ * 处理时先 Os.stat 比对权限，只有不一致时才 chmod。
+ */
+public final class PermissionMaintainer {
+    private static final String TAG = "PermissionMaintainer";
+    static final long DEBOUNCE_MS = 500;
+    private static final int MODE_ALL = 0777;
+
+    private static volatile PermissionMaintainer sInstance;
+
+    private final LongSupplier mClock;
+    private final ScheduledExecutorService mExecutor;
+    private final long mDelayMs;
+    private final Runnable mPass;
+
+    private long mLastRequest;
+    private boolean mScheduled = false;
+
+    PermissionMaintainer(LongSupplier clock, ScheduledExecutorService executor, long delayMs, Runnable pass) {
+        mClock = clock;
+        mExecutor = executor;
+        mDelayMs = delayMs;
+        mPass = pass;
+    }
+
+    public static PermissionMaintainer get(Context context) {
+        if (sInstance == null) {
+            synchronized (PermissionMaintainer.class) {
+                if (sInstance == null) {
+                    Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+                    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, TAG);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    sInstance = new PermissionMaintainer(SystemClock::uptimeMillis, executor, DEBOUNCE_MS,
+                        () -> fixPermissions(appContext));
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /*登记一次修改，最后一次登记后 mDelayMs 内无新登记才执行*/
+    public synchronized void request() {
+        mLastRequest = mClock.getAsLong();
+        if (mScheduled) return;
+        mScheduled = true;
+        mExecutor.schedule(this::onTimeout, mDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void onTimeout() {
+        synchronized (this) {
+            long remaining = mLastRequest + mDelayMs - mClock.getAsLong();
+            if (remaining > 0) {
+                mExecutor.schedule(this::onTimeout, remaining, TimeUnit.MILLISECONDS);
+                return;
+            }
+            mScheduled = false;
+        }
+        try {
+            mPass.run();
+        } catch (Throwable t) {
+            Log.e(TAG, "Failed to fix permissions", t);
+        }
+    }
+
+    private static void fixPermissions(Context context) {
+        ensureMode(context.getDataDir());
+        ensureMode(new File(PrefsUtils.getSharedPrefsPath()));
+        ensureMode(new File(PrefsUtils.getSharedPrefsFile()));
+    }
+
+    private static void ensureMode(File file) {
+        if (file == null) return;
+        String path = file.getPath();
+        try {
+            int mode = Os.stat(path).st_mode;
+            if ((mode & MODE_ALL) == MODE_ALL) return;
+            Os.chmod(path, (mode & 07777) | MODE_ALL);
+        } catch (ErrnoException e) {
+            // 文件尚未创建
+        }
+    }
+}
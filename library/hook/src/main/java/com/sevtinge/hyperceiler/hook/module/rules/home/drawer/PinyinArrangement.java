@@ -24,7 +24,13 @@ import android.os.LocaleList;
 
 import com.sevtinge.hyperceiler.hook.module.base.BaseHook;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.robv.android.xposed.XposedHelpers;
 
@@ -32,36 +38,54 @@ public class PinyinArrangement extends BaseHook {
     LocaleList locale;
     Activity activity;
 
+    // 按应用名缓存分组标签，语言变化时整体失效
+    private final Map<String, String> mSectionCache = new ConcurrentHashMap<>();
+    private volatile LocaleList mCacheLocales;
+
+    private Class<?> mPinyin;
+    private MethodHandle mTrim;
+    private MethodHandle mBaseIndexGetter;
+    private MethodHandle mDefaultMiscLabelGetter;
+    private volatile MethodHandle mGetBucketIndex;
+    private volatile MethodHandle mGetBucketLabel;
+
     @Override
     public void init() {
-        findAndHookMethod("com.miui.home.launcher.compat.AlphabeticIndexCompat",
+        Class<?> alphabeticIndexCompat = findClassIfExists("com.miui.home.launcher.compat.AlphabeticIndexCompat");
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Method trim = XposedHelpers.findMethodExact("com.miui.home.launcher.common.Utilities", lpparam.classLoader, "trim", CharSequence.class);
+            mTrim = lookup.unreflect(trim);
+            Field baseIndex = XposedHelpers.findField(alphabeticIndexCompat, "mBaseIndex");
+            mBaseIndexGetter = lookup.unreflectGetter(baseIndex);
+            Field defaultMiscLabel = XposedHelpers.findField(alphabeticIndexCompat, "mDefaultMiscLabel");
+            mDefaultMiscLabelGetter = lookup.unreflectGetter(defaultMiscLabel);
+        } catch (Throwable t) {
+            logE(TAG, "resolve AlphabeticIndexCompat members failed: " + t);
+            return;
+        }
+        // 仅作为内置首字母表无法识别时的回退
+        mPinyin = findClassIfExists("com.github.promeg.pinyinhelper.Pinyin");
+
+        findAndHookMethod(alphabeticIndexCompat,
                 "computeSectionName", CharSequence.class, new MethodHook() {
                     @Override
-                    protected void before(MethodHookParam param) {
+                    protected void before(MethodHookParam param) throws Throwable {
                         CharSequence charSequence = (CharSequence) param.args[0];
-                        String bucketLabel;
-                        Class<?> Pinyin = findClassIfExists("com.github.promeg.pinyinhelper.Pinyin");
-                        if (Pinyin == null) {
-                            logE(TAG, "Pinyin is null!");
-                            return;
+                        if (charSequence == null) return;
+                        LocaleList current = LocaleList.getDefault();
+                        if (!current.equals(mCacheLocales)) {
+                            mSectionCache.clear();
+                            mCacheLocales = current;
                         }
-                        String trim = (String) XposedHelpers.callStaticMethod(findClass("com.miui.home.launcher.common.Utilities"), "trim", charSequence);
-                        if (charSequence.length() > 0 && (boolean) XposedHelpers.callStaticMethod(Pinyin, "isChinese", charSequence.charAt(0))) {
-                            bucketLabel = String.valueOf(
-                                    ((String) XposedHelpers.callStaticMethod(Pinyin, "toPinyin", charSequence.toString(), "")).charAt(0));
-                        } else {
-                            Object o = XposedHelpers.getObjectField(param.thisObject, "mBaseIndex");
-                            bucketLabel = (String) XposedHelpers.callMethod(o, "getBucketLabel", XposedHelpers.callMethod(o, "getBucketIndex", trim));
+                        String key = charSequence.toString();
+                        String cached = mSectionCache.get(key);
+                        if (cached == null) {
+                            cached = computeSectionName(param.thisObject, charSequence);
+                            if (cached == null) return;
+                            mSectionCache.put(key, cached);
                         }
-                        // logE("bucketLabel: " + bucketLabel + " trim1: " + trim);
-                        String trim2 = (String) XposedHelpers.callStaticMethod(findClass("com.miui.home.launcher.common.Utilities"), "trim", bucketLabel);
-                        // logE("trim2: " + trim2);
-                        if (!trim2.isEmpty() || trim.length() <= 0) {
-                            param.setResult(bucketLabel);
-                            return;
-                        }
-                        int codePointAt = trim.codePointAt(0);
-                        param.setResult(Character.isDigit(codePointAt) ? "…" : Character.isLetter(codePointAt) ? (String) XposedHelpers.getObjectField(param.thisObject, "mDefaultMiscLabel") : "∙");
+                        param.setResult(cached);
                     }
                 }
         );
@@ -84,4 +108,36 @@ public class PinyinArrangement extends BaseHook {
         );
 
     }
+
+    private String computeSectionName(Object indexCompat, CharSequence charSequence) throws Throwable {
+        String trim = (String) mTrim.invoke(charSequence);
+        String bucketLabel = null;
+        if (charSequence.length() > 0 && PinyinInitials.isChinese(charSequence.charAt(0))) {
+            char initial = PinyinInitials.initialOf(charSequence.charAt(0));
+            if (initial != 0) {
+                bucketLabel = String.valueOf(initial);
+            } else if (mPinyin != null) {
+                bucketLabel = String.valueOf(
+                        ((String) XposedHelpers.callStaticMethod(mPinyin, "toPinyin", charSequence.toString(), "")).charAt(0));
+            }
+        }
+        if (bucketLabel == null) {
+            Object o = mBaseIndexGetter.invoke(indexCompat);
+            if (mGetBucketIndex == null) {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                Method getBucketIndex = XposedHelpers.findMethodBestMatch(o.getClass(), "getBucketIndex", trim);
+                Method getBucketLabel = XposedHelpers.findMethodBestMatch(o.getClass(), "getBucketLabel", 0);
+                mGetBucketLabel = lookup.unreflect(getBucketLabel);
+                mGetBucketIndex = lookup.unreflect(getBucketIndex);
+            }
+            int bucketIndex = (int) mGetBucketIndex.invoke(o, trim);
+            bucketLabel = (String) mGetBucketLabel.invoke(o, bucketIndex);
+        }
+        String trim2 = (String) mTrim.invoke(bucketLabel);
+        if (!trim2.isEmpty() || trim.isEmpty()) {
+            return bucketLabel;
+        }
+        int codePointAt = trim.codePointAt(0);
+        return Character.isDigit(codePointAt) ? "…" : Character.isLetter(codePointAt) ? (String) mDefaultMiscLabelGetter.invoke(indexCompat) : "∙";
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.rules.home.drawer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+
+/**
+ * 内置的汉字拼音首字母表
+ * <p>
+ * GB2312 一级汉字按拼音排序，只需记录每个首字母的起始区位码即可二分查出首字母，
+ * 二级汉字（按部首排序）与生僻字返回 0，由调用方自行回退。
+ */
+final class PinyinInitials {
+    // 各首字母在 GB2312 中的起始区位码，最后一项为一级汉字结束位置
+    private static final int[] BOUNDARIES = {
+            1601, 1637, 1833, 2078, 2274, 2302, 2433, 2594, 2787, 3106, 3212, 3472,
+            3635, 3722, 3730, 3858, 4027, 4086, 4390, 4558, 4684, 4925, 5249, 5590
+    };
+    private static final char[] INITIALS = "ABCDEFGHJKLMNOPQRSTWXYZ".toCharArray();
+
+    private static final ThreadLocal<CharsetEncoder> ENCODER =
+            ThreadLocal.withInitial(() -> Charset.forName("GBK").newEncoder());
+
+    private PinyinInitials() {
+    }
+
+    static boolean isChinese(char c) {
+        return c >= '一' && c <= '龥';
+    }
+
+    /**
+     * @return 大写拼音首字母，无法识别时返回 0
+     */
+    static char initialOf(char c) {
+        if (!isChinese(c)) return 0;
+        int code = gb2312Code(c);
+        if (code < BOUNDARIES[0] || code > BOUNDARIES[BOUNDARIES.length - 1]) return 0;
+        int lo = 0, hi = INITIALS.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (code >= BOUNDARIES[mid]) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return INITIALS[lo];
+    }
+
+    private static int gb2312Code(char c) {
+        ByteBuffer out;
+        try {
+            out = ENCODER.get().encode(CharBuffer.wrap(new char[]{c}));
+        } catch (CharacterCodingException e) {
+            return -1;
+        }
+        if (out.remaining() != 2) return -1;
+        int high = (out.get() & 0xFF) - 0xA0;
+        int low = (out.get() & 0xFF) - 0xA0;
+        return high * 100 + low;
+    }
+}
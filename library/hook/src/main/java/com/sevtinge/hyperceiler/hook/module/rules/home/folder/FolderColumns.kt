@@ -18,6 +18,7 @@
 */
 package com.sevtinge.hyperceiler.hook.module.rules.home.folder
 
+import android.content.res.Configuration
 import android.graphics.Rect
 import android.text.TextUtils
 import android.view.View
@@ -39,6 +40,7 @@ import com.sevtinge.hyperceiler.hook.utils.extension.setPaddingSide
 import com.sevtinge.hyperceiler.hook.utils.getObjectFieldAs
 import com.sevtinge.hyperceiler.hook.utils.hookAfterAllMethods
 import com.sevtinge.hyperceiler.hook.utils.setIntField
+import java.util.WeakHashMap
 
 object FolderColumns : HomeBaseHookNew() {
     private const val FOLDER = "com.miui.home.launcher.Folder"
@@ -46,130 +48,106 @@ object FolderColumns : HomeBaseHookNew() {
     private const val ANIM_CONTROLLER = "com.miui.home.launcher.folder.FolderAnimController"
     private const val ANIM_CONTROLLER_NEW = "com.miui.home.folder.FolderAnimController"
 
+    // 文件夹布局参数，只在配置或设置变化时重新计算
+    private data class FolderLayoutSpec(
+        val columns: Int,
+        val fullScreenWidth: Boolean,
+        val applySidePadding: Boolean,
+        val sidePadding: Int,
+        // 标题与首个图标对齐时的额外偏移，titlePosition != 0 时为 -1
+        val titleSpace: Int,
+        val centerTitle: Boolean
+    )
+
+    private data class SpecKey(
+        val orientation: Int,
+        val screenWidthDp: Int,
+        val densityDpi: Int,
+        val padding: Int
+    )
+
+    // 每个文件夹只取一次的视图引用，以及上次应用的状态
+    private class FolderViews(folder: ViewGroup, withGrid: Boolean) {
+        val background = folder.getObjectFieldAs<ViewGroup>("mBackgroundView")
+        val header = folder.getObjectFieldAs<View>("mHeader")
+        val title = folder.getObjectFieldAs<TextView>("mTitleText")
+        val rename = folder.getObjectFieldAs<EditText>("mRenameEdit")
+        val grid = if (withGrid) folder.getObjectFieldAs<FrameLayout>("mFolderGrid") else null
+        val content = folder.getObjectFieldAs<GridView>("mContent")
+        var spec: FolderLayoutSpec? = null
+        var width = -1
+        var waitingLayout = false
+    }
+
+    private val folderViews = WeakHashMap<ViewGroup, FolderViews>()
+    private val firstItemRect = Rect()
+    private var specKey: SpecKey? = null
+    private var spec: FolderLayoutSpec? = null
+
+    // 各文件夹的列布局相同，首个图标的位置在任一文件夹中测得即可共用，布局参数变化时重新测量
+    private var firstItemLeft = 0
+
     @Version(isPad = false, min = 600000000)
     private fun initForNewHome() {
-        val titlePosition = mPrefsMap.getStringAsInt("home_folder_title_pos", 0)
-        val isFullScreenWidthHook = mPrefsMap.getBoolean("home_folder_width")
-        val isHorPaddingHook = mPrefsMap.getBoolean("home_folder_horizontal_padding_enable")
         val columns = mPrefsMap.getInt("home_folder_columns", 3)
+        if (columns != 3) hookAnimController(ANIM_CONTROLLER_NEW, columns)
+        hookFolder(FOLDER_NEW, DEVICE_CONFIG_NEW, columns, false) { "home_folder_horizontal_padding" }
+    }
 
-        if (columns != 3) {
-            findClassIfExists(ANIM_CONTROLLER_NEW)?.let {
-                it.hookAfterAllMethods("setupView") { param ->
-                    val controller = param.thisObject
-
-                    val mAnimaFolderGridView =
-                        controller.getObjectFieldAs<GridView>("mAnimaFolderGridView")
-                    controller.setIntField(
-                        "DISPLAY_COUNT_MAX",
-                        mAnimaFolderGridView.callMethodAs<Int>("getMaxRow") * columns
-                    )
-                    controller.setIntField("mFolderColumnCount", columns)
-                }
+    @Version(isPad = true, min = 450000000)
+    private fun initPadHook() {
+        val columns = mPrefsMap.getInt("home_folder_columns", 4)
+        hookFolder(FOLDER, DEVICE_CONFIG_OLD, columns, false) { config ->
+            if (config.orientation == Configuration.ORIENTATION_LANDSCAPE) {
+                "home_folder_horizontal_padding_pad_h"
+            } else {
+                "home_folder_horizontal_padding_pad_v"
             }
         }
+    }
 
-        findClassIfExists(FOLDER_NEW).hookAfterAllMethods("onOpen") { param ->
-            param.thisObject.getObjectFieldAs<TextView>("mTitleText").also { mTitleText ->
-                if (mTitleText.ellipsize == TextUtils.TruncateAt.MARQUEE) {
-                    return@also
-                }
+    override fun initBase() {
+        val columns = mPrefsMap.getInt("home_folder_columns", 3)
 
-                mTitleText.ellipsize = TextUtils.TruncateAt.MARQUEE
-                mTitleText.isHorizontalFadingEdgeEnabled = true
-                mTitleText.setSingleLine()
-                mTitleText.marqueeRepeatLimit = -1
-                mTitleText.isSelected = true
-                mTitleText.setHorizontallyScrolling(true)
-            }
+        if (isPad()) {
+            // 你米的代码是真的老啊......
+            initPadHook()
+            return
         }
 
-        val firstItemRect = Rect()
-        findClassIfExists(FOLDER_NEW).hookAfterAllMethods("bind") { param ->
-            val folder = param.thisObject as ViewGroup
-
-            val mBackgroundView = folder.getObjectFieldAs<ViewGroup>("mBackgroundView")
-            val mHeader = folder.getObjectFieldAs<View>("mHeader")
-            val mTitleText = folder.getObjectFieldAs<TextView>("mTitleText")
-            val mRenameEdit = folder.getObjectFieldAs<EditText>("mRenameEdit")
-            val mContent = folder.getObjectFieldAs<GridView>("mContent")
-            mContent.numColumns = columns
-
-            if (isFullScreenWidthHook) {
-                mBackgroundView.setPadding(0)
-
-                val setFullScreenWidth = { view: View ->
-                    view.layoutParams = view.layoutParams.also { lp ->
-                        lp.width = ViewGroup.LayoutParams.MATCH_PARENT
-                    }
-                }
-
-                setFullScreenWidth(mContent)
-                setFullScreenWidth(mHeader)
-                setFullScreenWidth(mTitleText)
-                setFullScreenWidth(mRenameEdit)
-
-                var sidePadding = 0
-                if (isHorPaddingHook) {
-                    sidePadding = DisplayUtils.dp2px(
-                        mPrefsMap.getInt("home_folder_horizontal_padding", 0).toFloat()
-                    )
-                    mContent.setPaddingSide(sidePadding)
-                    mHeader.setPaddingSide(sidePadding)
-                }
-
-                if (titlePosition == 0) {
-                    val setTitlePadding = {
-                        if (firstItemRect.left >= sidePadding) {
-                            val configClass = findClassIfExists(DEVICE_CONFIG_NEW)
-                            val space = (configClass.callStaticMethodAs<Int>("getCellWidth") -
-                                configClass.callStaticMethodAs<Int>("getIconWidth")) / 2
-
-                            val fixedValue = DisplayUtils.dp2px(4.0f)
-                            mTitleText.setPaddingLeft(firstItemRect.left - sidePadding + space + fixedValue)
-                            mRenameEdit.setPaddingLeft(firstItemRect.left - sidePadding + space + fixedValue)
-                        }
-                    }
-
-                    if (firstItemRect.left == 0) {
-                        mContent.viewTreeObserver.addOnGlobalLayoutListener(
-                            object : OnGlobalLayoutListener {
-                                override fun onGlobalLayout() {
-                                    if (mContent.isNotEmpty() &&
-                                        mContent.getChildAt(mContent.childCount - 1).bottom <= mContent.bottom
-                                    ) {
-                                        mContent.getChildAt(0).getGlobalVisibleRect(firstItemRect)
-                                        setTitlePadding()
-                                    }
-
-                                    mContent.viewTreeObserver.removeOnGlobalLayoutListener(this)
-                                }
-                            }
-                        )
-                    } else {
-                        setTitlePadding()
-                    }
-                }
-            }
+        if (columns != 3) hookAnimController(ANIM_CONTROLLER, columns)
+        hookFolder(FOLDER, DEVICE_CONFIG_OLD, columns, true) { "home_folder_horizontal_padding" }
+    }
 
-            if (titlePosition == 1) {
-                mTitleText.textAlignment = View.TEXT_ALIGNMENT_CENTER
-                mRenameEdit.textAlignment = View.TEXT_ALIGNMENT_CENTER
+    private fun hookAnimController(className: String, columns: Int) {
+        findClassIfExists(className)?.let {
+            it.hookAfterAllMethods("setupView") { param ->
+                val controller = param.thisObject
 
-                mTitleText.setPaddingLeft(mTitleText.paddingRight)
-                mRenameEdit.setPaddingLeft(mRenameEdit.paddingRight)
+                val mAnimaFolderGridView =
+                    controller.getObjectFieldAs<GridView>("mAnimaFolderGridView")
+                controller.setIntField(
+                    "DISPLAY_COUNT_MAX",
+                    mAnimaFolderGridView.callMethodAs<Int>("getMaxRow") * columns
+                )
+                controller.setIntField("mFolderColumnCount", columns)
             }
         }
     }
 
-    @Version(isPad = true, min = 450000000)
-    private fun initPadHook() {
+    private fun hookFolder(
+        folderClass: String,
+        deviceConfigClass: String,
+        columns: Int,
+        withGrid: Boolean,
+        paddingKey: (Configuration) -> String
+    ) {
         val titlePosition = mPrefsMap.getStringAsInt("home_folder_title_pos", 0)
         val isFullScreenWidthHook = mPrefsMap.getBoolean("home_folder_width")
         val isHorPaddingHook = mPrefsMap.getBoolean("home_folder_horizontal_padding_enable")
-        val columns = mPrefsMap.getInt("home_folder_columns", 4)
+        val configClass = findClassIfExists(deviceConfigClass)
 
-        findClassIfExists(FOLDER).hookAfterAllMethods("onOpen") { param ->
+        findClassIfExists(folderClass).hookAfterAllMethods("onOpen") { param ->
             param.thisObject.getObjectFieldAs<TextView>("mTitleText").also { mTitleText ->
                 if (mTitleText.ellipsize == TextUtils.TruncateAt.MARQUEE) {
                     return@also
@@ -184,214 +162,131 @@ object FolderColumns : HomeBaseHookNew() {
             }
         }
 
-        val firstItemRect = Rect()
-        findClassIfExists(FOLDER).hookAfterAllMethods("bind") { param ->
+        findClassIfExists(folderClass).hookAfterAllMethods("bind") { param ->
             val folder = param.thisObject as ViewGroup
-
-            val mBackgroundView = folder.getObjectFieldAs<ViewGroup>("mBackgroundView")
-            val mHeader = folder.getObjectFieldAs<View>("mHeader")
-            val mTitleText = folder.getObjectFieldAs<TextView>("mTitleText")
-            val mRenameEdit = folder.getObjectFieldAs<EditText>("mRenameEdit")
-            val mContent = folder.getObjectFieldAs<GridView>("mContent")
-            mContent.numColumns = columns
-
-            if (isFullScreenWidthHook) {
-                mBackgroundView.setPadding(0)
-
-                val setFullScreenWidth = { view: View ->
-                    view.layoutParams = view.layoutParams.also { lp ->
-                        lp.width = ViewGroup.LayoutParams.MATCH_PARENT
-                    }
-                }
-
-                setFullScreenWidth(mContent)
-                setFullScreenWidth(mHeader)
-                setFullScreenWidth(mTitleText)
-                setFullScreenWidth(mRenameEdit)
-
-                var sidePadding = 0
-                if (isHorPaddingHook) {
-                    sidePadding = if (mContent.resources.configuration.orientation ==
-                        android.content.res.Configuration.ORIENTATION_LANDSCAPE
-                    ) {
-                        DisplayUtils.dp2px(
-                            mPrefsMap.getInt("home_folder_horizontal_padding_pad_h", 0).toFloat()
-                        )
-                    } else {
-                        DisplayUtils.dp2px(
-                            mPrefsMap.getInt("home_folder_horizontal_padding_pad_v", 0).toFloat()
-                        )
-                    }
-                    mContent.setPaddingSide(sidePadding)
-                    mHeader.setPaddingSide(sidePadding)
-                }
-
-                if (titlePosition == 0) {
-                    val setTitlePadding = {
-                        if (firstItemRect.left >= sidePadding) {
-                            val configClass = findClassIfExists(DEVICE_CONFIG_OLD)
-                            val space = (configClass.callStaticMethodAs<Int>("getCellWidth") -
-                                configClass.callStaticMethodAs<Int>("getIconWidth")) / 2
-
-                            val fixedValue = DisplayUtils.dp2px(4.0f)
-                            mTitleText.setPaddingLeft(firstItemRect.left - sidePadding + space + fixedValue)
-                            mRenameEdit.setPaddingLeft(firstItemRect.left - sidePadding + space + fixedValue)
-                        }
-                    }
-
-                    if (firstItemRect.left == 0) {
-                        mContent.viewTreeObserver.addOnGlobalLayoutListener(
-                            object : OnGlobalLayoutListener {
-                                override fun onGlobalLayout() {
-                                    if (mContent.isNotEmpty() &&
-                                        mContent.getChildAt(mContent.childCount - 1).bottom <= mContent.bottom
-                                    ) {
-                                        mContent.getChildAt(0).getGlobalVisibleRect(firstItemRect)
-                                        setTitlePadding()
-                                    }
-
-                                    mContent.viewTreeObserver.removeOnGlobalLayoutListener(this)
-                                }
-                            }
-                        )
-                    } else {
-                        setTitlePadding()
-                    }
-                }
+            val views = folderViews.getOrPut(folder) { FolderViews(folder, withGrid) }
+            val config = folder.resources.configuration
+            val applySidePadding = isFullScreenWidthHook && isHorPaddingHook
+            val padding = if (applySidePadding) mPrefsMap.getInt(paddingKey(config), 0) else 0
+
+            val key = SpecKey(config.orientation, config.screenWidthDp, config.densityDpi, padding)
+            val current = spec?.takeIf { key == specKey } ?: FolderLayoutSpec(
+                columns = columns,
+                fullScreenWidth = isFullScreenWidthHook,
+                applySidePadding = applySidePadding,
+                sidePadding = if (applySidePadding) DisplayUtils.dp2px(padding.toFloat()) else 0,
+                titleSpace = if (isFullScreenWidthHook && titlePosition == 0) {
+                    (configClass.callStaticMethodAs<Int>("getCellWidth") -
+                        configClass.callStaticMethodAs<Int>("getIconWidth")) / 2 +
+                        DisplayUtils.dp2px(4.0f)
+                } else -1,
+                centerTitle = titlePosition == 1
+            ).also {
+                spec = it
+                specKey = key
+                firstItemLeft = 0
             }
 
-            if (titlePosition == 1) {
-                mTitleText.textAlignment = View.TEXT_ALIGNMENT_CENTER
-                mRenameEdit.textAlignment = View.TEXT_ALIGNMENT_CENTER
-
-                mTitleText.setPaddingLeft(mTitleText.paddingRight)
-                mRenameEdit.setPaddingLeft(mRenameEdit.paddingRight)
-            }
+            applySpec(views, current, folder.width)
         }
     }
 
-    override fun initBase() {
-        val titlePosition = mPrefsMap.getStringAsInt("home_folder_title_pos", 0)
-        val isFullScreenWidthHook = mPrefsMap.getBoolean("home_folder_width")
-        val isHorPaddingHook = mPrefsMap.getBoolean("home_folder_horizontal_padding_enable")
-        val columns = mPrefsMap.getInt("home_folder_columns", 3)
+    private fun applySpec(views: FolderViews, spec: FolderLayoutSpec, width: Int) {
+        if (views.spec == spec && views.width == width && isStillApplied(views, spec)) return
+        views.spec = spec
+        views.width = width
 
-        if (isPad()) {
-            // 你米的代码是真的老啊......
-            initPadHook()
-            return
-        }
+        views.content.numColumns = spec.columns
 
-        if (columns != 3) {
-            findClassIfExists(ANIM_CONTROLLER)?.let {
-                it.hookAfterAllMethods("setupView") { param ->
-                    val controller = param.thisObject
-
-                    val mAnimaFolderGridView =
-                        controller.getObjectFieldAs<GridView>("mAnimaFolderGridView")
-                    controller.setIntField(
-                        "DISPLAY_COUNT_MAX",
-                        mAnimaFolderGridView.callMethodAs<Int>("getMaxRow") * columns
-                    )
-                    controller.setIntField("mFolderColumnCount", columns)
-                }
-            }
-        }
+        if (spec.fullScreenWidth) {
+            views.background.setPadding(0)
 
-        findClassIfExists(FOLDER).hookAfterAllMethods("onOpen") { param ->
-            param.thisObject.getObjectFieldAs<TextView>("mTitleText").also { mTitleText ->
-                if (mTitleText.ellipsize == TextUtils.TruncateAt.MARQUEE) {
-                    return@also
-                }
+            views.grid?.let { setFullScreenWidth(it) }
+            setFullScreenWidth(views.content)
+            setFullScreenWidth(views.header)
+            setFullScreenWidth(views.title)
+            setFullScreenWidth(views.rename)
 
-                mTitleText.ellipsize = TextUtils.TruncateAt.MARQUEE
-                mTitleText.isHorizontalFadingEdgeEnabled = true
-                mTitleText.setSingleLine()
-                mTitleText.marqueeRepeatLimit = -1
-                mTitleText.isSelected = true
-                mTitleText.setHorizontallyScrolling(true)
+            if (spec.applySidePadding) {
+                views.grid?.setPaddingSide(spec.sidePadding)
+                views.content.setPaddingSide(spec.sidePadding)
+                views.header.setPaddingSide(spec.sidePadding)
             }
-        }
-
-        val firstItemRect = Rect()
-        findClassIfExists(FOLDER).hookAfterAllMethods("bind") { param ->
-            val folder = param.thisObject as ViewGroup
 
-            val mBackgroundView = folder.getObjectFieldAs<ViewGroup>("mBackgroundView")
-            val mHeader = folder.getObjectFieldAs<View>("mHeader")
-            val mTitleText = folder.getObjectFieldAs<TextView>("mTitleText")
-            val mRenameEdit = folder.getObjectFieldAs<EditText>("mRenameEdit")
-            val mFolderGrid = folder.getObjectFieldAs<FrameLayout>("mFolderGrid")
-            val mContent = folder.getObjectFieldAs<GridView>("mContent")
-            mContent.numColumns = columns
+            if (spec.titleSpace >= 0) alignTitle(views)
+        }
 
-            if (isFullScreenWidthHook) {
-                mBackgroundView.setPadding(0)
+        if (spec.centerTitle) {
+            views.title.textAlignment = View.TEXT_ALIGNMENT_CENTER
+            views.rename.textAlignment = View.TEXT_ALIGNMENT_CENTER
 
-                val setFullScreenWidth = { view: View ->
-                    view.layoutParams = view.layoutParams.also { lp ->
-                        lp.width = ViewGroup.LayoutParams.MATCH_PARENT
-                    }
-                }
+            views.title.setPaddingLeft(views.title.paddingRight)
+            views.rename.setPaddingLeft(views.rename.paddingRight)
+        }
+    }
 
-                setFullScreenWidth(mFolderGrid)
-                setFullScreenWidth(mContent)
-                setFullScreenWidth(mHeader)
-                setFullScreenWidth(mTitleText)
-                setFullScreenWidth(mRenameEdit)
-
-                var sidePadding = 0
-                if (isHorPaddingHook) {
-                    sidePadding = DisplayUtils.dp2px(
-                        mPrefsMap.getInt("home_folder_horizontal_padding", 0).toFloat()
-                    )
-                    mFolderGrid.setPaddingSide(sidePadding)
-                    mContent.setPaddingSide(sidePadding)
-                    mHeader.setPaddingSide(sidePadding)
-                }
+    // 桌面可能在 bind 中重置这些属性，只做几次 getter 判断，不满足时重新应用
+    private fun isStillApplied(views: FolderViews, spec: FolderLayoutSpec): Boolean {
+        if (views.content.numColumns != spec.columns) return false
+        if (spec.centerTitle && (views.title.textAlignment != View.TEXT_ALIGNMENT_CENTER ||
+                views.title.paddingLeft != views.title.paddingRight)
+        ) return false
+        if (!spec.fullScreenWidth) return true
+        if (views.content.layoutParams.width != ViewGroup.LayoutParams.MATCH_PARENT) return false
+        if (spec.applySidePadding && views.content.paddingLeft != spec.sidePadding) return false
+        if (spec.titleSpace < 0) return true
+        // 尚未测得首个图标位置时每次 bind 都重试
+        if (firstItemLeft == 0) return false
+        val paddingLeft = titlePaddingLeft(spec)
+        return paddingLeft < 0 || views.title.paddingLeft == paddingLeft
+    }
 
-                if (titlePosition == 0) {
-                    val setTitlePadding = {
-                        if (firstItemRect.left >= sidePadding) {
-                            val configClass = findClassIfExists(DEVICE_CONFIG_OLD)
-                            val space = (configClass.callStaticMethodAs<Int>("getCellWidth") -
-                                configClass.callStaticMethodAs<Int>("getIconWidth")) / 2
-
-                            val fixedValue = DisplayUtils.dp2px(4.0f)
-                            mTitleText.setPaddingLeft(firstItemRect.left - sidePadding + space + fixedValue)
-                            mRenameEdit.setPaddingLeft(firstItemRect.left - sidePadding + space + fixedValue)
-                        }
-                    }
+    private fun setFullScreenWidth(view: View) {
+        val lp = view.layoutParams
+        if (lp.width == ViewGroup.LayoutParams.MATCH_PARENT) return
+        lp.width = ViewGroup.LayoutParams.MATCH_PARENT
+        view.layoutParams = lp
+    }
 
-                    if (firstItemRect.left == 0) {
-                        mContent.viewTreeObserver.addOnGlobalLayoutListener(
-                            object : OnGlobalLayoutListener {
-                                override fun onGlobalLayout() {
-                                    if (mContent.isNotEmpty() &&
-                                        mContent.getChildAt(mContent.childCount - 1).bottom <= mContent.bottom
-                                    ) {
-                                        mContent.getChildAt(0).getGlobalVisibleRect(firstItemRect)
-                                        setTitlePadding()
-                                    }
-
-                                    mContent.viewTreeObserver.removeOnGlobalLayoutListener(this)
-                                }
-                            }
-                        )
-                    } else {
-                        setTitlePadding()
+    private fun alignTitle(views: FolderViews) {
+        if (firstItemLeft != 0) {
+            setTitlePadding(views)
+            return
+        }
+        if (views.waitingLayout) return
+        views.waitingLayout = true
+
+        val mContent = views.content
+        mContent.viewTreeObserver.addOnGlobalLayoutListener(
+            object : OnGlobalLayoutListener {
+                override fun onGlobalLayout() {
+                    mContent.viewTreeObserver.removeOnGlobalLayoutListener(this)
+                    views.waitingLayout = false
+
+                    if (mContent.isNotEmpty() &&
+                        mContent.getChildAt(mContent.childCount - 1).bottom <= mContent.bottom
+                    ) {
+                        mContent.getChildAt(0).getGlobalVisibleRect(firstItemRect)
+                        firstItemLeft = firstItemRect.left
+                        setTitlePadding(views)
                     }
                 }
             }
+        )
+    }
 
-            if (titlePosition == 1) {
-                mTitleText.textAlignment = View.TEXT_ALIGNMENT_CENTER
-                mRenameEdit.textAlignment = View.TEXT_ALIGNMENT_CENTER
+    private fun setTitlePadding(views: FolderViews) {
+        val spec = views.spec ?: return
+        val paddingLeft = titlePaddingLeft(spec)
+        if (paddingLeft < 0) return
+        views.title.setPaddingLeft(paddingLeft)
+        views.rename.setPaddingLeft(paddingLeft)
+    }
 
-                mTitleText.setPaddingLeft(mTitleText.paddingRight)
-                mRenameEdit.setPaddingLeft(mRenameEdit.paddingRight)
-            }
-        }
+    /*未测得首个图标位置或位置无效时返回 -1*/
+    private fun titlePaddingLeft(spec: FolderLayoutSpec): Int {
+        if (firstItemLeft == 0 || firstItemLeft < spec.sidePadding) return -1
+        return firstItemLeft - spec.sidePadding + spec.titleSpace
     }
 
     /*@Version(isPad = false, max = 539309777)
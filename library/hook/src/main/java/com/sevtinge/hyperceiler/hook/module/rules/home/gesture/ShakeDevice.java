@@ -18,10 +18,7 @@
 */
 package com.sevtinge.hyperceiler.hook.module.rules.home.gesture;
 
-import android.app.Activity;
 import android.content.Context;
-import android.hardware.Sensor;
-import android.hardware.SensorManager;
 
 import com.sevtinge.hyperceiler.hook.module.base.pack.home.HomeBaseHookNew;
 import com.sevtinge.hyperceiler.hook.utils.ShakeManager;
@@ -34,59 +31,48 @@ public class ShakeDevice extends HomeBaseHookNew {
 
     @Version(isPad = false, min = 600000000)
     private void initOS3Hook() {
+        hookLauncher("com.miui.home.launcher.BaseLauncher");
+    }
 
-        findAndHookMethod("com.miui.home.launcher.BaseLauncher", "onResume", new MethodHook() {
-            @Override
-            protected void after(final MethodHookParam param) {
-                ShakeManager shakeMgr = (ShakeManager) XposedHelpers.getAdditionalInstanceField(param.thisObject, shakeMgrKey);
-                if (shakeMgr == null) {
-                    shakeMgr = new ShakeManager((Context) param.thisObject);
-                    XposedHelpers.setAdditionalInstanceField(param.thisObject, shakeMgrKey, shakeMgr);
-                }
-                Activity launcherActivity = (Activity) param.thisObject;
-                SensorManager sensorMgr = (SensorManager) launcherActivity.getSystemService(Context.SENSOR_SERVICE);
-                shakeMgr.reset();
-                sensorMgr.registerListener(shakeMgr, sensorMgr.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), SensorManager.SENSOR_DELAY_NORMAL);
-            }
-        });
+    @Override
+    public void initBase() {
+        hookLauncher("com.miui.home.launcher.Launcher");
+    }
 
-        findAndHookMethod("com.miui.home.launcher.BaseLauncher", "onPause", new MethodHook() {
+    private void hookLauncher(String launcherClass) {
+        findAndHookMethod(launcherClass, "onResume", new MethodHook() {
             @Override
             protected void after(final MethodHookParam param) {
-                if (XposedHelpers.getAdditionalInstanceField(param.thisObject, shakeMgrKey) == null) return;
-                Activity launcherActivity = (Activity) param.thisObject;
-                SensorManager sensorMgr = (SensorManager) launcherActivity.getSystemService(Context.SENSOR_SERVICE);
-                sensorMgr.unregisterListener((ShakeManager) XposedHelpers.getAdditionalInstanceField(param.thisObject, shakeMgrKey));
+                getShakeManager(param.thisObject).setResumed(true);
             }
         });
-    }
 
-    @Override
-    public void initBase() {
-
-        findAndHookMethod("com.miui.home.launcher.Launcher", "onResume", new MethodHook() {
+        findAndHookMethod(launcherClass, "onPause", new MethodHook() {
             @Override
             protected void after(final MethodHookParam param) {
                 ShakeManager shakeMgr = (ShakeManager) XposedHelpers.getAdditionalInstanceField(param.thisObject, shakeMgrKey);
-                if (shakeMgr == null) {
-                    shakeMgr = new ShakeManager((Context) param.thisObject);
-                    XposedHelpers.setAdditionalInstanceField(param.thisObject, shakeMgrKey, shakeMgr);
-                }
-                Activity launcherActivity = (Activity) param.thisObject;
-                SensorManager sensorMgr = (SensorManager) launcherActivity.getSystemService(Context.SENSOR_SERVICE);
-                shakeMgr.reset();
-                sensorMgr.registerListener(shakeMgr, sensorMgr.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), SensorManager.SENSOR_DELAY_NORMAL);
+                if (shakeMgr != null) shakeMgr.setResumed(false);
             }
         });
 
-        findAndHookMethod("com.miui.home.launcher.Launcher", "onPause", new MethodHook() {
+        // 只有桌面主界面允许摇一摇，抽屉、最近任务、编辑模式下注销传感器
+        hookAllMethodsSilently("com.miui.home.launcher.Launcher", "onStateSetStart", new MethodHook() {
             @Override
             protected void after(final MethodHookParam param) {
-                if (XposedHelpers.getAdditionalInstanceField(param.thisObject, shakeMgrKey) == null) return;
-                Activity launcherActivity = (Activity) param.thisObject;
-                SensorManager sensorMgr = (SensorManager) launcherActivity.getSystemService(Context.SENSOR_SERVICE);
-                sensorMgr.unregisterListener((ShakeManager) XposedHelpers.getAdditionalInstanceField(param.thisObject, shakeMgrKey));
+                if (param.args.length == 0 || param.args[0] == null) return;
+                String state = param.args[0].getClass().getSimpleName();
+                getShakeManager(param.thisObject).setShakeAllowed(
+                    state.equals("LauncherState") || state.equals("NormalState"));
             }
         });
     }
+
+    private ShakeManager getShakeManager(Object launcher) {
+        ShakeManager shakeMgr = (ShakeManager) XposedHelpers.getAdditionalInstanceField(launcher, shakeMgrKey);
+        if (shakeMgr == null) {
+            shakeMgr = new ShakeManager((Context) launcher);
+            XposedHelpers.setAdditionalInstanceField(launcher, shakeMgrKey, shakeMgr);
+        }
+        return shakeMgr;
+    }
 }
@@ -19,19 +19,15 @@
 package com.sevtinge.hyperceiler.hook.module.rules.home.recent
 
 import android.annotation.SuppressLint
-import android.app.ActivityManager
 import android.content.Context
-import android.text.format.Formatter
 import android.widget.TextView
 import com.sevtinge.hyperceiler.hook.module.base.BaseHook
-import com.sevtinge.hyperceiler.hook.utils.PropUtils.getProp
 import com.sevtinge.hyperceiler.hook.utils.devicesdk.isPad
 import com.sevtinge.hyperceiler.hook.utils.getObjectField
 import io.github.kyuubiran.ezxhelper.core.finder.ConstructorFinder.`-Static`.constructorFinder
 import io.github.kyuubiran.ezxhelper.core.finder.MethodFinder.`-Static`.methodFinder
 import io.github.kyuubiran.ezxhelper.core.util.ClassUtil.loadClass
 import io.github.kyuubiran.ezxhelper.xposed.dsl.HookFactory.`-Static`.createHook
-import java.text.DecimalFormat
 
 object RealMemory : BaseHook() {
     @SuppressLint("DiscouragedApi")
@@ -40,8 +36,6 @@ object RealMemory : BaseHook() {
         var memoryInfo1StringId: Int? = null
         var memoryInfo2StringId: Int? = null
 
-        fun Any.formatSize(): String = Formatter.formatFileSize(context, this as Long)
-
         val recentContainerClass = loadClass(
             when (isPad()) {
                 false -> "com.miui.home.recents.views.RecentsContainer"
@@ -72,29 +66,11 @@ object RealMemory : BaseHook() {
             .first().createHook {
                 before {
                     it.result = null
-                    val memoryInfo = ActivityManager.MemoryInfo()
-                    val activityManager =
-                        context.getSystemService(Context.ACTIVITY_SERVICE) as ActivityManager
-                    activityManager.getMemoryInfo(memoryInfo)
-                    var totalMem = "\\d+\\.\\d+".toRegex().find(memoryInfo.totalMem.formatSize())?.value
-                    val extmSize = getProp("persist.miui.extm.bdsize")
-                    var extmMem = ""
-                    if (!getProp("persist.miui.extm.enable").equals("0")) {
-                        try {
-                            val number = extmSize.toDouble() / 1024
-                            val df = DecimalFormat("0.00")
-                            extmMem = "+" + df.format(number).toString()
-                        } catch (e: NumberFormatException) {
-                            logE(TAG, lpparam.packageName, "Get extm size failed by: $e"
-                            )
-                        }
-                    }
-                    totalMem = "$totalMem$extmMem GB"
-                    val availMem = memoryInfo.availMem.formatSize()
+                    val snapshot = RecentsMemorySampler.sample(context)
                     (it.thisObject.getObjectField("mTxtMemoryInfo1") as TextView).text =
-                        context.getString(memoryInfo1StringId!!, availMem, totalMem)
+                        context.getString(memoryInfo1StringId!!, snapshot.availText, snapshot.totalText)
                     (it.thisObject.getObjectField("mTxtMemoryInfo2") as TextView).text =
-                        context.getString(memoryInfo2StringId!!, availMem, totalMem)
+                        context.getString(memoryInfo2StringId!!, snapshot.availText, snapshot.totalText)
                 }
             }
     }
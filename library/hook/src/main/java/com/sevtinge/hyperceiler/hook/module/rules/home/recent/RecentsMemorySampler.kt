@@ -0,0 +1,178 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.hook.module.rules.home.recent
+
+import android.app.ActivityManager
+import android.content.Context
+import android.os.SystemClock
+import android.text.format.Formatter
+import com.sevtinge.hyperceiler.hook.utils.PropUtils.getProp
+import com.sevtinge.hyperceiler.hook.utils.log.XposedLogUtils.logW
+import java.io.RandomAccessFile
+import java.text.DecimalFormat
+
+/**
+ * 最近任务内存信息的共享数据源。
+ * 总内存与内存扩展大小只计算一次，可用内存直接读 /proc/meminfo，且最多每 [minIntervalMs] 刷新一次。
+ * 仅在主线程调用。
+ */
+object RecentsMemorySampler {
+    private const val TAG = "RecentsMemorySampler"
+    private const val MEMINFO = "/proc/meminfo"
+    private val MEM_AVAILABLE = "MemAvailable:".toByteArray()
+
+    class Snapshot(
+        val availBytes: Long,
+        val availText: String,
+        val totalText: String
+    )
+
+    var minIntervalMs = 1000L
+
+    private val buffer = ByteArray(4096)
+    private var meminfo: RandomAccessFile? = null
+    private var meminfoFailed = false
+
+    private var totalText: String? = null
+    private var snapshot: Snapshot? = null
+    private var sampledAt = 0L
+
+    fun sample(context: Context): Snapshot {
+        val now = SystemClock.elapsedRealtime()
+        snapshot?.let {
+            if (now - sampledAt < minIntervalMs) return it
+        }
+        val total = totalText ?: formatTotal(context).also { totalText = it }
+        val avail = readMemAvailableBytes() ?: queryMemoryInfo(context).availMem
+        val last = snapshot
+        val next = if (last != null && last.availBytes == avail && last.totalText == total) {
+            last
+        } else {
+            Snapshot(avail, Formatter.formatFileSize(context, avail), total)
+        }
+        snapshot = next
+        sampledAt = now
+        return next
+    }
+
+    private fun queryMemoryInfo(context: Context): ActivityManager.MemoryInfo {
+        val memoryInfo = ActivityManager.MemoryInfo()
+        (context.getSystemService(Context.ACTIVITY_SERVICE) as ActivityManager).getMemoryInfo(memoryInfo)
+        return memoryInfo
+    }
+
+    private fun formatTotal(context: Context): String {
+        val physical = Formatter.formatFileSize(context, queryMemoryInfo(context).totalMem)
+        var extm = ""
+        if (getProp("persist.miui.extm.enable") != "0") {
+            val bdSize = getProp("persist.miui.extm.bdsize")
+            extm = formatExtm(bdSize) ?: run {
+                logW(TAG, "com.miui.home", "Get extm size failed: $bdSize")
+                ""
+            }
+        }
+        return "${leadingDecimal(physical)}$extm GB"
+    }
+
+    private fun readMemAvailableBytes(): Long? {
+        if (meminfoFailed) return null
+        return try {
+            val file = meminfo ?: RandomAccessFile(MEMINFO, "r").also { meminfo = it }
+            file.seek(0)
+            var len = 0
+            while (len < buffer.size) {
+                val n = file.read(buffer, len, buffer.size - len)
+                if (n <= 0) break
+                len += n
+            }
+            val kb = parseMemAvailableKb(buffer, len)
+            if (kb < 0) null else kb * 1024
+        } catch (t: Throwable) {
+            logW(TAG, "com.miui.home", "Read $MEMINFO failed, fallback to ActivityManager: $t")
+            meminfoFailed = true
+            runCatching { meminfo?.close() }
+            meminfo = null
+            null
+        }
+    }
+
+    /**
+     * 从 /proc/meminfo 内容中取出 MemAvailable 的 kB 数值，找不到返回 -1。
+     */
+    @JvmStatic
+    fun parseMemAvailableKb(buf: ByteArray, len: Int): Long {
+        var lineStart = 0
+        while (lineStart < len) {
+            if (startsWith(buf, lineStart, len, MEM_AVAILABLE)) {
+                var i = lineStart + MEM_AVAILABLE.size
+                while (i < len && buf[i] == ' '.code.toByte()) i++
+                var value = 0L
+                var digits = 0
+                while (i < len && buf[i] in '0'.code.toByte()..'9'.code.toByte()) {
+                    value = value * 10 + (buf[i] - '0'.code.toByte())
+                    digits++
+                    i++
+                }
+                return if (digits == 0) -1 else value
+            }
+            while (lineStart < len && buf[lineStart] != '\n'.code.toByte()) lineStart++
+            lineStart++
+        }
+        return -1
+    }
+
+    private fun startsWith(buf: ByteArray, from: Int, len: Int, prefix: ByteArray): Boolean {
+        if (from + prefix.size > len) return false
+        for (i in prefix.indices) {
+            if (buf[from + i] != prefix[i]) return false
+        }
+        return true
+    }
+
+    /**
+     * 取出格式化字符串中的 "x.y" 部分，如 "11.45 GB" -> "11.45"，没有小数时原样返回数字部分。
+     */
+    @JvmStatic
+    fun leadingDecimal(formatted: String): String {
+        var start = -1
+        var end = -1
+        var dot = false
+        for (i in formatted.indices) {
+            val c = formatted[i]
+            if (c.isDigit()) {
+                if (start < 0) start = i
+                end = i + 1
+            } else if ((c == '.' || c == ',') && start >= 0 && !dot && i + 1 < formatted.length && formatted[i + 1].isDigit()) {
+                dot = true
+            } else if (start >= 0) {
+                break
+            }
+        }
+        return if (start < 0) formatted else formatted.substring(start, end)
+    }
+
+    /**
+     * 内存扩展大小以 MB 存于 persist.miui.extm.bdsize，换算为 "+x.xx" GB。
+     */
+    @JvmStatic
+    fun formatExtm(bdSizeMb: String): String? {
+        val number = bdSizeMb.toDoubleOrNull() ?: return null
+        return "+" + DecimalFormat("0.00").format(number / 1024)
+    }
+}
@@ -25,144 +25,108 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 
-import androidx.annotation.NonNull;
-
 import com.sevtinge.hyperceiler.hook.module.base.pack.home.HomeBaseHookNew;
+import com.sevtinge.hyperceiler.hook.utils.FieldAccessor;
+import com.sevtinge.hyperceiler.hook.utils.MethodInvoker;
 import com.sevtinge.hyperceiler.hook.utils.prefs.PrefType;
 import com.sevtinge.hyperceiler.hook.utils.prefs.PrefsChangeObserver;
 
-import java.util.HashSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Set;
 
 import de.robv.android.xposed.XposedHelpers;
 
 public class IconTitleCustomization extends HomeBaseHookNew {
+    private static final String KEY = "home_title_title_icontitlecustomization";
+    private static final IconTitleMap sTitles = new IconTitleMap();
+    private static final FieldAccessor<CharSequence> LABEL = new FieldAccessor<>("mLabel");
+    private static final MethodInvoker IS_APPLICATION = new MethodInvoker("isApplicatoin");
+    private static final MethodInvoker GET_PACKAGE_NAME = new MethodInvoker("getPackageName");
+    private static FieldAccessor<Collection<?>> sLoadedShortcuts;
+    private static PrefsChangeObserver sObserver;
+    private static WeakReference<Activity> sLauncher = new WeakReference<>(null);
 
     @Version(isPad = false, min = 600000000)
     private void initOS3Hook() {
-        findAndHookMethod("com.miui.home.launcher.BaseLauncher",
-            "onCreate", Bundle.class,
-            new MethodHook() {
-                @Override
-                protected void after(MethodHookParam param) {
-                    Activity act = (Activity) param.thisObject;
-                    Context context = act.getBaseContext();
-                    Handler handler = new Handler(context.getMainLooper());
-                    // Handler handler = (Handler) XposedHelpers.getObjectField(param.thisObject, "mHandler");
-                    new PrefsChangeObserver(context, handler, true, "prefs_key_home_title_title_icontitlecustomization") {
-                        @Override
-                        public void onChange(PrefType type, Uri uri, String name, Object def) {
-                            try {
-                                HashSet<?> mAllLoadedApps = getObjects();
-                                Activity act = (Activity) param.thisObject;
-                                for (Object shortcut : mAllLoadedApps) {
-                                    boolean isApplicatoin = (boolean) XposedHelpers.callMethod(shortcut, "isApplicatoin");
-                                    if (!isApplicatoin) continue;
-                                    String pkgName = (String) XposedHelpers.callMethod(shortcut, "getPackageName");
-                                    // String actName = (String) XposedHelpers.callMethod(shortcut, "getClassName");
-                                    // UserHandle user = (UserHandle) XposedHelpers.getObjectField(shortcut, "user");
-                                    CharSequence getApp = getAppName(pkgName);
-                                    if (getApp != null && !getApp.equals("")) {
-                                        // CharSequence newStr = TextUtils.isEmpty(newTitle) ? (CharSequence) XposedHelpers.getAdditionalInstanceField(shortcut, "mLabelOrig") : newTitle;
-                                        XposedHelpers.setObjectField(shortcut, "mLabel", getApp);
-                                        act.runOnUiThread(() -> {
-                                            if (lpparam.packageName.equals("com.miui.home")) {
-                                                XposedHelpers.callMethod(shortcut, "updateBuddyIconView", act);
-                                            } else {
-                                                Object buddyIconView = XposedHelpers.callMethod(shortcut, "getBuddyIconView");
-                                                if (buddyIconView != null)
-                                                    XposedHelpers.callMethod(buddyIconView, "updateInfo", param.thisObject, shortcut);
-                                            }
-                                        });
-                                        break;
-                                    }
-                                }
-                            } catch (Throwable throwable) {
-                                logE(TAG, "e: " + throwable);
-                            }
-                        }
-
-                        @NonNull
-                        private HashSet<?> getObjects() {
-                            HashSet<?> mAllLoadedApps;
-                            if (XposedHelpers.findFieldIfExists(param.thisObject.getClass(), "mAllLoadedShortcut") != null)
-                                mAllLoadedApps = (HashSet<?>) XposedHelpers.getObjectField(param.thisObject, "mAllLoadedShortcut");
-                            else if (XposedHelpers.findFieldIfExists(param.thisObject.getClass(), "mAllLoadedApps") != null)
-                                mAllLoadedApps = (HashSet<?>) XposedHelpers.getObjectField(param.thisObject, "mAllLoadedApps");
-                            else
-                                mAllLoadedApps = (HashSet<?>) XposedHelpers.getObjectField(param.thisObject, "mLoadedAppsAndShortcut");
-                            return mAllLoadedApps;
-                        }
-                    };
-                }
-            }
-        );
-
+        hookLauncher("com.miui.home.launcher.BaseLauncher");
         hook();
     }
 
     @Override
     public void initBase() {
-        findAndHookMethod("com.miui.home.launcher.Launcher",
+        hookLauncher("com.miui.home.launcher.Launcher");
+        hook();
+    }
+
+    private void hookLauncher(String launcherClass) {
+        findAndHookMethod(launcherClass,
             "onCreate", Bundle.class,
             new MethodHook() {
                 @Override
                 protected void after(MethodHookParam param) {
                     Activity act = (Activity) param.thisObject;
+                    sLauncher = new WeakReference<>(act);
+                    // Launcher 重建时只更新引用，整个进程只注册一个监听
+                    if (sObserver != null) return;
                     Context context = act.getBaseContext();
                     Handler handler = new Handler(context.getMainLooper());
-                    // Handler handler = (Handler) XposedHelpers.getObjectField(param.thisObject, "mHandler");
-                    new PrefsChangeObserver(context, handler, true, "prefs_key_home_title_title_icontitlecustomization") {
+                    sObserver = new PrefsChangeObserver(context.getApplicationContext(), handler, true, "prefs_key_" + KEY) {
                         @Override
                         public void onChange(PrefType type, Uri uri, String name, Object def) {
                             try {
-                                HashSet<?> mAllLoadedApps = getObjects();
-                                Activity act = (Activity) param.thisObject;
-                                for (Object shortcut : mAllLoadedApps) {
-                                    boolean isApplicatoin = (boolean) XposedHelpers.callMethod(shortcut, "isApplicatoin");
-                                    if (!isApplicatoin) continue;
-                                    String pkgName = (String) XposedHelpers.callMethod(shortcut, "getPackageName");
-                                    // String actName = (String) XposedHelpers.callMethod(shortcut, "getClassName");
-                                    // UserHandle user = (UserHandle) XposedHelpers.getObjectField(shortcut, "user");
-                                    CharSequence getApp = getAppName(pkgName);
-                                    if (getApp != null && !getApp.equals("")) {
-                                        // CharSequence newStr = TextUtils.isEmpty(newTitle) ? (CharSequence) XposedHelpers.getAdditionalInstanceField(shortcut, "mLabelOrig") : newTitle;
-                                        XposedHelpers.setObjectField(shortcut, "mLabel", getApp);
-                                        act.runOnUiThread(() -> {
-                                            if (lpparam.packageName.equals("com.miui.home")) {
-                                                XposedHelpers.callMethod(shortcut, "updateBuddyIconView", act);
-                                            } else {
-                                                Object buddyIconView = XposedHelpers.callMethod(shortcut, "getBuddyIconView");
-                                                if (buddyIconView != null)
-                                                    XposedHelpers.callMethod(buddyIconView, "updateInfo", param.thisObject, shortcut);
-                                            }
-                                        });
-                                        break;
-                                    }
-                                }
+                                refreshChanged();
                             } catch (Throwable throwable) {
                                 logE(TAG, "e: " + throwable);
                             }
                         }
-
-                        @NonNull
-                        private HashSet<?> getObjects() {
-                            HashSet<?> mAllLoadedApps;
-                            if (XposedHelpers.findFieldIfExists(param.thisObject.getClass(), "mAllLoadedShortcut") != null)
-                                mAllLoadedApps = (HashSet<?>) XposedHelpers.getObjectField(param.thisObject, "mAllLoadedShortcut");
-                            else if (XposedHelpers.findFieldIfExists(param.thisObject.getClass(), "mAllLoadedApps") != null)
-                                mAllLoadedApps = (HashSet<?>) XposedHelpers.getObjectField(param.thisObject, "mAllLoadedApps");
-                            else
-                                mAllLoadedApps = (HashSet<?>) XposedHelpers.getObjectField(param.thisObject, "mLoadedAppsAndShortcut");
-                            return mAllLoadedApps;
-                        }
                     };
                 }
             }
         );
+    }
 
-        hook();
+    /*只刷新标题有变化的应用图标*/
+    private void refreshChanged() {
+        sTitles.sync(mPrefsMap.getStringSet(KEY));
+        Set<String> changed = sTitles.drainChanges();
+        Activity act = sLauncher.get();
+        if (changed.isEmpty() || act == null) return;
+        for (Object shortcut : loadedShortcuts(act)) {
+            if (!(boolean) IS_APPLICATION.invoke(shortcut)) continue;
+            String pkgName = GET_PACKAGE_NAME.invokeAs(shortcut);
+            if (!changed.contains(pkgName)) continue;
+            String title = sTitles.get(pkgName);
+            // 删除自定义后恢复原标题
+            CharSequence label = title != null ? title
+                : (CharSequence) XposedHelpers.getAdditionalInstanceField(shortcut, "mLabelOrig");
+            if (label == null) continue;
+            LABEL.set(shortcut, label);
+            act.runOnUiThread(() -> {
+                if (lpparam.packageName.equals("com.miui.home")) {
+                    XposedHelpers.callMethod(shortcut, "updateBuddyIconView", act);
+                } else {
+                    Object buddyIconView = XposedHelpers.callMethod(shortcut, "getBuddyIconView");
+                    if (buddyIconView != null)
+                        XposedHelpers.callMethod(buddyIconView, "updateInfo", act, shortcut);
+                }
+            });
+        }
+    }
+
+    private static Collection<?> loadedShortcuts(Object launcher) {
+        if (sLoadedShortcuts == null) {
+            Class<?> clazz = launcher.getClass();
+            String field;
+            if (XposedHelpers.findFieldIfExists(clazz, "mAllLoadedShortcut") != null)
+                field = "mAllLoadedShortcut";
+            else if (XposedHelpers.findFieldIfExists(clazz, "mAllLoadedApps") != null)
+                field = "mAllLoadedApps";
+            else
+                field = "mLoadedAppsAndShortcut";
+            sLoadedShortcuts = new FieldAccessor<>(field);
+        }
+        return sLoadedShortcuts.get(launcher);
     }
 
     private void hook() {
@@ -171,7 +135,7 @@ public class IconTitleCustomization extends HomeBaseHookNew {
                 @Override
                 protected void after(MethodHookParam param) {
                     XposedHelpers.setAdditionalInstanceField(param.thisObject,
-                        "mLabelOrig", XposedHelpers.getObjectField(param.thisObject, "mLabel"));
+                        "mLabelOrig", LABEL.get(param.thisObject));
                     if (param.args != null && param.args.length > 0)
                         modifyTitle(param.thisObject);
                 }
@@ -184,7 +148,7 @@ public class IconTitleCustomization extends HomeBaseHookNew {
                 @Override
                 protected void after(MethodHookParam param) {
                     XposedHelpers.setAdditionalInstanceField(param.thisObject, "mLabelOrig",
-                        XposedHelpers.getObjectField(param.thisObject, "mLabel"));
+                        LABEL.get(param.thisObject));
                     modifyTitle(param.thisObject);
                 }
             }
@@ -224,27 +188,18 @@ public class IconTitleCustomization extends HomeBaseHookNew {
     }
 
     public void modifyTitle(Object thisObject) {
-        boolean isApplicatoin = (boolean) XposedHelpers.callMethod(thisObject, "isApplicatoin");
+        boolean isApplicatoin = (boolean) IS_APPLICATION.invoke(thisObject);
         if (!isApplicatoin) return;
-        String pkgName = (String) XposedHelpers.callMethod(thisObject, "getPackageName");
+        String pkgName = GET_PACKAGE_NAME.invokeAs(thisObject);
         // String actName = (String) XposedHelpers.callMethod(thisObject, "getClassName");
         // UserHandle user = (UserHandle) XposedHelpers.getObjectField(thisObject, "user");
-        String newTitle = (String) getAppName(pkgName);
+        String newTitle = getAppName(pkgName);
         if (newTitle != null && !newTitle.isEmpty())
-            XposedHelpers.setObjectField(thisObject, "mLabel", newTitle);
+            LABEL.set(thisObject, newTitle);
     }
 
-    public CharSequence getAppName(String packageName) {
-        String string2 = "";
-        Pattern pattern = Pattern.compile(".*฿(.*)฿.*");
-        for (String edit : mPrefsMap.getStringSet("home_title_title_icontitlecustomization")) {
-            if (edit.contains(packageName + "฿")) {
-                Matcher matcher = pattern.matcher(edit);
-                if (matcher.find()) {
-                    string2 = matcher.group(1);
-                }
-            }
-        }
-        return string2;
+    public String getAppName(String packageName) {
+        sTitles.sync(mPrefsMap.getStringSet(KEY));
+        return sTitles.get(packageName);
     }
 }
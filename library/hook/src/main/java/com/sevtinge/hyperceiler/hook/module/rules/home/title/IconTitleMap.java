@@ -0,0 +1,87 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.rules.home.title;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 图标标题自定义的解析结果
+ * <p>
+ * 记录格式为 包名฿标题฿随机后缀。只在设置集合变化时重新解析，
+ * 并累计标题有变化的包名，供刷新时只更新对应图标
+ */
+final class IconTitleMap {
+    static final char SEPARATOR = '฿';
+
+    private Set<String> mSource;
+    private Map<String, String> mTitles = Collections.emptyMap();
+    private final Set<String> mPendingChanges = new HashSet<>();
+
+    /*设置变更时 PrefsChangeObserver 会放入新的集合对象，对象未变说明内容未变*/
+    synchronized void sync(Set<String> entries) {
+        if (entries == mSource) return;
+        Map<String, String> titles = parse(entries);
+        mPendingChanges.addAll(diff(mTitles, titles));
+        mSource = entries;
+        mTitles = titles;
+    }
+
+    synchronized String get(String packageName) {
+        return mTitles.get(packageName);
+    }
+
+    synchronized Set<String> drainChanges() {
+        if (mPendingChanges.isEmpty()) return Collections.emptySet();
+        Set<String> changes = new HashSet<>(mPendingChanges);
+        mPendingChanges.clear();
+        return changes;
+    }
+
+    static Map<String, String> parse(Collection<String> entries) {
+        Map<String, String> titles = new HashMap<>();
+        for (String entry : entries) {
+            if (entry == null) continue;
+            int first = entry.indexOf(SEPARATOR);
+            int last = entry.lastIndexOf(SEPARATOR);
+            if (first <= 0 || first == last) continue;
+            // 与旧的 .*฿(.*)฿.* 一致，取最后两个分隔符之间的内容
+            String title = entry.substring(entry.lastIndexOf(SEPARATOR, last - 1) + 1, last);
+            if (!title.isEmpty()) titles.put(entry.substring(0, first), title);
+        }
+        return titles;
+    }
+
+    /*返回新增、删除或标题改变的包名*/
+    static Set<String> diff(Map<String, String> before, Map<String, String> after) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            if (!Objects.equals(before.get(entry.getKey()), entry.getValue())) changed.add(entry.getKey());
+        }
+        for (String packageName : before.keySet()) {
+            if (!after.containsKey(packageName)) changed.add(packageName);
+        }
+        return changed;
+    }
+}
@@ -61,7 +61,8 @@ public class AppDisable extends BaseHook {
 
     @Override
     public void init() {
-        boolean isNewSecurityCenter = (getPackageVersionCode(lpparam) >= 40001000 && !isPad()) || (getPackageVersionCode(lpparam) >= 40011000 && isPad());
+        int versionCode = getPackageVersionCode(lpparam);
+        boolean isNewSecurityCenter = (versionCode >= 40001000 && !isPad()) || (versionCode >= 40011000 && isPad());
         String clazzName = !isNewSecurityCenter ? "com.miui.appmanager.ApplicationsDetailsActivity" : "com.miui.appmanager.fragment.ApplicationsDetailsFragment";
 
         findAndHookMethod("com.miui.appmanager.ApplicationsDetailsActivity", "onCreateOptionsMenu", Menu.class, new MethodHook() {
@@ -94,7 +94,8 @@ object LockOneHundredPoints : BaseHook() {
             logD(TAG, lpparam.packageName, "LockOneHundredPoints method is $score")
             logD(TAG, lpparam.packageName, "LockOneHundredPoints 3 method is $score3")
 
-            if ((AppsTool.getPackageVersionCode(lpparam) <= 40001000 && !isPad()) || (AppsTool.getPackageVersionCode(lpparam) <= 40011000 && isPad())) {
+            val versionCode = AppsTool.getPackageVersionCode(lpparam)
+            if ((versionCode <= 40001000 && !isPad()) || (versionCode <= 40011000 && isPad())) {
                 logD(TAG, lpparam.packageName, "LockOneHundredPoints old method is $scoreOld")
                 scoreOld.createHook {
                     returnConstant(0)
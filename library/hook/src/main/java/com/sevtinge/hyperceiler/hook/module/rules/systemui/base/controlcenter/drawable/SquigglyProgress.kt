@@ -23,6 +23,7 @@ import android.annotation.SuppressLint
 import android.content.res.ColorStateList
 import android.graphics.Canvas
 import android.graphics.ColorFilter
+import android.graphics.Matrix
 import android.graphics.Paint
 import android.graphics.Path
 import android.graphics.PixelFormat
@@ -53,6 +54,12 @@ class SquigglyProgress : Drawable() {
     private val wavePaint = Paint()
     private val linePaint = Paint()
     private val path = Path()
+    // 满幅波形按周期平铺后缓存，只在波长、振幅或宽度变化时重建，每帧只做相位平移
+    private val wavePath = Path()
+    private val waveMatrix = Matrix()
+    private var cachedWaveLength = -1f
+    private var cachedAmplitude = -1f
+    private var cachedWidth = -1f
     private var heightFraction = 0f
     private var heightAnimator: ValueAnimator? = null
     private var phaseOffset = 0f
@@ -150,12 +157,14 @@ class SquigglyProgress : Drawable() {
     }
 
     private fun drawTraced(canvas: Canvas) {
+        if (waveLength <= 0f || bounds.isEmpty) return
         if (animate) {
-            invalidateSelf()
             val now = SystemClock.uptimeMillis()
             phaseOffset += (now - lastFrameTime) / 1000f * phaseSpeed
             phaseOffset %= waveLength
             lastFrameTime = now
+            // 不可见时停止自刷新，重新可见时由 setVisible 恢复
+            if (isVisible) invalidateSelf()
         }
         val progress = level / 10_000f
         val totalWidth = bounds.width().toFloat()
@@ -169,37 +178,11 @@ class SquigglyProgress : Drawable() {
                             matchedWaveEndpoint,
                             lerpInv(0f, matchedWaveEndpoint, progress)
                         ))
-        // Build Wiggly Path
         val waveStart = -phaseOffset - waveLength / 2f
-        val waveEnd = if (transitionEnabled) totalWidth else waveProgressPx
-        // helper function, computes amplitude for wave segment
-        val computeAmplitude: (Float, Float) -> Float = { x, sign ->
-            if (transitionEnabled) {
-                val length = transitionPeriods * waveLength
-                val coeff =
-                    lerpInvSat(waveProgressPx + length / 2f, waveProgressPx - length / 2f, x)
-                sign * heightFraction * lineAmplitude * coeff
-            } else {
-                sign * heightFraction * lineAmplitude
-            }
-        }
-        // Reset path object to the start
-        path.rewind()
-        path.moveTo(waveStart, 0f)
-        // Build the wave, incrementing by half the wavelength each time
-        var currentX = waveStart
-        var waveSign = 1f
-        var currentAmp = computeAmplitude(currentX, waveSign)
-        val dist = waveLength / 2f
-        while (currentX < waveEnd) {
-            waveSign = -waveSign
-            val nextX = currentX + dist
-            val midX = currentX + dist / 2
-            val nextAmp = computeAmplitude(nextX, waveSign)
-            path.cubicTo(midX, currentAmp, midX, nextAmp, nextX, nextAmp)
-            currentAmp = nextAmp
-            currentX = nextX
-        }
+        // 过渡区的振幅随屏幕位置变化，无法随相位平移，只能逐帧构建
+        val wave =
+            if (transitionEnabled) buildTransitionWave(waveStart, totalWidth, waveProgressPx)
+            else steadyWave(totalWidth)
         // translate to the start position of the progress bar for all draw commands
         val clipTop = lineAmplitude + strokeWidth
         canvas.save()
@@ -207,13 +190,14 @@ class SquigglyProgress : Drawable() {
         // Draw path up to progress position
         canvas.save()
         canvas.clipRect(0f, -1f * clipTop, totalProgressPx, clipTop)
-        canvas.drawPath(path, wavePaint)
+        if (!transitionEnabled) canvas.translate(-phaseOffset, 0f)
+        canvas.drawPath(wave, wavePaint)
         canvas.restore()
         if (transitionEnabled) {
             // If there's a smooth transition, we draw the rest of the
             // path in a different color (using different clip params)
             canvas.withClip(totalProgressPx, -1f * clipTop, totalWidth, clipTop) {
-                drawPath(path, linePaint)
+                drawPath(wave, linePaint)
             }
         } else {
             // No transition, just draw a flat line to the end of the region.
@@ -226,6 +210,73 @@ class SquigglyProgress : Drawable() {
         canvas.restore()
     }
 
+    /* 相位为 0 的满幅波形，绘制时平移 -phaseOffset，多铺一个周期供平移使用 */
+    private fun steadyWave(totalWidth: Float): Path {
+        if (cachedWaveLength != waveLength || cachedAmplitude != lineAmplitude || cachedWidth < totalWidth) {
+            cachedWaveLength = waveLength
+            cachedAmplitude = lineAmplitude
+            cachedWidth = totalWidth
+            wavePath.rewind()
+            var currentX = -waveLength / 2f
+            wavePath.moveTo(currentX, 0f)
+            var waveSign = 1f
+            val dist = waveLength / 2f
+            val waveEnd = totalWidth + waveLength
+            while (currentX < waveEnd) {
+                waveSign = -waveSign
+                val nextX = currentX + dist
+                val midX = currentX + dist / 2
+                val nextAmp = waveSign * lineAmplitude
+                wavePath.cubicTo(midX, -nextAmp, midX, nextAmp, nextX, nextAmp)
+                currentX = nextX
+            }
+        }
+        if (heightFraction == 1f) return wavePath
+        // 高度动画期间只缩放缓存的波形
+        waveMatrix.setScale(1f, heightFraction)
+        wavePath.transform(waveMatrix, path)
+        return path
+    }
+
+    private fun buildTransitionWave(waveStart: Float, waveEnd: Float, waveProgressPx: Float): Path {
+        val length = transitionPeriods * waveLength
+        val fadeStart = waveProgressPx - length / 2f
+        val fadeEnd = waveProgressPx + length / 2f
+        val amplitude = heightFraction * lineAmplitude
+        // Reset path object to the start
+        path.rewind()
+        path.moveTo(waveStart, 0f)
+        // Build the wave, incrementing by half the wavelength each time
+        var currentX = waveStart
+        var waveSign = 1f
+        var currentAmp = amplitude * lerpInvSat(fadeEnd, fadeStart, currentX)
+        val dist = waveLength / 2f
+        while (currentX < waveEnd) {
+            if (currentX >= fadeEnd) {
+                // 过渡区之后振幅恒为 0，剩余部分就是直线
+                path.lineTo(waveEnd, 0f)
+                break
+            }
+            waveSign = -waveSign
+            val nextX = currentX + dist
+            val midX = currentX + dist / 2
+            val nextAmp = waveSign * amplitude * lerpInvSat(fadeEnd, fadeStart, nextX)
+            path.cubicTo(midX, currentAmp, midX, nextAmp, nextX, nextAmp)
+            currentAmp = nextAmp
+            currentX = nextX
+        }
+        return path
+    }
+
+    override fun setVisible(visible: Boolean, restart: Boolean): Boolean {
+        val changed = super.setVisible(visible, restart)
+        if (changed && visible && animate) {
+            lastFrameTime = SystemClock.uptimeMillis()
+            invalidateSelf()
+        }
+        return changed
+    }
+
     @Deprecated("Deprecated in Java")
     override fun getOpacity(): Int {
         return PixelFormat.TRANSLUCENT
@@ -23,14 +23,16 @@ import android.view.ViewGroup
 import android.widget.TextView
 import androidx.core.view.isVisible
 import com.sevtinge.hyperceiler.hook.module.base.BaseHook
+import com.sevtinge.hyperceiler.hook.utils.FieldAccessor
 import com.sevtinge.hyperceiler.hook.utils.MethodHandleUtils
+import com.sevtinge.hyperceiler.hook.utils.MethodInvoker
 import com.sevtinge.hyperceiler.hook.utils.PropUtils
 import com.sevtinge.hyperceiler.hook.utils.callMethod
-import com.sevtinge.hyperceiler.hook.utils.callMethodAs
 import com.sevtinge.hyperceiler.hook.utils.getIntField
 import com.sevtinge.hyperceiler.hook.utils.getObjectField
 import com.sevtinge.hyperceiler.hook.utils.getObjectFieldAs
-import com.sevtinge.hyperceiler.hook.utils.setIntField
+import com.sevtinge.hyperceiler.hook.utils.getValue
+import com.sevtinge.hyperceiler.hook.utils.setValue
 import io.github.kyuubiran.ezxhelper.core.finder.MethodFinder.`-Static`.methodFinder
 import io.github.kyuubiran.ezxhelper.core.util.ClassUtil.loadClass
 import io.github.kyuubiran.ezxhelper.xposed.dsl.HookFactory.`-Static`.createAfterHook
@@ -45,6 +47,14 @@ object CustomCarrierText : BaseHook() {
         mPrefsMap.getStringAsInt("system_ui_control_center_hide_operator", 0)
     }
 
+    // onMeasure 每次布局都会执行，字段与方法只按类解析一次
+    private var Any.availableWidth by FieldAccessor<Int>("availableWidth")
+    private val Any.carrierSeparatorView by FieldAccessor<View>("carrierSeparatorView")
+    private val Any.leftCarrierTextView by FieldAccessor<View>("leftCarrierTextView")
+    private val Any.rightCarrierTextView by FieldAccessor<View>("rightCarrierTextView")
+    private val getQsHeaderLayout = MethodInvoker("getQsHeaderLayout")
+    private val shouldShow = MethodInvoker("shouldShow")
+
     override fun init() {
         loadClass("com.android.systemui.statusbar.policy.HDController").methodFinder()
             .filterByName("isVisible")
@@ -109,15 +119,15 @@ object CustomCarrierText : BaseHook() {
                 }
 
                 var availableWidth = View.MeasureSpec.getSize(widthMeasureSpec)
-                if (viewGroup.callMethodAs("getQsHeaderLayout")) {
+                if (getQsHeaderLayout.invokeAs(viewGroup)) {
                     availableWidth /= 2
                 }
-                viewGroup.setIntField("availableWidth", availableWidth)
+                viewGroup.availableWidth = availableWidth
 
-                viewGroup.getObjectFieldAs<View>("carrierSeparatorView").isVisible = false
-                val leftCarrierTextView = viewGroup.getObjectFieldAs<View>("leftCarrierTextView")
-                val rightCarrierTextView = viewGroup.getObjectFieldAs<View>("rightCarrierTextView")
-                if (leftCarrierTextView.callMethodAs("shouldShow")) {
+                viewGroup.carrierSeparatorView.isVisible = false
+                val leftCarrierTextView = viewGroup.leftCarrierTextView
+                val rightCarrierTextView = viewGroup.rightCarrierTextView
+                if (shouldShow.invokeAs(leftCarrierTextView)) {
                     viewGroup.callMethod("setCarrierMaxWidth", leftCarrierTextView, availableWidth)
                 } else {
                     viewGroup.callMethod("setCarrierMaxWidth", rightCarrierTextView, availableWidth)
@@ -30,7 +30,6 @@ import android.content.res.Resources;
 import android.database.ContentObserver;
 import android.os.Handler;
 import android.provider.Settings;
-import android.util.ArrayMap;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -38,6 +37,7 @@ import androidx.annotation.NonNull;
 
 import com.sevtinge.hyperceiler.hook.R;
 import com.sevtinge.hyperceiler.hook.module.base.tool.OtherTool;
+import com.sevtinge.hyperceiler.hook.utils.CustomTile;
 import com.sevtinge.hyperceiler.hook.utils.TileUtils;
 import com.sevtinge.hyperceiler.hook.utils.devicesdk.DisplayUtils;
 import com.sevtinge.hyperceiler.hook.utils.devicesdk.TelephonyManager;
@@ -271,7 +271,7 @@ public class FiveGTile extends TileUtils {
 
     @Override
     public void tileListening(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         boolean mListening = (boolean) param.args[0];
         if (mListening) {
             ContentObserver contentObserver = new ContentObserver(new Handler(mContext.getMainLooper())) {
@@ -290,18 +290,12 @@ public class FiveGTile extends TileUtils {
     }
 
     @Override
-    public ArrayMap<String, Integer> tileUpdateState(MethodHookParam param, Class<?> mResourceIcon, String tileName) {
+    public CustomTile.State tileUpdateState(MethodHookParam param, String tileName) {
         boolean isEnable;
         TelephonyManager manager = TelephonyManager.getDefault();
         isEnable = manager.isUserFiveGEnabled();
-        ArrayMap<String, Integer> tileResMap = new ArrayMap<>();
-        tileResMap.put("custom_5G_Enable", isEnable ? 1 : 0);
-        tileResMap.put("custom_5G_ON",
-                Style ?
-                        R.drawable.ic_control_center_5g_toggle_on : R.drawable.ic_control_center_5g_toggle_v2_on);
-        tileResMap.put("custom_5G_OFF",
-                Style ?
-                        R.drawable.ic_control_center_5g_toggle_off : R.drawable.ic_control_center_5g_toggle_v2_off);
-        return tileResMap;
+        return CustomTile.State.of(isEnable,
+            Style ? R.drawable.ic_control_center_5g_toggle_on : R.drawable.ic_control_center_5g_toggle_v2_on,
+            Style ? R.drawable.ic_control_center_5g_toggle_off : R.drawable.ic_control_center_5g_toggle_v2_off);
     }
 }
@@ -25,28 +25,18 @@ import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.Handler;
 import android.provider.Settings;
-import android.util.ArrayMap;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.sevtinge.hyperceiler.hook.utils.CustomTile;
 import com.sevtinge.hyperceiler.hook.utils.MathUtils;
+import com.sevtinge.hyperceiler.hook.utils.SysfsNode;
 import com.sevtinge.hyperceiler.hook.utils.TileUtils;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.attribute.PosixFilePermission;
-import java.util.Set;
-
 import de.robv.android.xposed.XC_MethodHook;
 import de.robv.android.xposed.XposedHelpers;
 
@@ -60,14 +50,21 @@ public class FlashLight extends TileUtils {
     public int lastFlash = -1;
     public boolean isListening = false;
     public boolean isHook = false;
+    private SysfsNode mtkNode;
+    private SysfsNode torchNode;
+    private SysfsNode otherNode;
+    private SysfsNode switchNode;
+    // 拖动亮度条时每帧只写一次节点
+    private final SysfsNode.FrameCoalescer flashWriter = new SysfsNode.FrameCoalescer(this::writeFile);
 
     @Override
     public void init() {
         super.init();
         mode = mPrefsMap.getStringAsInt("security_flash_light_switch", 0);
-        setPermission(mtk);
-        setPermission(torch);
-        setPermission(other);
+        mtkNode = SysfsNode.probe(mtk);
+        torchNode = SysfsNode.probe(torch);
+        otherNode = SysfsNode.probe(other);
+        switchNode = SysfsNode.probe(flashSwitch);
         initListen();
         hookBrightness();
     }
@@ -78,8 +75,8 @@ public class FlashLight extends TileUtils {
     }
 
     @Override
-    public ArrayMap<String, Integer> tileUpdateState(XC_MethodHook.MethodHookParam param, Class<?> mResourceIcon, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+    public CustomTile.State tileUpdateState(XC_MethodHook.MethodHookParam param, String tileName) {
+        Context mContext = getTileContext(param.thisObject);
         if (param.args[1] != null) {
             boolean enabled = (boolean) param.args[1];
             Object flash = XposedHelpers.getObjectField(param.thisObject, "flashlightController");
@@ -128,7 +125,7 @@ public class FlashLight extends TileUtils {
                             } catch (Throwable e) {
                                 sliderAnimator(slider, param);
                             }
-                            writeFile(flash);
+                            flashWriter.post(flash);
                         }
                     }
                 }
@@ -279,7 +276,7 @@ public class FlashLight extends TileUtils {
                                 }
                                 // logE(TAG, this.lpparam.packageName, "convertGammaToLinearFloat i: " + i);
                                 lastFlash = i;
-                                writeFile(i);
+                                flashWriter.post(i);
                             }
                             param.setResult(end);
                         }
@@ -289,119 +286,64 @@ public class FlashLight extends TileUtils {
     }
 
     private int maxBrightness() {
-        String line;
-        BufferedReader reader = null;
-        StringBuilder builder = null;
-        File file = new File(maxBrightness);
-        if (file.exists()) {
-            try {
-                reader = new BufferedReader(new FileReader(maxBrightness));
-                builder = new StringBuilder();
-                while ((line = reader.readLine()) != null) {
-                    builder.append(line);
-                }
-            } catch (IOException e) {
-                logE(TAG, this.lpparam.packageName, "Error to read: " + maxBrightness, e);
-            } finally {
-                try {
-                    if (reader != null) {
-                        reader.close();
-                    }
-                } catch (IOException e) {
-                    logE(TAG, this.lpparam.packageName, "Close reader error: ", e);
-                }
-            }
-        } else {
+        SysfsNode node = SysfsNode.probe(maxBrightness);
+        if (node == null) {
             logE(TAG, this.lpparam.packageName, "Not Found FlashLight File: " + maxBrightness);
+            return -1;
         }
-
-        if (builder != null) {
-            try {
-                return Integer.parseInt(builder.toString());
-            } catch (NumberFormatException e) {
-                logE(TAG, lpparam.packageName, "To int E: " + e);
-            }
-        }
-        return -1;
+        return node.readInt(-1);
     }
 
     private void writeFile(int flash) {
-        boolean bmtk = exists(mtk);
-        boolean btorch = exists(torch);
-        boolean bother = exists(other);
+        boolean bmtk = mtkNode != null;
+        boolean btorch = torchNode != null;
+        boolean bother = otherNode != null;
         switch (mode) {
             case 0, 1 -> {
-                if (bmtk) write(mtk, flash);
-                if (btorch) write(torch, flash);
-                if (bother) write(other, flash);
+                if (bmtk) write(mtkNode, flash);
+                if (btorch) write(torchNode, flash);
+                if (bother) write(otherNode, flash);
             }
             case 2 -> {
                 if (bmtk)
-                    zero(mtk, flash);
+                    zero(mtkNode, flash);
                 if (bother) {
-                    zero(other, flash);
+                    zero(otherNode, flash);
                     break; // 根据 CC0126 所述，不同时操作。
                 }
                 if (btorch)
-                    zero(torch, flash);
+                    zero(torchNode, flash);
             }
             case 3 -> {
                 if (bmtk)
-                    flashSwitch(mtk, flash);
+                    flashSwitch(mtkNode, flash);
 
                 if (bother) {
-                    flashSwitch(other, flash);
+                    flashSwitch(otherNode, flash);
                     break; // 根据 CC0126 所述，不同时操作。
                 }
                 if (btorch)
-                    flashSwitch(torch, flash);
+                    flashSwitch(torchNode, flash);
             }
         }
     }
 
-    private void zero(String path, int flash) {
-        write(path, 0);
-        write(path, flash);
-    }
-
-    private void flashSwitch(String path, int flash) {
-        write(path, flash);
-        write(flashSwitch, 1);
-        write(flashSwitch, 0);
+    private void zero(SysfsNode node, int flash) {
+        node.write(0);
+        node.write(flash);
     }
 
-    private boolean exists(String path) {
-        File file = new File(path);
-        return file.exists();
-    }
-
-    private void write(String path, int flash) {
-        try (FileWriter writer = new FileWriter(path, false)) {
-            writer.write(Integer.toString(flash));
-            writer.flush();
-        } catch (IOException e) {
-            logE(TAG, lpparam.packageName, "write " + path + " E: " + e);
+    private void flashSwitch(SysfsNode node, int flash) {
+        node.write(flash);
+        if (switchNode != null) {
+            switchNode.write(1);
+            switchNode.write(0);
         }
     }
 
-    private void setPermission(String paths) {
-        // 指定文件的路径
-        Path filePath = Paths.get(paths);
-
-        try {
-            // 获取当前文件的权限
-            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(filePath);
-
-            // 添加世界可读写权限
-            permissions.add(PosixFilePermission.OTHERS_READ);
-            permissions.add(PosixFilePermission.OTHERS_WRITE);
-            permissions.add(PosixFilePermission.GROUP_READ);
-            permissions.add(PosixFilePermission.GROUP_WRITE);
-
-            // 设置新的权限
-            Files.setPosixFilePermissions(filePath, permissions);
-        } catch (IOException e) {
-            logE(TAG, lpparam.packageName, "SetPermission: " + e);
+    private void write(SysfsNode node, int flash) {
+        if (!node.write(flash)) {
+            logE(TAG, lpparam.packageName, "write " + node.path() + " failed");
         }
     }
 
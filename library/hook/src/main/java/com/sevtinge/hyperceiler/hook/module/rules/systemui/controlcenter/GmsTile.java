@@ -22,9 +22,9 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.util.ArrayMap;
 
 import com.sevtinge.hyperceiler.hook.R;
+import com.sevtinge.hyperceiler.hook.utils.CustomTile;
 import com.sevtinge.hyperceiler.hook.utils.TileUtils;
 
 import de.robv.android.xposed.XC_MethodHook.MethodHookParam;
@@ -71,7 +71,7 @@ public class GmsTile extends TileUtils {
 
     @Override
     public void tileCheck(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         PackageManager packageManager = mContext.getPackageManager();
         try {
             packageManager.getPackageInfo(CheckGms, PackageManager.GET_ACTIVITIES);
@@ -93,7 +93,7 @@ public class GmsTile extends TileUtils {
 
     @Override
     public void tileClick(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         PackageManager packageManager = mContext.getPackageManager();
         int End = packageManager.getApplicationEnabledSetting(CheckGms);
         if (End == PackageManager.COMPONENT_ENABLED_STATE_DISABLED) {
@@ -123,16 +123,14 @@ public class GmsTile extends TileUtils {
     }
 
     @Override
-    public ArrayMap<String, Integer> tileUpdateState(MethodHookParam param, Class<?> mResourceIcon, String tileName) {
+    public CustomTile.State tileUpdateState(MethodHookParam param, String tileName) {
         boolean isEnable;
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         PackageManager packageManager = mContext.getPackageManager();
         int End = packageManager.getApplicationEnabledSetting(CheckGms);
         isEnable = End == PackageManager.COMPONENT_ENABLED_STATE_ENABLED;
-        ArrayMap<String, Integer> tileResMap = new ArrayMap<>();
-        tileResMap.put("custom_GMS_Enable", isEnable ? 1 : 0);
-        tileResMap.put("custom_GMS_ON", R.drawable.ic_control_center_gms_toggle_on);
-        tileResMap.put("custom_GMS_OFF", R.drawable.ic_control_center_gms_toggle_off);
-        return tileResMap;
+        return CustomTile.State.of(isEnable,
+            R.drawable.ic_control_center_gms_toggle_on,
+            R.drawable.ic_control_center_gms_toggle_off);
     }
 }
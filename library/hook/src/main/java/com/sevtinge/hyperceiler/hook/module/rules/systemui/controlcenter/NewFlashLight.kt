@@ -25,12 +25,13 @@ import android.net.Uri
 import android.os.Handler
 import android.provider.Settings.SettingNotFoundException
 import android.provider.Settings.System
-import android.util.ArrayMap
 import com.sevtinge.hyperceiler.hook.module.rules.systemui.controlcenter.FlashLight.FlashBrightness.getBrightness
 import com.sevtinge.hyperceiler.hook.module.rules.systemui.controlcenter.FlashLight.FlashBrightness.getSlider
 import com.sevtinge.hyperceiler.hook.module.rules.systemui.controlcenter.FlashLight.FlashBrightness.restore
+import com.sevtinge.hyperceiler.hook.utils.CustomTile
 import com.sevtinge.hyperceiler.hook.utils.MathUtils
 import com.sevtinge.hyperceiler.hook.utils.MethodHookParam
+import com.sevtinge.hyperceiler.hook.utils.SysfsNode
 import com.sevtinge.hyperceiler.hook.utils.TileUtils
 import com.sevtinge.hyperceiler.hook.utils.callMethod
 import com.sevtinge.hyperceiler.hook.utils.getObjectField
@@ -41,11 +42,6 @@ import com.sevtinge.hyperceiler.hook.utils.shell.ShellUtils
 import de.robv.android.xposed.XposedHelpers
 import io.github.kyuubiran.ezxhelper.core.finder.MethodFinder.`-Static`.methodFinder
 import io.github.kyuubiran.ezxhelper.core.util.ClassUtil.loadClassOrNull
-import java.io.BufferedReader
-import java.io.File
-import java.io.FileReader
-import java.io.FileWriter
-import java.io.IOException
 import kotlin.math.roundToInt
 
 
@@ -59,6 +55,13 @@ object NewFlashLight : TileUtils() {
     private var lastFlash: Int = -1
     private var isListening: Boolean = false
     private var isHook: Boolean = false
+    private var mtkNode: SysfsNode? = null
+    private var torchNode: SysfsNode? = null
+    private var otherNode: SysfsNode? = null
+    private var switchNode: SysfsNode? = null
+
+    // 拖动亮度条时每帧只写一次节点
+    private val flashWriter by lazy { SysfsNode.FrameCoalescer(::writeFile) }
 
     private val BrightnessUtils by lazy {
         loadClassOrNull("com.android.systemui.controlcenter.policy.BrightnessUtils", lpparam.classLoader)!!
@@ -66,9 +69,10 @@ object NewFlashLight : TileUtils() {
 
     override fun init() {
         super.init()
-        setPermission(MTK)
-        setPermission(TORCH)
-        setPermission(OTHER)
+        mtkNode = SysfsNode.probe(MTK)
+        torchNode = SysfsNode.probe(TORCH)
+        otherNode = SysfsNode.probe(OTHER)
+        switchNode = SysfsNode.probe(FLASH_SWITCH)
         initListen()
         hookBrightness()
     }
@@ -79,10 +83,9 @@ object NewFlashLight : TileUtils() {
 
     override fun tileUpdateState(
         param: MethodHookParam,
-        mResourceIcon: Class<*>?,
         tileName: String?
-    ): ArrayMap<String, Int>? {
-        val mContext = param.thisObject.getObjectField("mContext") as Context
+    ): CustomTile.State? {
+        val mContext = getTileContext(param.thisObject)
         if (param.args[1] != null) {
             val enabled = param.args[1] as Boolean
             val flash = param.thisObject.getObjectField("flashlightController")
@@ -127,7 +130,7 @@ object NewFlashLight : TileUtils() {
                                 val flash = getBrightness(mObject)
                                 val slider = getSlider(mObject)
                                 sliderAnimator(slider, param)
-                                writeFile(flash)
+                                flashWriter.post(flash)
                             }
                         }
                     }
@@ -282,7 +285,7 @@ object NewFlashLight : TileUtils() {
                         }
                         // logE(TAG, this.lpparam.packageName, "convertGammaToLinearFloat i: " + i);
                         lastFlash = i
-                        writeFile(i)
+                        flashWriter.post(i)
                     }
                     it.result = end
                 }
@@ -290,116 +293,60 @@ object NewFlashLight : TileUtils() {
     }
 
     private fun maxBrightness(): Int {
-        var line: String?
-        var reader: BufferedReader? = null
-        var builder: StringBuilder? = null
-        val file = File(MAX_BRIGHTNESS)
-        if (file.exists()) {
-            try {
-                reader = BufferedReader(FileReader(MAX_BRIGHTNESS))
-                builder = StringBuilder()
-                while ((reader.readLine().also { line = it }) != null) {
-                    builder.append(line)
-                }
-            } catch (e: IOException) {
-                logE(TAG, lpparam.packageName, "Error to read: $MAX_BRIGHTNESS", e)
-            } finally {
-                try {
-                    reader?.close()
-                } catch (e: IOException) {
-                    logE(TAG, lpparam.packageName, "Close reader error: ", e)
-                }
-            }
-        } else {
+        val node = SysfsNode.probe(MAX_BRIGHTNESS)
+        if (node == null) {
             logE(TAG, lpparam.packageName, "Not Found FlashLight File: $MAX_BRIGHTNESS")
+            return -1
         }
-
-        if (builder != null) {
-            try {
-                return builder.toString().toInt()
-            } catch (e: NumberFormatException) {
-                logE(TAG, lpparam.packageName, "To int E: $e")
-            }
-        }
-        return -1
+        return node.readInt(-1)
     }
 
     private fun writeFile(flash: Int) {
-        val brightMTK = exists(MTK)
-        val brightTorch = exists(TORCH)
-        val bother = exists(OTHER)
+        val mtk = mtkNode
+        val torch = torchNode
+        val other = otherNode
         when (mode) {
             0, 1 -> {
-                if (brightMTK) write(MTK, flash)
-                if (brightTorch) write(TORCH, flash)
-                if (bother) write(OTHER, flash)
+                if (mtk != null) write(mtk, flash)
+                if (torch != null) write(torch, flash)
+                if (other != null) write(other, flash)
             }
 
             2 -> {
-                if (brightMTK) zero(MTK, flash)
-                if (bother) {
-                    zero(OTHER, flash)
+                if (mtk != null) zero(mtk, flash)
+                if (other != null) {
+                    zero(other, flash)
                 }
-                if (brightTorch) zero(TORCH, flash)
+                if (torch != null) zero(torch, flash)
             }
 
             3 -> {
-                if (brightMTK) flashSwitch(MTK, flash)
+                if (mtk != null) flashSwitch(mtk, flash)
 
-                if (bother) {
-                    flashSwitch(OTHER, flash)
+                if (other != null) {
+                    flashSwitch(other, flash)
                 }
-                if (brightTorch) flashSwitch(TORCH, flash)
+                if (torch != null) flashSwitch(torch, flash)
             }
         }
     }
 
-    private fun zero(path: String, flash: Int) {
-        write(path, 0)
-        write(path, flash)
-    }
-
-    private fun flashSwitch(path: String, flash: Int) {
-        write(path, flash)
-        write(FLASH_SWITCH, 1)
-        write(FLASH_SWITCH, 0)
-    }
-
-    private fun exists(path: String): Boolean {
-        val file = File(path)
-        return file.exists()
+    private fun zero(node: SysfsNode, flash: Int) {
+        write(node, 0)
+        write(node, flash)
     }
 
-    private fun write(path: String, flash: Int) {
-        try {
-            FileWriter(path, false).use { writer ->
-                writer.write(flash.toString())
-                writer.flush()
-            }
-        } catch (e: IOException) {
-            logE(TAG, lpparam.packageName, "write $path E: $e")
+    private fun flashSwitch(node: SysfsNode, flash: Int) {
+        write(node, flash)
+        switchNode?.let {
+            write(it, 1)
+            write(it, 0)
         }
     }
 
-    private fun setPermission(paths: String) {
-        try {
-            val checkCommand = "test -e $paths && echo exists || echo not_found"
-            val result = ShellUtils.rootExecCmd(checkCommand)
-            if (result.contains("not_found")) {
-                logE(TAG, lpparam.packageName, "SetPermission: Path $paths does not exist")
-                return
-            }
-
-            val chmodCommand = "chmod 777 $paths"
-            val chmodResult = ShellUtils.rootExecCmd(chmodCommand)
-
-            if (chmodResult.isEmpty()) {
-                logI(TAG, lpparam.packageName, "SetPermission: Successfully set permissions for $paths")
-            } else {
-                logE(TAG, lpparam.packageName, "SetPermission: Failed to set permissions for $paths. Error: $chmodResult")
-            }
-        } catch (e: Exception) {
-            logE(TAG, lpparam.packageName, "SetPermission: Exception while processing $paths. Error: $e")
+    private fun write(node: SysfsNode, flash: Int) {
+        if (!node.write(flash)) {
+            logE(TAG, lpparam.packageName, "write ${node.path()} failed")
         }
     }
 
@@ -19,10 +19,10 @@
 package com.sevtinge.hyperceiler.hook.module.rules.systemui.controlcenter;
 
 import android.content.Context;
-import android.util.ArrayMap;
 import android.widget.Switch;
 
 import com.sevtinge.hyperceiler.hook.R;
+import com.sevtinge.hyperceiler.hook.utils.CustomTile;
 import com.sevtinge.hyperceiler.hook.utils.TileUtils;
 
 import de.robv.android.xposed.XC_MethodHook;
@@ -45,8 +45,8 @@ public class ReduceBrightColorsTile extends TileUtils {
     }
 
     @Override
-    public ArrayMap<String, Integer> tileUpdateState(XC_MethodHook.MethodHookParam param, Class<?> mResourceIcon, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+    public CustomTile.State tileUpdateState(XC_MethodHook.MethodHookParam param, String tileName) {
+        Context mContext = getTileContext(param.thisObject);
         int i;
         int i2;
         Object booleanState = param.args[0];
@@ -75,7 +75,7 @@ public class ReduceBrightColorsTile extends TileUtils {
             i2 = R.drawable.ic_reduce_bright_colors;
         } else
             i2 = R.drawable.ic_reduce_bright_colors;
-        XposedHelpers.setObjectField(booleanState, "icon", XposedHelpers.callStaticMethod(mResourceIcon, "get", i2));
+        XposedHelpers.setObjectField(booleanState, "icon", getResourceIcon(i2));
         param.setResult(null);
         return null;
     }
@@ -20,9 +20,9 @@ package com.sevtinge.hyperceiler.hook.module.rules.systemui.controlcenter;
 
 import static com.sevtinge.hyperceiler.hook.utils.shell.ShellUtils.rootExecCmd;
 
-import android.util.ArrayMap;
 
 import com.sevtinge.hyperceiler.hook.R;
+import com.sevtinge.hyperceiler.hook.utils.CustomTile;
 import com.sevtinge.hyperceiler.hook.utils.TileUtils;
 
 import java.util.Objects;
@@ -76,13 +76,11 @@ public class SnowLeopardModeTile extends TileUtils {
     }
 
     @Override
-    public ArrayMap<String, Integer> tileUpdateState(MethodHookParam param, Class<?> mResourceIcon, String tileName) {
+    public CustomTile.State tileUpdateState(MethodHookParam param, String tileName) {
         boolean isEnable;
         isEnable = isInSnowLeopardMode;
-        ArrayMap<String, Integer> tileResMap = new ArrayMap<>();
-        tileResMap.put("custom_SnowLeopardMode_Enable", isEnable ? 1 : 0);
-        tileResMap.put("custom_SnowLeopardMode_ON", R.drawable.ic_control_center_snow_leopard_mode_on);
-        tileResMap.put("custom_SnowLeopardMode_OFF", R.drawable.ic_control_center_snow_leopard_mode_off);
-        return tileResMap;
+        return CustomTile.State.of(isEnable,
+            R.drawable.ic_control_center_snow_leopard_mode_on,
+            R.drawable.ic_control_center_snow_leopard_mode_off);
     }
 }
@@ -26,21 +26,15 @@ import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.Handler;
 import android.provider.Settings;
-import android.util.ArrayMap;
 
 import androidx.annotation.Nullable;
 
 import com.sevtinge.hyperceiler.hook.R;
+import com.sevtinge.hyperceiler.hook.utils.CustomTile;
+import com.sevtinge.hyperceiler.hook.utils.SysfsNode;
 import com.sevtinge.hyperceiler.hook.utils.TileUtils;
 import com.sevtinge.hyperceiler.hook.utils.log.AndroidLogUtils;
-import com.sevtinge.hyperceiler.hook.utils.shell.ShellUtils;
-
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+
 import java.util.Objects;
 
 import de.robv.android.xposed.XC_MethodHook.MethodHookParam;
@@ -48,6 +42,7 @@ import de.robv.android.xposed.XposedHelpers;
 
 public class SunlightMode extends TileUtils {
     public static String path = null;
+    public static SysfsNode node = null;
     public static boolean mMode = false;
     public static boolean useSystem = false;
     public static int lastSunlight = 0;
@@ -85,21 +80,11 @@ public class SunlightMode extends TileUtils {
         String fileOne = "/sys/class/mi_display/disp-DSI-0/brightness_clone";
         String fileTwo = "/sys/class/backlight/panel0-backlight/brightness";
         if (mPrefsMap.getStringAsInt("system_control_center_sunshine_new_mode_write", 1) == 1) {
-            File file = new File(fileOne);
-            if (file.exists()) {
-                path = fileOne;
-            } else {
-                File file1 = new File(fileTwo);
-                if (file1.exists()) {
-                    path = fileTwo;
-                }
-            }
+            node = SysfsNode.probe(fileOne, fileTwo);
         } else {
-            File file2 = new File(fileTwo);
-            if (file2.exists()) {
-                path = fileTwo;
-            }
+            node = SysfsNode.probe(fileTwo);
         }
+        if (node != null) path = node.path();
         /*ShellUtils.CommandResult commandResult = ShellUtils.execCommand("[ -f " + fileOne + " ]", true, false);
         if (commandResult.result == 0) {
             path = fileOne;
@@ -114,9 +99,6 @@ public class SunlightMode extends TileUtils {
         if (path == null) {
             useSystem = true;
             logE(TAG, this.lpparam.packageName, "Missing directory, unable to set this mode: true");
-        } else {
-            ShellUtils.rootExecCmd("chmod 777 " + path);
-            // logI("setPath: im get file: " + path);
         }
     }
 
@@ -156,7 +138,7 @@ public class SunlightMode extends TileUtils {
 
     @Override
     public void tileClick(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         try {
             if (!mMode) {
                 /*系统阳光模式*/
@@ -280,7 +262,7 @@ public class SunlightMode extends TileUtils {
 
     @Override
     public void tileListening(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         boolean mListening = (boolean) param.args[0];
         // sLog("tileListening: mListening: " + mListening);
         if (mListening) {
@@ -318,11 +300,11 @@ public class SunlightMode extends TileUtils {
     }
 
     @Override
-    public ArrayMap<String, Integer> tileUpdateState(MethodHookParam param, Class<?> mResourceIcon, String tileName) {
+    public CustomTile.State tileUpdateState(MethodHookParam param, String tileName) {
         int nowInt = 0;
         int nowSunlight;
         boolean isEnable = false;
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         try {
             Settings.System.getInt(mContext.getContentResolver(), sunlightMode);
             if (mMode) {
@@ -361,46 +343,21 @@ public class SunlightMode extends TileUtils {
         } catch (Settings.SettingNotFoundException e) {
             logE(TAG, this.lpparam.packageName, "tileUpdateState: Not Find sunlight_mode");
         }
-        ArrayMap<String, Integer> tileResMap = new ArrayMap<>();
-        tileResMap.put("custom_SUN_Enable", isEnable ? 1 : 0);
-        tileResMap.put("custom_SUN_ON", R.drawable.baseline_wb_sunny_24);
-        tileResMap.put("custom_SUN_OFF", R.drawable.baseline_wb_sunny_24);
-        return tileResMap;
+        return CustomTile.State.of(isEnable, R.drawable.baseline_wb_sunny_24, R.drawable.baseline_wb_sunny_24);
     }
 
     public static String readAndWrit(String writ, boolean need) {
-        StringBuilder builder = new StringBuilder();
         /*try {
             // 800毫秒获得丝滑转场效果，太好笑了，记录一下
             Thread.sleep(need ? 800 : 400);
         } catch (InterruptedException e) {
             logE("sleep error: " + e);
         }*/
-        if (writ != null) {
-            try {
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(path, false))) {
-                    writer.write(writ);
-                } // try-with-resources 会自动关闭 writer
-            } catch (IOException e) {
-                AndroidLogUtils.logE("SunlightMode", "error to writer: " + path + " ", e);
-            }
-        }
-        try {
-            try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    builder.append(line);
-                }
-            } // try-with-resources 会自动关闭 reader
-        } catch (IOException e) {
-            AndroidLogUtils.logE("SunlightMode", "error to read: " + path + " ", e);
-        }
-        if (builder != null) {
-            // logE("get string: " + builder);
-            if (need) pathSunlight = Integer.parseInt(builder.toString());
-            return builder.toString();
-        }
-        return null;
+        if (node == null) return null;
+        if (writ != null) node.write(writ);
+        String value = node.read();
+        if (value != null && need) pathSunlight = Integer.parseInt(value);
+        return value;
     }
 
     public static class Screen extends BroadcastReceiver {
@@ -18,8 +18,6 @@
  */
 package com.sevtinge.hyperceiler.hook.module.rules.systemui.controlcenter;
 
-import static com.sevtinge.hyperceiler.hook.utils.shell.ShellUtils.rootExecCmd;
-
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
@@ -28,21 +26,15 @@ import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.Handler;
 import android.provider.Settings;
-import android.util.ArrayMap;
 
 import androidx.annotation.Nullable;
 
 import com.sevtinge.hyperceiler.hook.R;
+import com.sevtinge.hyperceiler.hook.utils.CustomTile;
+import com.sevtinge.hyperceiler.hook.utils.SysfsNode;
 import com.sevtinge.hyperceiler.hook.utils.TileUtils;
 import com.sevtinge.hyperceiler.hook.utils.log.AndroidLogUtils;
-import com.sevtinge.hyperceiler.hook.utils.shell.ShellUtils;
-
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+
 import java.util.Objects;
 
 import de.robv.android.xposed.XC_MethodHook.MethodHookParam;
@@ -50,6 +42,7 @@ import de.robv.android.xposed.XposedHelpers;
 
 public class SunlightModeHigh extends TileUtils {
     public static String path = null;
+    public static SysfsNode node = null;
     public static boolean mMode = false;
     public static boolean useSystem = false;
     public static boolean shell = false;
@@ -64,6 +57,7 @@ public class SunlightModeHigh extends TileUtils {
     public static final String screenBrightnessMode = "screen_brightness_mode";
     public static final String screenBrightnessCustomMode = "screen_brightness_custom_mode";
     public static final String sunlightMode = "sunlight_mode";
+    private static final String PANEL_BRIGHTNESS = "/sys/class/backlight/panel0-backlight/brightness";
     public static int setScreenBrightness = mPrefsMap.getInt("system_control_center_sunshine_mode_brightness", 2048);
     public static int currentScreenBrightness = 1;
     public static boolean isCustomSunshineMode = false;
@@ -93,16 +87,9 @@ public class SunlightModeHigh extends TileUtils {
 
     public void setPath() {
         String fileOne = "/sys/class/mi_display/disp-DSI-0/brightness_clone";
-        String fileTwo = "/sys/class/backlight/panel0-backlight/brightness";
-        File file = new File(fileOne);
-        if (file.exists()) {
-            path = fileOne;
-        } else {
-            File file1 = new File(fileTwo);
-            if (file1.exists()) {
-                path = fileTwo;
-            }
-        }
+        String fileTwo = PANEL_BRIGHTNESS;
+        node = SysfsNode.probe(fileOne, fileTwo);
+        if (node != null) path = node.path();
         /*ShellUtils.CommandResult commandResult = ShellUtils.execCommand("[ -f " + fileOne + " ]", true, false);
         if (commandResult.result == 0) {
             path = fileOne;
@@ -117,9 +104,6 @@ public class SunlightModeHigh extends TileUtils {
         if (path == null) {
             useSystem = true;
             logE(TAG, this.lpparam.packageName, "Missing directory, unable to set this mode: true");
-        } else {
-            ShellUtils.rootExecCmd("chmod 777 " + path);
-            // logI("setPath: im get file: " + path);
         }
     }
 
@@ -159,7 +143,7 @@ public class SunlightModeHigh extends TileUtils {
 
     @Override
     public void tileClick(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         try {
             if (shell) {
                 /*if (!isCustomSunshineMode) {
@@ -320,7 +304,7 @@ public class SunlightModeHigh extends TileUtils {
 
     @Override
     public void tileListening(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         boolean mListening = (boolean) param.args[0];
         // sLog("tileListening: mListening: " + mListening);
         if (mListening) {
@@ -358,11 +342,11 @@ public class SunlightModeHigh extends TileUtils {
     }
 
     @Override
-    public ArrayMap<String, Integer> tileUpdateState(MethodHookParam param, Class<?> mResourceIcon, String tileName) {
+    public CustomTile.State tileUpdateState(MethodHookParam param, String tileName) {
         int nowInt = 0;
         int nowSunlight;
         boolean isEnable = false;
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         try {
             Settings.System.getInt(mContext.getContentResolver(), sunlightMode);
             if (mMode) {
@@ -401,54 +385,22 @@ public class SunlightModeHigh extends TileUtils {
         } catch (Settings.SettingNotFoundException e) {
             logE(TAG, this.lpparam.packageName, "tileUpdateState: Not Find sunlight_mode");
         }
-        ArrayMap<String, Integer> tileResMap = new ArrayMap<>();
-        tileResMap.put("custom_SUN_Enable", isEnable ? 1 : 0);
-        tileResMap.put("custom_SUN_ON", R.drawable.baseline_wb_sunny_24);
-        tileResMap.put("custom_SUN_OFF", R.drawable.baseline_wb_sunny_24);
-        return tileResMap;
+        return CustomTile.State.of(isEnable, R.drawable.baseline_wb_sunny_24, R.drawable.baseline_wb_sunny_24);
     }
 
     public static String readAndWrit(String writ, boolean need) {
-        StringBuilder builder = new StringBuilder();
         /*try {
             // 800毫秒获得丝滑转场效果，太好笑了，记录一下
             Thread.sleep(need ? 800 : 400);
         } catch (InterruptedException e) {
             logE("sleep error: " + e);
         }*/
-        if (writ != null) {
-            try {
-                if (shell) {
-                    rootExecCmd("echo " + writ + " > /sys/class/backlight/panel0-backlight/brightness");
-                } else {
-                    try (BufferedWriter writer = new BufferedWriter(new FileWriter(path, false))) {
-                        writer.write(writ);
-                    } // try-with-resources 会自动关闭 writer
-                }
-            } catch (IOException e) {
-                AndroidLogUtils.logE("SunlightMode", "error to writer: " + path + " ", e);
-            }
-        }
-        try {
-            if (shell) {
-                builder.append(rootExecCmd("cat /sys/class/backlight/panel0-backlight/brightness"));
-            } else {
-                try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        builder.append(line);
-                    }
-                } // try-with-resources 会自动关闭 reader
-            }
-        } catch (IOException e) {
-            AndroidLogUtils.logE("SunlightMode", "error to read: " + path + " ", e);
-        }
-        if (builder != null) {
-            // logE("get string: " + builder);
-            if (need) pathSunlight = Integer.parseInt(builder.toString());
-            return builder.toString();
-        }
-        return null;
+        SysfsNode target = shell ? SysfsNode.viaRoot(PANEL_BRIGHTNESS) : node;
+        if (target == null) return null;
+        if (writ != null) target.write(writ);
+        String value = target.read();
+        if (value != null && need) pathSunlight = Integer.parseInt(value);
+        return value;
     }
 
     public static class Screen extends BroadcastReceiver {
@@ -25,11 +25,11 @@ import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.Handler;
 import android.provider.Settings;
-import android.util.ArrayMap;
 
 import androidx.annotation.Nullable;
 
 import com.sevtinge.hyperceiler.hook.R;
+import com.sevtinge.hyperceiler.hook.utils.CustomTile;
 import com.sevtinge.hyperceiler.hook.utils.TileUtils;
 
 import de.robv.android.xposed.XC_MethodHook.MethodHookParam;
@@ -78,7 +78,7 @@ public class TaplusTile extends TileUtils {
 
     @Override
     public void tileClick(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         boolean z = getTaplus(mContext);
         setTaplus(mContext, !z);
         /*Settings.System.putInt(mContext.getContentResolver(),
@@ -89,7 +89,7 @@ public class TaplusTile extends TileUtils {
 
     @Override
     public void tileListening(MethodHookParam param, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+        Context mContext = getTileContext(param.thisObject);
         boolean mListening = (boolean) param.args[0];
         if (mListening) {
             ContentObserver contentObserver = new ContentObserver(new Handler(mContext.getMainLooper())) {
@@ -110,16 +110,12 @@ public class TaplusTile extends TileUtils {
     }
 
     @Override
-    public ArrayMap<String, Integer> tileUpdateState(MethodHookParam param, Class<?> mResourceIcon, String tileName) {
-        Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+    public CustomTile.State tileUpdateState(MethodHookParam param, String tileName) {
+        Context mContext = getTileContext(param.thisObject);
         boolean isEnable = getTaplus(mContext);
-        ArrayMap<String, Integer> tileResMap = new ArrayMap<>();
-        tileResMap.put("taplus_tile_Enable", isEnable ? 1 : 0);
-        tileResMap.put("taplus_tile_ON",
-            R.drawable.ic_control_center_taplustile_on);
-        tileResMap.put("taplus_tile_OFF",
+        return CustomTile.State.of(isEnable,
+            R.drawable.ic_control_center_taplustile_on,
             R.drawable.ic_control_center_taplustile_off);
-        return tileResMap;
     }
 
     public boolean getTaplus(Context context) {
@@ -82,9 +82,6 @@ object NewPluginHelperKt : BaseHook() {
     }
 
     private fun onPluginLoaded(factory: PluginFactory) {
-        val mCardStyleTiles = getTileList()
-        val prefs = mPrefsMap
-
         val componentName = factory.mComponentName
         val pluginCtx = factory.pluginCtxRef.get()
         if (pluginCtx == null) {
@@ -96,149 +93,29 @@ object NewPluginHelperKt : BaseHook() {
         when (componentName) {
             factory.componentNames(1, "miui.systemui.volume.VolumeDialogPlugin") -> {
                 logD(TAG, lpparam.packageName, "Plugin for sysui volume loaded.")
-
-                val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(6)
-
-                if ((isHyperOSVersion(1f) || isStyle == 2) && prefs.getBoolean("system_cc_volume_showpct_title")) {
-                    enabledLoaders.add(
-                        Pair(
-                            "NewShowVolumePct",
-                            NewShowVolumePct::initLoader
-                        )
-                    )
-                }
-
-                if (prefs.getBoolean("system_ui_plugin_enable_volume_blur")) {
-                    enabledLoaders.add(
-                        Pair(
-                            "EnableVolumeBlur",
-                            EnableVolumeBlur::initEnableVolumeBlur
-                        )
-                    )
-                }
-
-                if (prefs.getBoolean("system_ui_volume_collpased_column_press")) {
-                    enabledLoaders.add(
-                        Pair(
-                            "StartCollpasedColumnPress",
-                            StartCollpasedColumnPress::initLoaderHook
-                        )
-                    )
-                }
-
-                if (prefs.getBoolean("system_ui_volume_hide_foot_button")) {
-                    enabledLoaders.add(
-                        Pair(
-                            "StartCollpasedFootButton",
-                            HideCollpasedFootButton::initLoaderHook
-                        )
-                    )
-                }
-
-                if (prefs.getBoolean("system_ui_other_default_plugin_theme")) {
-                    enabledLoaders.add(
-                        Pair(
-                            "DefaultPluginTheme",
-                            DefaultPluginTheme::initDefaultPluginTheme
-                        )
-                    )
-                }
-
-                loadClassLoaders(componentName.toString(), classLoader, enabledLoaders)
+                loadClassLoaders(componentName.toString(), classLoader, volumeLoaders)
             }
 
             factory.componentNames(1, "miui.systemui.quicksettings.LocalMiuiQSTilePlugin"),
             factory.componentNames(1, "miui.systemui.controlcenter.MiuiControlCenter") -> {
                 logD(TAG, lpparam.packageName, "Plugin for sysui qs tiles && control center loaded.")
-
-                val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(10)
-
-                if ((isStyle == 1) && (prefs.getBoolean("system_ui_control_center_qs_brightness_top_value_show") || prefs.getBoolean("system_ui_control_center_qs_volume_top_value_show"))) {
-                    enabledLoaders.add(
-                        Pair(
-                            "VolumeOrQSBrightnessValue",
-                            VolumeOrQSBrightnessValue::initVolumeOrQSBrightnessValue
-                        )
-                    )
-                }
-
-                if (prefs.getBoolean("misound_bluetooth") && !isSupportFW() && isHyperOSVersion(2f)) {
-                    enabledLoaders.add(
-                        Pair("AutoSEffSwitchForSystemUi",
-                            AutoSEffSwitchForSystemUi::onNotSupportFW
-                        )
-                    )
-                }
-
-                if (prefs.getBoolean("systemui_plugin_card_tiles_enabled")) {
-                    val tileStr = prefs.getString("systemui_plugin_card_tiles", "")
-                    if (!tileStr.isNullOrEmpty()) {
-                        enabledLoaders.add(
-                            Pair("CustomCardTiles") { cl ->
-                                CustomCardTiles.initCustomCardTiles(cl, mCardStyleTiles)
-                            }
-                        )
-                    }
-                }
-
-                if (prefs.getBoolean("system_ui_control_center_hide_edit_botton")) {
-                    enabledLoaders.add(Pair("HideEditButton", HideEditButton::initHideEditButton))
-                }
-
-                if (prefs.getBoolean("system_ui_control_center_tile_super_blur")) {
-                    enabledLoaders.add(Pair("QsTileSuperBlur", QsTileSuperBlur::initQsTileSuperBlur))
-                }
-
-                if (prefs.getBoolean("system_ui_control_center_rounded_rect")) {
-                    enabledLoaders.add(Pair("CCGridForHyperOS", CCGridForHyperOSKt::initCCGridForHyperOS))
-                }
-
-                if (prefs.getBoolean("system_ui_control_center_qs_open_color") || prefs.getBoolean("system_ui_control_center_qs_big_open_color")) {
-                    enabledLoaders.add(Pair("QSColor", QSColor::pluginHook))
-                }
-
-                if ((isHyperOSVersion(1f) || isStyle == 2) && prefs.getBoolean("system_showpct_title")) {
-                    enabledLoaders.add(Pair("NewBrightnessPct", NewBrightnessPct::initLoaderHook))
-                }
-
-                if (prefs.getBoolean("system_ui_control_center_disable_device_managed")) {
-                    enabledLoaders.add(Pair("DisableDeviceManaged", DisableDeviceManagedNew::initDisableDeviceManaged))
-                }
-
-                if (prefs.getBoolean("security_center_unlock_car_sickness")) {
-                    enabledLoaders.add(Pair("UnlockCarSicknessTile") { cl -> UnlockCarSicknessTile.initUnlockCarSicknessTile(cl) })
-                }
-
-                loadClassLoaders(componentName.toString(), classLoader, enabledLoaders)
+                loadClassLoaders(componentName.toString(), classLoader, controlCenterLoaders)
             }
 
             factory.componentNames(1, "miui.systemui.notification.NotificationStatPluginImpl"),
             factory.componentNames(1, "miui.systemui.notification.FocusNotificationPluginImpl") -> {
                 logD(TAG, lpparam.packageName, "Plugin for sysui NotificationStatPluginImpl loaded.")
-
-                val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(1)
-                if (prefs.getBoolean("system_ui_statusbar_music_switch") || prefs.getBoolean("system_ui_unlock_all_focus")) {
-                    enabledLoaders.add(Pair("FocusNotifLyric", FocusNotifLyric::initLoader))
-                }
-                loadClassLoaders(componentName.toString(), classLoader, enabledLoaders)
+                loadClassLoaders(componentName.toString(), classLoader, notificationLoaders)
             }
 
             factory.componentNames(0, "com.miui.keyguard.shortcuts.ShortcutPluginImpl") -> {
                 logD(TAG, lpparam.packageName, "Plugin for aod ShortcutPluginImpl loaded.")
-
-                val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(1)
-                if (prefs.getBoolean("system_ui_lock_screen_blur_button") && isMoreSmallVersion(200, 2f)) {
-                    enabledLoaders.add(Pair("AodBlurButton", AodBlurButton::initLoader))
-                }
-                loadClassLoaders(componentName.toString(), classLoader, enabledLoaders)
+                loadClassLoaders(componentName.toString(), classLoader, aodShortcutLoaders)
             }
 
             else -> {
-                val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(1)
-                if (prefs.getStringAsInt("system_ui_control_center_hide_operator", 0) == 3 && isHyperOSVersion(1f)) {
-                    enabledLoaders.add(Pair("ShowDeviceName", ShowDeviceName::initShowDeviceName))
-                }
-                loadClassLoaders(componentName.toString(), classLoader, enabledLoaders)
+                // ShowDeviceName 实际 hook 的是宿主类，按宿主 ClassLoader 登记，只需注入一次
+                loadClassLoaders("others", classLoader, otherLoaders, lpparam.classLoader)
 
                 // logD(TAG, lpparam.packageName, "Plugin is ${factory.mComponentName}")
                 // 仅备份当前可用注入 ClassLoader
@@ -260,16 +137,158 @@ object NewPluginHelperKt : BaseHook() {
         }
     }
 
+    // 各插件需要注入的 loader 只由设置决定，首次用到时构建一次
+    private val volumeLoaders by lazy {
+        val prefs = mPrefsMap
+        val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(6)
+
+        if ((isHyperOSVersion(1f) || isStyle == 2) && prefs.getBoolean("system_cc_volume_showpct_title")) {
+            enabledLoaders.add(
+                Pair(
+                    "NewShowVolumePct",
+                    NewShowVolumePct::initLoader
+                )
+            )
+        }
+
+        if (prefs.getBoolean("system_ui_plugin_enable_volume_blur")) {
+            enabledLoaders.add(
+                Pair(
+                    "EnableVolumeBlur",
+                    EnableVolumeBlur::initEnableVolumeBlur
+                )
+            )
+        }
+
+        if (prefs.getBoolean("system_ui_volume_collpased_column_press")) {
+            enabledLoaders.add(
+                Pair(
+                    "StartCollpasedColumnPress",
+                    StartCollpasedColumnPress::initLoaderHook
+                )
+            )
+        }
+
+        if (prefs.getBoolean("system_ui_volume_hide_foot_button")) {
+            enabledLoaders.add(
+                Pair(
+                    "StartCollpasedFootButton",
+                    HideCollpasedFootButton::initLoaderHook
+                )
+            )
+        }
+
+        if (prefs.getBoolean("system_ui_other_default_plugin_theme")) {
+            enabledLoaders.add(
+                Pair(
+                    "DefaultPluginTheme",
+                    DefaultPluginTheme::initDefaultPluginTheme
+                )
+            )
+        }
+        enabledLoaders
+    }
+
+    private val controlCenterLoaders by lazy {
+        val prefs = mPrefsMap
+        val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(10)
+
+        if ((isStyle == 1) && (prefs.getBoolean("system_ui_control_center_qs_brightness_top_value_show") || prefs.getBoolean("system_ui_control_center_qs_volume_top_value_show"))) {
+            enabledLoaders.add(
+                Pair(
+                    "VolumeOrQSBrightnessValue",
+                    VolumeOrQSBrightnessValue::initVolumeOrQSBrightnessValue
+                )
+            )
+        }
+
+        if (prefs.getBoolean("misound_bluetooth") && !isSupportFW() && isHyperOSVersion(2f)) {
+            enabledLoaders.add(
+                Pair("AutoSEffSwitchForSystemUi",
+                    AutoSEffSwitchForSystemUi::onNotSupportFW
+                )
+            )
+        }
+
+        if (prefs.getBoolean("systemui_plugin_card_tiles_enabled")) {
+            val tileStr = prefs.getString("systemui_plugin_card_tiles", "")
+            if (!tileStr.isNullOrEmpty()) {
+                val mCardStyleTiles = getTileList()
+                enabledLoaders.add(
+                    Pair("CustomCardTiles") { cl ->
+                        CustomCardTiles.initCustomCardTiles(cl, mCardStyleTiles)
+                    }
+                )
+            }
+        }
+
+        if (prefs.getBoolean("system_ui_control_center_hide_edit_botton")) {
+            enabledLoaders.add(Pair("HideEditButton", HideEditButton::initHideEditButton))
+        }
+
+        if (prefs.getBoolean("system_ui_control_center_tile_super_blur")) {
+            enabledLoaders.add(Pair("QsTileSuperBlur", QsTileSuperBlur::initQsTileSuperBlur))
+        }
+
+        if (prefs.getBoolean("system_ui_control_center_rounded_rect")) {
+            enabledLoaders.add(Pair("CCGridForHyperOS", CCGridForHyperOSKt::initCCGridForHyperOS))
+        }
+
+        if (prefs.getBoolean("system_ui_control_center_qs_open_color") || prefs.getBoolean("system_ui_control_center_qs_big_open_color")) {
+            enabledLoaders.add(Pair("QSColor", QSColor::pluginHook))
+        }
+
+        if ((isHyperOSVersion(1f) || isStyle == 2) && prefs.getBoolean("system_showpct_title")) {
+            enabledLoaders.add(Pair("NewBrightnessPct", NewBrightnessPct::initLoaderHook))
+        }
+
+        if (prefs.getBoolean("system_ui_control_center_disable_device_managed")) {
+            enabledLoaders.add(Pair("DisableDeviceManaged", DisableDeviceManagedNew::initDisableDeviceManaged))
+        }
+
+        if (prefs.getBoolean("security_center_unlock_car_sickness")) {
+            enabledLoaders.add(Pair("UnlockCarSicknessTile") { cl -> UnlockCarSicknessTile.initUnlockCarSicknessTile(cl) })
+        }
+        enabledLoaders
+    }
+
+    private val notificationLoaders by lazy {
+        val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(1)
+        if (mPrefsMap.getBoolean("system_ui_statusbar_music_switch") || mPrefsMap.getBoolean("system_ui_unlock_all_focus")) {
+            enabledLoaders.add(Pair("FocusNotifLyric", FocusNotifLyric::initLoader))
+        }
+        enabledLoaders
+    }
+
+    private val aodShortcutLoaders by lazy {
+        val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(1)
+        if (mPrefsMap.getBoolean("system_ui_lock_screen_blur_button") && isMoreSmallVersion(200, 2f)) {
+            enabledLoaders.add(Pair("AodBlurButton", AodBlurButton::initLoader))
+        }
+        enabledLoaders
+    }
+
+    private val otherLoaders by lazy {
+        val enabledLoaders = ArrayList<Pair<String, (ClassLoader) -> Unit>>(1)
+        if (mPrefsMap.getStringAsInt("system_ui_control_center_hide_operator", 0) == 3 && isHyperOSVersion(1f)) {
+            enabledLoaders.add(Pair("ShowDeviceName", ShowDeviceName::initShowDeviceName))
+        }
+        enabledLoaders
+    }
+
     private fun loadClassLoaders(
         tag: String,
         classLoader: ClassLoader,
-        loaders: List<Pair<String, (ClassLoader) -> Unit>>
+        loaders: List<Pair<String, (ClassLoader) -> Unit>>,
+        scope: ClassLoader = classLoader
     ) {
         for ((name, loader) in loaders) {
+            if (!PluginHookRegistry.markInstalled(scope, tag, name)) continue
             runCatching {
                 loader(classLoader)
                 logD(TAG, lpparam.packageName, "$name is loaded success.")
             }.onFailure {
+                PluginHookRegistry.unmark(scope, tag, name)
                 logE(TAG, lpparam.packageName, "[$tag] $name is fail loaded, log: ${it.stackTraceToString()}" )
             }
         }
@@ -0,0 +1,47 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.rules.systemui.plugin
+
+import java.util.WeakHashMap
+
+/**
+ * 记录已注入插件 ClassLoader 的 loader，避免插件重载或主题切换重建 context 时重复 hook
+ *
+ * ClassLoader 以弱引用持有，插件卸载回收后对应记录随之清除
+ */
+object PluginHookRegistry {
+    private val installed = WeakHashMap<ClassLoader, MutableMap<String, MutableSet<String>>>()
+
+    /**
+     * @return 首次登记返回 true，已登记过返回 false
+     */
+    @JvmStatic
+    @Synchronized
+    fun markInstalled(classLoader: ClassLoader, component: String, name: String): Boolean {
+        return installed.getOrPut(classLoader) { HashMap(4) }
+            .getOrPut(component) { HashSet(8) }
+            .add(name)
+    }
+
+    @JvmStatic
+    @Synchronized
+    fun unmark(classLoader: ClassLoader, component: String, name: String) {
+        installed[classLoader]?.get(component)?.remove(name)
+    }
+}
@@ -30,10 +30,10 @@ import androidx.annotation.RequiresPermission
 import com.sevtinge.hyperceiler.hook.R
 import com.sevtinge.hyperceiler.hook.module.base.BaseHook
 import com.sevtinge.hyperceiler.hook.module.base.tool.OtherTool.getModuleRes
+import com.sevtinge.hyperceiler.hook.utils.FieldAccessor
 import com.sevtinge.hyperceiler.hook.utils.callStaticMethod
 import com.sevtinge.hyperceiler.hook.utils.devicesdk.isMoreAndroidVersion
-import com.sevtinge.hyperceiler.hook.utils.getObjectField
-import com.sevtinge.hyperceiler.hook.utils.getObjectFieldAs
+import com.sevtinge.hyperceiler.hook.utils.getValue
 import io.github.kyuubiran.ezxhelper.core.finder.MethodFinder.`-Static`.methodFinder
 import io.github.kyuubiran.ezxhelper.core.util.ClassUtil.loadClassOrNull
 import io.github.kyuubiran.ezxhelper.xposed.dsl.HookFactory.`-Static`.createAfterHook
@@ -99,14 +99,19 @@ object NewNetworkSpeed : BaseHook() {
         loadClassOrNull("com.android.systemui.statusbar.views.NetworkSpeedView", lpparam.classLoader)
     }
 
+    // 每次刷新网速都会读取，按类缓存字段句柄
+    private val Any.controllerContext by FieldAccessor<Context>("mContext")
+    private val Any.speedNumberText by FieldAccessor<TextView>("mNetworkSpeedNumberText")
+    private val Any.speedNumber by FieldAccessor<CharSequence>("mNetworkSpeedNumber")
+
     @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
     override fun init() {
         runCatching {
             if (isMoreAndroidVersion(36) && networkStyle != 0) {
                 // 仅 Android 16 出现末尾加空格的情况
                 nsvCls!!.methodFinder().filterByName("updateNetworkSpeed").first().createAfterHook {
-                    val mNetworkSpeedNumberText = it.thisObject.getObjectFieldAs<TextView>("mNetworkSpeedNumberText")
-                    val mNetworkSpeedNumber = it.thisObject.getObjectFieldAs<CharSequence>("mNetworkSpeedNumber")
+                    val mNetworkSpeedNumberText = it.thisObject.speedNumberText
+                    val mNetworkSpeedNumber = it.thisObject.speedNumber
                     if (!TextUtils.equals(mNetworkSpeedNumber, mNetworkSpeedNumberText.text)) {
                         mNetworkSpeedNumberText.text = mNetworkSpeedNumber
                     }
@@ -114,7 +119,7 @@ object NewNetworkSpeed : BaseHook() {
             }
             nscCls!!.methodFinder().filterByName("updateText").filterByParamCount(1).first().createBeforeHook {
                 // 获取该方法中的 Context
-                val mContext = it.thisObject.getObjectField("mContext") as Context
+                val mContext = it.thisObject.controllerContext
 
                 // 更新网速
                 updateNetworkSpeed(mContext)
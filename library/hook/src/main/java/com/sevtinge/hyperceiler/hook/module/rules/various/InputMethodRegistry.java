@@ -0,0 +1,75 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.rules.various;
+
+import android.content.Context;
+import android.view.inputmethod.InputMethodInfo;
+import android.view.inputmethod.InputMethodManager;
+
+import com.sevtinge.hyperceiler.hook.module.base.tool.OtherTool;
+import com.sevtinge.hyperceiler.hook.utils.log.XposedLogUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 已启用输入法的包名集合
+ * <p>
+ * 集合为不可变快照，每个进程在首次加载时查询一次。只在 handleLoadPackage 阶段使用，
+ * 之后启用的输入法会在其进程下次启动时查询到，因此不再监听变化。
+ */
+public final class InputMethodRegistry {
+    private static final String TAG = "InputMethodRegistry";
+
+    private static volatile Set<String> sPackages = Collections.emptySet();
+    private static boolean isInit = false;
+
+    private InputMethodRegistry() {
+    }
+
+    public static boolean isInputMethod(String pkgName) {
+        return pkgName != null && sPackages.contains(pkgName);
+    }
+
+    public static synchronized void init() {
+        if (isInit) return;
+        isInit = true;
+        refresh(OtherTool.findContext(OtherTool.FlAG_ONLY_ANDROID));
+    }
+
+    private static void refresh(Context context) {
+        if (context == null) {
+            XposedLogUtils.logE(TAG, "context is null");
+            return;
+        }
+        try {
+            InputMethodManager inputMethodManager = (InputMethodManager) context.getSystemService(Context.INPUT_METHOD_SERVICE);
+            List<InputMethodInfo> enabledInputMethods = inputMethodManager.getEnabledInputMethodList();
+            Set<String> packages = new HashSet<>(enabledInputMethods.size() * 2);
+            for (InputMethodInfo inputMethodInfo : enabledInputMethods) {
+                packages.add(inputMethodInfo.getServiceInfo().packageName);
+            }
+            sPackages = Collections.unmodifiableSet(packages);
+        } catch (Throwable e) {
+            XposedLogUtils.logE(TAG, "refresh failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of HyperCeiler.
+ *
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.rules.various.clipboard;
+
+/**
+ * ClipboardLimit 的 substring 放行判断，与 Xposed 无关，便于在 JVM 上测试。
+ * <p>
+ * 拦截器在整个进程只安装一次；只有当前线程处于 processSingleItemOfClipData 内时才放行 5000 字符截断。
+ */
+final class ClipSubstringGate {
+    static final int CLIP_LIMIT = 5000;
+
+    // 当前线程处于 processSingleItemOfClipData 中的深度
+    private final ThreadLocal<int[]> mDepth = ThreadLocal.withInitial(() -> new int[1]);
+    private int mInstallCount = 0;
+
+    /**
+     * 仅在首次调用时执行 installer，返回是否本次安装。
+     */
+    synchronized boolean install(Runnable installer) {
+        if (mInstallCount > 0) return false;
+        installer.run();
+        mInstallCount++;
+        return true;
+    }
+
+    synchronized int installCount() {
+        return mInstallCount;
+    }
+
+    void enter() {
+        mDepth.get()[0]++;
+    }
+
+    void exit() {
+        int[] depth = mDepth.get();
+        if (depth[0] > 0) depth[0]--;
+    }
+
+    boolean isActive() {
+        return mDepth.get()[0] != 0;
+    }
+
+    /**
+     * substring(begin, end) 是否应直接返回原字符串。
+     */
+    boolean shouldBypass(int endIndex) {
+        return endIndex == CLIP_LIMIT && isActive();
+    }
+}
@@ -37,30 +37,22 @@ public class ClipboardLimit extends BaseHook {
     @Override
     public void init() throws NoSuchMethodException {}
 
+    private static final ClipSubstringGate sGate = new ClipSubstringGate();
+
     public static void unlock(@NonNull ClassLoader classLoader) {
         ClipboardLimit.classLoader = classLoader;
 
         XposedHelpers.setStaticIntField(XposedHelpers.findClassIfExists("com.miui.inputmethod.MiuiClipboardManager", classLoader), "MAX_CLIP_CONTENT_SIZE", Integer.MAX_VALUE);
+        hookSubstring();
         XposedHelpers.findAndHookMethod("com.miui.inputmethod.MiuiClipboardManager", classLoader, "processSingleItemOfClipData", ClipData.class, String.class ,new MethodHook() {
             @Override
             protected void before(MethodHookParam param) throws Throwable {
-                XposedHelpers.findAndHookMethod("java.lang.String", param.getExtra().getClassLoader(), "substring", int.class, int.class, new MethodHook() {
-                    @Override
-                    protected void before(MethodHookParam param) throws Throwable {
-                        String charSequence = (String) param.thisObject;
-                        int maxLength = (int) param.args[1];
-                        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-
-                        for (StackTraceElement element : stackTrace) {
-                            if ("com.miui.inputmethod.MiuiClipboardManager".equals(element.getClassName())
-                                && "processSingleItemOfClipData".equals(element.getMethodName())) {
-                                if (maxLength == 5000) param.setResult(charSequence);
-                            }
-                        }
-                    }
-
+                sGate.enter();
+            }
 
-                });
+            @Override
+            protected void after(MethodHookParam param) throws Throwable {
+                sGate.exit();
             }
         });
 
@@ -84,4 +76,16 @@ public class ClipboardLimit extends BaseHook {
             }
         });
     }
+
+    /**
+     * String.substring 在整个进程只 hook 一次，剪贴板处理之外仅有一次 ThreadLocal 读取。
+     */
+    private static void hookSubstring() {
+        sGate.install(() -> XposedHelpers.findAndHookMethod(String.class, "substring", int.class, int.class, new MethodHook() {
+            @Override
+            protected void before(MethodHookParam param) throws Throwable {
+                if (sGate.shouldBypass((int) param.args[1])) param.setResult(param.thisObject);
+            }
+        }));
+    }
 }
@@ -24,21 +24,19 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.os.SystemProperties;
-import android.provider.Settings;
 
 import com.sevtinge.hyperceiler.hook.callback.ITAG;
 import com.sevtinge.hyperceiler.hook.module.base.tool.HookTool;
+import com.sevtinge.hyperceiler.hook.utils.PropUtils;
 import com.sevtinge.hyperceiler.hook.utils.api.ProjectApi;
 import com.sevtinge.hyperceiler.hook.utils.devicesdk.SystemSDKKt;
 import com.sevtinge.hyperceiler.hook.utils.log.XposedLogUtils;
 import com.sevtinge.hyperceiler.hook.utils.shell.ShellInit;
 
-import org.json.JSONObject;
-
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 
 import de.robv.android.xposed.XposedHelpers;
 import de.robv.android.xposed.callbacks.XC_LoadPackage;
@@ -50,14 +48,13 @@ import de.robv.android.xposed.callbacks.XC_LoadPackage;
 public class CrashHook extends HookTool {
     private static final String TAG = ITAG.TAG + ": CrashHook";
     private static HashMap<String, String> scopeMap = new HashMap<>();
-    private static HashMap<String, String> swappedMap = new HashMap<>();
     private final String ACTION_APP_CRASH = "hyperceiler.intent.action.APP_CRASH";
+    private static final String ACTION_HOOK_DISABLED = "hyperceiler.intent.action.HOOK_DISABLED";
 
     public CrashHook(XC_LoadPackage.LoadPackageParam loadPackageParam) throws Exception {
         backgroundActivity(loadPackageParam.classLoader);
         init(loadPackageParam.classLoader);
         scopeMap = CrashData.scopeData();
-        swappedMap = CrashData.swappedData();
     }
 
     public void init(ClassLoader classLoader) throws Exception {
@@ -183,6 +180,14 @@ public class CrashHook extends HookTool {
         );
     }
 
+    // 同一签名（或同一包）两次崩溃间隔小于该值视为连续崩溃，超过 CRASH_MAX_AGE 的记录被清除
+    private static final long CRASH_WINDOW = 10240;
+    private static final long CRASH_MAX_AGE = 60000;
+    private static final int CRASH_REPORT_COUNT = 3;
+    private final CrashRing mCrashRing = new CrashRing(32);
+    // 按包计数，抛出位置各不相同的连续崩溃同样会进入作用域安全模式
+    private final CrashRing mPackageRing = new CrashRing(16);
+
     private String mPkg;
     private String longMsg;
     private String stackTrace;
@@ -190,18 +195,13 @@ public class CrashHook extends HookTool {
     private String throwFileName;
     private int throwLineNumber;
     private String throwMethodName;
-    private long timeMillis;
     private Context mContext;
-    private ArrayList<JSONObject> data = new ArrayList<>();
-    private final ArrayList<JSONObject> updateCount = new ArrayList<>();
-    private final ArrayList<JSONObject> reportData = new ArrayList<>();
 
     private void recordCrash(Context mContext, Object proc, ApplicationErrorReport.CrashInfo crashInfo,
                              String shortMsg, String longMsg, String stackTrace, long timeMillis, int pid, int uid) {
         ApplicationInfo info = (ApplicationInfo) XposedHelpers.getObjectField(proc, "info");
         mPkg = info.packageName;
         this.mContext = mContext;
-        this.timeMillis = timeMillis;
         this.longMsg = longMsg;
         this.stackTrace = stackTrace;
         throwClassName = crashInfo.throwClassName;
@@ -209,86 +209,87 @@ public class CrashHook extends HookTool {
         throwLineNumber = crashInfo.throwLineNumber;
         throwMethodName = crashInfo.throwMethodName;
         if (!isScopeApp()) return;
-        ArrayList<JSONObject> arrayList = new ArrayList<>();
-        ArrayList<JSONObject> report = getReportCrash();
-        arrayList.add(new CrashRecord(mPkg, timeMillis, 0).toJSON());
-        data = getCrashRecord();
-        longTimeRemove();
-        if (!data.isEmpty()) {
-            Iterator<JSONObject> iterator = data.iterator();
-            while (iterator.hasNext()) {
-                JSONObject oldData = iterator.next();
-                boolean isReport = false;
-                for (JSONObject next : report) {
-                    if (compare(next)) {
-                        isReport = true;
-                        break;
-                    }
-                }
-                if (isReport) break;
-                if (compare(oldData)) {
-                    long time = CrashRecord.getTime(oldData);
-                    if ((timeMillis - time) < 10240) {
-                        int count = CrashRecord.getCount(oldData);
-                        if (count >= 2) {
-                            reportData.add(oldData);
-                        } else {
-                            updateCount.add(CrashRecord.putParam(oldData, timeMillis, count + 1));
-                        }
-                        iterator.remove();
-                    } else {
-                        iterator.remove();
-                    }
-                }
-            }
-            setCrashRecord(data);
-            if (!updateCount.isEmpty()) {
-                data.addAll(updateCount);
-                setCrashRecord(data);
-                updateCount.clear();
-            }
-            if (!reportData.isEmpty()) {
-                reportData.addAll(report);
-                reportCrashByIntent(reportData);
-                reportData.clear();
-            }
-        } else {
-            setCrashRecord(arrayList);
+        // 崩溃很少发生，在此重新读取属性，以便感知应用内清除安全模式等改动
+        SafeMode.invalidate();
+        if (SafeMode.isInSafeModeByProp(mPkg)) return;
+
+        String blame = SafeMode.findBlamedHook(stackTrace);
+        long signature = CrashRing.signatureOf(mPkg, throwClassName, throwMethodName, throwLineNumber);
+        long pkgSignature = CrashRing.signatureOf(mPkg);
+        mCrashRing.trim(timeMillis, CRASH_MAX_AGE);
+        mPackageRing.trim(timeMillis, CRASH_MAX_AGE);
+        int count = mCrashRing.record(signature, timeMillis, CRASH_WINDOW);
+        int pkgCount = mPackageRing.record(pkgSignature, timeMillis, CRASH_WINDOW);
+        if (count < CRASH_REPORT_COUNT && pkgCount < CRASH_REPORT_COUNT) return;
+
+        mCrashRing.remove(signature);
+        mPackageRing.remove(pkgSignature);
+        // 只有同一位置连续崩溃时才归咎于单个 hook
+        if (count >= CRASH_REPORT_COUNT && blame != null && disableHook(blame)) {
+            return;
         }
+        ArrayList<String> report = CrashData.getReportCrashProp();
+        report.add(scopeMap.get(mPkg));
+        reportCrashByIntent(report);
     }
 
-    private boolean isScopeApp() {
-        if (scopeMap.isEmpty()) scopeMap = CrashData.scopeData();
-        return scopeMap.get(mPkg) != null;
+    /**
+     * 崩溃可归因到具体 hook 时只停用该 hook，而不是整个作用域。
+     */
+    private boolean disableHook(String hookClassName) {
+        String id = SafeMode.hookId(hookClassName);
+        String data = PropUtils.getProp(SafeMode.PROP_DISABLED_HOOKS, "");
+        if (Arrays.asList(data.split(",")).contains(id)) {
+            // 已停用仍然崩溃，说明归因不准确，交由作用域安全模式处理
+            return false;
+        }
+        String value = SafeMode.appendDisabledHook(data, id);
+        if (value == null) {
+            // 停用列表已满，不挤掉已停用的 hook，改为进入作用域安全模式
+            logW(TAG, mPkg, "Disabled hook list is full, fallback to safe mode: " + hookClassName);
+            return false;
+        }
+        logW(TAG, mPkg, "Disable crashing hook: " + hookClassName + " (" + id + ")");
+        try {
+            ShellInit.init();
+            ShellInit.getShell().run("setprop " + SafeMode.PROP_DISABLED_HOOKS + " " + "\"" + value + "\"").sync();
+        } catch (Throwable ignore) {
+            SystemProperties.set(SafeMode.PROP_DISABLED_HOOKS, value);
+        }
+        SafeMode.invalidate();
+        notifyHookDisabled(hookClassName);
+        return true;
     }
 
-    private void longTimeRemove() {
-        Iterator<JSONObject> it = data.iterator();
-        while (it.hasNext()) {
-            JSONObject jsonObject = it.next();
-            long time = CrashRecord.getTime(jsonObject);
-            if ((timeMillis - time) > 60000) {
-                it.remove();
-            }
+    /**
+     * 交给模块应用发送通知，告知用户被停用的 hook。
+     */
+    private void notifyHookDisabled(String hookClassName) {
+        try {
+            Intent intent = new Intent(ACTION_HOOK_DISABLED);
+            intent.setClassName(ProjectApi.mAppModulePkg, "com.sevtinge.hyperceiler.safemode.CrashReceiver");
+            intent.addFlags(Intent.FLAG_INCLUDE_STOPPED_PACKAGES | Intent.FLAG_RECEIVER_FOREGROUND);
+            intent.putExtra("key_hook", hookClassName.substring(hookClassName.lastIndexOf('.') + 1));
+            intent.putExtra("key_pkg", scopeMap.get(mPkg));
+            mContext.sendBroadcast(intent);
+        } catch (Throwable t) {
+            logW(TAG, mPkg, "Notify disabled hook failed: " + t);
         }
     }
 
-    private boolean compare(JSONObject object) {
-        // String mLabel = CrashRecord.getLabel(object);
-        String mPkg = CrashRecord.getPkg(object);
-        return mPkg.equals(this.mPkg);
+    private boolean isScopeApp() {
+        if (scopeMap.isEmpty()) scopeMap = CrashData.scopeData();
+        return scopeMap.get(mPkg) != null;
     }
 
-    private void reportCrashByIntent(ArrayList<JSONObject> report) {
-        if (scopeMap.isEmpty()) scopeMap = CrashData.scopeData();
+    private void reportCrashByIntent(ArrayList<String> report) {
         StringBuilder stringBuilder = new StringBuilder();
-        for (JSONObject j : report) {
-            String b = scopeMap.get(CrashRecord.getPkg(j));
+        for (String b : report) {
             if (stringBuilder.length() == 0) stringBuilder.append(b);
             else stringBuilder.append(",").append(b);
         }
 
-        String abbr = scopeMap.get(CrashRecord.getPkg(report.get(0)));
+        String abbr = scopeMap.get(mPkg);
 
         try {
             ShellInit.init();
@@ -301,6 +302,7 @@ public class CrashHook extends HookTool {
             SystemProperties.set("persist.service.hyperceiler.crash.report", abbr);
             logD("SafeMode", "start CrashActivity failed, try set prop");
         }
+        SafeMode.invalidate();
 
         /*Intent intent = getIntent(abbr, stringBuilder);
         mContext.startService(intent);*/
@@ -320,27 +322,4 @@ public class CrashHook extends HookTool {
         intent.putExtra("key_pkg", abbr);
         return intent;
     }
-
-    private ArrayList<JSONObject> getReportCrash() {
-        ArrayList<String> stringData = CrashData.getReportCrashProp();
-        ArrayList<JSONObject> objects = new ArrayList<>();
-        if (swappedMap.isEmpty()) swappedMap = CrashData.swappedData();
-        for (String s : stringData) {
-            String pkg = swappedMap.get(s);
-            objects.add(new CrashRecord(pkg, -1, -1).toJSON());
-        }
-        return objects;
-    }
-
-    private void setCrashRecord(ArrayList<JSONObject> data) {
-        Settings.System.putString(mContext.getContentResolver(), "hyperceiler_crash_record_data", data.toString());
-    }
-
-    private ArrayList<JSONObject> getCrashRecord() {
-        String data = Settings.System.getString(mContext.getContentResolver(), "hyperceiler_crash_record_data");
-        if (data == null || data.isEmpty() || data.equals("[]")) {
-            return new ArrayList<>();
-        }
-        return CrashRecord.toArray(data);
-    }
 }
@@ -0,0 +1,119 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.hook.safe;
+
+import java.util.Objects;
+
+/**
+ * system_server 内的崩溃环形记录
+ * <p>
+ * 以崩溃签名（包名 + 抛出位置，或仅包名）为键，记录次数与时间窗口；
+ * 使用定长基本类型数组存储，写满后覆盖最久未更新的条目。
+ */
+final class CrashRing {
+    private final long[] mSignatures;
+    private final int[] mCounts;
+    private final long[] mLastTimes;
+    private int mSize = 0;
+
+    CrashRing(int capacity) {
+        mSignatures = new long[capacity];
+        mCounts = new int[capacity];
+        mLastTimes = new long[capacity];
+    }
+
+    static long signatureOf(String pkg, String throwClassName, String throwMethodName, int throwLineNumber) {
+        long h = 1125899906842597L;
+        h = 31 * h + Objects.hashCode(pkg);
+        h = 31 * h + Objects.hashCode(throwClassName);
+        h = 31 * h + Objects.hashCode(throwMethodName);
+        h = 31 * h + throwLineNumber;
+        return h;
+    }
+
+    /*按包计数使用，与带抛出位置的签名分开存放*/
+    static long signatureOf(String pkg) {
+        return 31 * 1125899906842597L + Objects.hashCode(pkg);
+    }
+
+    /**
+     * 记录一次崩溃。
+     *
+     * @param window 与上次同签名崩溃间隔小于该值时累加次数，否则重新计数
+     * @return 当前窗口内该签名的崩溃次数
+     */
+    synchronized int record(long signature, long time, long window) {
+        int index = indexOf(signature);
+        if (index < 0) {
+            index = mSize < mSignatures.length ? mSize++ : oldestIndex();
+            mSignatures[index] = signature;
+            mCounts[index] = 1;
+            mLastTimes[index] = time;
+            return 1;
+        }
+        if (time - mLastTimes[index] < window) {
+            mCounts[index]++;
+        } else {
+            mCounts[index] = 1;
+        }
+        mLastTimes[index] = time;
+        return mCounts[index];
+    }
+
+    /**
+     * 清除超过 maxAge 未再次崩溃的记录。
+     */
+    synchronized void trim(long now, long maxAge) {
+        int i = 0;
+        while (i < mSize) {
+            if (now - mLastTimes[i] > maxAge) {
+                removeAt(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    synchronized void remove(long signature) {
+        int index = indexOf(signature);
+        if (index >= 0) removeAt(index);
+    }
+
+    private int indexOf(long signature) {
+        for (int i = 0; i < mSize; i++) {
+            if (mSignatures[i] == signature) return i;
+        }
+        return -1;
+    }
+
+    private int oldestIndex() {
+        int oldest = 0;
+        for (int i = 1; i < mSize; i++) {
+            if (mLastTimes[i] < mLastTimes[oldest]) oldest = i;
+        }
+        return oldest;
+    }
+
+    private void removeAt(int index) {
+        int last = --mSize;
+        mSignatures[index] = mSignatures[last];
+        mCounts[index] = mCounts[last];
+        mLastTimes[index] = mLastTimes[last];
+    }
+}
@@ -31,6 +31,7 @@ import com.sevtinge.hyperceiler.hook.utils.PropUtils
 import com.sevtinge.hyperceiler.hook.utils.api.ProjectApi.isDebug
 import com.sevtinge.hyperceiler.hook.utils.log.XposedLogUtils.logD
 import com.sevtinge.hyperceiler.hook.utils.prefs.PrefsUtils
+import java.util.concurrent.ConcurrentHashMap
 import kotlin.properties.Delegates
 
 object SafeMode : RescuePartyPlus.CrashHandler {
@@ -41,8 +42,21 @@ object SafeMode : RescuePartyPlus.CrashHandler {
     private lateinit var throwClassName: String
     private lateinit var stackTrace: String
     const val PROP_REPORT_PACKAGE = "persist.service.hyperceiler.crash.report"
+    const val PROP_DISABLED_HOOKS = "persist.service.hyperceiler.crash.hooks"
+    private const val RULES_PACKAGE = "com.sevtinge.hyperceiler.hook.module.rules."
+
+    // 属性值最长 91 字符，每个 id 连同逗号占 7 字符，写满后改为进入作用域安全模式
+    const val MAX_DISABLED_HOOKS = 13
+
+    // 进程内只读取一次属性，system_server 内由 CrashHook 在崩溃或写入后调用 invalidate 刷新
+    @Volatile
+    private var reportedAliases: Set<String>? = null
+    @Volatile
+    private var disabledHooks: Set<String>? = null
+    private val safeModeByPkg = ConcurrentHashMap<String, Boolean>()
 
     private fun onSafeMode(context: Context, pkgName: String): Boolean {
+        invalidate()
         if (isInSafeModeOnHook(pkgName) || isInSafeModeByProp(pkgName)) {
             return false
         }
@@ -97,15 +111,74 @@ object SafeMode : RescuePartyPlus.CrashHandler {
 
     @JvmStatic
     fun isInSafeModeByProp(pkgName: String): Boolean {
-        val data = PropUtils.getProp(PROP_REPORT_PACKAGE, "")
         if (pkgName.isEmpty()) {
             return false
         }
-        val alias = scopeData()[pkgName] ?: return false
-        if (isDebug()) logD("SafeMode", "data: $data, alias: $alias")
-        return data.split(",").toHashSet().contains(alias)
+        return safeModeByPkg.getOrPut(pkgName) {
+            val alias = scopeData()[pkgName] ?: return@getOrPut false
+            val reported = reportedAliases ?: readPropSet(PROP_REPORT_PACKAGE).also { reportedAliases = it }
+            if (isDebug()) logD("SafeMode", "data: $reported, alias: $alias")
+            reported.contains(alias)
+        }
+    }
+
+    /**
+     * 单个 hook 连续崩溃时只停用该 hook，属性中保存的是类名的短哈希
+     */
+    @JvmStatic
+    fun isHookDisabled(hookClassName: String): Boolean {
+        val disabled = disabledHooks ?: readPropSet(PROP_DISABLED_HOOKS).also { disabledHooks = it }
+        return disabled.isNotEmpty() && disabled.contains(hookId(hookClassName))
+    }
+
+    /**
+     * 丢弃缓存，下次查询时重新读取属性
+     */
+    @JvmStatic
+    fun invalidate() {
+        reportedAliases = null
+        disabledHooks = null
+        safeModeByPkg.clear()
     }
 
+    /**
+     * 将 id 追加到停用列表末尾，已有 [MAX_DISABLED_HOOKS] 个时返回 null，
+     * 不移除已停用的 hook，以免其在无提示的情况下被重新启用
+     */
+    @JvmStatic
+    fun appendDisabledHook(data: String, id: String): String? {
+        val ids = data.split(",").filter { it.isNotEmpty() && it != id }
+        if (ids.size >= MAX_DISABLED_HOOKS) return null
+        return (ids + id).joinToString(",")
+    }
+
+    @JvmStatic
+    fun hookId(hookClassName: String): String =
+        String.format("%06x", hookClassName.hashCode() and 0xFFFFFF)
+
+    /**
+     * 从崩溃堆栈中找出第一个位于 rules 包下的栈帧，返回其所属的顶层类名
+     */
+    @JvmStatic
+    fun findBlamedHook(stackTrace: String?): String? {
+        if (stackTrace.isNullOrEmpty()) return null
+        val start = stackTrace.indexOf(RULES_PACKAGE)
+        if (start < 0) return null
+        var end = start
+        while (end < stackTrace.length) {
+            val c = stackTrace[end]
+            if (c != '.' && !Character.isJavaIdentifierPart(c)) break
+            end++
+        }
+        // 去掉方法名与内部类后缀
+        val frame = stackTrace.substring(start, end)
+        val cls = frame.substring(0, frame.lastIndexOf('.').coerceAtLeast(RULES_PACKAGE.length))
+        return cls.substringBefore('$').takeIf { it.length > RULES_PACKAGE.length }
+    }
+
+    private fun readPropSet(key: String): Set<String> =
+        PropUtils.getProp(key, "").split(",").filter { it.isNotEmpty() }.toHashSet()
+
     fun onHandleCrash(
         longMsg: String,
         stackTrace: String,
@@ -26,11 +26,11 @@ import android.net.Uri;
 
 import androidx.annotation.Nullable;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.sevtinge.hyperceiler.hook.utils.prefs.PrefsUtils;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -38,19 +38,43 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 
+/**
+ * 设置备份与恢复
+ * <p>
+ * 备份格式（schema 2）：{"schema_version":2,"prefs":{"key":{"type":"boolean","value":true}, ...}}，
+ * 以 Gson 的 JsonWriter / JsonReader 流式读写；仍可读取旧版无类型标记的平铺格式。
+ * 恢复时只写入与当前值不同的键，单次 commit 后合并为一次变更通知。
+ */
 public class BackupUtils {
     public static final int CREATE_DOCUMENT_CODE = 255774;
     public static final int OPEN_DOCUMENT_CODE = 277451;
     public static final String BACKUP_FILE_NAME = "HyperCeiler_settings_backup";
 
+    private static final int SCHEMA_VERSION = 2;
+    private static final String KEY_SCHEMA_VERSION = "schema_version";
+    private static final String KEY_PREFS = "prefs";
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_VALUE = "value";
+    private static final String KEY_ALLOW_HOOK = "prefs_key_allow_hook";
+
+    private static final String TYPE_BOOLEAN = "boolean";
+    private static final String TYPE_INT = "int";
+    private static final String TYPE_LONG = "long";
+    private static final String TYPE_FLOAT = "float";
+    private static final String TYPE_STRING = "string";
+    private static final String TYPE_STRING_SET = "string_set";
+
     public static void backup(Activity activity) {
         @SuppressLint("SimpleDateFormat") String backupFileName = BACKUP_FILE_NAME + new SimpleDateFormat("_yyyy-MM-dd-HH:mm:ss").format(new java.util.Date());
         Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
@@ -68,60 +92,191 @@ public class BackupUtils {
         activity.startActivityForResult(intent, OPEN_DOCUMENT_CODE);
     }
 
-    public static void handleCreateDocument(Activity activity, @Nullable Uri data) throws IOException, JSONException {
+    public static void handleCreateDocument(Activity activity, @Nullable Uri data) throws IOException {
         if (data == null) return;
         OutputStream outputStream = activity.getContentResolver().openOutputStream(data);
-        BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(outputStream));
-        JSONObject jsonObject = new JSONObject();
-        for (Map.Entry<String, ?> entry : PrefsUtils.mSharedPreferences.getAll().entrySet()) {
-            if ("prefs_key_allow_hook".equals(entry.getKey())) {
-                continue;
-            }
-            jsonObject.put(entry.getKey(), entry.getValue());
+        if (outputStream == null) throw new IOException("Can't open " + data);
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)))) {
+            writePrefs(writer, PrefsUtils.mSharedPreferences.getAll());
         }
-        bufferedWriter.write(jsonObject.toString());
-        bufferedWriter.close();
     }
 
-    public static void handleReadDocument(Activity activity, @Nullable Uri data) throws IOException, JSONException {
+    public static void handleReadDocument(Activity activity, @Nullable Uri data) throws IOException {
         if (data == null) return;
-        SharedPreferences.Editor edit = PrefsUtils.mSharedPreferences.edit();
         InputStream inputStream = activity.getContentResolver().openInputStream(data);
-        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream));
-        StringBuilder stringBuilder = new StringBuilder();
-        String line = bufferedReader.readLine();
-        while (line != null) {
-            stringBuilder.append(line);
-            line = bufferedReader.readLine();
+        if (inputStream == null) throw new IOException("Can't open " + data);
+        Map<String, Object> restored;
+        try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)))) {
+            restored = readPrefs(reader);
+        }
+
+        SharedPreferences prefs = PrefsUtils.mSharedPreferences;
+        Map<String, Object> changed = changedEntries(prefs.getAll(), restored);
+        if (changed.isEmpty()) return;
+        SharedPreferences.Editor edit = prefs.edit();
+        for (Map.Entry<String, Object> entry : changed.entrySet()) {
+            putValue(edit, entry.getKey(), entry.getValue());
+        }
+
+        PrefsUtils.beginBatchChange();
+        try {
+            edit.commit();
+        } finally {
+            PrefsUtils.endBatchChange(activity, changed.keySet());
+        }
+    }
+
+    /**
+     * @return the restored entries whose value differs from the current one, in restore order.
+     */
+    static Map<String, Object> changedEntries(Map<String, ?> current, Map<String, Object> restored) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : restored.entrySet()) {
+            if (!Objects.equals(current.get(entry.getKey()), entry.getValue())) {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return changed;
+    }
+
+    static void writePrefs(JsonWriter writer, Map<String, ?> prefs) throws IOException {
+        writer.beginObject();
+        writer.name(KEY_SCHEMA_VERSION).value(SCHEMA_VERSION);
+        writer.name(KEY_PREFS).beginObject();
+        // 按键排序，便于对比两份备份
+        for (Map.Entry<String, ?> entry : new TreeMap<>(prefs).entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (KEY_ALLOW_HOOK.equals(key) || value == null) continue;
+            writer.name(key).beginObject();
+            if (value instanceof Boolean b) {
+                writer.name(KEY_TYPE).value(TYPE_BOOLEAN).name(KEY_VALUE).value(b);
+            } else if (value instanceof Integer i) {
+                writer.name(KEY_TYPE).value(TYPE_INT).name(KEY_VALUE).value(i);
+            } else if (value instanceof Long l) {
+                writer.name(KEY_TYPE).value(TYPE_LONG).name(KEY_VALUE).value(l);
+            } else if (value instanceof Float f) {
+                // 以字符串保存，避免 float 经 double 往返产生误差
+                writer.name(KEY_TYPE).value(TYPE_FLOAT).name(KEY_VALUE).value(Float.toString(f));
+            } else if (value instanceof Set<?> set) {
+                writer.name(KEY_TYPE).value(TYPE_STRING_SET).name(KEY_VALUE).beginArray();
+                for (Object item : set) writer.value((String) item);
+                writer.endArray();
+            } else {
+                writer.name(KEY_TYPE).value(TYPE_STRING).name(KEY_VALUE).value(value.toString());
+            }
+            writer.endObject();
+        }
+        writer.endObject();
+        writer.endObject();
+    }
+
+    static Map<String, Object> readPrefs(JsonReader reader) throws IOException {
+        Map<String, Object> prefs = new HashMap<>();
+        int version = 1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (KEY_SCHEMA_VERSION.equals(name) && reader.peek() == JsonToken.NUMBER) {
+                version = reader.nextInt();
+                if (version > SCHEMA_VERSION) {
+                    throw new IOException("Unsupported backup schema: " + version);
+                }
+            } else if (version >= 2 && KEY_PREFS.equals(name)) {
+                readTypedPrefs(reader, prefs);
+            } else {
+                // schema 1：平铺的 key: value，无类型标记
+                readLegacyPref(reader, name, prefs);
+            }
         }
-        String read = stringBuilder.toString();
-        JSONObject jsonObject = new JSONObject(read);
-        Iterator<String> keys = jsonObject.keys();
-        while (keys.hasNext()) {
-            String key = keys.next();
-            if ("prefs_key_allow_hook".equals(key)) {
-                continue;
+        reader.endObject();
+        prefs.remove(KEY_ALLOW_HOOK);
+        return prefs;
+    }
+
+    private static void readTypedPrefs(JsonReader reader, Map<String, Object> prefs) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            String type = null;
+            Object value = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if (KEY_TYPE.equals(field)) {
+                    type = reader.nextString();
+                } else if (KEY_VALUE.equals(field) && type != null) {
+                    value = readTypedValue(reader, type);
+                } else {
+                    reader.skipValue();
+                }
             }
-            Object value = jsonObject.get(key);
-            // https://stackoverflow.com/a/78608931
-            //noinspection IfCanBeSwitch
-            if (value instanceof String) {
-                if (((String) value).contains("[") && ((String) value).contains("]")) {
-                    value = ((String) value).replace("[", "").replace("]", "").replace(" ", "");
-                    String[] array = ((String) value).split(",");
-                    List<String> list = Arrays.asList(array);
-                    Set<String> stringSet = new HashSet<>(list);
-                    edit.putStringSet(key, stringSet);
+            reader.endObject();
+            if (value != null) prefs.put(key, value);
+        }
+        reader.endObject();
+    }
+
+    private static Object readTypedValue(JsonReader reader, String type) throws IOException {
+        return switch (type) {
+            case TYPE_BOOLEAN -> reader.nextBoolean();
+            case TYPE_INT -> reader.nextInt();
+            case TYPE_LONG -> reader.nextLong();
+            case TYPE_FLOAT -> Float.parseFloat(reader.nextString());
+            case TYPE_STRING -> reader.nextString();
+            case TYPE_STRING_SET -> {
+                Set<String> set = new HashSet<>();
+                reader.beginArray();
+                while (reader.hasNext()) set.add(reader.nextString());
+                reader.endArray();
+                yield set;
+            }
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    private static void readLegacyPref(JsonReader reader, String key, Map<String, Object> prefs) throws IOException {
+        switch (reader.peek()) {
+            case BOOLEAN -> prefs.put(key, reader.nextBoolean());
+            case NUMBER -> {
+                String number = reader.nextString();
+                try {
+                    prefs.put(key, Integer.parseInt(number));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            case STRING -> {
+                String value = reader.nextString();
+                // https://stackoverflow.com/a/78608931
+                if (value.contains("[") && value.contains("]")) {
+                    value = value.replace("[", "").replace("]", "").replace(" ", "");
+                    prefs.put(key, new HashSet<>(Arrays.asList(value.split(","))));
                 } else {
-                    edit.putString(key, (String) value);
+                    prefs.put(key, value);
                 }
-            } else if (value instanceof Boolean) {
-                edit.putBoolean(key, (Boolean) value);
-            } else if (value instanceof Integer) {
-                edit.putInt(key, (Integer) value);
             }
+            default -> reader.skipValue();
+        }
+    }
+
+    private static void putValue(SharedPreferences.Editor edit, String key, Object value) {
+        if (value instanceof Boolean b) {
+            edit.putBoolean(key, b);
+        } else if (value instanceof Integer i) {
+            edit.putInt(key, i);
+        } else if (value instanceof Long l) {
+            edit.putLong(key, l);
+        } else if (value instanceof Float f) {
+            edit.putFloat(key, f);
+        } else if (value instanceof Set<?> set) {
+            Set<String> stringSet = new HashSet<>();
+            for (Object item : set) stringSet.add((String) item);
+            edit.putStringSet(key, stringSet);
+        } else {
+            edit.putString(key, (String) value);
         }
-        bufferedReader.close();
-        edit.apply();
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+import android.content.Intent;
+
+import de.robv.android.xposed.XC_MethodHook.MethodHookParam;
+
+/**
+ * 自定义磁贴的回调，由 TileRegistry 按磁贴名称分发
+ * <p>
+ * 分为三类：可用性（tileCheck / tileListening），状态（tileUpdateState），点击（tileClick 等）
+ */
+public interface CustomTile {
+
+    /*磁贴名称，为空时表示覆写原有磁贴*/
+    String customName();
+
+    /*磁贴标题的资源 Id*/
+    int customRes();
+
+    boolean needOverride();
+
+    boolean needAfter();
+
+    void tileCheck(MethodHookParam param, String tileName);
+
+    void tileListening(MethodHookParam param, String tileName);
+
+    /*返回 null 表示状态已自行写入*/
+    State tileUpdateState(MethodHookParam param, String tileName);
+
+    void tileClick(MethodHookParam param, String tileName);
+
+    void tileClickAfter(MethodHookParam param, String tileName);
+
+    void tileLongClickIntent(MethodHookParam param, String tileName);
+
+    Intent tileHandleLongClick(MethodHookParam param, String tileName);
+
+    /**
+     * 开关型磁贴的状态，取代原先以字符串为键的 ArrayMap
+     */
+    final class State {
+        public final boolean enabled;
+        public final int iconOn;
+        public final int iconOff;
+
+        private State(boolean enabled, int iconOn, int iconOff) {
+            this.enabled = enabled;
+            this.iconOn = iconOn;
+            this.iconOff = iconOff;
+        }
+
+        public static State of(boolean enabled, int iconOn, int iconOff) {
+            return new State(enabled, iconOn, iconOff);
+        }
+
+        public int icon() {
+            return enabled ? iconOn : iconOff;
+        }
+    }
+}
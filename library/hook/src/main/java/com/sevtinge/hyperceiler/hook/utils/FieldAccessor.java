@@ -0,0 +1,86 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import de.robv.android.xposed.XposedHelpers;
+
+/**
+ * 按字段名访问实例字段，每个类只解析一次并缓存为 MethodHandle
+ * <p>
+ * 适用于每帧都会执行的 hook 回调，避免 XposedHelpers.getObjectField 每次按名称查找
+ */
+public final class FieldAccessor<T> {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String mFieldName;
+    private final ClassValue<MethodHandle[]> mHandles = new ClassValue<>() {
+        @Override
+        protected MethodHandle[] computeValue(Class<?> type) {
+            Field field = XposedHelpers.findField(type, mFieldName);
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                return new MethodHandle[]{
+                        lookup.unreflectGetter(field).asType(GETTER_TYPE),
+                        lookup.unreflectSetter(field).asType(SETTER_TYPE)
+                };
+            } catch (IllegalAccessException e) {
+                throw new IllegalAccessError(e.getMessage());
+            }
+        }
+    };
+
+    public FieldAccessor(String fieldName) {
+        mFieldName = fieldName;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(Object obj) {
+        try {
+            return (T) (Object) mHandles.get(obj.getClass())[0].invokeExact(obj);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    public T getOrNull(Object obj) {
+        try {
+            return get(obj);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    public void set(Object obj, T value) {
+        try {
+            mHandles.get(obj.getClass())[1].invokeExact(obj, (Object) value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
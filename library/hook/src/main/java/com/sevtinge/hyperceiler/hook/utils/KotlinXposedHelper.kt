@@ -63,6 +63,7 @@ import java.lang.reflect.Field
 import java.lang.reflect.Member
 import java.lang.reflect.Modifier
 import java.util.Enumeration
+import kotlin.reflect.KProperty
 
 typealias MethodHookParam = MethodHookParam
 typealias Replacer = (MethodHookParam) -> Any?
@@ -437,6 +438,14 @@ fun Class<*>.findField(field: String?): Field = findField(this, field)
 
 fun Class<*>.findFieldOrNull(field: String?): Field? = findFieldIfExists(this, field)
 
+/**
+ * 以委托属性访问字段，例如 `private val Any.mContext by FieldAccessor<Context>("mContext")`
+ */
+operator fun <T> FieldAccessor<T>.getValue(thisRef: Any, property: KProperty<*>): T = get(thisRef)
+
+operator fun <T> FieldAccessor<T>.setValue(thisRef: Any, property: KProperty<*>, value: T) =
+    set(thisRef, value)
+
 data class ResourcesHookData(val type: String, val afterValue: Any)
 
 class ResourcesHookMap<String, ResourcesHookData> : HashMap<String, ResourcesHookData>() {
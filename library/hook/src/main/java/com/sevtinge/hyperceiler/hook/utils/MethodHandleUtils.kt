@@ -19,14 +19,19 @@
 package com.sevtinge.hyperceiler.hook.utils
 
 import de.robv.android.xposed.XposedHelpers
+import java.lang.invoke.MethodHandle
 import java.lang.invoke.MethodHandles
 import java.lang.reflect.Method
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * 方法句柄工具类
  */
 @Suppress("unused")
 object MethodHandleUtils {
+    // unreflectSpecial 的结果只与方法和调用类有关，缓存后避免每次重新创建
+    private val specialHandles = ConcurrentHashMap<Pair<Method, Class<*>>, MethodHandle>()
+
     @JvmStatic
     fun invokeSuperMethod(
         obj: Any,
@@ -55,7 +60,8 @@ object MethodHandleUtils {
         obj: Any,
         method: Method,
         vararg args: Any?
-    ): Any? = MethodHandles.privateLookupIn(obj.javaClass, MethodHandles.lookup())
-        .unreflectSpecial(method, obj.javaClass)
-        .invokeWithArguments(obj, *args)
+    ): Any? = specialHandles.getOrPut(Pair(method, obj.javaClass)) {
+        MethodHandles.privateLookupIn(obj.javaClass, MethodHandles.lookup())
+            .unreflectSpecial(method, obj.javaClass)
+    }.invokeWithArguments(obj, *args)
 }
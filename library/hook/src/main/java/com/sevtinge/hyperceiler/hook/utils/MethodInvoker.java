@@ -0,0 +1,80 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * 按方法名与参数类型调用实例方法，每个类只解析一次并缓存为 MethodHandle
+ * <p>
+ * 参数类型需精确给出，按接收者类及其父类依次查找
+ */
+public final class MethodInvoker {
+    private final String mMethodName;
+    private final Class<?>[] mParameterTypes;
+    private final ClassValue<MethodHandle> mHandles = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            Method method = findMethod(type);
+            try {
+                int count = mParameterTypes.length;
+                return MethodHandles.lookup().unreflect(method)
+                        .asType(MethodType.genericMethodType(count + 1))
+                        .asSpreader(Object[].class, count);
+            } catch (IllegalAccessException e) {
+                throw new IllegalAccessError(e.getMessage());
+            }
+        }
+    };
+
+    public MethodInvoker(String methodName, Class<?>... parameterTypes) {
+        mMethodName = methodName;
+        mParameterTypes = parameterTypes;
+    }
+
+    public Object invoke(Object obj, Object... args) {
+        try {
+            return (Object) mHandles.get(obj.getClass()).invokeExact(obj, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T invokeAs(Object obj, Object... args) {
+        return (T) invoke(obj, args);
+    }
+
+    private Method findMethod(Class<?> type) {
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+            try {
+                Method method = clazz.getDeclaredMethod(mMethodName, mParameterTypes);
+                method.setAccessible(true);
+                return method;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        throw new NoSuchMethodError(type.getName() + "#" + mMethodName);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+/**
+ * 摇一摇识别，只依赖传入的时间戳与加速度，不涉及 Android 接口
+ * <p>
+ * 对相邻采样求加加速度（jerk），按轴做指数衰减的能量积分，
+ * 次大轴能量越过阈值、持续一段时间且加加速度方向来回反转足够次数才算一次摇动，
+ * 与旧逻辑一样要求至少两个轴同时变化，单次磕碰或甩动不会触发。
+ * 时间全部取自 SensorEvent.timestamp，批量上报时不受回调时刻影响
+ */
+public final class ShakeDetector {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    // 能量衰减时间常数
+    private static final float TAU_SECONDS = 0.3f;
+    // 次大轴能量阈值（m²/s⁵），带回差
+    private static final float ENERGY_ON = 1000f;
+    private static final float ENERGY_OFF = 400f;
+    // Z 轴受重力和走路影响大，旧逻辑阈值为 X/Y 的两倍，能量上即四分之一
+    private static final float Z_WEIGHT = 0.25f;
+    private static final long MIN_SHAKE_NS = 150_000_000L;
+    // 计入方向反转的最小加加速度（m/s³）与所需反转次数（各轴合计）
+    private static final float JERK_MIN = 50f;
+    private static final int MIN_REVERSALS = 4;
+    private static final long COOLDOWN_NS = 750_000_000L;
+    // 传感器可能以高于请求的频率上报，间隔过短的采样直接跳过，否则噪声会被差分放大
+    private static final long MIN_STEP_NS = 15_000_000L;
+    // 采样间隔过大时视为重新开始，例如重新注册之后
+    private static final long MAX_GAP_NS = 500_000_000L;
+
+    private static final int IDLE = 0;
+    private static final int SHAKING = 1;
+    private static final int COOLDOWN = 2;
+
+    private final float[] mLast = new float[3];
+    private final float[] mEnergy = new float[3];
+    private final int[] mJerkSign = new int[3];
+    private int mReversals;
+    private long mLastTimestamp = -1;
+    private int mState = IDLE;
+    private long mStateSince;
+    private long mCooldownUntil;
+
+    public void reset() {
+        mLastTimestamp = -1;
+        mEnergy[0] = mEnergy[1] = mEnergy[2] = 0f;
+        mJerkSign[0] = mJerkSign[1] = mJerkSign[2] = 0;
+        mReversals = 0;
+        if (mState != COOLDOWN) mState = IDLE;
+    }
+
+    /**
+     * @param timestampNs SensorEvent.timestamp
+     * @return 本次采样是否触发一次摇动
+     */
+    public boolean onSample(long timestampNs, float x, float y, float z) {
+        long dtNs = timestampNs - mLastTimestamp;
+        if (mLastTimestamp < 0 || dtNs > MAX_GAP_NS) {
+            reset();
+            remember(timestampNs, x, y, z);
+            return false;
+        }
+        if (dtNs < MIN_STEP_NS) return false;
+
+        float dt = (float) dtNs / NANOS_PER_SECOND;
+        float decay = (float) Math.exp(-dt / TAU_SECONDS);
+        accumulate(0, x, dt, decay);
+        accumulate(1, y, dt, decay);
+        accumulate(2, z, dt, decay);
+        remember(timestampNs, x, y, z);
+
+        float level = secondLargest(mEnergy[0], mEnergy[1], mEnergy[2] * Z_WEIGHT);
+        switch (mState) {
+            case COOLDOWN -> {
+                if (timestampNs < mCooldownUntil) return false;
+                mState = IDLE;
+                if (level > ENERGY_ON) enter(SHAKING, timestampNs);
+            }
+            case SHAKING -> {
+                if (level < ENERGY_OFF) {
+                    mState = IDLE;
+                } else if (timestampNs - mStateSince >= MIN_SHAKE_NS && mReversals >= MIN_REVERSALS) {
+                    enter(COOLDOWN, timestampNs);
+                    mCooldownUntil = timestampNs + COOLDOWN_NS;
+                    return true;
+                }
+            }
+            default -> {
+                if (level > ENERGY_ON) enter(SHAKING, timestampNs);
+            }
+        }
+        return false;
+    }
+
+    private void accumulate(int axis, float value, float dt, float decay) {
+        float jerk = (value - mLast[axis]) / dt;
+        mEnergy[axis] = mEnergy[axis] * decay + jerk * jerk * dt;
+        if (Math.abs(jerk) < JERK_MIN) return;
+        int sign = jerk > 0 ? 1 : -1;
+        if (mJerkSign[axis] == -sign) mReversals++;
+        mJerkSign[axis] = sign;
+    }
+
+    private void remember(long timestampNs, float x, float y, float z) {
+        mLastTimestamp = timestampNs;
+        mLast[0] = x;
+        mLast[1] = y;
+        mLast[2] = z;
+    }
+
+    private void enter(int state, long timestampNs) {
+        mState = state;
+        mStateSince = timestampNs;
+        mReversals = 0;
+    }
+
+    private static float secondLargest(float a, float b, float c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+}
@@ -22,94 +22,91 @@ import android.content.Context;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
 
 import com.sevtinge.hyperceiler.hook.module.skip.GlobalActions;
 
+/**
+ * 摇一摇监听
+ * <p>
+ * 传感器回调在独立的 HandlerThread 上处理，并允许硬件 FIFO 批量上报；
+ * 只有在前台且处于可触发的界面时才注册，识别逻辑见 {@link ShakeDetector}
+ */
 public class ShakeManager implements SensorEventListener {
-
-    private float xAccel;
-    private float yAccel;
-    private float zAccel;
-
-    private float xPreviousAccel;
-    private float yPreviousAccel;
-    private float zPreviousAccel;
-
-    private boolean firstUpdate = true;
-    private boolean shakeInitiated = false;
-    private long lastShakeEvent = System.currentTimeMillis();
+    private static final int SAMPLING_PERIOD_US = 20_000;
+    private static final int MAX_REPORT_LATENCY_US = 100_000;
+    private static Handler sSensorHandler;
 
     private final Context helperContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ShakeDetector detector = new ShakeDetector();
+    private final Runnable shakeAction = this::executeShakeAction;
+
+    private boolean resumed = false;
+    private boolean shakeAllowed = true;
+    private boolean registered = false;
 
     public ShakeManager(Context helpercontext) {
         this.helperContext = helpercontext;
     }
 
-    public void reset() {
-        xAccel = 0;
-        yAccel = 0;
-        zAccel = 0;
-        xPreviousAccel = 0;
-        yPreviousAccel = 0;
-        zPreviousAccel = 0;
-        firstUpdate = true;
-        shakeInitiated = false;
+    private static synchronized Handler sensorHandler() {
+        if (sSensorHandler == null) {
+            HandlerThread thread = new HandlerThread("HyperCeiler-Shake");
+            thread.start();
+            sSensorHandler = new Handler(thread.getLooper());
+        }
+        return sSensorHandler;
     }
 
-    @Override
-    public void onAccuracyChanged(Sensor sensor, int accuracy) {
-        // Don't care...
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+        updateRegistration();
     }
 
-    @Override
-    public void onSensorChanged(SensorEvent se) {
-        updateAccelParameters(se.values[0], se.values[1], se.values[2]);
-        if (!shakeInitiated && isAccelerationChanged())
-            shakeInitiated = true;
-        else if (shakeInitiated && isAccelerationChanged())
-            executeShakeActionDelayed();
-        else if (shakeInitiated && (!isAccelerationChanged()))
-            shakeInitiated = false;
+    /*处于抽屉、最近任务等界面时摇动不会触发任何操作，直接注销*/
+    public void setShakeAllowed(boolean allowed) {
+        this.shakeAllowed = allowed;
+        updateRegistration();
     }
 
-    private void updateAccelParameters(float xNewAccel, float yNewAccel, float zNewAccel) {
-        if (firstUpdate) {
-            xPreviousAccel = xNewAccel;
-            yPreviousAccel = yNewAccel;
-            zPreviousAccel = zNewAccel;
-            firstUpdate = false;
+    private void updateRegistration() {
+        boolean want = resumed && shakeAllowed;
+        if (want == registered) return;
+        SensorManager sensorMgr = (SensorManager) helperContext.getSystemService(Context.SENSOR_SERVICE);
+        if (sensorMgr == null) return;
+        if (want) {
+            Sensor sensor = sensorMgr.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+            if (sensor == null) return;
+            Handler handler = sensorHandler();
+            // 在传感器线程上重置，保证排在新注册的事件之前
+            handler.post(detector::reset);
+            registered = sensorMgr.registerListener(this, sensor, SAMPLING_PERIOD_US, MAX_REPORT_LATENCY_US, handler);
         } else {
-            xPreviousAccel = xAccel;
-            yPreviousAccel = yAccel;
-            zPreviousAccel = zAccel;
+            sensorMgr.unregisterListener(this);
+            registered = false;
+            mainHandler.removeCallbacks(shakeAction);
         }
-        xAccel = xNewAccel;
-        yAccel = yNewAccel;
-        zAccel = zNewAccel;
     }
 
-    private boolean isAccelerationChanged() {
-        float deltaX = Math.abs(xPreviousAccel - xAccel);
-        float deltaY = Math.abs(yPreviousAccel - yAccel);
-        float deltaZ = Math.abs(zPreviousAccel - zAccel);
-        float shakeThresholdX = 4f;
-        float shakeThresholdY = 4f;
-        float shakeThresholdZ = 8f;
-        return (deltaX > shakeThresholdX && deltaY > shakeThresholdY)
-            || (deltaX > shakeThresholdX && deltaZ > shakeThresholdZ)
-            || (deltaY > shakeThresholdY && deltaZ > shakeThresholdZ);
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        // Don't care...
     }
 
-    private void executeShakeActionDelayed() {
-        long now = System.currentTimeMillis();
-        int shakeEventThrottle = 750;
-        if (now - lastShakeEvent > shakeEventThrottle) {
-            lastShakeEvent = now;
-            executeShakeAction();
+    @Override
+    public void onSensorChanged(SensorEvent se) {
+        if (detector.onSample(se.timestamp, se.values[0], se.values[1], se.values[2])) {
+            mainHandler.post(shakeAction);
         }
     }
 
     private void executeShakeAction() {
+        // 注销前已排队在传感器线程上的批量事件仍可能触发，离开可触发状态后丢弃
+        if (!registered) return;
         GlobalActions.handleAction(helperContext, "prefs_key_home_gesture_shake");
     }
 }
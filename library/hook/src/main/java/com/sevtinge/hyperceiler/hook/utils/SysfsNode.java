@@ -0,0 +1,257 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.Nullable;
+
+import com.sevtinge.hyperceiler.hook.utils.log.AndroidLogUtils;
+import com.sevtinge.hyperceiler.hook.utils.shell.ShellExec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * sysfs 节点读写
+ * <p>
+ * 候选路径在进程内只探测一次；读写优先走常驻的 FileChannel，
+ * 没有权限时改用全局唯一的常驻 Root Shell，不再每次 fork su 或 chmod 777
+ */
+public final class SysfsNode {
+    private static final String TAG = "SysfsNode";
+    private static final ConcurrentHashMap<String, Optional<SysfsNode>> sProbed = new ConcurrentHashMap<>();
+    private static ShellExec sRootShell;
+
+    private final String mPath;
+    private final boolean mRootOnly;
+    private final ByteBuffer mBuffer = ByteBuffer.allocate(64);
+    private FileChannel mChannel;
+    private boolean mWritable;
+    private boolean mNoWrite;
+    private boolean mNoRead;
+
+    private SysfsNode(String path, boolean rootOnly) {
+        mPath = path;
+        mRootOnly = rootOnly;
+    }
+
+    /*返回第一个存在的候选节点，都不存在时返回 null*/
+    @Nullable
+    public static SysfsNode probe(String... candidates) {
+        return sProbed.computeIfAbsent(String.join("|", candidates), key -> {
+            for (String path : candidates) {
+                if (new File(path).exists()) return Optional.of(new SysfsNode(path, false));
+            }
+            return Optional.empty();
+        }).orElse(null);
+    }
+
+    /*始终通过 Root Shell 读写，用于用户指定 Shell 模式的场景*/
+    public static SysfsNode viaRoot(String path) {
+        return sProbed.computeIfAbsent("root:" + path,
+            key -> Optional.of(new SysfsNode(path, true))).get();
+    }
+
+    public String path() {
+        return mPath;
+    }
+
+    @Nullable
+    public synchronized String read() {
+        if (openChannel(false)) {
+            try {
+                mBuffer.clear();
+                int n = mChannel.read(mBuffer, 0);
+                if (n > 0) return new String(mBuffer.array(), 0, n, StandardCharsets.US_ASCII).trim();
+            } catch (IOException e) {
+                dropChannel(e);
+            }
+        }
+        return rootRead();
+    }
+
+    public int readInt(int def) {
+        String value = read();
+        if (value == null || value.isEmpty()) return def;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            AndroidLogUtils.logW(TAG, "Not a number: " + mPath + " = " + value);
+            return def;
+        }
+    }
+
+    public boolean write(int value) {
+        return write(Integer.toString(value));
+    }
+
+    public synchronized boolean write(String value) {
+        if (openChannel(true)) {
+            try {
+                mChannel.write(ByteBuffer.wrap(value.getBytes(StandardCharsets.US_ASCII)), 0);
+                return true;
+            } catch (IOException e) {
+                dropChannel(e);
+            }
+        }
+        return rootWrite(value);
+    }
+
+    private boolean openChannel(boolean write) {
+        if (mRootOnly || (write ? mNoWrite : mNoRead)) return false;
+        if (mChannel != null && (mWritable || !write)) return true;
+        if (!mNoWrite) {
+            try {
+                FileChannel channel = new RandomAccessFile(mPath, "rw").getChannel();
+                closeChannel();
+                mChannel = channel;
+                mWritable = true;
+                return true;
+            } catch (IOException e) {
+                mNoWrite = true;
+                AndroidLogUtils.logW(TAG, "No write access to " + mPath + ", fallback to root shell");
+            }
+        }
+        if (write) return false;
+        try {
+            mChannel = new RandomAccessFile(mPath, "r").getChannel();
+            mWritable = false;
+            return true;
+        } catch (IOException e) {
+            mNoRead = true;
+            return false;
+        }
+    }
+
+    private void dropChannel(IOException e) {
+        // 节点可能拒绝某个值，下次重新打开即可，本次交给 Root 再试一次
+        AndroidLogUtils.logE(TAG, "Channel I/O failed: " + mPath, e);
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (mChannel == null) return;
+        try {
+            mChannel.close();
+        } catch (IOException ignore) {
+        }
+        mChannel = null;
+        mWritable = false;
+    }
+
+    @Nullable
+    private String rootRead() {
+        ShellExec shell = rootShell();
+        if (shell == null) return null;
+        synchronized (shell) {
+            if (!shell.run("cat " + mPath).sync().isResult()) {
+                AndroidLogUtils.logW(TAG, "Root read failed: " + mPath + " " + shell.getError());
+                return null;
+            }
+            return String.join("", new ArrayList<>(shell.getOutPut())).trim();
+        }
+    }
+
+    private boolean rootWrite(String value) {
+        ShellExec shell = rootShell();
+        if (shell == null) return false;
+        synchronized (shell) {
+            if (shell.run("echo " + value + " > " + mPath).sync().isResult()) return true;
+            AndroidLogUtils.logW(TAG, "Root write failed: " + mPath + " " + shell.getError());
+            return false;
+        }
+    }
+
+    @Nullable
+    private static synchronized ShellExec rootShell() {
+        if (sRootShell == null || sRootShell.isDestroy()) {
+            sRootShell = new ShellExec(true, true);
+            if (!sRootShell.ready()) {
+                AndroidLogUtils.logE(TAG, "Root shell not ready");
+                sRootShell = null;
+            }
+        }
+        return sRootShell;
+    }
+
+    /**
+     * 把同一帧内的多次写入合并为最后一次
+     * <p>
+     * 用于亮度滑条、ContentObserver 等短时间内连续回调的场景
+     */
+    public static final class FrameCoalescer implements Choreographer.FrameCallback {
+        private final IntConsumer mSink;
+        private final Consumer<Choreographer.FrameCallback> mScheduler;
+        private int mPending;
+        private boolean mScheduled;
+
+        public FrameCoalescer(IntConsumer sink) {
+            this(sink, FrameCoalescer::postFrameCallback);
+        }
+
+        /*测试用，由调用方决定何时执行帧回调*/
+        FrameCoalescer(IntConsumer sink, Consumer<Choreographer.FrameCallback> scheduler) {
+            mSink = sink;
+            mScheduler = scheduler;
+        }
+
+        public void post(int value) {
+            synchronized (this) {
+                mPending = value;
+                if (mScheduled) return;
+                mScheduled = true;
+            }
+            mScheduler.accept(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            int value;
+            synchronized (this) {
+                value = mPending;
+                mScheduled = false;
+            }
+            mSink.accept(value);
+        }
+
+        private static void postFrameCallback(Choreographer.FrameCallback callback) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                Choreographer.getInstance().postFrameCallback(callback);
+            } else {
+                MainHandler.INSTANCE.post(() -> Choreographer.getInstance().postFrameCallback(callback));
+            }
+        }
+
+        private static final class MainHandler {
+            static final Handler INSTANCE = new Handler(Looper.getMainLooper());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+import android.content.Context;
+import android.widget.Switch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import de.robv.android.xposed.XposedHelpers;
+
+/**
+ * 自定义磁贴注册表
+ * <p>
+ * 每个磁贴类的每个方法只 hook 一次，回调时按 customName 在 HashMap 中查找对应的 CustomTile；
+ * 无 customName 的原有磁贴交给覆写该类的 CustomTile 处理。
+ * 字段与方法句柄按类缓存，同一 SystemUI 类加载器内只解析一次。
+ */
+final class TileRegistry {
+    static final String KEY_CUSTOM_NAME = "customName";
+
+    static final FieldAccessor<Context> CONTEXT = new FieldAccessor<>("mContext");
+    static final FieldAccessor<Object> ACTIVITY_STARTER = new FieldAccessor<>("mActivityStarter");
+    static final FieldAccessor<Object> STATE = new FieldAccessor<>("mState");
+    static final MethodInvoker GET_TILE_LABEL = new MethodInvoker("getTileLabel");
+
+    private static final FieldAccessor<Object> STATE_VALUE = new FieldAccessor<>("value");
+    private static final FieldAccessor<Object> STATE_STATE = new FieldAccessor<>("state");
+    private static final FieldAccessor<Object> STATE_LABEL = new FieldAccessor<>("label");
+    private static final FieldAccessor<Object> STATE_DESCRIPTION = new FieldAccessor<>("contentDescription");
+    private static final FieldAccessor<Object> STATE_A11Y_CLASS = new FieldAccessor<>("expandedAccessibilityClassName");
+    private static final FieldAccessor<Object> STATE_ICON = new FieldAccessor<>("icon");
+
+    private static final ClassValue<MethodHandle> RESOURCE_ICON_GET = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                return MethodHandles.lookup().unreflect(XposedHelpers.findMethodExact(type, "get", int.class))
+                        .asType(MethodType.methodType(Object.class, int.class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalAccessError(e.getMessage());
+            }
+        }
+    };
+
+    private static final class Dispatch {
+        final HashMap<String, CustomTile> bySpec = new HashMap<>();
+        final HashSet<String> hookedMethods = new HashSet<>();
+        CustomTile override;
+    }
+
+    private static final HashMap<Class<?>, Dispatch> sDispatch = new HashMap<>();
+    private static final HashMap<String, CustomTile> sFactoryTiles = new HashMap<>();
+    private static final HashMap<String, String> sFactoryProviders = new HashMap<>();
+    private static final HashSet<Object> sInstalled = new HashSet<>();
+
+    private TileRegistry() {
+    }
+
+    static synchronized void register(Class<?> tileClass, CustomTile tile, String provider) {
+        Dispatch dispatch = dispatchOf(tileClass);
+        if (tile.needOverride()) {
+            dispatch.override = tile;
+        } else {
+            dispatch.bySpec.put(tile.customName(), tile);
+            sFactoryTiles.put(tile.customName(), tile);
+            sFactoryProviders.put(tile.customName(), provider);
+        }
+    }
+
+    /*返回 true 表示该类的该方法尚未 hook，调用方负责 hook*/
+    static synchronized boolean claimMethod(Class<?> tileClass, String method) {
+        return dispatchOf(tileClass).hookedMethods.add(method);
+    }
+
+    /*只需全局 hook 一次的目标，例如 QSFactory 与 SystemUIApplication*/
+    static synchronized boolean claimOnce(Object key) {
+        return sInstalled.add(key);
+    }
+
+    private static Dispatch dispatchOf(Class<?> tileClass) {
+        Dispatch dispatch = sDispatch.get(tileClass);
+        if (dispatch == null) {
+            dispatch = new Dispatch();
+            sDispatch.put(tileClass, dispatch);
+        }
+        return dispatch;
+    }
+
+    static String tileName(Object tile) {
+        return (String) XposedHelpers.getAdditionalInstanceField(tile, KEY_CUSTOM_NAME);
+    }
+
+    /*按磁贴实例找到对应的 CustomTile，tileName 为 null 时返回覆写该类的 CustomTile*/
+    static CustomTile find(Class<?> tileClass, String tileName) {
+        Dispatch dispatch = sDispatch.get(tileClass);
+        if (dispatch == null) return null;
+        return tileName != null ? dispatch.bySpec.get(tileName) : dispatch.override;
+    }
+
+    static CustomTile findFactoryTile(String tileName) {
+        return sFactoryTiles.get(tileName);
+    }
+
+    static String providerOf(String tileName) {
+        return sFactoryProviders.get(tileName);
+    }
+
+    /*全部自定义磁贴名称，以逗号开头，用于追加到原有磁贴列表*/
+    static String customSpecs() {
+        StringBuilder builder = new StringBuilder();
+        for (String spec : sFactoryTiles.keySet()) {
+            builder.append(',').append(spec);
+        }
+        return builder.toString();
+    }
+
+    static Object resourceIcon(Class<?> resourceIconClass, int res) {
+        try {
+            return (Object) RESOURCE_ICON_GET.get(resourceIconClass).invokeExact(res);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    static void applyState(Object tile, Object booleanState, CustomTile.State state, Class<?> resourceIconClass) {
+        boolean enabled = state.enabled;
+        STATE_VALUE.set(booleanState, enabled);
+        // 测试为开关状态控制，2为开，1为关
+        STATE_STATE.set(booleanState, enabled ? 2 : 1);
+        Object tileLabel = GET_TILE_LABEL.invoke(tile);
+        STATE_LABEL.set(booleanState, tileLabel);
+        STATE_DESCRIPTION.set(booleanState, tileLabel);
+        STATE_A11Y_CLASS.set(booleanState, Switch.class.getName());
+        STATE_ICON.set(booleanState, resourceIcon(resourceIconClass, state.icon()));
+    }
+}
@@ -24,8 +24,6 @@ import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.Intent;
 import android.content.res.Resources;
-import android.util.ArrayMap;
-import android.widget.Switch;
 
 import androidx.annotation.CallSuper;
 
@@ -36,9 +34,9 @@ import com.sevtinge.hyperceiler.hook.module.base.tool.OtherTool;
 import de.robv.android.xposed.XC_MethodHook.MethodHookParam;
 import de.robv.android.xposed.XposedHelpers;
 
-public abstract class TileUtils extends BaseHook {
+public abstract class TileUtils extends BaseHook implements CustomTile {
     private static final String mQSFactoryClsName = "com.android.systemui.qs.tileimpl.MiuiQSFactory";
-    private final boolean[] isListened = {false};
+    private static boolean sListened = false;
     private final String[] mTileProvider = new String[4];
     private Class<?> mResourceIcon;
     private Class<?> mQSFactory;
@@ -60,172 +58,153 @@ public abstract class TileUtils extends BaseHook {
         }
         Class<?> myTile = customClass();
         mResourceIcon = findClass("com.android.systemui.qs.tileimpl.QSTileImpl$ResourceIcon");
-        SystemUiHook();
         customTileProvider();
+        TileRegistry.register(myTile, this, getCustomTileProvider()[0]);
+        SystemUiHook();
         showStateMessage(myTile);
         tileAllName14(mQSFactory);
 
-        try {
-            myTile.getDeclaredMethod("isAvailable");
-            findAndHookMethod(myTile, "isAvailable", new MethodHook() {
-                @Override
-                protected void before(MethodHookParam param) {
-                    String tileName = (String) XposedHelpers.getAdditionalInstanceField(param.thisObject, "customName");
-                    if (tileName != null) {
-                        if (tileName.equals(customName())) {
-                            tileCheck(param, tileName);
-                        }
-                    } else {
-                        if (needOverride())
-                            tileCheck(param, tileName);
+        if (TileRegistry.claimMethod(myTile, "isAvailable")) {
+            try {
+                myTile.getDeclaredMethod("isAvailable");
+                findAndHookMethod(myTile, "isAvailable", new MethodHook() {
+                    @Override
+                    protected void before(MethodHookParam param) {
+                        String tileName = TileRegistry.tileName(param.thisObject);
+                        CustomTile tile = TileRegistry.find(myTile, tileName);
+                        if (tile != null) tile.tileCheck(param, tileName);
                     }
-                }
-            });
-        } catch (NoSuchMethodException e) {
-            logE(TAG, "com.android.systemui", "Don't Have isAvailable: " + e);
+                });
+            } catch (NoSuchMethodException e) {
+                logE(TAG, "com.android.systemui", "Don't Have isAvailable: " + e);
+            }
         }
         tileName(myTile); // 不需要覆写
-        try {
-            myTile.getDeclaredMethod("handleSetListening", boolean.class);
-            findAndHookMethod(myTile, "handleSetListening", boolean.class, new MethodHook() {
-                @Override
-                protected void before(MethodHookParam param) {
-                    String tileName = (String) XposedHelpers.getAdditionalInstanceField(param.thisObject, "customName");
-                    if (tileName != null) {
-                        if (tileName.equals(customName())) {
+        if (TileRegistry.claimMethod(myTile, "handleSetListening")) {
+            try {
+                myTile.getDeclaredMethod("handleSetListening", boolean.class);
+                findAndHookMethod(myTile, "handleSetListening", boolean.class, new MethodHook() {
+                    @Override
+                    protected void before(MethodHookParam param) {
+                        String tileName = TileRegistry.tileName(param.thisObject);
+                        CustomTile tile = TileRegistry.find(myTile, tileName);
+                        if (tile == null) return;
+                        if (tileName != null) {
                             try {
-                                tileListening(param, tileName);
+                                tile.tileListening(param, tileName);
                                 param.setResult(null);
                             } catch (Throwable e) {
                                 logE(TAG, "com.android.systemui", "handleSetListening have Throwable: " + e);
                                 param.setResult(null);
                             }
+                        } else {
+                            tile.tileListening(param, null);
                         }
-                    } else {
-                        if (needOverride())
-                            tileListening(param, tileName);
                     }
-                }
-            });
-        } catch (NoSuchMethodException e) {
-            logE(TAG, "com.android.systemui", "Don't Have handleSetListening: " + e);
+                });
+            } catch (NoSuchMethodException e) {
+                logE(TAG, "com.android.systemui", "Don't Have handleSetListening: " + e);
+            }
         }
-        try {
-            myTile.getDeclaredMethod("getLongClickIntent");
-            findAndHookMethod(myTile, "getLongClickIntent", new MethodHook() {
-                @Override
-                protected void before(MethodHookParam param) {
-                    String tileName = (String) XposedHelpers.getAdditionalInstanceField(param.thisObject, "customName");
-                    if (tileName != null) {
-                        if (tileName.equals(customName())) {
-                            tileLongClickIntent(param, tileName);
-                        }
-                    } else {
-                        if (needOverride())
-                            tileLongClickIntent(param, tileName);
+        if (TileRegistry.claimMethod(myTile, "getLongClickIntent")) {
+            try {
+                myTile.getDeclaredMethod("getLongClickIntent");
+                findAndHookMethod(myTile, "getLongClickIntent", new MethodHook() {
+                    @Override
+                    protected void before(MethodHookParam param) {
+                        String tileName = TileRegistry.tileName(param.thisObject);
+                        CustomTile tile = TileRegistry.find(myTile, tileName);
+                        if (tile != null) tile.tileLongClickIntent(param, tileName);
                     }
-                }
-            });
-        } catch (NoSuchMethodException e) {
-            logE(TAG, "com.android.systemui", "Don't Have getLongClickIntent: " + e);
+                });
+            } catch (NoSuchMethodException e) {
+                logE(TAG, "com.android.systemui", "Don't Have getLongClickIntent: " + e);
+            }
         }
 
         Class<?> expandableClz = findClassIfExists("com.android.systemui.animation.Expandable");
 
-        MethodHook handleLongClickHook = new MethodHook() {
-            @Override
-            protected void before(MethodHookParam param) {
-                String tileName = (String) XposedHelpers.getAdditionalInstanceField(param.thisObject, "customName");
-                Intent intent = null;
-                if (tileName != null) {
-                    if (tileName.equals(customName())) {
-                        intent = tileHandleLongClick(param, tileName);
+        if (TileRegistry.claimMethod(myTile, "handleLongClick")) {
+            Class<?> controlCenterUtils = findClassIfExists("com.android.systemui.controlcenter.utils.ControlCenterUtils");
+            MethodHook handleLongClickHook = new MethodHook() {
+                @Override
+                protected void before(MethodHookParam param) {
+                    String tileName = TileRegistry.tileName(param.thisObject);
+                    CustomTile tile = TileRegistry.find(myTile, tileName);
+                    Intent intent = tile != null ? tile.tileHandleLongClick(param, tileName) : null;
+                    if (intent != null) {
+                        Context context = TileRegistry.CONTEXT.get(param.thisObject);
+                        Object o = XposedHelpers.callStaticMethod(controlCenterUtils, "getSettingsSplitIntent", context, intent);
+                        XposedHelpers.callMethod(TileRegistry.ACTIVITY_STARTER.get(param.thisObject), "postStartActivityDismissingKeyguard", o, 0, null);
+                        param.setResult(null);
                     }
-                } else if (needOverride()) {
-                    intent = tileHandleLongClick(param, tileName);
-                }
-                if (intent != null) {
-                    Context context = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
-                    Object o = XposedHelpers.callStaticMethod(findClassIfExists("com.android.systemui.controlcenter.utils.ControlCenterUtils"), "getSettingsSplitIntent", context, intent);
-                    XposedHelpers.callMethod(XposedHelpers.getObjectField(param.thisObject, "mActivityStarter"), "postStartActivityDismissingKeyguard", o, 0, null);
-                    param.setResult(null);
                 }
+            };
+            try {
+                myTile.getDeclaredMethod("handleLongClick", expandableClz);
+                findAndHookMethod(myTile, "handleLongClick", expandableClz, handleLongClickHook);
+            } catch (NoSuchMethodException e) {
+                logE(TAG, "com.android.systemui", "Don't Have handleLongClick: " + e);
             }
-        };
-        try {
-            myTile.getDeclaredMethod("handleLongClick", expandableClz);
-            findAndHookMethod(myTile, "handleLongClick", expandableClz, handleLongClickHook);
-        } catch (NoSuchMethodException e) {
-            logE(TAG, "com.android.systemui", "Don't Have handleLongClick: " + e);
         }
 
-        MethodHook handleClickHook = new MethodHook() {
-            @Override
-            protected void before(MethodHookParam param) {
-                String tileName = (String) XposedHelpers.getAdditionalInstanceField(param.thisObject, "customName");
-                if (tileName != null) {
-                    if (tileName.equals(customName())) {
+        if (TileRegistry.claimMethod(myTile, "handleClick")) {
+            MethodHook handleClickHook = new MethodHook() {
+                @Override
+                protected void before(MethodHookParam param) {
+                    String tileName = TileRegistry.tileName(param.thisObject);
+                    CustomTile tile = TileRegistry.find(myTile, tileName);
+                    if (tile == null) return;
+                    if (tileName != null) {
                         try {
-                            tileClick(param, tileName);
+                            tile.tileClick(param, tileName);
                             param.setResult(null);
                         } catch (Throwable e) {
                             logE(TAG, "com.android.systemui", "handleClick have Throwable: " + e);
                             param.setResult(null);
                         }
+                    } else {
+                        tile.tileClick(param, null);
                     }
-                } else {
-                    if (needOverride())
-                        tileClick(param, tileName);
                 }
-            }
 
-            @Override
-            protected void after(MethodHookParam param) {
-                if (needAfter()) {
-                    String tileName = (String) XposedHelpers.getAdditionalInstanceField(param.thisObject, "customName");
-                    tileClickAfter(param, tileName);
+                @Override
+                protected void after(MethodHookParam param) {
+                    String tileName = TileRegistry.tileName(param.thisObject);
+                    CustomTile tile = TileRegistry.find(myTile, tileName);
+                    if (tile != null && tile.needAfter()) {
+                        tile.tileClickAfter(param, tileName);
+                    }
                 }
+            };
+            try {
+                getDeclaredMethod(myTile, "handleClick", expandableClz);
+                findAndHookMethod(myTile, "handleClick", expandableClz, handleClickHook);
+            } catch (NoSuchMethodException e) {
+                logE(TAG, "com.android.systemui", "Don't Have handleClick: " + e);
             }
-        };
-        try {
-            getDeclaredMethod(myTile, "handleClick", expandableClz);
-            findAndHookMethod(myTile, "handleClick", expandableClz, handleClickHook);
-        } catch (NoSuchMethodException e) {
-            logE(TAG, "com.android.systemui", "Don't Have handleClick: " + e);
         }
 
-        hookAllMethods(myTile, "handleUpdateState", new MethodHook() {
-            @Override
-            protected void before(MethodHookParam param) {
-                String tileName = (String) XposedHelpers.getAdditionalInstanceField(param.thisObject, "customName");
-                if (tileName != null) {
-                    if (tileName.equals(customName())) {
-                        boolean isEnable = false;
-                        ArrayMap<String, Integer> tileResMap;
-                        tileResMap = tileUpdateState(param, mResourceIcon, tileName);
-                        if (tileResMap != null) {
-                            int code = tileResMap.get(customName() + "_Enable");
-                            if (code == 1) isEnable = true;
-                            Object booleanState = param.args[0];
-                            XposedHelpers.setObjectField(booleanState, "value", isEnable);
-                            // 测试为开关状态控制，2为开，1为关
-                            XposedHelpers.setObjectField(booleanState, "state", isEnable ? 2 : 1);
-                            String tileLabel = (String) XposedHelpers.callMethod(param.thisObject, "getTileLabel");
-                            XposedHelpers.setObjectField(booleanState, "label", tileLabel);
-                            XposedHelpers.setObjectField(booleanState, "contentDescription", tileLabel);
-                            XposedHelpers.setObjectField(booleanState, "expandedAccessibilityClassName", Switch.class.getName());
-                            Object mIcon = XposedHelpers.callStaticMethod(mResourceIcon, "get", isEnable ? tileResMap.get(customName() + "_ON") : tileResMap.get(customName() + "_OFF"));
-                            XposedHelpers.setObjectField(booleanState, "icon", mIcon);
+        if (TileRegistry.claimMethod(myTile, "handleUpdateState")) {
+            Class<?> resourceIcon = mResourceIcon;
+            hookAllMethods(myTile, "handleUpdateState", new MethodHook() {
+                @Override
+                protected void before(MethodHookParam param) {
+                    String tileName = TileRegistry.tileName(param.thisObject);
+                    CustomTile tile = TileRegistry.find(myTile, tileName);
+                    if (tile == null) return;
+                    if (tileName != null) {
+                        CustomTile.State state = tile.tileUpdateState(param, tileName);
+                        if (state != null) {
+                            TileRegistry.applyState(param.thisObject, param.args[0], state, resourceIcon);
                         }
                         param.setResult(null);
-                    }
-                } else {
-                    if (needOverride()) {
-                        tileUpdateState(param, mResourceIcon, tileName);
+                    } else {
+                        tile.tileUpdateState(param, null);
                     }
                 }
-            }
-        });
+            });
+        }
 
     }
 
@@ -284,8 +263,7 @@ public abstract class TileUtils extends BaseHook {
      * 在第一次 Hook 时把新的快捷方式加载进快捷方式列表中。
      * */
     private void SystemUiHook() {
-        String custom = customName();
-        if (!needOverride()) {
+        if (!needOverride() && TileRegistry.claimOnce("SystemUIApplication#onCreate")) {
             /*if ("".equals(custom)) {
                 logE(TAG, "com.android.systemui", "Error custom:" + custom);
                 return;
@@ -295,13 +273,13 @@ public abstract class TileUtils extends BaseHook {
                 findAndHookMethod("com.android.systemui.SystemUIApplication", "onCreate", new MethodHook() {
                     @Override
                     protected void after(MethodHookParam param) {
-                        if (!isListened[0]) {
-                            isListened[0] = true;
+                        if (!sListened) {
+                            sListened = true;
                             // 获取 Context
                             Context mContext = (Context) XposedHelpers.callMethod(param.thisObject, "getApplicationContext");
                             // 获取 miui_quick_settings_tiles_stock 字符串的值
                             @SuppressLint("DiscouragedApi") int stockTilesResId = mContext.getResources().getIdentifier("miui_quick_settings_tiles_stock", "string", lpparam.packageName);
-                            String stockTiles = mContext.getString(stockTilesResId) + "," + custom; // 追加自定义的磁贴
+                            String stockTiles = mContext.getString(stockTilesResId) + TileRegistry.customSpecs(); // 追加全部已注册的自定义磁贴
                             // 将拼接后的字符串分别替换下面原有的字符串。
                             if (isPad()) {
                                 setObjectReplacement(lpparam.packageName, "string", "miui_quick_settings_tiles_stock_pad", stockTiles);
@@ -340,7 +318,7 @@ public abstract class TileUtils extends BaseHook {
 
     /*Android 14 磁贴逻辑被修改，此是解决方法*/
     private void tileAllName14(Class<?> QSFactory) {
-        if (!needOverride()) {
+        if (!needOverride() && TileRegistry.claimOnce(QSFactory)) {
             try {
                 QSFactory.getDeclaredMethod(getCustomTileProvider()[3], String.class);
                 findAndHookMethod(QSFactory, getCustomTileProvider()[3], String.class,
@@ -348,15 +326,15 @@ public abstract class TileUtils extends BaseHook {
                         @Override
                         protected void before(MethodHookParam param) {
                             String tileName = (String) param.args[0];
-                            if (tileName.equals(customName())) {
-                                String myTileProvider = getCustomTileProvider()[0];
+                            if (TileRegistry.findFactoryTile(tileName) != null) {
+                                String myTileProvider = TileRegistry.providerOf(tileName);
                                 Object provider;
                                 Object tile;
                                 try {
                                     QSFactory.getDeclaredField(myTileProvider);
                                     provider = XposedHelpers.getObjectField(param.thisObject, myTileProvider);
                                     tile = XposedHelpers.callMethod(provider, "get");
-                                    XposedHelpers.setAdditionalInstanceField(tile, "customName", tileName);
+                                    XposedHelpers.setAdditionalInstanceField(tile, TileRegistry.KEY_CUSTOM_NAME, tileName);
                                     if (tile != null) {
                                         Object mHandler = XposedHelpers.getObjectField(tile, "mHandler");
                                         XposedHelpers.callMethod(mHandler, "sendEmptyMessage", 12);
@@ -381,7 +359,7 @@ public abstract class TileUtils extends BaseHook {
     /* 新版系统界面磁贴开启关闭时会显示的文字 */
     private void showStateMessage(Class<?> myTile) {
         try {
-            if (!needOverride()) {
+            if (!needOverride() && TileRegistry.claimMethod(myTile, "handleShowStateMessage")) {
                 myTile.getDeclaredMethod("handleShowStateMessage");
                 findAndHookMethod(myTile, "handleShowStateMessage", new MethodHook() {
                         @Override
@@ -398,21 +376,21 @@ public abstract class TileUtils extends BaseHook {
                                 //     logE("showStateMessage", " Find class or call method error: " + e);
                                 // }
                                 String string;
-                                Object o = XposedHelpers.getObjectField(param.thisObject, "mState");
+                                Object o = TileRegistry.STATE.get(param.thisObject);
                                 int i = (int) XposedHelpers.getObjectField(o, "state");
-                                Context context = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
+                                Context context = TileRegistry.CONTEXT.get(param.thisObject);
                                 if (i != 1) {
                                     if (i != 2) {
                                         string = null;
                                     } else {
                                         string = context.getResources().getString(
                                             R.string.quick_settings_state_change_message_on_my,
-                                            XposedHelpers.callMethod(param.thisObject, "getTileLabel"));
+                                            TileRegistry.GET_TILE_LABEL.invoke(param.thisObject));
                                     }
                                 } else {
                                     string = context.getResources().getString(
                                         R.string.quick_settings_state_change_message_off_my,
-                                        XposedHelpers.callMethod(param.thisObject, "getTileLabel"));
+                                        TileRegistry.GET_TILE_LABEL.invoke(param.thisObject));
                                 }
                                 XposedHelpers.callMethod(param.thisObject, "showStateMessage", string);
                             }
@@ -436,18 +414,19 @@ public abstract class TileUtils extends BaseHook {
                 logE(TAG, "com.android.systemui", "Error customValue:" + customValue);
                 return;
             }
+            if (!TileRegistry.claimMethod(myTile, "getTileLabel")) return;
             try {
                 myTile.getDeclaredMethod("getTileLabel");
                 findAndHookMethod(myTile, "getTileLabel", new MethodHook() {
                     @Override
                     protected void before(MethodHookParam param) throws Throwable {
-                        String tileName = (String) XposedHelpers.getAdditionalInstanceField(param.thisObject, "customName");
-                        if (tileName != null) {
-                            if (tileName.equals(custom)) {
-                                Context mContext = (Context) XposedHelpers.getObjectField(param.thisObject, "mContext");
-                                Resources modRes = OtherTool.getModuleRes(mContext);
-                                param.setResult(modRes.getString(customValue));
-                            }
+                        String tileName = TileRegistry.tileName(param.thisObject);
+                        if (tileName == null) return;
+                        CustomTile tile = TileRegistry.find(myTile, tileName);
+                        if (tile != null && tile.customRes() != -1) {
+                            Context mContext = TileRegistry.CONTEXT.get(param.thisObject);
+                            Resources modRes = OtherTool.getModuleRes(mContext);
+                            param.setResult(modRes.getString(tile.customRes()));
                         }
                     }
                 });
@@ -486,8 +465,19 @@ public abstract class TileUtils extends BaseHook {
     public void tileClickAfter(MethodHookParam param, String tileName) {
     }
 
-    /*这个方法用于设置更新磁贴状态*/
-    public ArrayMap<String, Integer> tileUpdateState(MethodHookParam param, Class<?> mResourceIcon, String tileName) {
+    /*这个方法用于设置更新磁贴状态
+     * 返回 CustomTile.State 由框架写入开关状态、标题与图标，返回 null 表示已自行处理*/
+    public CustomTile.State tileUpdateState(MethodHookParam param, String tileName) {
         return null;
     }
+
+    /*磁贴的 mContext，字段句柄按类缓存*/
+    protected Context getTileContext(Object tile) {
+        return TileRegistry.CONTEXT.get(tile);
+    }
+
+    /*QSTileImpl.ResourceIcon.get(res)*/
+    protected Object getResourceIcon(int res) {
+        return TileRegistry.resourceIcon(mResourceIcon, res);
+    }
 }
@@ -98,6 +98,49 @@ object CheckModifyUtils {
         return isApkModified(context, getApkFilePath(context, pkg), acceptedSignatures.asList())
     }
 
+    /**
+     * 带缓存的签名检查，结果按 (包名, sourceDir, lastUpdateTime, longVersionCode, 允许的签名) 持久化。
+     * 包被更新或替换时 lastUpdateTime 和版本号随之变化，此时才重新解析整个 APK 校验签名。
+     * 返回 true 表示被修改
+     */
+    fun isApkModifiedCached(context: Context, pkg: String, vararg acceptedSignatures: String): Boolean {
+        val pi = try {
+            context.packageManager.getPackageInfo(pkg, 0)
+        } catch (_: Exception) {
+            null
+        }
+        val sourceDir = pi?.applicationInfo?.sourceDir
+        if (pi == null || sourceDir.isNullOrEmpty()) return true
+
+        val key = listOf(
+            sourceDir,
+            pi.lastUpdateTime,
+            pi.longVersionCode,
+            acceptedSignatures.joinToString(",") { normalizeHexSignature(it) }
+        ).joinToString("|")
+        val cache = context.getSharedPreferences(CACHE_PREFS, Context.MODE_PRIVATE)
+        if (cache.getString("$pkg.key", null) == key) {
+            return cache.getBoolean("$pkg.modified", true)
+        }
+
+        val modified = isApkModified(context, sourceDir, acceptedSignatures.asList())
+        cache.edit()
+            .putString("$pkg.key", key)
+            .putBoolean("$pkg.modified", modified)
+            .apply()
+        return modified
+    }
+
+    /**
+     * 丢弃指定包名的签名检查缓存，下次检查时重新校验
+     */
+    fun invalidateCachedCheck(context: Context, pkg: String) {
+        context.getSharedPreferences(CACHE_PREFS, Context.MODE_PRIVATE).edit()
+            .remove("$pkg.key")
+            .remove("$pkg.modified")
+            .apply()
+    }
+
     private fun getApkFilePath(context: Context, pkg: String): String {
         return try {
             val pm = context.packageManager
@@ -120,5 +163,7 @@ object CheckModifyUtils {
             .uppercase()
     }
 
+    private const val CACHE_PREFS = "check_modify_cache"
+
     const val XIAOMI_SIGNATURE = "C9:00:9D:01:EB:F9:F5:D0:30:2B:C7:1B:2F:E9:AA:9A:47:A4:32:BB:A1:73:08:A3:11:1B:75:D7:B2:14:90:25"
 }
@@ -0,0 +1,64 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils.prefs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Collects preference keys changed inside {@link PrefsUtils#beginBatchChange()} /
+ * {@link PrefsUtils#endBatchChange} so they are announced once. Not thread-safe; both calls
+ * and the preference listener run on the main thread.
+ */
+final class PrefsChangeBatch {
+    private int depth;
+    private final LinkedHashSet<String> pendingKeys = new LinkedHashSet<>();
+
+    void begin() {
+        depth++;
+    }
+
+    /**
+     * @return true if the key was queued because a batch is open, false if the caller should
+     * notify it right away.
+     */
+    boolean offer(String key) {
+        if (depth == 0) return false;
+        pendingKeys.add(key);
+        return true;
+    }
+
+    /**
+     * Closes one batch level.
+     *
+     * @return the keys to notify, in first-change order, once the outermost batch ends;
+     * empty while batches are still open or nothing changed.
+     */
+    List<String> end(Collection<String> changedKeys) {
+        pendingKeys.addAll(changedKeys);
+        if (depth > 0) depth--;
+        if (depth > 0 || pendingKeys.isEmpty()) return Collections.emptyList();
+        List<String> keys = new ArrayList<>(pendingKeys);
+        pendingKeys.clear();
+        return keys;
+    }
+}
@@ -33,7 +33,12 @@ import com.sevtinge.hyperceiler.hook.utils.prefs.PrefsChangeObserver.PrefToUri;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.robv.android.xposed.XposedBridge;
@@ -48,6 +53,8 @@ public class PrefsUtils {
     public static String mPrefsPath = "/data/user_de/0/" + ProjectApi.mAppModulePkg + "/shared_prefs";
     public static String mPrefsFile = mPrefsPath + "/" + mPrefsName + ".xml";
 
+    private static final PrefsChangeBatch sChangeBatch = new PrefsChangeBatch();
+
     public static SharedPreferences getSharedPrefs(Context context, boolean multiProcess) {
         context = AppsTool.getProtectedContext(context);
         try {
@@ -186,8 +193,31 @@ public class PrefsUtils {
     public static void registerOnSharedPreferenceChangeListener(Context context) {
         mSharedPreferences.registerOnSharedPreferenceChangeListener((sharedPreferences, key) -> {
             Log.i("prefs", "Changed: " + key);
-            AppsTool.requestBackup(context);
-            Object val = sharedPreferences.getAll().get(key);
+            if (sChangeBatch.offer(key)) return;
+            notifyChanged(context, sharedPreferences, Collections.singletonList(key));
+        });
+    }
+
+    /*
+     * 批量修改期间暂停逐项通知，endBatchChange 时合并为一次通知
+     * 需与 endBatchChange 在同一线程（主线程）成对调用
+     */
+    public static void beginBatchChange() {
+        sChangeBatch.begin();
+    }
+
+    public static void endBatchChange(Context context, Collection<String> changedKeys) {
+        List<String> keys = sChangeBatch.end(changedKeys);
+        if (keys.isEmpty()) return;
+        notifyChanged(context, mSharedPreferences, keys);
+    }
+
+    private static void notifyChanged(Context context, SharedPreferences sharedPreferences, Collection<String> keys) {
+        AppsTool.requestBackup(context);
+        Map<String, ?> all = sharedPreferences.getAll();
+        List<Uri> uris = new ArrayList<>(keys.size() * 2);
+        for (String key : keys) {
+            Object val = all.get(key);
             String path = "";
             if (val instanceof String)
                 path = "string/";
@@ -198,9 +228,11 @@ public class PrefsUtils {
             else if (val instanceof Boolean)
                 path = "boolean/";
 
-            ContentResolver resolver = context.getContentResolver();
-            resolver.notifyChange(Uri.parse("content://" + SharedPrefsProvider.AUTHORITY + "/" + path + key), null);
-            if (!path.isEmpty()) resolver.notifyChange(Uri.parse("content://" + SharedPrefsProvider.AUTHORITY + "/pref/" + path + key), null);
-        });
+            uris.add(Uri.parse("content://" + SharedPrefsProvider.AUTHORITY + "/" + path + key));
+            if (!path.isEmpty()) uris.add(Uri.parse("content://" + SharedPrefsProvider.AUTHORITY + "/pref/" + path + key));
+        }
+        ContentResolver resolver = context.getContentResolver();
+        if (uris.size() == 1) resolver.notifyChange(uris.get(0), null);
+        else resolver.notifyChange(uris, null, 0);
     }
 }
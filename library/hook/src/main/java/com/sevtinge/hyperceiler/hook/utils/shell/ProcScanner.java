@@ -0,0 +1,207 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils.shell;
+
+import android.os.Process;
+import android.system.ErrnoException;
+import android.system.Os;
+
+import com.sevtinge.hyperceiler.hook.utils.log.AndroidLogUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 一次遍历 /proc/[pid]/cmdline，建立 包名 -> 进程 的映射
+ * <p>
+ * 包名按进程名精确匹配，"com.miui.home" 与 "com.miui.home:widget" 属于同一包，
+ * 不会匹配 "com.miui.home.xyz"。
+ * 普通应用受 hidepid 限制只能看到自身进程，完整进程表通过 dumpAsRoot 以一条 Root 命令获取。
+ */
+public final class ProcScanner {
+    private static final String TAG = "ProcScanner";
+
+    // 单个 ps 进程遍历一次 /proc，每行输出 "pid cmdline"，首行为表头
+    private static final String DUMP_COMMAND = "ps -A -o PID,ARGS";
+
+    public record Proc(int pid, int uid, String name, String cmdline) {
+    }
+
+    private final HashMap<String, List<Proc>> mByPackage = new HashMap<>();
+
+    private ProcScanner() {
+    }
+
+    /*遍历指定的 /proc 目录，无权限读取的进程会被跳过*/
+    public static ProcScanner scan(File procRoot) {
+        ProcScanner scanner = new ProcScanner();
+        File[] entries = procRoot.listFiles();
+        if (entries == null) return scanner;
+        byte[] buffer = new byte[4096];
+        for (File entry : entries) {
+            int pid = parsePid(entry.getName());
+            if (pid <= 0) continue;
+            String cmdline = readCmdline(new File(entry, "cmdline"), buffer);
+            if (cmdline == null || cmdline.isEmpty()) continue;
+            scanner.add(pid, uidOf(entry.getPath()), cmdline);
+        }
+        return scanner;
+    }
+
+    /*解析 DUMP_COMMAND 的输出*/
+    public static ProcScanner parse(List<String> lines) {
+        ProcScanner scanner = new ProcScanner();
+        for (String raw : lines) {
+            String line = raw.trim();
+            int space = line.indexOf(' ');
+            if (space <= 0) continue;
+            int pid = parsePid(line.substring(0, space));
+            if (pid <= 0) continue;
+            String cmdline = line.substring(space + 1).trim();
+            // uid 留到发送信号时按需获取
+            if (!cmdline.isEmpty()) scanner.add(pid, -1, cmdline);
+        }
+        return scanner;
+    }
+
+    /*通过 Root Shell 获取完整进程表，Shell 不可用时退回本进程可见的 /proc*/
+    public static ProcScanner dumpAsRoot() {
+        try {
+            ShellExec shell = ShellInit.getShell();
+            if (shell.add(DUMP_COMMAND).over().sync().isResult()) {
+                return parse(new ArrayList<>(shell.getOutPut()));
+            }
+            AndroidLogUtils.logW(TAG, "Dump /proc failed: " + shell.getError());
+        } catch (Exception e) {
+            AndroidLogUtils.logE(TAG, "Dump /proc failed", e);
+        }
+        return scan(new File("/proc"));
+    }
+
+    public List<Proc> find(String packageName) {
+        List<Proc> procs = mByPackage.get(packageName);
+        return procs != null ? Collections.unmodifiableList(procs) : Collections.emptyList();
+    }
+
+    /*
+     * 向全部进程发送信号：与本应用同 uid 的进程直接 Process.sendSignal，
+     * 其余合并为一条 Root 命令
+     */
+    public static boolean signal(Collection<Proc> procs, int signal) {
+        if (procs.isEmpty()) return false;
+        int myUid = Process.myUid();
+        ArrayList<Integer> foreign = new ArrayList<>(procs.size());
+        boolean success = false;
+        for (Proc proc : procs) {
+            int uid = proc.uid() != -1 ? proc.uid() : uidOf("/proc/" + proc.pid());
+            if (uid == myUid) {
+                Process.sendSignal(proc.pid(), signal);
+                success = true;
+            } else {
+                foreign.add(proc.pid());
+            }
+        }
+        if (!foreign.isEmpty()) {
+            try {
+                ShellExec shell = ShellInit.getShell();
+                if (shell.add(killCommand(signal, foreign)).over().sync().isResult()) {
+                    success = true;
+                } else {
+                    AndroidLogUtils.logW(TAG, "kill failed: " + shell.getError());
+                }
+            } catch (Exception e) {
+                AndroidLogUtils.logE(TAG, "kill failed", e);
+            }
+        }
+        return success;
+    }
+
+    /*
+     * 进程表可能已过时，kill 只要有一个 pid 不存在就返回非 0，
+     * 因此逐个发送，仅当进程仍存在却发送失败时整条命令才失败
+     */
+    static String killCommand(int signal, Collection<Integer> pids) {
+        StringBuilder command = new StringBuilder("r=0; for p in");
+        for (int pid : pids) command.append(' ').append(pid);
+        command.append("; do kill -s ").append(signal)
+            .append(" $p 2>/dev/null || [ ! -e /proc/$p ] || r=1; done; [ $r = 0 ]");
+        return command.toString();
+    }
+
+    /*进程名去掉 ":" 后缀即为包名*/
+    static String packageOf(String processName) {
+        int colon = processName.indexOf(':');
+        return colon > 0 ? processName.substring(0, colon) : processName;
+    }
+
+    private void add(int pid, int uid, String cmdline) {
+        int space = cmdline.indexOf(' ');
+        String name = space > 0 ? cmdline.substring(0, space) : cmdline;
+        String pkg = packageOf(name);
+        List<Proc> procs = mByPackage.get(pkg);
+        if (procs == null) {
+            procs = new ArrayList<>(2);
+            mByPackage.put(pkg, procs);
+        }
+        procs.add(new Proc(pid, uid, name, cmdline));
+    }
+
+    /*hidepid 下无法访问其他 uid 的进程目录，返回 -1*/
+    private static int uidOf(String procDir) {
+        try {
+            return Os.stat(procDir).st_uid;
+        } catch (ErrnoException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static int parsePid(String s) {
+        if (s.isEmpty() || s.length() > 10) return -1;
+        int pid = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            pid = pid * 10 + (c - '0');
+        }
+        return pid;
+    }
+
+    private static String readCmdline(File file, byte[] buffer) {
+        try (FileInputStream in = new FileInputStream(file)) {
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            while (length > 0 && buffer[length - 1] == 0) length--;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == 0) buffer[i] = ' ';
+            }
+            return new String(buffer, 0, length).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
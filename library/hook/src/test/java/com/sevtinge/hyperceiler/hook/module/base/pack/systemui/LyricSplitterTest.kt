@@ -0,0 +1,94 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.hook.module.base.pack.systemui
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class LyricSplitterTest {
+    private val splitter = LyricSplitter()
+    private val config = SplitConfig(maxLength = 6)
+
+    @Test
+    fun emptyInput() {
+        val (first, second) = splitter.splitSmart("", config)
+        assertEquals("", first)
+        assertNull(second)
+    }
+
+    @Test
+    fun shortLineSplitsInTheMiddle() {
+        assertEquals("你好" to "世界", splitter.splitSmart("你好世界", config))
+    }
+
+    @Test
+    fun splitsAtNearbySpaceAndDropsIt() {
+        assertEquals("hello" to "world", splitter.splitSmart("hello world", config))
+    }
+
+    @Test
+    fun keepsSpaceWhenConfigured() {
+        val keep = config.copy(keepSpaceInSecond = true)
+        assertEquals("hello" to " world", splitter.splitSmart("hello world", keep))
+    }
+
+    @Test
+    fun longLineFallsBackToTokenMiddle() {
+        val line = "一二三四五六七八九十壹贰叁肆伍陆柒捌玖拾"
+        // 在第 6 个字处拆分时左半过短，改为按 token 数对半
+        assertEquals(line.substring(0, 10) to line.substring(10), splitter.splitSmart(line, config))
+    }
+
+    @Test
+    fun pairedSymbolsAreNeverSplit() {
+        val (first, second) = splitter.splitSmart("「」「」「」「」", config)
+        assertEquals("「」「」", first)
+        assertEquals("「」「」", second)
+        val (left, right) = splitter.splitSmart("ab()cd", config)
+        assertEquals("ab()" to "cd", left to right)
+    }
+
+    @Test
+    fun halvesAlwaysCoverTheInput() {
+        val lines = listOf(
+            "Never gonna give you up",
+            "我曾经跨过山和大海 也穿过人山人海",
+            "a",
+            "ab",
+            "  leading spaces",
+            "《歌名》(Live)",
+            "x".repeat(300)
+        )
+        for (line in lines) {
+            val (first, second) = splitter.splitSmart(line, config)
+            val joined = first + (second ?: "")
+            // 去掉的只能是拆分处的空格
+            assertEquals(line.replace(" ", ""), joined.replace(" ", ""))
+            assertTrue(line, first.length <= line.length)
+        }
+    }
+
+    @Test
+    fun reusedBufferAfterLongerLine() {
+        splitter.splitSmart("x".repeat(500), config)
+        assertEquals("你好" to "世界", splitter.splitSmart("你好世界", config))
+    }
+}
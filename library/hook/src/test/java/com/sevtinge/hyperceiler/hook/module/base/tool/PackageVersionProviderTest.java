@@ -0,0 +1,155 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.base.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.sevtinge.hyperceiler.hook.module.base.tool.PackageVersionProvider.PackageVersion;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PackageVersionProviderTest {
+    private static final String PKG = "com.android.systemui";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final AtomicInteger primaryCalls = new AtomicInteger();
+    private final AtomicInteger fallbackCalls = new AtomicInteger();
+
+    @Test
+    public void resolvesOncePerApk() throws Exception {
+        String apk = temp.newFile("base.apk").getPath();
+        PackageVersionProvider provider = new PackageVersionProvider(
+            counting(primaryCalls, new PackageVersion("1.0", 10)), counting(fallbackCalls, null));
+
+        PackageVersion first = provider.resolve(PKG, apk, null);
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, provider.resolve(PKG, apk, null));
+        }
+        assertEquals(new PackageVersion("1.0", 10), first);
+        assertEquals(1, primaryCalls.get());
+        assertEquals(0, fallbackCalls.get());
+    }
+
+    @Test
+    public void concurrentHooksShareOneResolution() throws Exception {
+        String apk = temp.newFile("base.apk").getPath();
+        CountDownLatch start = new CountDownLatch(1);
+        PackageVersionProvider provider = new PackageVersionProvider((name, path, loader) -> {
+            primaryCalls.incrementAndGet();
+            // 模拟较慢的 getPackageInfo，让其他线程在解析期间到达
+            Thread.sleep(50);
+            return new PackageVersion("2.0", 20);
+        }, counting(fallbackCalls, null));
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<PackageVersion>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return provider.resolve(PKG, apk, null);
+                }));
+            }
+            start.countDown();
+            for (Future<PackageVersion> result : results) {
+                assertEquals(new PackageVersion("2.0", 20), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, primaryCalls.get());
+    }
+
+    @Test
+    public void fallsBackOnceWhenPackageManagerHasNoAnswer() throws Exception {
+        String apk = temp.newFile("base.apk").getPath();
+        PackageVersionProvider provider = new PackageVersionProvider(
+            counting(primaryCalls, null), counting(fallbackCalls, new PackageVersion("3.0", 30)));
+
+        assertEquals(new PackageVersion("3.0", 30), provider.resolve(PKG, apk, null));
+        assertEquals(new PackageVersion("3.0", 30), provider.resolve(PKG, apk, null));
+        assertEquals(1, primaryCalls.get());
+        assertEquals(1, fallbackCalls.get());
+    }
+
+    @Test
+    public void unknownResultIsCachedToo() throws Exception {
+        String apk = temp.newFile("base.apk").getPath();
+        PackageVersionProvider provider = new PackageVersionProvider(
+            counting(primaryCalls, null), counting(fallbackCalls, null));
+
+        assertSame(PackageVersion.UNKNOWN, provider.resolve(PKG, apk, null));
+        assertSame(PackageVersion.UNKNOWN, provider.resolve(PKG, apk, null));
+        assertEquals(1, primaryCalls.get());
+        assertEquals(1, fallbackCalls.get());
+    }
+
+    @Test
+    public void updatedApkIsResolvedAgain() throws Exception {
+        File apk = temp.newFile("base.apk");
+        assertTrue(apk.setLastModified(1_000_000L));
+        PackageVersionProvider provider = new PackageVersionProvider(
+            counting(primaryCalls, new PackageVersion("1.0", 10)), counting(fallbackCalls, null));
+
+        provider.resolve(PKG, apk.getPath(), null);
+        assertTrue(apk.setLastModified(2_000_000L));
+        provider.resolve(PKG, apk.getPath(), null);
+        provider.resolve(PKG, apk.getPath(), null);
+        assertEquals(2, primaryCalls.get());
+    }
+
+    @Test
+    public void differentApksAreResolvedSeparately() throws Exception {
+        String a = temp.newFile("a.apk").getPath();
+        String b = temp.newFile("b.apk").getPath();
+        PackageVersionProvider provider = new PackageVersionProvider(
+            (name, path, loader) -> {
+                primaryCalls.incrementAndGet();
+                return new PackageVersion(path, 1);
+            }, counting(fallbackCalls, null));
+
+        assertEquals(a, provider.resolve(PKG, a, null).versionName());
+        assertEquals(b, provider.resolve(PKG, b, null).versionName());
+        provider.resolve(PKG, a, null);
+        assertEquals(2, primaryCalls.get());
+    }
+
+    private static PackageVersionProvider.Resolver counting(AtomicInteger calls, PackageVersion result) {
+        return (name, path, loader) -> {
+            calls.incrementAndGet();
+            return result;
+        };
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.base.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PermissionMaintainerTest {
+    private static final long DELAY = PermissionMaintainer.DEBOUNCE_MS;
+
+    private final FakeScheduler scheduler = new FakeScheduler();
+    private final AtomicInteger passes = new AtomicInteger();
+    private final PermissionMaintainer maintainer =
+        new PermissionMaintainer(scheduler::now, scheduler, DELAY, passes::incrementAndGet);
+
+    @Test
+    public void singleRequestRunsAfterDelay() {
+        maintainer.request();
+        scheduler.advance(DELAY - 1);
+        assertEquals(0, passes.get());
+        scheduler.advance(1);
+        assertEquals(1, passes.get());
+        scheduler.advance(10 * DELAY);
+        assertEquals(1, passes.get());
+    }
+
+    @Test
+    public void burstIsCoalescedIntoOnePass() {
+        // 2 秒内每 100ms 写一次
+        long lastRequest = 0;
+        for (int i = 0; i <= 20; i++) {
+            lastRequest = scheduler.now();
+            maintainer.request();
+            scheduler.advance(100);
+        }
+        assertEquals(0, passes.get());
+        scheduler.advanceTo(lastRequest + DELAY - 1);
+        assertEquals(0, passes.get());
+        scheduler.advanceTo(lastRequest + DELAY);
+        assertEquals(1, passes.get());
+        // 只在超时后按剩余时间重新排期，而不是每次登记都排一个任务
+        assertTrue("scheduled " + scheduler.scheduled, scheduler.scheduled <= 6);
+    }
+
+    @Test
+    public void requestAfterPassSchedulesAgain() {
+        maintainer.request();
+        scheduler.advance(DELAY);
+        maintainer.request();
+        scheduler.advance(DELAY);
+        assertEquals(2, passes.get());
+    }
+
+    @Test
+    public void requestDuringPassIsNotLost() {
+        AtomicInteger runs = new AtomicInteger();
+        PermissionMaintainer[] self = new PermissionMaintainer[1];
+        self[0] = new PermissionMaintainer(scheduler::now, scheduler, DELAY, () -> {
+            // 修复权限本身又触发了一次写入
+            if (runs.incrementAndGet() == 1) self[0].request();
+        });
+        self[0].request();
+        scheduler.advance(DELAY);
+        assertEquals(1, runs.get());
+        scheduler.advance(DELAY);
+        assertEquals(2, runs.get());
+        scheduler.advance(10 * DELAY);
+        assertEquals(2, runs.get());
+    }
+
+    /**
+     * 单线程的虚拟时钟调度器，advance 时按到期顺序执行任务。
+     */
+    private static final class FakeScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+        private record Task(long due, long seq, Runnable command) {
+        }
+
+        private final PriorityQueue<Task> queue =
+            new PriorityQueue<>(Comparator.comparingLong(Task::due).thenComparingLong(Task::seq));
+        private long now = 10_000;
+        private long seq;
+        int scheduled;
+
+        long now() {
+            return now;
+        }
+
+        void advance(long ms) {
+            advanceTo(now + ms);
+        }
+
+        void advanceTo(long target) {
+            while (!queue.isEmpty() && queue.peek().due() <= target) {
+                Task task = queue.poll();
+                now = task.due();
+                task.command().run();
+            }
+            now = target;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            scheduled++;
+            queue.add(new Task(now + unit.toMillis(delay), seq++, command));
+            // PermissionMaintainer 不使用返回值
+            return null;
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            schedule(command, 0, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.hook.module.rules.home.recent
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+import java.util.Locale
+
+class RecentsMemorySamplerTest {
+    private lateinit var defaultLocale: Locale
+
+    @Before
+    fun pinLocale() {
+        // formatExtm 使用默认 Locale 的小数点
+        defaultLocale = Locale.getDefault()
+        Locale.setDefault(Locale.US)
+    }
+
+    @After
+    fun restoreLocale() {
+        Locale.setDefault(defaultLocale)
+    }
+
+    @Test
+    fun parsesMemAvailableFromMeminfo() {
+        assertEquals(5123456L, parse(MEMINFO))
+    }
+
+    @Test
+    fun parsesMemAvailableOnFirstLine() {
+        assertEquals(42L, parse("MemAvailable:          42 kB\nBuffers: 1 kB\n"))
+    }
+
+    @Test
+    fun missingMemAvailableIsNegative() {
+        assertEquals(-1L, parse(MEMINFO.replace("MemAvailable:", "MemUnknown:")))
+        assertEquals(-1L, parse(""))
+    }
+
+    @Test
+    fun memAvailableWithoutDigitsIsNegative() {
+        assertEquals(-1L, parse("MemTotal: 1 kB\nMemAvailable:       kB\n"))
+    }
+
+    @Test
+    fun onlyMatchesAtLineStart() {
+        assertEquals(-1L, parse("XMemAvailable: 100 kB\nFoo: MemAvailable: 200 kB\n"))
+    }
+
+    @Test
+    fun ignoresBytesPastLength() {
+        // 缓冲区复用，len 之后是上一次读取残留的内容
+        val buf = ByteArray(4096)
+        val stale = "MemTotal: 1 kB\nMemFree: 2 kB\nMemAvailable: 999 kB\n".toByteArray()
+        stale.copyInto(buf)
+        val fresh = "MemTotal: 1 kB\nMemFree: 2 kB\n".toByteArray()
+        fresh.copyInto(buf)
+        assertEquals(-1L, RecentsMemorySampler.parseMemAvailableKb(buf, fresh.size))
+
+        val cut = "MemTotal: 1 kB\nMemAvailable: 123".length
+        assertEquals(123L, RecentsMemorySampler.parseMemAvailableKb(
+            "MemTotal: 1 kB\nMemAvailable: 12345 kB\n".toByteArray(), cut))
+    }
+
+    @Test
+    fun leadingDecimalKeepsNumberPart() {
+        assertEquals("11.45", RecentsMemorySampler.leadingDecimal("11.45 GB"))
+        assertEquals("12", RecentsMemorySampler.leadingDecimal("12 GB"))
+        assertEquals("7,5", RecentsMemorySampler.leadingDecimal("7,5 GB"))
+        assertEquals("8.00", RecentsMemorySampler.leadingDecimal("约 8.00 GB"))
+    }
+
+    @Test
+    fun leadingDecimalStopsAtSecondSeparatorOrTrailingDot() {
+        assertEquals("1.5", RecentsMemorySampler.leadingDecimal("1.5.3 GB"))
+        assertEquals("12", RecentsMemorySampler.leadingDecimal("12. GB"))
+        assertEquals("GB", RecentsMemorySampler.leadingDecimal("GB"))
+    }
+
+    @Test
+    fun formatExtmConvertsMbToGb() {
+        assertEquals("+2.00", RecentsMemorySampler.formatExtm("2048"))
+        assertEquals("+6.00", RecentsMemorySampler.formatExtm("6144.0"))
+        assertEquals("+0.98", RecentsMemorySampler.formatExtm("1000"))
+    }
+
+    @Test
+    fun formatExtmRoundsHalfEven() {
+        // 128 MB = 0.125 GB，384 MB = 0.375 GB
+        assertEquals("+0.12", RecentsMemorySampler.formatExtm("128"))
+        assertEquals("+0.38", RecentsMemorySampler.formatExtm("384"))
+    }
+
+    @Test
+    fun formatExtmFollowsLocaleSeparator() {
+        Locale.setDefault(Locale.GERMANY)
+        val extm = RecentsMemorySampler.formatExtm("3072")
+        assertEquals("+3,00", extm)
+        assertEquals("3,00", RecentsMemorySampler.leadingDecimal(extm!!))
+    }
+
+    @Test
+    fun formatExtmRejectsNonNumbers() {
+        assertNull(RecentsMemorySampler.formatExtm(""))
+        assertNull(RecentsMemorySampler.formatExtm("4G"))
+    }
+
+    private fun parse(text: String): Long {
+        val bytes = text.toByteArray()
+        return RecentsMemorySampler.parseMemAvailableKb(bytes, bytes.size)
+    }
+
+    private companion object {
+        const val MEMINFO = """MemTotal:       11458932 kB
+MemFree:          734512 kB
+MemAvailable:    5123456 kB
+Buffers:            4096 kB
+Cached:          4580244 kB
+SwapCached:        10240 kB
+"""
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.rules.home.title;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class IconTitleMapTest {
+
+    @Test
+    public void parsesPackageAndTitle() {
+        Map<String, String> titles = IconTitleMap.parse(List.of(
+            "com.miui.home฿桌面฿8f3a",
+            "com.android.settings฿Settings฿12"));
+
+        assertEquals(Map.of("com.miui.home", "桌面", "com.android.settings", "Settings"), titles);
+    }
+
+    @Test
+    public void titleMatchesLegacyRegexWhenItContainsSeparator() {
+        // 旧实现为 .*฿(.*)฿.*，贪婪匹配取最后两个分隔符之间的内容
+        Pattern legacy = Pattern.compile(".*฿(.*)฿.*");
+        for (String entry : List.of("com.a฿A฿B฿1", "com.a฿Title฿", "com.a฿x฿y฿z฿9")) {
+            Matcher matcher = legacy.matcher(entry);
+            assertTrue(matcher.matches());
+            assertEquals(matcher.group(1), IconTitleMap.parse(List.of(entry)).get("com.a"));
+        }
+    }
+
+    @Test
+    public void skipsMalformedEntries() {
+        Map<String, String> titles = IconTitleMap.parse(Arrays.asList(
+            null,
+            "",
+            "com.a",
+            "com.b฿Title",
+            "฿Title฿1",
+            "com.c฿฿1",
+            "com.ok฿OK฿1"));
+
+        assertEquals(Map.of("com.ok", "OK"), titles);
+    }
+
+    @Test
+    public void laterDuplicateWins() {
+        Map<String, String> titles = IconTitleMap.parse(List.of("com.a฿Old฿1", "com.a฿New฿2"));
+        assertEquals(Map.of("com.a", "New"), titles);
+    }
+
+    @Test
+    public void diffReportsAddedRemovedAndChanged() {
+        Map<String, String> before = Map.of("keep", "K", "change", "Old", "remove", "R");
+        Map<String, String> after = Map.of("keep", "K", "change", "New", "add", "A");
+
+        assertEquals(Set.of("change", "remove", "add"), IconTitleMap.diff(before, after));
+    }
+
+    @Test
+    public void diffOfEqualMapsIsEmpty() {
+        Map<String, String> titles = Map.of("a", "A", "b", "B");
+        assertEquals(Set.of(), IconTitleMap.diff(titles, Map.copyOf(titles)));
+    }
+
+    @Test
+    public void syncAccumulatesChangesUntilDrained() {
+        IconTitleMap map = new IconTitleMap();
+        map.sync(new HashSet<>(List.of("a฿A฿1", "b฿B฿1")));
+        map.sync(new HashSet<>(List.of("a฿A2฿2", "b฿B฿1")));
+
+        assertEquals("A2", map.get("a"));
+        assertEquals(Set.of("a", "b"), map.drainChanges());
+        assertEquals(Set.of(), map.drainChanges());
+
+        map.sync(new HashSet<>(List.of("a฿A2฿2")));
+        assertNull(map.get("b"));
+        assertEquals(Set.of("b"), map.drainChanges());
+    }
+
+    @Test
+    public void syncWithSameSetIsSkipped() {
+        IconTitleMap map = new IconTitleMap();
+        Set<String> entries = new HashSet<>(List.of("a฿A฿1"));
+        map.sync(entries);
+        map.drainChanges();
+
+        // 对象未变时不重新解析，即使内容被改动
+        entries.add("b฿B฿1");
+        map.sync(entries);
+        assertNull(map.get("b"));
+        assertEquals(Set.of(), map.drainChanges());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of HyperCeiler.
+ *
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.module.rules.various.clipboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClipSubstringGateTest {
+    private static final int EVENTS = 10_000;
+    private static final int BATCH = 1_000;
+    private static final int CALLS_PER_EVENT = 64;
+
+    @Test
+    public void installsOnce() {
+        ClipSubstringGate gate = new ClipSubstringGate();
+        AtomicInteger installs = new AtomicInteger();
+        assertTrue(gate.install(installs::incrementAndGet));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(gate.install(installs::incrementAndGet));
+        }
+        assertEquals(1, installs.get());
+        assertEquals(1, gate.installCount());
+    }
+
+    @Test
+    public void bypassesOnlyInsideClipboardProcessing() {
+        ClipSubstringGate gate = new ClipSubstringGate();
+        assertFalse(gate.shouldBypass(ClipSubstringGate.CLIP_LIMIT));
+
+        gate.enter();
+        assertTrue(gate.shouldBypass(ClipSubstringGate.CLIP_LIMIT));
+        assertFalse(gate.shouldBypass(ClipSubstringGate.CLIP_LIMIT - 1));
+
+        // 重入后退出一层仍处于剪贴板处理中
+        gate.enter();
+        gate.exit();
+        assertTrue(gate.isActive());
+
+        gate.exit();
+        assertFalse(gate.isActive());
+        assertFalse(gate.shouldBypass(ClipSubstringGate.CLIP_LIMIT));
+
+        // 多余的 exit 不会让深度变为负数
+        gate.exit();
+        gate.enter();
+        assertTrue(gate.isActive());
+        gate.exit();
+        assertFalse(gate.isActive());
+    }
+
+    @Test
+    public void depthIsPerThread() throws InterruptedException {
+        ClipSubstringGate gate = new ClipSubstringGate();
+        gate.enter();
+        AtomicBoolean otherActive = new AtomicBoolean(true);
+        Thread other = new Thread(() -> otherActive.set(gate.shouldBypass(ClipSubstringGate.CLIP_LIMIT)));
+        other.start();
+        other.join();
+        assertFalse(otherActive.get());
+        gate.exit();
+    }
+
+    @Test
+    public void tenThousandEventsKeepOneInterceptorAndFlatCost() {
+        ClipSubstringGate gate = new ClipSubstringGate();
+        AtomicInteger installs = new AtomicInteger();
+        int[] counters = new int[2];
+
+        // 预热，避免 JIT 编译计入首批耗时
+        for (int i = 0; i < EVENTS; i++) runEvent(gate, installs, counters);
+        counters[0] = 0;
+        counters[1] = 0;
+
+        long[] batchNanos = new long[EVENTS / BATCH];
+        for (int batch = 0; batch < batchNanos.length; batch++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < BATCH; i++) runEvent(gate, installs, counters);
+            batchNanos[batch] = System.nanoTime() - start;
+        }
+
+        assertEquals(1, installs.get());
+        assertEquals(1, gate.installCount());
+        assertEquals(EVENTS, counters[0]);
+        assertEquals(0, counters[1]);
+        assertFalse(gate.isActive());
+
+        // 旧实现每次事件叠加一个拦截器，耗时会随事件数线性增长；这里要求前后两半的中位数基本一致
+        int half = batchNanos.length / 2;
+        long early = median(Arrays.copyOfRange(batchNanos, 0, half));
+        long late = median(Arrays.copyOfRange(batchNanos, half, batchNanos.length));
+        assertTrue("per-call cost grew: early=" + early + "ns late=" + late + "ns",
+                late <= early * 4 + 2_000_000L);
+    }
+
+    /**
+     * 一次剪贴板事件：安装拦截器、进入处理、截断判断、退出，之后是若干普通 substring 调用。
+     */
+    private static void runEvent(ClipSubstringGate gate, AtomicInteger installs, int[] counters) {
+        gate.install(installs::incrementAndGet);
+        gate.enter();
+        if (gate.shouldBypass(ClipSubstringGate.CLIP_LIMIT)) counters[0]++;
+        gate.exit();
+        for (int i = 0; i < CALLS_PER_EVENT; i++) {
+            if (gate.shouldBypass(i == 0 ? ClipSubstringGate.CLIP_LIMIT : i)) counters[1]++;
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.safe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class CrashRingTest {
+    private static final long WINDOW = 10240;
+    private static final String PKG = "com.miui.home";
+
+    @Test
+    public void consecutiveCrashesAtOneSiteAccumulate() {
+        CrashRing ring = new CrashRing(4);
+        long signature = CrashRing.signatureOf(PKG, "A", "run", 10);
+        assertEquals(1, ring.record(signature, 0, WINDOW));
+        assertEquals(2, ring.record(signature, 1000, WINDOW));
+        assertEquals(3, ring.record(signature, 2000, WINDOW));
+    }
+
+    @Test
+    public void crashAfterWindowStartsOver() {
+        CrashRing ring = new CrashRing(4);
+        long signature = CrashRing.signatureOf(PKG, "A", "run", 10);
+        ring.record(signature, 0, WINDOW);
+        ring.record(signature, 1000, WINDOW);
+        assertEquals(1, ring.record(signature, 1000 + WINDOW, WINDOW));
+    }
+
+    @Test
+    public void packageCounterCatchesCrashLoopFromVaryingSites() {
+        CrashRing sites = new CrashRing(8);
+        CrashRing packages = new CrashRing(8);
+        long pkg = CrashRing.signatureOf(PKG);
+        int maxSite = 0;
+        int pkgCount = 0;
+        for (int i = 0; i < 3; i++) {
+            long signature = CrashRing.signatureOf(PKG, "A", "caller" + i, 10 + i);
+            maxSite = Math.max(maxSite, sites.record(signature, i * 1000L, WINDOW));
+            pkgCount = packages.record(pkg, i * 1000L, WINDOW);
+        }
+        assertEquals(1, maxSite);
+        assertEquals(3, pkgCount);
+    }
+
+    @Test
+    public void packageSignatureDiffersPerPackage() {
+        assertNotEquals(CrashRing.signatureOf(PKG), CrashRing.signatureOf("com.android.systemui"));
+    }
+
+    @Test
+    public void trimDropsStaleEntries() {
+        CrashRing ring = new CrashRing(4);
+        long signature = CrashRing.signatureOf(PKG);
+        ring.record(signature, 0, WINDOW);
+        ring.record(signature, 1000, WINDOW);
+        ring.trim(70_000, 60_000);
+        assertEquals(1, ring.record(signature, 70_000, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void fullRingReplacesTheOldestEntry() {
+        CrashRing ring = new CrashRing(2);
+        long a = CrashRing.signatureOf("a");
+        long b = CrashRing.signatureOf("b");
+        long c = CrashRing.signatureOf("c");
+        ring.record(a, 0, WINDOW);
+        ring.record(b, 100, WINDOW);
+        ring.record(b, 200, WINDOW);
+        ring.record(c, 300, WINDOW);
+        // a 最久未更新，被 c 覆盖
+        assertEquals(1, ring.record(a, 400, WINDOW));
+        assertEquals(2, ring.record(c, 500, WINDOW));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+  * This file is part of HyperCeiler.
+
+  * HyperCeiler is free software: you can redistribute it and/or modify
+  * it under the terms of the GNU Affero General Public License as
+  * published by the Free Software Foundation, either version 3 of the
+  * License.
+
+  * This program is distributed in the hope that it will be useful,
+  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+  * GNU Affero General Public License for more details.
+
+  * You should have received a copy of the GNU Affero General Public License
+  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+  * Copyright (C) 2023-2025 HyperCeiler Contributions
+*/
+package com.sevtinge.hyperceiler.hook.safe
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class SafeModeTest {
+
+    @Test
+    fun appendsToEmptyList() {
+        assertEquals("a00001", SafeMode.appendDisabledHook("", "a00001"))
+    }
+
+    @Test
+    fun appendMovesExistingIdToTheEnd() {
+        assertEquals("a00002,a00001", SafeMode.appendDisabledHook("a00001,a00002", "a00001"))
+    }
+
+    @Test
+    fun fullListIsNotEvicted() {
+        val full = (1..SafeMode.MAX_DISABLED_HOOKS).joinToString(",") { "a%05d".format(it) }
+        assertNull(SafeMode.appendDisabledHook(full, "b00000"))
+        // 已在列表中的 id 不占新位置
+        assertEquals(SafeMode.MAX_DISABLED_HOOKS,
+            SafeMode.appendDisabledHook(full, "a00001")!!.split(",").size)
+    }
+
+    @Test
+    fun fullListStillFitsTheProperty() {
+        val full = (1 until SafeMode.MAX_DISABLED_HOOKS).joinToString(",") { "a%05d".format(it) }
+        val value = SafeMode.appendDisabledHook(full, SafeMode.hookId("com.example.Hook"))!!
+        assertEquals(SafeMode.MAX_DISABLED_HOOKS * 7 - 1, value.length)
+    }
+}
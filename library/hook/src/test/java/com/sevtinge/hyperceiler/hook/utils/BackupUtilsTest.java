@@ -0,0 +1,175 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BackupUtilsTest {
+
+    @Test
+    public void roundTripKeepsEveryType() throws IOException {
+        Map<String, Object> prefs = new HashMap<>();
+        prefs.put("prefs_key_bool", true);
+        prefs.put("prefs_key_bool_off", false);
+        prefs.put("prefs_key_int", -42);
+        prefs.put("prefs_key_long", 1L << 40);
+        prefs.put("prefs_key_small_long", 7L);
+        prefs.put("prefs_key_float", 0.1f);
+        prefs.put("prefs_key_float_tiny", -3.5e-7f);
+        prefs.put("prefs_key_string", "状态栏 \"clock\"\n");
+        // 旧格式会把这种字符串误判为集合
+        prefs.put("prefs_key_bracket_string", "[a, b]");
+        prefs.put("prefs_key_set", Set.of("com.android.systemui", "a,b", "[x]", " spaced "));
+        prefs.put("prefs_key_empty_set", Set.of());
+
+        Map<String, Object> restored = roundTrip(prefs);
+        assertEquals(prefs, restored);
+        assertEquals(Long.class, restored.get("prefs_key_small_long").getClass());
+        assertEquals(Integer.class, restored.get("prefs_key_int").getClass());
+        assertEquals(Float.class, restored.get("prefs_key_float").getClass());
+    }
+
+    @Test
+    public void allowHookKeyIsNeverBackedUp() throws IOException {
+        Map<String, Object> prefs = new HashMap<>();
+        prefs.put("prefs_key_allow_hook", true);
+        prefs.put("prefs_key_other", 1);
+        String json = write(prefs);
+        assertFalse(json.contains("prefs_key_allow_hook"));
+        assertEquals(Map.of("prefs_key_other", 1), read(json));
+    }
+
+    @Test
+    public void keysAreWrittenSorted() throws IOException {
+        Map<String, Object> prefs = new HashMap<>();
+        prefs.put("c", 1);
+        prefs.put("a", 1);
+        prefs.put("b", 1);
+        String json = write(prefs);
+        assertTrue(json.startsWith("{\"schema_version\":2,\"prefs\":{\"a\":"));
+        assertTrue(json.indexOf("\"a\"") < json.indexOf("\"b\"") && json.indexOf("\"b\"") < json.indexOf("\"c\""));
+    }
+
+    @Test
+    public void readsLegacyFlatBackups() throws IOException {
+        String legacy = "{\"prefs_key_bool\":true,\"prefs_key_int\":3,\"prefs_key_float\":1.5,"
+                + "\"prefs_key_string\":\"hello\",\"prefs_key_set\":\"[a, b, c]\",\"prefs_key_allow_hook\":true}";
+        Map<String, Object> restored = read(legacy);
+        assertEquals(true, restored.get("prefs_key_bool"));
+        assertEquals(3, restored.get("prefs_key_int"));
+        // 旧格式无法区分浮点数，直接丢弃
+        assertFalse(restored.containsKey("prefs_key_float"));
+        assertEquals("hello", restored.get("prefs_key_string"));
+        assertEquals(Set.of("a", "b", "c"), restored.get("prefs_key_set"));
+        assertFalse(restored.containsKey("prefs_key_allow_hook"));
+    }
+
+    @Test
+    public void skipsUnknownTypes() throws IOException {
+        String json = "{\"schema_version\":2,\"prefs\":{\"a\":{\"type\":\"blob\",\"value\":[1,2]},"
+                + "\"b\":{\"type\":\"int\",\"value\":2,\"extra\":{}}}}";
+        assertEquals(Map.of("b", 2), read(json));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsNewerSchema() throws IOException {
+        read("{\"schema_version\":3,\"prefs\":{}}");
+    }
+
+    @Test
+    public void changedEntriesOnlyContainsDifferentValues() {
+        Map<String, Object> current = new HashMap<>();
+        current.put("same", 1);
+        current.put("changed", 1);
+        current.put("set", new LinkedHashSet<>(List.of("a", "b")));
+        Map<String, Object> restored = new HashMap<>();
+        restored.put("same", 1);
+        restored.put("changed", 2);
+        restored.put("set", Set.of("b", "a"));
+        restored.put("new", "x");
+
+        Map<String, Object> changed = BackupUtils.changedEntries(current, restored);
+        assertEquals(Map.of("changed", 2, "new", "x"), changed);
+    }
+
+    @Test
+    public void tenThousandKeys() throws IOException {
+        Map<String, Object> prefs = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String key = "prefs_key_" + i;
+            switch (i % 6) {
+                case 0 -> prefs.put(key, i % 12 == 0);
+                case 1 -> prefs.put(key, i);
+                case 2 -> prefs.put(key, (long) i << 33);
+                case 3 -> prefs.put(key, i / 7f);
+                case 4 -> prefs.put(key, "value " + i);
+                default -> prefs.put(key, Set.of("a" + i, "b" + i));
+            }
+        }
+        // 预热一次，避免把类加载和 JIT 计入耗时
+        roundTrip(prefs);
+
+        long start = System.nanoTime();
+        Map<String, Object> restored = roundTrip(prefs);
+        Map<String, Object> changed = BackupUtils.changedEntries(prefs, restored);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(prefs, restored);
+        assertTrue(changed.isEmpty());
+        assertTrue("10k keys took " + elapsedMs + " ms", elapsedMs < 2000);
+
+        Map<String, Object> current = new HashMap<>(prefs);
+        for (int i = 0; i < 10_000; i += 100) current.put("prefs_key_" + i, "stale");
+        assertEquals(100, BackupUtils.changedEntries(current, restored).size());
+    }
+
+    private static Map<String, Object> roundTrip(Map<String, Object> prefs) throws IOException {
+        return read(write(prefs));
+    }
+
+    private static String write(Map<String, ?> prefs) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            BackupUtils.writePrefs(writer, prefs);
+        }
+        return out.toString();
+    }
+
+    private static Map<String, Object> read(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return BackupUtils.readPrefs(reader);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 以 src/test/resources/shake 下的加速度采样回放 ShakeDetector
+ * <p>
+ * 每行为 timestamp_ns,x,y,z，时间戳与 SensorEvent.timestamp 一致，trace 均从 5s 开始，
+ * 下文的时刻都相对 trace 起点
+ */
+public class ShakeDetectorTest {
+    private static final long TRACE_START_NS = 5_000_000_000L;
+    private static final long MS = 1_000_000L;
+
+    private record Sample(long timestampNs, float x, float y, float z) {
+        Sample shifted(long ns) {
+            return new Sample(timestampNs + ns, x, y, z);
+        }
+    }
+
+    @Test
+    public void deskStillNeverTriggers() throws IOException {
+        assertEquals(List.of(), replay(new ShakeDetector(), load("desk_still")));
+    }
+
+    @Test
+    public void singleAxisKnocksDoNotTrigger() throws IOException {
+        assertEquals(List.of(), replay(new ShakeDetector(), load("desk_bump")));
+    }
+
+    @Test
+    public void walkingDoesNotTrigger() throws IOException {
+        assertEquals(List.of(), replay(new ShakeDetector(), load("walking")));
+    }
+
+    @Test
+    public void pickingUpDoesNotTrigger() throws IOException {
+        assertEquals(List.of(), replay(new ShakeDetector(), load("pickup")));
+    }
+
+    @Test
+    public void gentleSwayDoesNotTrigger() throws IOException {
+        assertEquals(List.of(), replay(new ShakeDetector(), load("shake_gentle")));
+    }
+
+    @Test
+    public void oneShakeTriggersOnceWhileShaking() throws IOException {
+        List<Long> hits = replay(new ShakeDetector(), load("shake_once"));
+
+        assertEquals(1, hits.size());
+        // 摇动发生在 2000ms ~ 2900ms
+        assertBetween(hits.get(0), 2000 * MS, 2900 * MS);
+    }
+
+    @Test
+    public void twoShakesTriggerTwice() throws IOException {
+        List<Long> hits = replay(new ShakeDetector(), load("shake_twice"));
+
+        assertEquals(2, hits.size());
+        assertBetween(hits.get(0), 1500 * MS, 2400 * MS);
+        assertBetween(hits.get(1), 4400 * MS, 5200 * MS);
+    }
+
+    @Test
+    public void highRateBatchedSamplesBehaveLikeNominalRate() throws IOException {
+        List<Long> hits = replay(new ShakeDetector(), load("shake_batched"));
+
+        assertEquals(1, hits.size());
+        assertBetween(hits.get(0), 2000 * MS, 2900 * MS);
+    }
+
+    @Test
+    public void continuousShakingRepeatsNoFasterThanCooldown() throws IOException {
+        // 把摇动段首尾相接回放三遍，模拟持续摇动约 2.7s
+        List<Sample> shake = window(load("shake_once"), 2000 * MS, 2900 * MS);
+        List<Sample> trace = new ArrayList<>();
+        long period = shake.get(shake.size() - 1).timestampNs() - shake.get(0).timestampNs() + 20 * MS;
+        for (int i = 0; i < 3; i++) {
+            for (Sample s : shake) trace.add(s.shifted(i * period));
+        }
+
+        List<Long> hits = replay(new ShakeDetector(), trace);
+
+        assertTrue(hits.size() >= 2);
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i) - hits.get(i - 1) >= 750 * MS);
+        }
+    }
+
+    @Test
+    public void gapInSamplesStartsOver() throws IOException {
+        List<Sample> once = load("shake_once");
+        // 摇动刚开始就停止上报（如注销监听），恢复后只剩衰减段，不能接着前半段累计
+        List<Sample> trace = new ArrayList<>(window(once, 0, 2150 * MS));
+        for (Sample s : window(once, 2700 * MS, 5000 * MS)) trace.add(s.shifted(600 * MS));
+
+        assertEquals(List.of(), replay(new ShakeDetector(), trace));
+    }
+
+    @Test
+    public void shakeAfterResetTriggersAgain() throws IOException {
+        ShakeDetector detector = new ShakeDetector();
+        List<Sample> once = load("shake_once");
+        assertEquals(1, replay(detector, once).size());
+
+        detector.reset();
+        long offset = once.get(once.size() - 1).timestampNs() - once.get(0).timestampNs() + 20 * MS;
+        List<Sample> again = new ArrayList<>();
+        for (Sample s : once) again.add(s.shifted(offset));
+
+        assertEquals(1, replay(detector, again).size());
+    }
+
+    private static void assertBetween(long value, long from, long to) {
+        assertTrue(value + " not in [" + from + ", " + to + "]", value >= from && value <= to);
+    }
+
+    private static List<Sample> window(List<Sample> samples, long from, long to) {
+        List<Sample> result = new ArrayList<>();
+        for (Sample s : samples) {
+            long t = s.timestampNs() - TRACE_START_NS;
+            if (t >= from && t < to) result.add(s);
+        }
+        return result;
+    }
+
+    /*返回触发时刻，相对 trace 起点*/
+    private static List<Long> replay(ShakeDetector detector, List<Sample> samples) {
+        List<Long> hits = new ArrayList<>();
+        for (Sample s : samples) {
+            if (detector.onSample(s.timestampNs(), s.x(), s.y(), s.z())) {
+                hits.add(s.timestampNs() - TRACE_START_NS);
+            }
+        }
+        return hits;
+    }
+
+    private List<Sample> load(String name) throws IOException {
+        String path = "/shake/" + name + ".csv";
+        InputStream in = getClass().getResourceAsStream(path);
+        assertNotNull(path, in);
+        List<Sample> samples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split(",");
+                samples.add(new Sample(Long.parseLong(parts[0]), Float.parseFloat(parts[1]),
+                    Float.parseFloat(parts[2]), Float.parseFloat(parts[3])));
+            }
+        }
+        return samples;
+    }
+}
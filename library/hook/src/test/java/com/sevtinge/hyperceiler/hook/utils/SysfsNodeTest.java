@@ -0,0 +1,198 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.view.Choreographer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 以临时目录模拟 sysfs，节点均为普通文件
+ * <p>
+ * 真实 sysfs 写入会整体替换属性值，普通文件只会覆盖开头，
+ * 因此写入用例使用等宽的值
+ */
+public class SysfsNodeTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void probeReturnsFirstExistingCandidate() throws IOException {
+        File missing = new File(tmp.getRoot(), "missing/brightness");
+        File lcd = node("panel0-backlight/brightness", "128\n");
+        File backlight = node("backlight/brightness", "64\n");
+
+        SysfsNode node = SysfsNode.probe(missing.getPath(), lcd.getPath(), backlight.getPath());
+
+        assertEquals(lcd.getPath(), node.path());
+    }
+
+    @Test
+    public void probeWithoutCandidatesOnDiskIsNull() {
+        File missing = new File(tmp.getRoot(), "torch/brightness");
+        assertNull(SysfsNode.probe(missing.getPath()));
+    }
+
+    @Test
+    public void probeIsCachedPerCandidateList() throws IOException {
+        File first = new File(tmp.getRoot(), "first/brightness");
+        File second = node("second/brightness", "1\n");
+
+        SysfsNode node = SysfsNode.probe(first.getPath(), second.getPath());
+        // 进程内只探测一次，之后出现的节点不影响结果
+        node("first/brightness", "2\n");
+
+        assertSame(node, SysfsNode.probe(first.getPath(), second.getPath()));
+        assertEquals(second.getPath(), node.path());
+    }
+
+    @Test
+    public void readTrimsTrailingNewline() throws IOException {
+        File file = node("max_brightness", "2047\n");
+        SysfsNode node = SysfsNode.probe(file.getPath());
+
+        assertEquals("2047", node.read());
+        assertEquals(2047, node.readInt(-1));
+    }
+
+    @Test
+    public void writeGoesToTheNodeAndReadsBack() throws IOException {
+        File file = node("leds/flashlight/brightness", "000\n");
+        SysfsNode node = SysfsNode.probe(file.getPath());
+
+        assertTrue(node.write(255));
+        assertEquals("255", content(file));
+        assertEquals(255, node.readInt(-1));
+
+        assertTrue(node.write("128"));
+        assertEquals("128", content(file));
+        assertEquals("128", node.read());
+    }
+
+    @Test
+    public void readSeesChangesMadeBehindTheHeldChannel() throws IOException {
+        File file = node("brightness", "100\n");
+        SysfsNode node = SysfsNode.probe(file.getPath());
+        assertEquals(100, node.readInt(-1));
+
+        // 内核会自行更新节点，常驻的 channel 每次从偏移 0 读取
+        Files.write(file.toPath(), "042\n".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(42, node.readInt(-1));
+    }
+
+    @Test
+    public void coalescerSchedulesOncePerFrameAndWritesLatest() throws IOException {
+        File file = node("coalesce/brightness", "000\n");
+        SysfsNode node = SysfsNode.probe(file.getPath());
+        List<Choreographer.FrameCallback> frames = new ArrayList<>();
+        SysfsNode.FrameCoalescer coalescer = new SysfsNode.FrameCoalescer(node::write, frames::add);
+
+        for (int value = 100; value <= 199; value++) coalescer.post(value);
+        assertEquals(1, frames.size());
+        assertEquals("000", content(file));
+
+        frames.remove(0).doFrame(16_666_667L);
+        assertEquals("199", content(file));
+
+        coalescer.post(150);
+        coalescer.post(120);
+        assertEquals(1, frames.size());
+        frames.remove(0).doFrame(33_333_334L);
+        assertEquals("120", content(file));
+    }
+
+    @Test
+    public void coalescerDeliversEachFrameOnlyOnce() {
+        List<Integer> written = new ArrayList<>();
+        List<Choreographer.FrameCallback> frames = new ArrayList<>();
+        SysfsNode.FrameCoalescer coalescer = new SysfsNode.FrameCoalescer(written::add, frames::add);
+
+        coalescer.post(1);
+        coalescer.post(2);
+        frames.remove(0).doFrame(0L);
+        coalescer.post(3);
+        frames.remove(0).doFrame(1L);
+
+        assertEquals(List.of(2, 3), written);
+        assertTrue(frames.isEmpty());
+    }
+
+    @Test
+    public void coalescerUnderConcurrentPostsSchedulesOnce() throws InterruptedException {
+        List<Integer> written = new ArrayList<>();
+        List<Choreographer.FrameCallback> frames = new ArrayList<>();
+        SysfsNode.FrameCoalescer coalescer = new SysfsNode.FrameCoalescer(written::add, callback -> {
+            synchronized (frames) {
+                frames.add(callback);
+            }
+        });
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int base = t * 1000;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) coalescer.post(base + i);
+                } catch (InterruptedException ignore) {
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        assertEquals(1, frames.size());
+        frames.get(0).doFrame(0L);
+        assertEquals(1, written.size());
+        assertEquals(999, written.get(0) % 1000);
+    }
+
+    private File node(String path, String value) throws IOException {
+        File file = new File(tmp.getRoot(), path);
+        File parent = file.getParentFile();
+        assertTrue(parent.isDirectory() || parent.mkdirs());
+        Files.write(file.toPath(), value.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static String content(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII).trim();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils.prefs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PrefsChangeBatchTest {
+
+    @Test
+    public void keysPassThroughOutsideBatch() {
+        PrefsChangeBatch batch = new PrefsChangeBatch();
+        assertFalse(batch.offer("a"));
+        assertEquals(List.of(), batch.end(List.of()));
+    }
+
+    @Test
+    public void batchMergesListenerAndRestoredKeys() {
+        PrefsChangeBatch batch = new PrefsChangeBatch();
+        batch.begin();
+        assertTrue(batch.offer("b"));
+        assertTrue(batch.offer("a"));
+        assertTrue(batch.offer("b"));
+        // commit 触发的监听回调与恢复的键重复，只通知一次
+        assertEquals(List.of("b", "a", "c"), batch.end(List.of("a", "c")));
+        assertFalse(batch.offer("d"));
+    }
+
+    @Test
+    public void nestedBatchesNotifyOnceAtTheOutermostEnd() {
+        PrefsChangeBatch batch = new PrefsChangeBatch();
+        batch.begin();
+        batch.begin();
+        batch.offer("inner");
+        assertEquals(List.of(), batch.end(List.of("x")));
+        assertTrue(batch.offer("outer"));
+        assertEquals(List.of("inner", "x", "outer"), batch.end(List.of()));
+    }
+
+    @Test
+    public void emptyBatchNotifiesNothing() {
+        PrefsChangeBatch batch = new PrefsChangeBatch();
+        batch.begin();
+        assertEquals(List.of(), batch.end(List.of()));
+        assertFalse(batch.offer("a"));
+    }
+
+    @Test
+    public void unbalancedEndDoesNotOpenABatch() {
+        PrefsChangeBatch batch = new PrefsChangeBatch();
+        assertEquals(List.of("a"), batch.end(List.of("a")));
+        assertFalse(batch.offer("b"));
+    }
+
+    @Test
+    public void tenThousandKeysInOneBatch() {
+        PrefsChangeBatch batch = new PrefsChangeBatch();
+        List<String> restored = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) restored.add("prefs_key_" + i);
+        long start = System.nanoTime();
+        batch.begin();
+        for (String key : restored) batch.offer(key);
+        List<String> keys = batch.end(restored);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(restored, keys);
+        assertTrue("10k keys took " + elapsedMs + " ms", elapsedMs < 500);
+    }
+}
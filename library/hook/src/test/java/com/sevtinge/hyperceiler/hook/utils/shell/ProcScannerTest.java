@@ -0,0 +1,200 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.hook.utils.shell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ProcScannerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void parseGroupsPsOutputByPackage() throws IOException {
+        ProcScanner scanner = ProcScanner.parse(readFixture("/proc/ps_output.txt"));
+
+        assertEquals(List.of(1234, 1240), pids(scanner.find("com.miui.home")));
+        assertEquals(List.of(1301), pids(scanner.find("com.miui.home.xyz")));
+        assertEquals(List.of(2222, 2230), pids(scanner.find("com.android.systemui")));
+        assertEquals(List.of(4100), pids(scanner.find("com.miui.securitycenter")));
+    }
+
+    @Test
+    public void parseKeepsArgumentsButNamesByFirstToken() throws IOException {
+        ProcScanner scanner = ProcScanner.parse(readFixture("/proc/ps_output.txt"));
+
+        ProcScanner.Proc screenshot = scanner.find("com.android.systemui").get(1);
+        assertEquals("com.android.systemui:screenshot", screenshot.name());
+        assertEquals("com.android.systemui:screenshot --start-service", screenshot.cmdline());
+        // ps 输出不含 uid，发送信号时再获取
+        assertEquals(-1, screenshot.uid());
+    }
+
+    @Test
+    public void parseSkipsHeaderBlankAndMalformedLines() throws IOException {
+        ProcScanner scanner = ProcScanner.parse(readFixture("/proc/ps_output.txt"));
+
+        assertTrue(scanner.find("PID").isEmpty());
+        assertTrue(scanner.find("ARGS").isEmpty());
+        assertTrue(scanner.find("abc").isEmpty());
+        assertTrue(scanner.find("not-a-pid").isEmpty());
+        assertTrue(scanner.find("").isEmpty());
+    }
+
+    @Test
+    public void scanReadsNulSeparatedCmdline() throws IOException {
+        File proc = tmp.newFolder("proc");
+        writeCmdline(proc, "1234", "com.miui.home\0");
+        writeCmdline(proc, "1240", "com.miui.home:widgetProvider\0--arg\0value\0\0");
+        writeCmdline(proc, "1301", "com.miui.home.xyz\0");
+
+        ProcScanner scanner = ProcScanner.scan(proc);
+
+        List<ProcScanner.Proc> home = sortedByPid(scanner.find("com.miui.home"));
+        assertEquals(List.of(1234, 1240), pids(home));
+        assertEquals("com.miui.home", home.get(0).cmdline());
+        assertEquals("com.miui.home:widgetProvider", home.get(1).name());
+        assertEquals("com.miui.home:widgetProvider --arg value", home.get(1).cmdline());
+        assertEquals(List.of(1301), pids(scanner.find("com.miui.home.xyz")));
+    }
+
+    @Test
+    public void scanSkipsNonPidDirsAndKernelThreads() throws IOException {
+        File proc = tmp.newFolder("proc");
+        writeCmdline(proc, "self", "com.miui.home\0");
+        writeCmdline(proc, "net", "com.miui.home\0");
+        writeCmdline(proc, "0", "com.miui.home\0");
+        // 内核线程 cmdline 为空
+        writeCmdline(proc, "2", "");
+        // 进程在遍历时退出，cmdline 已不存在
+        assertTrue(new File(proc, "77").mkdir());
+        assertTrue(new File(proc, "uptime").createNewFile());
+        writeCmdline(proc, "500", "com.miui.home\0");
+
+        ProcScanner scanner = ProcScanner.scan(proc);
+
+        assertEquals(List.of(500), pids(scanner.find("com.miui.home")));
+        assertTrue(scanner.find("").isEmpty());
+    }
+
+    @Test
+    public void scanOfMissingRootIsEmpty() {
+        ProcScanner scanner = ProcScanner.scan(new File(tmp.getRoot(), "missing"));
+        assertTrue(scanner.find("com.miui.home").isEmpty());
+    }
+
+    @Test
+    public void packageOfStripsProcessSuffix() {
+        assertEquals("com.miui.home", ProcScanner.packageOf("com.miui.home"));
+        assertEquals("com.miui.home", ProcScanner.packageOf("com.miui.home:widgetProvider"));
+        assertEquals(":orphan", ProcScanner.packageOf(":orphan"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void findReturnsReadOnlyView() throws IOException {
+        ProcScanner scanner = ProcScanner.parse(readFixture("/proc/ps_output.txt"));
+        scanner.find("com.miui.home").clear();
+    }
+
+    @Test
+    public void killCommandIgnoresProcessesThatAlreadyExited() throws Exception {
+        assumeTrue(new File("/bin/sh").canExecute());
+        Process live = new ProcessBuilder("sleep", "30").start();
+        int gone = exitedPid();
+        try {
+            assertEquals(0, sh(ProcScanner.killCommand(15, List.of(gone, (int) live.pid()))));
+            assertTrue(live.waitFor(5, TimeUnit.SECONDS));
+        } finally {
+            live.destroyForcibly();
+        }
+    }
+
+    @Test
+    public void killCommandFailsWhenALiveProcessIsNotSignalled() throws Exception {
+        assumeTrue(new File("/bin/sh").canExecute());
+        Process live = new ProcessBuilder("sleep", "30").start();
+        try {
+            // 无效信号，进程仍在
+            assertEquals(1, sh(ProcScanner.killCommand(999, List.of((int) live.pid()))));
+            assertFalse(live.waitFor(200, TimeUnit.MILLISECONDS));
+        } finally {
+            live.destroyForcibly();
+        }
+    }
+
+    private static int exitedPid() throws Exception {
+        Process done = new ProcessBuilder("true").start();
+        assertEquals(0, done.waitFor());
+        return (int) done.pid();
+    }
+
+    private static int sh(String command) throws Exception {
+        Process process = new ProcessBuilder("/bin/sh", "-c", command).start();
+        assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        return process.exitValue();
+    }
+
+    private List<String> readFixture(String path) throws IOException {
+        InputStream in = getClass().getResourceAsStream(path);
+        assertNotNull(path, in);
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) lines.add(line);
+        }
+        return lines;
+    }
+
+    private static void writeCmdline(File proc, String pid, String cmdline) throws IOException {
+        File dir = new File(proc, pid);
+        assertTrue(dir.mkdir());
+        Files.write(new File(dir, "cmdline").toPath(), cmdline.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<ProcScanner.Proc> sortedByPid(List<ProcScanner.Proc> procs) {
+        List<ProcScanner.Proc> sorted = new ArrayList<>(procs);
+        sorted.sort((a, b) -> Integer.compare(a.pid(), b.pid()));
+        return sorted;
+    }
+
+    private static List<Integer> pids(List<ProcScanner.Proc> procs) {
+        List<Integer> pids = new ArrayList<>();
+        for (ProcScanner.Proc proc : sortedByPid(procs)) pids.add(proc.pid());
+        return pids;
+    }
+}
@@ -31,4 +31,6 @@ java {
 
 dependencies {
     api(libs.bundles.miuix)
+
+    testImplementation(libs.junit)
 }
@@ -0,0 +1,180 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.provision.renderengine.painter;
+
+/**
+ * Static control points of the provision mesh gradient and a CPU reference of
+ * {@code mesh_vertex_shader.glsl}. Everything here is plain Java so the shader math can be
+ * checked without a GPU.
+ */
+public final class MeshGradient {
+
+    public static final int ROW = 4;
+    public static final int COL = 3;
+    public static final int MESH_COUNT = 20;
+    public static final int POINT_COUNT = ROW * COL;
+    public static final int PHASE_COUNT = 3;
+    public static final float COLOR_CHANGE_DURATION = 0.8f;
+
+    // 切线，与原 GridPoint 的 dx、dy 一致
+    private static final float DX = 1.0f / (ROW - 1.0f);
+    private static final float DY = 1.0f / (COL - 1.0f);
+
+    /** 每个控制点依次为 baseX, baseY, offsetX, offsetY，按 row * COL + col 排列 */
+    public static final float[] POINTS = {
+            -0.13288257f, -0.10790368f, 0.0f, 0.0f,
+            0.4611737f, -0.1700916f, 0.1f, 0.0f,
+            1.0275089f, -0.091076486f, 0.0f, 0.0f,
+            -0.42142856f, 0.33333334f, 0.0f, 0.1f,
+            0.18926783f, 0.2973898f, 0.15f, 0.22f,
+            1.1269336f, 0.30594763f, 0.0f, 0.1f,
+            -0.14455517f, 0.77676916f, 0.04f, 0.19f,
+            0.4782918f, 0.8555784f, 0.2f, 0.12f,
+            1.0663207f, 0.82287407f, 0.0f, 0.1f,
+            -0.52f, 1.06f, 0.0f, 0.0f,
+            0.26379257f, 1.1222811f, 0.1f, 0.0f,
+            1.0f, 1.3062867f, 0.0f, 0.0f
+    };
+
+    public static final float[] SPEEDS = {
+            1.0f, 1.0f, 1.0f, 1.0f, 0.5f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f
+    };
+
+    /** 三组配色依次排列，每组 POINT_COUNT 个 rgb */
+    public static final float[] COLORS = {
+            0.8392157f, 0.8666667f, 1.0f, 0.72156864f, 0.7529412f, 1.0f, 1.0f, 0.9137255f, 0.8980392f,
+            1.0f, 0.8509804f, 0.8f, 1.0f, 0.72156864f, 0.7607843f, 1.0f, 0.94509804f, 0.8980392f,
+            0.8f, 0.8666667f, 1.0f, 1.0f, 0.972549f, 0.92156863f, 1.0f, 0.8745098f, 0.81960785f,
+            0.99607843f, 0.9137255f, 0.85490197f, 1.0f, 0.91764706f, 0.85882354f, 1.0f, 0.9490196f, 0.92156863f,
+
+            1.0f, 0.94509804f, 0.7764706f, 0.72156864f, 0.7529412f, 1.0f, 1.0f, 0.9137255f, 0.8980392f,
+            1.0f, 0.8509804f, 0.8f, 0.6392157f, 0.69803923f, 1.0f, 1.0f, 0.94509804f, 0.8980392f,
+            0.8f, 0.8666667f, 1.0f, 1.0f, 0.972549f, 0.92156863f, 1.0f, 0.8745098f, 0.81960785f,
+            0.99607843f, 0.9137255f, 0.85490197f, 1.0f, 0.91764706f, 0.85882354f, 1.0f, 0.9490196f, 0.92156863f,
+
+            1.0f, 0.7411765f, 0.8666667f, 1.0f, 0.9098039f, 0.8784314f, 0.9019608f, 0.85882354f, 1.0f,
+            1.0f, 0.8509804f, 0.8f, 0.81960785f, 0.72156864f, 1.0f, 1.0f, 0.94509804f, 0.8980392f,
+            1.0f, 0.9254902f, 0.8980392f, 1.0f, 0.7294118f, 0.7019608f, 1.0f, 0.8745098f, 0.81960785f,
+            0.99607843f, 0.9137255f, 0.85490197f, 1.0f, 0.91764706f, 0.85882354f, 1.0f, 0.9490196f, 0.92156863f
+    };
+
+    private static final float[][] HM = {
+            {2.0f, -2.0f, 1.0f, 1.0f}, {-3.0f, 3.0f, -2.0f, -1.0f}, {0.0f, 0.0f, 1.0f, 0.0f}, {1.0f, 0.0f, 0.0f, 0.0f}
+    };
+    private static final float[][] HM_T = {
+            {2.0f, -3.0f, 0.0f, 1.0f}, {-2.0f, 3.0f, 0.0f, 0.0f}, {1.0f, -2.0f, 1.0f, 0.0f}, {1.0f, -1.0f, 0.0f, 0.0f}
+    };
+
+    private MeshGradient() {
+    }
+
+    public static int vertexCount() {
+        return (ROW - 1) * (COL - 1) * MESH_COUNT * MESH_COUNT;
+    }
+
+    /**
+     * Animated control point, same as the shader's {@code gridPoint}.
+     *
+     * @param out receives x, y, r, g, b.
+     */
+    public static void gridPoint(int index, float time, float lightProgress, float[] out) {
+        final float phaseTime = time / COLOR_CHANGE_DURATION;
+        final int phase = (int) Math.floor(phaseTime) % PHASE_COUNT;
+        final int next = (phase + 1) % PHASE_COUNT;
+        final float fraction = phaseTime % 1.0f;
+        final float angle = SPEEDS[index] * time + index;
+        out[0] = POINTS[index * 4] + POINTS[index * 4 + 2] * (float) Math.cos(angle) * lightProgress;
+        out[1] = POINTS[index * 4 + 1] + POINTS[index * 4 + 3] * (float) Math.sin(angle) * lightProgress;
+        for (int k = 0; k < 3; k++) {
+            final float from = COLORS[(phase * POINT_COUNT + index) * 3 + k];
+            final float to = COLORS[(next * POINT_COUNT + index) * 3 + k];
+            out[2 + k] = from + fraction * (to - from);
+        }
+    }
+
+    /**
+     * CPU reference of the vertex shader.
+     *
+     * @param time animation time, i.e. seconds since start multiplied by the animation speed.
+     * @param out receives clip-space x, y, z and color r, g, b.
+     */
+    public static void evaluate(int vertexIndex, float time, float lightProgress, float[] out) {
+        final int meshCount2 = MESH_COUNT * MESH_COUNT;
+        final int patchRow = vertexIndex / (meshCount2 * (COL - 1));
+        final int patchCol = vertexIndex - meshCount2 * (COL - 1) * patchRow >= meshCount2 ? 1 : 0;
+        final int patchIndex = patchRow * (COL - 1) + patchCol;
+        final int inPatch = vertexIndex - meshCount2 * patchIndex;
+        final int m = inPatch / MESH_COUNT;
+        final int n = inPatch % MESH_COUNT;
+        final float u = m / (MESH_COUNT - 1f);
+        final float v = n / (MESH_COUNT - 1f);
+
+        final float[] p00 = new float[5], p10 = new float[5], p01 = new float[5], p11 = new float[5];
+        gridPoint(patchRow * COL + patchCol, time, lightProgress, p00);
+        gridPoint((patchRow + 1) * COL + patchCol, time, lightProgress, p10);
+        gridPoint(patchRow * COL + patchCol + 1, time, lightProgress, p01);
+        gridPoint((patchRow + 1) * COL + patchCol + 1, time, lightProgress, p11);
+
+        // 列主序，与 GLSL mat4 的列一一对应
+        final float[][] x = {{p00[0], p10[0], 0, 0}, {p01[0], p11[0], 0, 0}, {DY, DY, 0, 0}, {DY, DY, 0, 0}};
+        final float[][] y = {{p00[1], p10[1], DX, DX}, {p01[1], p11[1], DX, DX}, {0, 0, 0, 0}, {0, 0, 0, 0}};
+
+        final float[] uVec = {u * u * u, u * u, u, 1.0f};
+        final float[] vVec = {v * v * v, v * v, v, 1.0f};
+        final float[] hmU = mul(HM, uVec);
+
+        final float t = (patchCol * (MESH_COUNT - 1f) + m) / ((COL - 1f) * (MESH_COUNT - 1f));
+        final float s = (patchRow * (MESH_COUNT - 1f) + n) / ((ROW - 1f) * (MESH_COUNT - 1f));
+        final float z = 1.0f - ((s - 0.5f) * (s - 0.5f) + (t - 0.5f) * (t - 0.5f));
+
+        out[0] = mix(patchPoint(x, hmU, vVec));
+        out[1] = mix(patchPoint(y, hmU, vVec));
+        out[2] = mix(z);
+        for (int k = 0; k < 3; k++) {
+            final float[][] c = {
+                    {p00[2 + k], p10[2 + k], 0, 0}, {p01[2 + k], p11[2 + k], 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}
+            };
+            out[3 + k] = patchPoint(c, hmU, vVec);
+        }
+    }
+
+    // dot(HM_T * patch * hmU, vVec)
+    private static float patchPoint(float[][] patch, float[] hmU, float[] vVec) {
+        return dot(mul(HM_T, mul(patch, hmU)), vVec);
+    }
+
+    // GLSL 中 mat * vec，m[c] 为第 c 列
+    private static float[] mul(float[][] m, float[] vec) {
+        final float[] result = new float[4];
+        for (int c = 0; c < 4; c++) {
+            for (int r = 0; r < 4; r++) {
+                result[r] += m[c][r] * vec[c];
+            }
+        }
+        return result;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2] + a[3] * b[3];
+    }
+
+    private static float mix(float value) {
+        return -1.0f + 2.0f * value;
+    }
+}
@@ -22,7 +22,6 @@ import com.sevtinge.hyperceiler.provision.R;
 
 import miuix.mgl.Primitive;
 import miuix.mgl.RenderMaterial;
-import miuix.mgl.Shader;
 
 public class BasePainter {
     boolean autoInit;
@@ -32,7 +31,6 @@ public class BasePainter {
     protected RenderMaterial material;
     protected Primitive primitive;
     protected RenderContext renderContext;
-    protected Shader shader;
     protected int vertId;
 
     protected int getCompId() {
@@ -48,6 +46,8 @@ public class BasePainter {
         if (renderMaterial != null) {
             renderMaterial.destroy(z);
             this.material = null;
+            // 材质创建时持有的着色器引用
+            this.renderContext.getMaterialRepo().releaseShader(this.key);
         }
     }
 
@@ -116,7 +116,6 @@ public class BasePainter {
             this.compId = i3;
         }
         this.key = new MaterialRepo.MKey(this.vertId, this.fragId);
-        this.shader = renderContext.getMaterialRepo().getShader(this.key);
         this.material = renderContext.getMaterialRepo().getRenderMaterial(this.key);
         this.primitive = renderContext.getMaterialRepo().getDefaultPrimitive();
         this.material.setBlendFunc(builder.blendSRC, builder.blendDST);
@@ -125,7 +124,6 @@ public class BasePainter {
     private void init() {
         if (this.autoInit) {
             initMKey();
-            this.shader = this.renderContext.getMaterialRepo().getShader(this.key);
             this.material = this.renderContext.getMaterialRepo().getRenderMaterial(this.key);
             this.primitive = initPrimitive();
         }
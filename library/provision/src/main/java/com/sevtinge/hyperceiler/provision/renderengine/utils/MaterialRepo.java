@@ -18,19 +18,12 @@
  */
 package com.sevtinge.hyperceiler.provision.renderengine.utils;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
 import miuix.mgl.MglContext;
-import miuix.mgl.PngParser;
 import miuix.mgl.Primitive;
 import miuix.mgl.RenderMaterial;
 import miuix.mgl.Shader;
-import miuix.mgl.Texture;
-import miuix.mgl.Texture2D;
-import miuix.mgl.WebpParser;
-import miuix.mgl.ZstcParser;
 
 public class MaterialRepo {
     private MglContext mglContext;
@@ -38,8 +31,10 @@ public class MaterialRepo {
     private Primitive primitiveCity;
     private Primitive primitiveReverseUV;
     private float primitiveSourceAspect;
-    private final Map<MKey, Shader> shaderMap = new HashMap<>();
-    private final Map<Integer, Texture2D> texture2DMap = new HashMap<>();
+    // 着色器按源码长度计
+    private static final long SHADER_BUDGET_BYTES = 256L * 1024;
+    private final ResourceCache<MKey, Shader> shaderCache =
+            new ResourceCache<>(SHADER_BUDGET_BYTES, (mKey, shader, clearing) -> shader.destroy(!clearing));
     private static final float[] VERTEX_POS = {-1.0f, -1.0f, 1.0f, -1.0f, 1.0f, 1.0f, -1.0f, 1.0f};
     private static final float[] VERTEX_UV = {0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f};
     private static final float[] VERTEX_UV_RE = {0.0f, 1.0f, 1.0f, 1.0f, 1.0f, 0.0f, 0.0f, 0.0f};
@@ -49,19 +44,31 @@ public class MaterialRepo {
         this.mglContext = mglContext;
     }
 
+    /**
+     * Returns the shader for the key and takes a reference on it; pair with {@link #releaseShader(MKey)}.
+     */
     public Shader getShader(MKey mKey) {
-        Shader shader = this.shaderMap.get(mKey);
+        Shader shader = this.shaderCache.acquire(mKey);
         if (shader != null) {
             return shader;
         }
         int i = AnonymousClass1.$SwitchMap$miuix$mgl$Shader$ShaderType[mKey.type.ordinal()];
+        long bytes = 0;
         if (i == 1) {
-            shader = Shader.Builder.create().type(mKey.type).vertexSource(ShaderTextReader.readTextFileFromResource(mKey.vertId)).fragmentSource(ShaderTextReader.readTextFileFromResource(mKey.fragId)).build(this.mglContext);
+            String vertexSource = ShaderTextReader.readTextFileFromResource(mKey.vertId);
+            String fragmentSource = ShaderTextReader.readTextFileFromResource(mKey.fragId);
+            bytes = vertexSource.length() + fragmentSource.length();
+            shader = Shader.Builder.create().type(mKey.type).vertexSource(vertexSource).fragmentSource(fragmentSource).build(this.mglContext);
         } else if (i == 2) {
-            shader = Shader.Builder.create().type(mKey.type).computeSource(ShaderTextReader.readTextFileFromResource(mKey.compId)).build(this.mglContext);
+            String computeSource = ShaderTextReader.readTextFileFromResource(mKey.compId);
+            bytes = computeSource.length();
+            shader = Shader.Builder.create().type(mKey.type).computeSource(computeSource).build(this.mglContext);
         }
-        this.shaderMap.put(mKey, shader);
-        return shader;
+        return this.shaderCache.put(mKey, shader, bytes);
+    }
+
+    public void releaseShader(MKey mKey) {
+        this.shaderCache.release(mKey);
     }
 
     static class AnonymousClass1 {
@@ -81,71 +88,14 @@ public class MaterialRepo {
         }
     }
 
+    /**
+     * Creates a material on the shader for the key. The material holds a shader reference;
+     * pair with {@link #releaseShader(MKey)} once the material is destroyed.
+     */
     public RenderMaterial getRenderMaterial(MKey mKey) {
         return RenderMaterial.create(getShader(mKey));
     }
 
-    public Texture2D getTexture2DPng(int i) {
-        return getTexture2DPng(i, 0);
-    }
-
-    public Texture2D getTexture2DPng(int i, int i2) {
-        Texture2D texture2D = this.texture2DMap.get(i);
-        if (texture2D != null) {
-            return texture2D;
-        }
-        PngParser create = PngParser.create(i2);
-        create.parseFromRes(i, PublicParam.getContext().getResources());
-        Texture2D build = Texture2D.Builder.create().width(create.getWidth()).height(create.getHeight()).format(create.getTextureFormat()).build(this.mglContext);
-        build.setDataFromParser(0, create);
-        create.destroy();
-        build.setWrapMod(Texture.TextureWrapMod.CLAMP_TO_EDGE);
-        this.texture2DMap.put(i, build);
-        return build;
-    }
-
-    public Texture2D getTexture2DWebp(int i) {
-        Texture2D texture2D = this.texture2DMap.get(i);
-        if (texture2D != null) {
-            return texture2D;
-        }
-        WebpParser create = WebpParser.create();
-        create.parseFromRes(i, PublicParam.getContext().getResources());
-        Texture2D build = Texture2D.Builder.create().width(create.getWidth()).height(create.getHeight()).format(create.getTextureFormat()).build(this.mglContext);
-        build.setDataFromParser(0, create);
-        create.destroy();
-        build.setWrapMod(Texture.TextureWrapMod.CLAMP_TO_EDGE);
-        this.texture2DMap.put(i, build);
-        return build;
-    }
-
-    public Texture2D getTexture2DZstc(int i) {
-        Texture2D texture2D = this.texture2DMap.get(i);
-        if (texture2D != null) {
-            return texture2D;
-        }
-        ZstcParser create = ZstcParser.create();
-        create.parseFromRes(i, PublicParam.getContext().getResources());
-        Texture2D build = Texture2D.Builder.create().width(create.getWidth()).height(create.getHeight()).format(create.getTextureFormat()).build(this.mglContext);
-        build.setDataFromParser(0, create);
-        create.destroy();
-        build.setWrapMod(Texture.TextureWrapMod.CLAMP_TO_EDGE);
-        this.texture2DMap.put(i, build);
-        return build;
-    }
-
-    public void destroyTexture2D(int i, boolean z) {
-        Texture2D texture2D = this.texture2DMap.get(i);
-        if (texture2D != null) {
-            texture2D.destroy(z);
-            this.texture2DMap.remove(i);
-        }
-    }
-
-    public void destroyTexture2D(int i) {
-        destroyTexture2D(i, true);
-    }
-
     public Primitive getDefaultPrimitive() {
         if (this.primitive == null) {
             Primitive.Builder create = Primitive.Builder.create(4);
@@ -199,10 +149,7 @@ public class MaterialRepo {
         }
         this.primitive = null;
         this.primitiveReverseUV = null;
-        this.texture2DMap.forEach((integer, texture2D) -> texture2D.destroy(false));
-        this.texture2DMap.clear();
-        this.shaderMap.forEach((mKey, shader) -> shader.destroy(false));
-        this.shaderMap.clear();
+        this.shaderCache.clear();
     }
 
     static class MKey {
@@ -0,0 +1,133 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.provision.renderengine.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reference-counted cache with a byte budget. Entries nobody holds are kept for reuse and
+ * evicted least-recently-used first once the budget is exceeded. Knows nothing about GL;
+ * the owner releases native objects in {@link Evictor#onEvict}.
+ */
+public class ResourceCache<K, V> {
+
+    public interface Evictor<K, V> {
+        /**
+         * @param clearing true when called from {@link #clear()}, i.e. the whole cache is dropped.
+         */
+        void onEvict(K key, V value, boolean clearing);
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long bytes;
+        int refCount;
+
+        Entry(V value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Evictor<K, V> evictor;
+    private final long budgetBytes;
+    private long sizeBytes;
+
+    public ResourceCache(long budgetBytes, Evictor<K, V> evictor) {
+        this.budgetBytes = budgetBytes;
+        this.evictor = evictor;
+    }
+
+    /**
+     * @return the cached value with its reference count incremented, or null on a miss.
+     */
+    public V acquire(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.refCount++;
+        return entry.value;
+    }
+
+    /**
+     * Adds a value already held once by the caller. A previous value under the same key is
+     * evicted.
+     */
+    public V put(K key, V value, long bytes) {
+        Entry<V> entry = new Entry<>(value, bytes);
+        entry.refCount = 1;
+        Entry<V> previous = entries.put(key, entry);
+        if (previous != null) {
+            sizeBytes -= previous.bytes;
+            evictor.onEvict(key, previous.value, false);
+        }
+        sizeBytes += bytes;
+        trimToBudget();
+        return value;
+    }
+
+    /**
+     * Drops one reference. The entry stays cached and becomes evictable once unreferenced.
+     */
+    public void release(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.refCount == 0) {
+            return;
+        }
+        if (--entry.refCount == 0) {
+            trimToBudget();
+        }
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void clear() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> e = iterator.next();
+            iterator.remove();
+            evictor.onEvict(e.getKey(), e.getValue().value, true);
+        }
+        sizeBytes = 0;
+    }
+
+    // 被引用的条目不会被淘汰，因此总大小可能暂时超出预算
+    private void trimToBudget() {
+        if (sizeBytes <= budgetBytes) {
+            return;
+        }
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (sizeBytes > budgetBytes && iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> e = iterator.next();
+            Entry<V> entry = e.getValue();
+            if (entry.refCount > 0) {
+                continue;
+            }
+            iterator.remove();
+            sizeBytes -= entry.bytes;
+            evictor.onEvict(e.getKey(), entry.value, false);
+        }
+    }
+}
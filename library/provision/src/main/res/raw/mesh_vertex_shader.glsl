@@ -1,10 +1,12 @@
 #version 300 es
 
-uniform mat4 uPatchX[6];
-uniform mat4 uPatchY[6];
-uniform mat4 uPatchR[6];
-uniform mat4 uPatchG[6];
-uniform mat4 uPatchB[6];
+// 静态控制点，只在首次绘制时上传：xy 为基准位置，zw 为偏移幅度
+uniform vec4 uPoints[12];
+uniform float uSpeeds[12];
+// 三组配色，每组 12 个控制点
+uniform vec3 uColors[36];
+// x: 动画时间, y: lightProgress
+uniform vec2 uFrame;
 
 out vec3 vColor;
 
@@ -15,8 +17,9 @@ int row = 4;
 int col = 3;
 float f_row_minus_one = float(3);
 float f_col_minus_one = float(2);
-vec3 calcPosition;
-vec3 calcColor;
+float colorChangeDuration = 0.8;
+float gridDx = 1.0 / 3.0;
+float gridDy = 1.0 / 2.0;
 
 mat4 HM = mat4(
     2.0, -2.0, 1.0, 1.0,
@@ -34,6 +37,17 @@ float getPatchPoint(mat4 patchAttri, vec4 HM_mul_uVec, vec4 vVec) {
     return dot(HM_T * patchAttri * HM_mul_uVec, vVec);
 }
 
+// 与 MeshGradient.gridPoint 一致
+vec2 gridPosition(int index) {
+    vec4 point = uPoints[index];
+    float angle = uSpeeds[index] * uFrame.x + float(index);
+    return point.xy + point.zw * vec2(cos(angle), sin(angle)) * uFrame.y;
+}
+
+vec3 gridColor(int index, int phase, int next, float fraction) {
+    return mix(uColors[phase * 12 + index], uColors[next * 12 + index], fraction);
+}
+
 void main() {
     int vertexIndex = gl_VertexID;
     int patchRow = vertexIndex / (meshCount2 * 2);
@@ -47,11 +61,44 @@ void main() {
     vec4 uVec = vec4(u * u * u, u * u, u, 1.0);
     vec4 vVec = vec4(v * v * v, v * v, v, 1.0);
     vec4 HM_mul_uVec = HM * uVec;
-    float x = getPatchPoint(uPatchX[patchIndex], HM_mul_uVec, vVec);
-    float y = getPatchPoint(uPatchY[patchIndex], HM_mul_uVec, vVec);
-    float r = getPatchPoint(uPatchR[patchIndex], HM_mul_uVec, vVec);
-    float g = getPatchPoint(uPatchG[patchIndex], HM_mul_uVec, vVec);
-    float b = getPatchPoint(uPatchB[patchIndex], HM_mul_uVec, vVec);
+
+    int i00 = patchRow * col + patchCol;
+    int i10 = i00 + col;
+    int i01 = i00 + 1;
+    int i11 = i10 + 1;
+    vec2 p00 = gridPosition(i00);
+    vec2 p10 = gridPosition(i10);
+    vec2 p01 = gridPosition(i01);
+    vec2 p11 = gridPosition(i11);
+
+    float phaseTime = uFrame.x / colorChangeDuration;
+    int phase = int(mod(floor(phaseTime), 3.0));
+    int next = int(mod(float(phase + 1), 3.0));
+    float fraction = fract(phaseTime);
+    vec3 c00 = gridColor(i00, phase, next, fraction);
+    vec3 c10 = gridColor(i10, phase, next, fraction);
+    vec3 c01 = gridColor(i01, phase, next, fraction);
+    vec3 c11 = gridColor(i11, phase, next, fraction);
+
+    mat4 patchX = mat4(
+        p00.x, p10.x, 0.0, 0.0,
+        p01.x, p11.x, 0.0, 0.0,
+        gridDy, gridDy, 0.0, 0.0,
+        gridDy, gridDy, 0.0, 0.0);
+    mat4 patchY = mat4(
+        p00.y, p10.y, gridDx, gridDx,
+        p01.y, p11.y, gridDx, gridDx,
+        0.0, 0.0, 0.0, 0.0,
+        0.0, 0.0, 0.0, 0.0);
+    mat4 patchR = mat4(c00.r, c10.r, 0.0, 0.0, c01.r, c11.r, 0.0, 0.0, vec4(0.0), vec4(0.0));
+    mat4 patchG = mat4(c00.g, c10.g, 0.0, 0.0, c01.g, c11.g, 0.0, 0.0, vec4(0.0), vec4(0.0));
+    mat4 patchB = mat4(c00.b, c10.b, 0.0, 0.0, c01.b, c11.b, 0.0, 0.0, vec4(0.0), vec4(0.0));
+
+    float x = getPatchPoint(patchX, HM_mul_uVec, vVec);
+    float y = getPatchPoint(patchY, HM_mul_uVec, vVec);
+    float r = getPatchPoint(patchR, HM_mul_uVec, vVec);
+    float g = getPatchPoint(patchG, HM_mul_uVec, vVec);
+    float b = getPatchPoint(patchB, HM_mul_uVec, vVec);
     float t = (float(patchCol) * f_meshCount_minus_one + float(m)) / (f_col_minus_one * f_meshCount_minus_one);
     float s = (float(patchRow) * f_meshCount_minus_one + float(n)) / (f_row_minus_one * f_meshCount_minus_one);
     float z = 1.0f - ((s - 0.5f) * (s - 0.5f) + (t - 0.5f) * (t - 0.5f));
@@ -61,4 +108,4 @@ void main() {
 
     vColor = vec3(r, g, b);
     gl_Position = vec4(x, y, z, 1.0);
-}
\ No newline at end of file
+}
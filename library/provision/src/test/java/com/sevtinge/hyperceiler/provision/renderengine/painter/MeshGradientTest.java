@@ -0,0 +1,212 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.provision.renderengine.painter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class MeshGradientTest {
+    private static final float EPS = 1e-5f;
+    private static final float[] TIMES = {0f, 0.13f, 0.8f, 1.7f, 2.4f, 5.55f, 37.9f};
+    private static final float[] LIGHT = {0f, 0.35f, 1f};
+
+    @Test
+    public void matchesLegacyCpuPatches() {
+        final float[] out = new float[6];
+        for (float time : TIMES) {
+            for (float light : LIGHT) {
+                final LegacyMesh legacy = new LegacyMesh(time, light);
+                for (int vertex = 0; vertex < MeshGradient.vertexCount(); vertex++) {
+                    MeshGradient.evaluate(vertex, time, light, out);
+                    final float[] expected = legacy.vertex(vertex);
+                    for (int k = 0; k < 6; k++) {
+                        assertEquals("t=" + time + " light=" + light + " vertex=" + vertex + " k=" + k,
+                                expected[k], out[k], EPS);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void staticTablesMatchLegacyArrays() {
+        for (int i = 0; i < MeshGradient.ROW; i++) {
+            for (int j = 0; j < MeshGradient.COL; j++) {
+                final int index = i * MeshGradient.COL + j;
+                assertEquals(LegacyMesh.POS[i][j][0], MeshGradient.POINTS[index * 4], 0f);
+                assertEquals(LegacyMesh.POS[i][j][1], MeshGradient.POINTS[index * 4 + 1], 0f);
+                assertEquals(LegacyMesh.OFFSET[i][j][0], MeshGradient.POINTS[index * 4 + 2], 0f);
+                assertEquals(LegacyMesh.OFFSET[i][j][1], MeshGradient.POINTS[index * 4 + 3], 0f);
+                for (int phase = 0; phase < MeshGradient.PHASE_COUNT; phase++) {
+                    for (int k = 0; k < 3; k++) {
+                        assertEquals(LegacyMesh.COLOR[phase][i][j][k],
+                                MeshGradient.COLORS[(phase * MeshGradient.POINT_COUNT + index) * 3 + k], 0f);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void colorPhaseWrapsAround() {
+        final float[] a = new float[5];
+        final float[] b = new float[5];
+        final float cycle = MeshGradient.COLOR_CHANGE_DURATION * MeshGradient.PHASE_COUNT;
+        for (int index = 0; index < MeshGradient.POINT_COUNT; index++) {
+            MeshGradient.gridPoint(index, 0.3f, 0f, a);
+            MeshGradient.gridPoint(index, 0.3f + cycle, 0f, b);
+            for (int k = 2; k < 5; k++) {
+                assertEquals(a[k], b[k], EPS);
+            }
+        }
+    }
+
+    @Test
+    public void shaderDeclaresSameLayout() throws IOException {
+        final Path shader = Paths.get("src/main/res/raw/mesh_vertex_shader.glsl");
+        // Gradle 单元测试的工作目录为模块目录
+        assertTrue(shader.toAbsolutePath().toString(), Files.exists(shader));
+        final String source = new String(Files.readAllBytes(shader), StandardCharsets.UTF_8);
+        assertTrue(source.contains("uniform vec4 uPoints[" + MeshGradient.POINT_COUNT + "];"));
+        assertTrue(source.contains("uniform float uSpeeds[" + MeshGradient.POINT_COUNT + "];"));
+        assertTrue(source.contains("uniform vec3 uColors[" + MeshGradient.POINT_COUNT * MeshGradient.PHASE_COUNT + "];"));
+        assertTrue(source.contains("int meshCount = " + MeshGradient.MESH_COUNT + ";"));
+        assertTrue(source.contains("int row = " + MeshGradient.ROW + ";"));
+        assertTrue(source.contains("int col = " + MeshGradient.COL + ";"));
+        assertTrue(source.contains("float colorChangeDuration = " + MeshGradient.COLOR_CHANGE_DURATION + ";"));
+    }
+
+    /**
+     * 迁移到顶点着色器之前 MeshPainter 在 CPU 上计算 patch 矩阵、再由旧着色器插值的流程。
+     */
+    private static final class LegacyMesh {
+        static final float[][][] POS = {
+                {{-0.13288257f, -0.10790368f}, {0.4611737f, -0.1700916f}, {1.0275089f, -0.091076486f}},
+                {{-0.42142856f, 0.33333334f}, {0.18926783f, 0.2973898f}, {1.1269336f, 0.30594763f}},
+                {{-0.14455517f, 0.77676916f}, {0.4782918f, 0.8555784f}, {1.0663207f, 0.82287407f}},
+                {{-0.52f, 1.06f}, {0.26379257f, 1.1222811f}, {1.0f, 1.3062867f}}
+        };
+        static final float[][][] OFFSET = {
+                {{0.0f, 0.0f}, {0.1f, 0.0f}, {0.0f, 0.0f}},
+                {{0.0f, 0.1f}, {0.15f, 0.22f}, {0.0f, 0.1f}},
+                {{0.04f, 0.19f}, {0.2f, 0.12f}, {0.0f, 0.1f}},
+                {{0.0f, 0.0f}, {0.1f, 0.0f}, {0.0f, 0.0f}}
+        };
+        static final float[] SPEEDS = {1.0f, 1.0f, 1.0f, 1.0f, 0.5f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f};
+        static final float[][][][] COLOR = {
+                {{{0.8392157f, 0.8666667f, 1.0f}, {0.72156864f, 0.7529412f, 1.0f}, {1.0f, 0.9137255f, 0.8980392f}}, {{1.0f, 0.8509804f, 0.8f}, {1.0f, 0.72156864f, 0.7607843f}, {1.0f, 0.94509804f, 0.8980392f}}, {{0.8f, 0.8666667f, 1.0f}, {1.0f, 0.972549f, 0.92156863f}, {1.0f, 0.8745098f, 0.81960785f}}, {{0.99607843f, 0.9137255f, 0.85490197f}, {1.0f, 0.91764706f, 0.85882354f}, {1.0f, 0.9490196f, 0.92156863f}}},
+                {{{1.0f, 0.94509804f, 0.7764706f}, {0.72156864f, 0.7529412f, 1.0f}, {1.0f, 0.9137255f, 0.8980392f}}, {{1.0f, 0.8509804f, 0.8f}, {0.6392157f, 0.69803923f, 1.0f}, {1.0f, 0.94509804f, 0.8980392f}}, {{0.8f, 0.8666667f, 1.0f}, {1.0f, 0.972549f, 0.92156863f}, {1.0f, 0.8745098f, 0.81960785f}}, {{0.99607843f, 0.9137255f, 0.85490197f}, {1.0f, 0.91764706f, 0.85882354f}, {1.0f, 0.9490196f, 0.92156863f}}},
+                {{{1.0f, 0.7411765f, 0.8666667f}, {1.0f, 0.9098039f, 0.8784314f}, {0.9019608f, 0.85882354f, 1.0f}}, {{1.0f, 0.8509804f, 0.8f}, {0.81960785f, 0.72156864f, 1.0f}, {1.0f, 0.94509804f, 0.8980392f}}, {{1.0f, 0.9254902f, 0.8980392f}, {1.0f, 0.7294118f, 0.7019608f}, {1.0f, 0.8745098f, 0.81960785f}}, {{0.99607843f, 0.9137255f, 0.85490197f}, {1.0f, 0.91764706f, 0.85882354f}, {1.0f, 0.9490196f, 0.92156863f}}}
+        };
+        static final float[][] HM = {{2.0f, -2.0f, 1.0f, 1.0f}, {-3.0f, 3.0f, -2.0f, -1.0f}, {0.0f, 0.0f, 1.0f, 0.0f}, {1.0f, 0.0f, 0.0f, 0.0f}};
+        static final float[][] HM_T = {{2.0f, -3.0f, 0.0f, 1.0f}, {-2.0f, 3.0f, 0.0f, 0.0f}, {1.0f, -2.0f, 1.0f, 0.0f}, {1.0f, -1.0f, 0.0f, 0.0f}};
+
+        // 旧版上传的 uPatchX/Y/R/G/B，每个 patch 一个列主序 mat4
+        final float[][][][] patches = new float[6][5][][];
+
+        LegacyMesh(float time, float lightProgress) {
+            final int row = 4, col = 3;
+            final float[][][] color = new float[row][col][3];
+            final float phaseTime = time / 0.8f;
+            final int phase = (int) Math.floor(phaseTime) % 3;
+            for (int i = 0; i < row; i++) {
+                for (int j = 0; j < col; j++) {
+                    for (int k = 0; k < 3; k++) {
+                        final float from = COLOR[phase][i][j][k];
+                        color[i][j][k] = from + phaseTime % 1.0f * (COLOR[(phase + 1) % 3][i][j][k] - from);
+                    }
+                }
+            }
+            final float dx = 1.0f / (row - 1.0f);
+            final float dy = 1.0f / (col - 1.0f);
+            final float[][][] grid = new float[row][col][];
+            for (int i = 0; i < row; i++) {
+                for (int j = 0; j < col; j++) {
+                    final int index = col * i + j;
+                    final float angle = SPEEDS[index] * time + index;
+                    grid[i][j] = new float[]{
+                            POS[i][j][0] + OFFSET[i][j][0] * (float) Math.cos(angle) * lightProgress,
+                            OFFSET[i][j][1] * (float) Math.sin(angle) * lightProgress + POS[i][j][1],
+                            color[i][j][0], color[i][j][1], color[i][j][2]
+                    };
+                }
+            }
+            for (int i = 0; i < row - 1; i++) {
+                for (int j = 0; j < col - 1; j++) {
+                    final float[] p00 = grid[i][j], p10 = grid[i + 1][j], p01 = grid[i][j + 1], p11 = grid[i + 1][j + 1];
+                    final float[][][] patch = patches[i * (col - 1) + j];
+                    patch[0] = new float[][]{{p00[0], p10[0], 0, 0}, {p01[0], p11[0], 0, 0}, {dy, dy, 0, 0}, {dy, dy, 0, 0}};
+                    patch[1] = new float[][]{{p00[1], p10[1], dx, dx}, {p01[1], p11[1], dx, dx}, {0, 0, 0, 0}, {0, 0, 0, 0}};
+                    for (int k = 0; k < 3; k++) {
+                        patch[2 + k] = new float[][]{{p00[2 + k], p10[2 + k], 0, 0}, {p01[2 + k], p11[2 + k], 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}};
+                    }
+                }
+            }
+        }
+
+        // 旧版顶点着色器的 main()
+        float[] vertex(int vertexIndex) {
+            final int meshCount = 20, meshCount2 = 400;
+            final int patchRow = vertexIndex / (meshCount2 * 2);
+            final int patchCol = vertexIndex - meshCount2 * 2 * patchRow >= meshCount2 ? 1 : 0;
+            final int patchIndex = patchRow * 2 + patchCol;
+            final int inPatch = vertexIndex - meshCount2 * patchIndex;
+            final int m = inPatch / meshCount;
+            final int n = inPatch % meshCount;
+            final float u = m / 19f;
+            final float v = n / 19f;
+            final float[] uVec = {u * u * u, u * u, u, 1.0f};
+            final float[] vVec = {v * v * v, v * v, v, 1.0f};
+            final float[] hmU = mul(HM, uVec);
+            final float[] result = new float[6];
+            final float[][][] patch = patches[patchIndex];
+            result[0] = -1f + 2f * dot(mul(HM_T, mul(patch[0], hmU)), vVec);
+            result[1] = -1f + 2f * dot(mul(HM_T, mul(patch[1], hmU)), vVec);
+            final float t = (patchCol * 19f + m) / (2f * 19f);
+            final float s = (patchRow * 19f + n) / (3f * 19f);
+            result[2] = -1f + 2f * (1.0f - ((s - 0.5f) * (s - 0.5f) + (t - 0.5f) * (t - 0.5f)));
+            for (int k = 0; k < 3; k++) {
+                result[3 + k] = dot(mul(HM_T, mul(patch[2 + k], hmU)), vVec);
+            }
+            return result;
+        }
+
+        private static float[] mul(float[][] m, float[] vec) {
+            final float[] result = new float[4];
+            for (int c = 0; c < 4; c++) {
+                for (int r = 0; r < 4; r++) {
+                    result[r] += m[c][r] * vec[c];
+                }
+            }
+            return result;
+        }
+
+        private static float dot(float[] a, float[] b) {
+            return a[0] * b[0] + a[1] * b[1] + a[2] * b[2] + a[3] * b[3];
+        }
+    }
+}
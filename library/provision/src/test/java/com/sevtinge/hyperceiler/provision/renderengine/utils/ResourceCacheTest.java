@@ -0,0 +1,134 @@
+/*
+ * This file is part of HyperCeiler.
+
+ * HyperCeiler is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+
+ * Copyright (C) 2023-2025 HyperCeiler Contributions
+ */
+package com.sevtinge.hyperceiler.provision.renderengine.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResourceCacheTest {
+
+    private final List<String> evicted = new ArrayList<>();
+    private final List<Boolean> clearingFlags = new ArrayList<>();
+    private final ResourceCache<String, Object> cache = new ResourceCache<>(100, (key, value, clearing) -> {
+        evicted.add(key);
+        clearingFlags.add(clearing);
+    });
+
+    @Test
+    public void acquireMissReturnsNull() {
+        assertNull(cache.acquire("a"));
+    }
+
+    @Test
+    public void acquireReturnsCachedValue() {
+        Object value = new Object();
+        assertSame(value, cache.put("a", value, 10));
+        assertSame(value, cache.acquire("a"));
+        assertEquals(10, cache.getSizeBytes());
+    }
+
+    @Test
+    public void referencedEntriesSurviveOverBudget() {
+        cache.put("held", new Object(), 60);
+        cache.put("other", new Object(), 60);
+        // 两者都被引用，暂时超出预算
+        assertEquals(120, cache.getSizeBytes());
+        assertTrue(evicted.isEmpty());
+
+        cache.release("other");
+        assertEquals(List.of("other"), evicted);
+        assertEquals(60, cache.getSizeBytes());
+        assertNotNull(cache.acquire("held"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedFirst() {
+        cache.put("a", new Object(), 40);
+        cache.put("b", new Object(), 40);
+        cache.release("a");
+        cache.release("b");
+        // 重新访问 a，使 b 成为最久未使用
+        cache.acquire("a");
+        cache.release("a");
+
+        cache.put("c", new Object(), 40);
+        assertEquals(List.of("b"), evicted);
+        assertEquals(80, cache.getSizeBytes());
+    }
+
+    @Test
+    public void entryStaysHeldUntilEveryReferenceIsReleased() {
+        Object shader = new Object();
+        cache.put("shader", shader, 50);
+        cache.acquire("shader");
+
+        cache.release("shader");
+        cache.put("big", new Object(), 80);
+        cache.release("big");
+        assertEquals(List.of("big"), evicted);
+
+        cache.release("shader");
+        cache.put("big2", new Object(), 80);
+        assertEquals(List.of("big", "shader"), evicted);
+    }
+
+    @Test
+    public void extraReleasesAreIgnored() {
+        Object value = new Object();
+        cache.put("a", value, 10);
+        cache.release("a");
+        cache.release("a");
+        cache.release("missing");
+        // 仍在缓存中，再次获取后不会因多余的 release 被淘汰
+        assertSame(value, cache.acquire("a"));
+        cache.put("b", new Object(), 95);
+        assertTrue(evicted.isEmpty());
+    }
+
+    @Test
+    public void putReplacesPreviousValue() {
+        cache.put("a", new Object(), 30);
+        Object replacement = new Object();
+        cache.put("a", replacement, 20);
+        assertEquals(List.of("a"), evicted);
+        assertEquals(List.of(false), clearingFlags);
+        assertEquals(20, cache.getSizeBytes());
+        assertSame(replacement, cache.acquire("a"));
+    }
+
+    @Test
+    public void clearEvictsEverythingIncludingHeldEntries() {
+        cache.put("a", new Object(), 10);
+        cache.put("b", new Object(), 10);
+        cache.release("b");
+        cache.clear();
+        assertEquals(List.of("a", "b"), evicted);
+        assertEquals(List.of(true, true), clearingFlags);
+        assertEquals(0, cache.getSizeBytes());
+        assertNull(cache.acquire("a"));
+    }
+}
@@ -73,5 +73,6 @@ include(
     ":library:provision",
     ":library:common",
     ":library:processor",
-    ":library:hidden-api"
+    ":library:hidden-api",
+    ":library:benchmark"
 )